@@ -1,12 +1,15 @@
 package com.mukundsankaran.bookit;
 
+import com.mukundsankaran.bookit.config.BookItProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableConfigurationProperties(BookItProperties.class)
 @EnableScheduling
 public class Application {
 
@@ -0,0 +1,205 @@
+package com.mukundsankaran.bookit.allocation;
+
+import com.mukundsankaran.bookit.model.Row;
+import com.mukundsankaran.bookit.model.RowAvailability;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * Reusable buffers for a search for seats: the summaries of the rows searched and the seats chosen for the group.
+ * Each thread has its own buffers, and once they have grown to the number of rows with free seats a search allocates
+ * nothing. The summaries are only valid until the thread starts its next search, so they must not be kept or handed
+ * to another thread. Summaries that have to leave the node are packed into an array of six values a row.
+ */
+public final class AvailabilityBuffer {
+
+    private static final ThreadLocal<AvailabilityBuffer> BUFFERS = ThreadLocal.withInitial(AvailabilityBuffer::new);
+
+    /**
+     * Number of values a packed summary takes: row ID, free seats, sequence start, run length, largest run and
+     * orphaned seats
+     */
+    private static final int PACKED_FIELDS = 6;
+
+    /**
+     * Number of values a range of chosen seats takes: row ID, position of the first seat and number of seats
+     */
+    private static final int RANGE_FIELDS = 3;
+
+    private final GapHistogram gaps = new GapHistogram();
+
+    /**
+     * Every summary made so far, reused in turn by each search
+     */
+    private final List<RowAvailability> summaries = new ArrayList<>();
+
+    /**
+     * Summaries of the rows of the current search
+     */
+    private final List<RowAvailability> availability = new ArrayList<>();
+
+    /**
+     * Seats chosen in the current search, as ranges of consecutive seats in a row, in the order they were chosen
+     */
+    private int[] ranges = new int[RANGE_FIELDS * 8];
+
+    private int numRanges;
+
+    private int numSeatsChosen;
+
+    private AvailabilityBuffer() {
+        // No op
+    }
+
+    /**
+     * Start a search on this thread
+     *
+     * @return the buffers of this thread, emptied
+     */
+    public static AvailabilityBuffer forThread() {
+        AvailabilityBuffer buffer = BUFFERS.get();
+        buffer.availability.clear();
+        buffer.numRanges = 0;
+        buffer.numSeatsChosen = 0;
+        return buffer;
+    }
+
+    /**
+     * Summarize a row with free seats and add it to the search
+     *
+     * @param row - the row
+     * @param numSeats - the number of seats requested
+     * @param strategy - the strategy that chooses where the seats would sit in the row
+     * @return the summary of the row
+     */
+    public RowAvailability add(Row row, int numSeats, SeatAllocationStrategy strategy) {
+
+        gaps.count(row);
+        int start = gaps.getLargestRun() >= numSeats ? strategy.findSequenceStart(row, gaps, numSeats) : -1;
+
+        return add(row.getId(), row.getFreeSeats(), start, start >= 0 ? row.emptyRunLength(start) : 0,
+                gaps.getLargestRun(), gaps.getOrphanedSeats());
+    }
+
+    /**
+     * Add the summaries packed on another node to the search
+     *
+     * @param packed - the summaries, see pack
+     */
+    public void unpack(int[] packed) {
+        for(int offset = 0; offset + PACKED_FIELDS <= packed.length; offset += PACKED_FIELDS) {
+            add(packed[offset], packed[offset + 1], packed[offset + 2], packed[offset + 3], packed[offset + 4], packed[offset + 5]);
+        }
+    }
+
+    /**
+     * Copy the summaries of the current search into a single array, to be sent to another node
+     *
+     * @return the summaries, six values a row
+     */
+    public int[] pack() {
+
+        int[] packed = new int[PACKED_FIELDS * availability.size()];
+        int offset = 0;
+
+        for(RowAvailability summary : availability) {
+            packed[offset++] = summary.getRowId();
+            packed[offset++] = summary.getFreeSeats();
+            packed[offset++] = summary.getSequenceStart();
+            packed[offset++] = summary.getRunLength();
+            packed[offset++] = summary.getLargestRun();
+            packed[offset++] = summary.getOrphanedSeats();
+        }
+
+        return packed;
+    }
+
+    private RowAvailability add(int rowId, int freeSeats, int sequenceStart, int runLength, int largestRun, int orphanedSeats) {
+
+        RowAvailability summary;
+        if(availability.size() < summaries.size()) {
+            summary = summaries.get(availability.size());
+        } else {
+            summary = new RowAvailability();
+            summaries.add(summary);
+        }
+
+        summary.setRowId(rowId);
+        summary.setFreeSeats(freeSeats);
+        summary.setSequenceStart(sequenceStart);
+        summary.setRunLength(runLength);
+        summary.setLargestRun(largestRun);
+        summary.setOrphanedSeats(orphanedSeats);
+
+        availability.add(summary);
+
+        return summary;
+    }
+
+    /**
+     * @return the summaries of the rows added to the current search, in the order they were added
+     */
+    public List<RowAvailability> getAvailability() {
+        return availability;
+    }
+
+    /**
+     * Choose consecutive seats of a row for the group. Seats that carry on from the last seats chosen in the same row
+     * extend that range.
+     *
+     * @param rowId - the row
+     * @param start - the position of the first seat
+     * @param numSeats - the number of seats
+     */
+    public void choose(int rowId, int start, int numSeats) {
+
+        int last = RANGE_FIELDS * (numRanges - 1);
+
+        if(numRanges > 0 && ranges[last] == rowId && ranges[last + 1] + ranges[last + 2] == start) {
+            ranges[last + 2] += numSeats;
+        } else {
+            if(ranges.length < RANGE_FIELDS * (numRanges + 1)) {
+                ranges = Arrays.copyOf(ranges, 2 * ranges.length);
+            }
+            int next = RANGE_FIELDS * numRanges++;
+            ranges[next] = rowId;
+            ranges[next + 1] = start;
+            ranges[next + 2] = numSeats;
+        }
+
+        numSeatsChosen += numSeats;
+    }
+
+    /**
+     * @return the number of seats chosen for the group so far
+     */
+    public int getNumSeatsChosen() {
+        return numSeatsChosen;
+    }
+
+    /**
+     * Build the seat map of a hold from the seats chosen. This is the only allocation of the assignment, and it is
+     * kept by the hold.
+     *
+     * @return the positions of the seats chosen, by row, in the order they were chosen
+     */
+    public Map<Integer, List<Integer>> toSeatMap() {
+
+        Map<Integer, List<Integer>> seatMap = new LinkedHashMap<>();
+
+        for(int range = 0; range < RANGE_FIELDS * numRanges; range += RANGE_FIELDS) {
+            List<Integer> seats = seatMap.computeIfAbsent(ranges[range], rowId -> new ArrayList<>());
+            for(int seatId = ranges[range + 1]; seatId < ranges[range + 1] + ranges[range + 2]; seatId++) {
+                seats.add(seatId);
+            }
+        }
+
+        return seatMap;
+    }
+}
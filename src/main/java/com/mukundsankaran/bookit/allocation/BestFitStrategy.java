@@ -0,0 +1,77 @@
+package com.mukundsankaran.bookit.allocation;
+
+import com.mukundsankaran.bookit.model.Row;
+import com.mukundsankaran.bookit.model.RowAvailability;
+
+import java.util.List;
+
+/**
+ * Created by mukund on 4/26/18.
+ *
+ * Seats a group in the run of empty seats it fits best, anywhere in the venue, so that long runs are kept for large
+ * groups late in the sale. A run the group fills exactly is best. Otherwise the shortest run that still leaves two or
+ * more seats together is taken, and a run that would leave a single orphaned seat is the last resort. The group sits at
+ * the start of the run, so what is left stays in one piece.
+ *
+ * Among rows that fit equally well, the row whose empty seats are already the most broken up is filled first, which
+ * keeps whole rows whole for as long as possible.
+ */
+public class BestFitStrategy implements SeatAllocationStrategy {
+
+    @Override
+    public int findSequenceStart(Row row, GapHistogram gaps, int numSeats) {
+
+        int length = gaps.bestFit(numSeats);
+
+        if(length < 0) {
+            return -1;
+        }
+
+        // The front-most run of that length
+        for(int start = row.nextEmptySeat(0); start >= 0; ) {
+            int runLength = row.emptyRunLength(start);
+            if(runLength == length) {
+                return start;
+            }
+            start = row.nextEmptySeat(start + runLength);
+        }
+
+        return -1;
+    }
+
+    @Override
+    public void orderRows(List<RowAvailability> availability, int numSeats) {
+
+        // A single comparator rather than a chain, which would be built again for every search
+        availability.sort((a, b) -> {
+
+            int byFit = Integer.compare(fitPenalty(a, numSeats), fitPenalty(b, numSeats));
+            if(byFit != 0) {
+                return byFit;
+            }
+
+            int byLargestRun = Double.compare((double) a.getLargestRun() / a.getFreeSeats(), (double) b.getLargestRun() / b.getFreeSeats());
+            if(byLargestRun != 0) {
+                return byLargestRun;
+            }
+
+            return Integer.compare(a.getRowId(), b.getRowId());
+        });
+    }
+
+    /**
+     * Rank how well a group fits a row, lower is better
+     */
+    private static int fitPenalty(RowAvailability candidate, int numSeats) {
+
+        // Rows without a run the group fits in are only used for staggered seating, so they go last
+        if(candidate.getSequenceStart() < 0) {
+            return Integer.MAX_VALUE;
+        }
+
+        int leftOver = candidate.getRunLength() - numSeats;
+
+        // Orphaning a seat is worse than leaving any run that can still be sold to a group
+        return leftOver == 1 ? Integer.MAX_VALUE - 1 : leftOver;
+    }
+}
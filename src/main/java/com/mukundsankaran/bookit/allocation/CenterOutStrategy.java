@@ -0,0 +1,48 @@
+package com.mukundsankaran.bookit.allocation;
+
+import com.mukundsankaran.bookit.model.Row;
+import com.mukundsankaran.bookit.model.RowAvailability;
+
+import java.util.List;
+
+/**
+ * Created by mukund on 4/26/18.
+ *
+ * Seats a group as close to the middle of a row as it fits, in the row nearest to the stage
+ */
+public class CenterOutStrategy implements SeatAllocationStrategy {
+
+    @Override
+    public int findSequenceStart(Row row, GapHistogram gaps, int numSeats) {
+
+        // Where the group would sit if the row were empty
+        int center = (row.getSeats().length - numSeats) / 2;
+
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+
+        for(int start = row.nextEmptySeat(0); start >= 0; ) {
+
+            int length = row.emptyRunLength(start);
+
+            if(length >= numSeats) {
+                // The position in this run nearest to the center
+                int position = Math.max(start, Math.min(center, start + length - numSeats));
+                int distance = Math.abs(position - center);
+                if(distance < bestDistance) {
+                    best = position;
+                    bestDistance = distance;
+                }
+            }
+
+            start = row.nextEmptySeat(start + length);
+        }
+
+        return best;
+    }
+
+    @Override
+    public void orderRows(List<RowAvailability> availability, int numSeats) {
+        // Already front to rear
+    }
+}
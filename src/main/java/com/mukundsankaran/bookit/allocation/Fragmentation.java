@@ -0,0 +1,24 @@
+package com.mukundsankaran.bookit.allocation;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * How broken up the empty seats of a venue are. If every row's empty seats are in one run, fragmentation is 0, and
+ * it approaches 1 as the empty seats scatter into runs too short for groups. It is the share of empty seats that lie
+ * outside the longest run of their row.
+ */
+public final class Fragmentation {
+
+    private Fragmentation() {
+        // No op
+    }
+
+    /**
+     * @param largestRuns - the sum over rows of the longest run of empty seats in the row
+     * @param emptySeats - the number of empty seats in those rows
+     * @return the fragmentation, 0 if there are no empty seats
+     */
+    public static double of(long largestRuns, long emptySeats) {
+        return emptySeats == 0 ? 0 : 1 - (double) largestRuns / emptySeats;
+    }
+}
@@ -0,0 +1,24 @@
+package com.mukundsankaran.bookit.allocation;
+
+import com.mukundsankaran.bookit.model.Row;
+import com.mukundsankaran.bookit.model.RowAvailability;
+
+import java.util.List;
+
+/**
+ * Created by mukund on 4/26/18.
+ *
+ * Seats a group in the first seats that fit, in the row nearest to the stage
+ */
+public class FrontFirstStrategy implements SeatAllocationStrategy {
+
+    @Override
+    public int findSequenceStart(Row row, GapHistogram gaps, int numSeats) {
+        return row.findSequenceStart(numSeats);
+    }
+
+    @Override
+    public void orderRows(List<RowAvailability> availability, int numSeats) {
+        // Already front to rear
+    }
+}
@@ -0,0 +1,131 @@
+package com.mukundsankaran.bookit.allocation;
+
+import com.mukundsankaran.bookit.model.Row;
+
+import java.util.Arrays;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * The runs of empty seats in a row, counted by length. A run ends at an occupied seat, an aisle or a gap, so each run
+ * is a place where a group up to its length can still sit together.
+ */
+public final class GapHistogram {
+
+    /**
+     * Number of runs of each length, indexed by length
+     */
+    private int[] runs = new int[1];
+
+    private int emptySeats;
+
+    private int largestRun;
+
+    /**
+     * Constructs an empty GapHistogram, to be reused by counting one row after another
+     */
+    public GapHistogram() {
+        // No op
+    }
+
+    /**
+     * Count the runs of empty seats in a row
+     *
+     * @param row - the row
+     * @return the histogram of the row
+     */
+    public static GapHistogram of(Row row) {
+        return new GapHistogram().count(row);
+    }
+
+    /**
+     * Count the runs of empty seats in a row, replacing the counts of the previous row. The counts only grow when the
+     * row is longer than every row counted before.
+     *
+     * @param row - the row
+     * @return this histogram
+     */
+    public GapHistogram count(Row row) {
+
+        int maxLength = row.getSeats().length;
+
+        if(runs.length <= maxLength) {
+            runs = new int[maxLength + 1];
+        } else {
+            Arrays.fill(runs, 0, largestRun + 1, 0);
+        }
+
+        emptySeats = 0;
+        largestRun = 0;
+
+        for(int start = row.nextEmptySeat(0); start >= 0; ) {
+            int length = row.emptyRunLength(start);
+            runs[length]++;
+            emptySeats += length;
+            largestRun = Math.max(largestRun, length);
+            start = row.nextEmptySeat(start + length);
+        }
+
+        return this;
+    }
+
+    /**
+     * @param length - a run length
+     * @return the number of runs of exactly that length
+     */
+    public int getRuns(int length) {
+        return length <= largestRun ? runs[length] : 0;
+    }
+
+    public int getEmptySeats() {
+        return emptySeats;
+    }
+
+    public int getLargestRun() {
+        return largestRun;
+    }
+
+    /**
+     * Empty seats with an occupied seat, an aisle or a gap on both sides. They can only ever be sold one at a time.
+     *
+     * @return the number of orphaned seats
+     */
+    public int getOrphanedSeats() {
+        return getRuns(1);
+    }
+
+    /**
+     * Find the run length a group fits best. An exact fit is best, then the smallest run that leaves at least two
+     * seats, and a run that would orphan a single seat only when there is nothing else.
+     *
+     * @param numSeats - the number of seats in the group
+     * @return the run length, or -1 if no run is long enough
+     */
+    public int bestFit(int numSeats) {
+
+        if(numSeats > largestRun) {
+            return -1;
+        }
+
+        if(getRuns(numSeats) > 0) {
+            return numSeats;
+        }
+
+        for(int length = numSeats + 2; length <= largestRun; length++) {
+            if(runs[length] > 0) {
+                return length;
+            }
+        }
+
+        return numSeats + 1;
+    }
+
+    @Override
+    public String toString() {
+        return "GapHistogram{" +
+                "runs=" + Arrays.toString(runs) +
+                ", emptySeats=" + emptySeats +
+                ", largestRun=" + largestRun +
+                '}';
+    }
+}
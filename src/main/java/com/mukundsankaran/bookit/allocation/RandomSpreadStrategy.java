@@ -0,0 +1,49 @@
+package com.mukundsankaran.bookit.allocation;
+
+import com.mukundsankaran.bookit.model.Row;
+import com.mukundsankaran.bookit.model.RowAvailability;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Created by mukund on 4/26/18.
+ *
+ * Seats a group anywhere it fits, chosen at random, so that groups spread across the venue rather than filling it
+ * from one end
+ */
+public class RandomSpreadStrategy implements SeatAllocationStrategy {
+
+    @Override
+    public int findSequenceStart(Row row, GapHistogram gaps, int numSeats) {
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        int chosen = -1;
+        int positions = 0;
+
+        for(int start = row.nextEmptySeat(0); start >= 0; ) {
+
+            int length = row.emptyRunLength(start);
+
+            if(length >= numSeats) {
+                // Choose uniformly among every position the group fits in, without collecting them
+                int runPositions = length - numSeats + 1;
+                positions += runPositions;
+                if(random.nextInt(positions) < runPositions) {
+                    chosen = start + random.nextInt(runPositions);
+                }
+            }
+
+            start = row.nextEmptySeat(start + length);
+        }
+
+        return chosen;
+    }
+
+    @Override
+    public void orderRows(List<RowAvailability> availability, int numSeats) {
+        Collections.shuffle(availability, ThreadLocalRandom.current());
+    }
+}
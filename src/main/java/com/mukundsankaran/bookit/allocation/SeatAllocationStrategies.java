@@ -0,0 +1,37 @@
+package com.mukundsankaran.bookit.allocation;
+
+import com.mukundsankaran.bookit.model.SeatAllocation;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Created by mukund on 4/26/18.
+ *
+ * The strategy behind each way of allocating seats
+ */
+public final class SeatAllocationStrategies {
+
+    private static final Map<SeatAllocation, SeatAllocationStrategy> STRATEGIES = new EnumMap<>(SeatAllocation.class);
+
+    static {
+        STRATEGIES.put(SeatAllocation.FRONT_FIRST, new FrontFirstStrategy());
+        STRATEGIES.put(SeatAllocation.CENTER_OUT, new CenterOutStrategy());
+        STRATEGIES.put(SeatAllocation.BEST_FIT, new BestFitStrategy());
+        STRATEGIES.put(SeatAllocation.RANDOM_SPREAD, new RandomSpreadStrategy());
+    }
+
+    private SeatAllocationStrategies() {
+        // No op
+    }
+
+    /**
+     * Get the strategy for a way of allocating seats
+     *
+     * @param seatAllocation - the way seats are allocated
+     * @return the strategy
+     */
+    public static SeatAllocationStrategy get(SeatAllocation seatAllocation) {
+        return STRATEGIES.get(seatAllocation);
+    }
+}
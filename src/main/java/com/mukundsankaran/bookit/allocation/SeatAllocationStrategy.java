@@ -0,0 +1,38 @@
+package com.mukundsankaran.bookit.allocation;
+
+import com.mukundsankaran.bookit.model.Row;
+import com.mukundsankaran.bookit.model.RowAvailability;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Created by mukund on 4/26/18.
+ *
+ * Chooses the best available seats for a group. A strategy is asked where a group would sit in each row, on the node
+ * that owns the row, and then in which order the rows are tried. Groups that do not fit contiguously in any row are
+ * spread over the rows in that same order.
+ *
+ * Strategies are sent to the data nodes with every search, so they need to be serializable and hold no state.
+ */
+public interface SeatAllocationStrategy extends Serializable {
+
+    /**
+     * Choose where a group of contiguous seats would sit in a row. Runs of empty seats can be walked with
+     * Row.nextEmptySeat and Row.emptyRunLength.
+     *
+     * @param row - a row with at least "numSeats" free seats
+     * @param gaps - the runs of empty seats in the row
+     * @param numSeats - the number of seats in the group
+     * @return the position of the first seat of the group, or -1 if the group does not fit contiguously
+     */
+    int findSequenceStart(Row row, GapHistogram gaps, int numSeats);
+
+    /**
+     * Order the rows in which seats are tried, best first
+     *
+     * @param availability - a summary of each row with free seats, ordered from front to rear, reordered in place
+     * @param numSeats - the number of seats in the group
+     */
+    void orderRows(List<RowAvailability> availability, int numSeats);
+}
@@ -1,12 +1,20 @@
 package com.mukundsankaran.bookit.config;
 
+import com.mukundsankaran.bookit.model.Engine;
+import com.mukundsankaran.bookit.model.SeatAllocation;
 import com.mukundsankaran.bookit.model.SeatingPlan;
+import org.apache.ignite.transactions.TransactionConcurrency;
+import org.apache.ignite.transactions.TransactionIsolation;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import com.mukundsankaran.bookit.validation.Enum;
 
 /**
@@ -19,12 +27,92 @@ import com.mukundsankaran.bookit.validation.Enum;
 @Validated
 public class BookItProperties {
 
+    /**
+     * Where the seat inventory is kept, in the data grid or in this JVM alone
+     */
+    @Enum(enumClass = Engine.class, ignoreCase = true)
+    private String engine = "grid";
+
     public final Venue venue = new Venue();
 
+    public final Ids ids = new Ids();
+
+    public final Feed feed = new Feed();
+
+    public final Transactions transactions = new Transactions();
+
+    public final Persistence persistence = new Persistence();
+
+    public final Journal journal = new Journal();
+
+    public final Export export = new Export();
+
+    public final RateLimit rateLimit = new RateLimit();
+
+    public final Idempotency idempotency = new Idempotency();
+
+    public final Consistency consistency = new Consistency();
+
+    public final Profiler profiler = new Profiler();
+
+    public final Lookup lookup = new Lookup();
+
+    public String getEngine() {
+        return engine;
+    }
+
+    public void setEngine(String engine) {
+        this.engine = engine;
+    }
+
     public Venue getVenue(){
         return venue;
     }
 
+    public Ids getIds(){
+        return ids;
+    }
+
+    public Feed getFeed(){
+        return feed;
+    }
+
+    public Transactions getTransactions(){
+        return transactions;
+    }
+
+    public Persistence getPersistence(){
+        return persistence;
+    }
+
+    public Journal getJournal(){
+        return journal;
+    }
+
+    public Export getExport(){
+        return export;
+    }
+
+    public RateLimit getRateLimit(){
+        return rateLimit;
+    }
+
+    public Consistency getConsistency(){
+        return consistency;
+    }
+
+    public Profiler getProfiler(){
+        return profiler;
+    }
+
+    public Lookup getLookup(){
+        return lookup;
+    }
+
+    public Idempotency getIdempotency(){
+        return idempotency;
+    }
+
     public static class Venue {
 
         @Min(1)
@@ -38,6 +126,12 @@ public class BookItProperties {
         @Enum(enumClass = SeatingPlan.class, ignoreCase = true)
         private String seatingPlan;
 
+        /**
+         * How seats are allocated for events that do not choose for themselves
+         */
+        @Enum(enumClass = SeatAllocation.class, ignoreCase = true)
+        private String seatAllocation = "front_first";
+
         @NotBlank
         private String defaultEventName;
 
@@ -45,6 +139,28 @@ public class BookItProperties {
         @Max(30)
         private int holdExpiryTimeInMinutes;
 
+        /**
+         * Time for which seats are held for each customer class, by class name, classes not listed get the time above
+         * or the time set by the event
+         */
+        private Map<String, Integer> holdExpiryTimeInMinutesByCustomerClass = new HashMap<>();
+
+        /**
+         * Customer classes whose holds go ahead of holds for other customers
+         */
+        private List<String> priorityCustomerClasses = new ArrayList<>();
+
+        /**
+         * JSON file defining the events at the venue, the venue properties above define a single event when unset
+         */
+        private String definitionFile;
+
+        /**
+         * Time after which an event or row that was loaded but never booked is evicted from memory
+         */
+        @Min(1)
+        private int coldEventExpiryTimeInMinutes = 30;
+
         public @Min(1) @Max(Integer.MAX_VALUE) int getCapacity() {
             return capacity;
         }
@@ -69,6 +185,14 @@ public class BookItProperties {
             this.seatingPlan = seatingPlan;
         }
 
+        public String getSeatAllocation() {
+            return seatAllocation;
+        }
+
+        public void setSeatAllocation(String seatAllocation) {
+            this.seatAllocation = seatAllocation;
+        }
+
         public @NotBlank String getDefaultEventName() {
             return defaultEventName;
         }
@@ -84,6 +208,648 @@ public class BookItProperties {
         public void setHoldExpiryTimeInMinutes(@Min(1) @Max(30) int holdExpiryTimeInMinutes) {
             this.holdExpiryTimeInMinutes = holdExpiryTimeInMinutes;
         }
+
+        public Map<String, Integer> getHoldExpiryTimeInMinutesByCustomerClass() {
+            return holdExpiryTimeInMinutesByCustomerClass;
+        }
+
+        public void setHoldExpiryTimeInMinutesByCustomerClass(Map<String, Integer> holdExpiryTimeInMinutesByCustomerClass) {
+            this.holdExpiryTimeInMinutesByCustomerClass = holdExpiryTimeInMinutesByCustomerClass;
+        }
+
+        public List<String> getPriorityCustomerClasses() {
+            return priorityCustomerClasses;
+        }
+
+        public void setPriorityCustomerClasses(List<String> priorityCustomerClasses) {
+            this.priorityCustomerClasses = priorityCustomerClasses;
+        }
+
+        public String getDefinitionFile() {
+            return definitionFile;
+        }
+
+        public void setDefinitionFile(String definitionFile) {
+            this.definitionFile = definitionFile;
+        }
+
+        public @Min(1) int getColdEventExpiryTimeInMinutes() {
+            return coldEventExpiryTimeInMinutes;
+        }
+
+        public void setColdEventExpiryTimeInMinutes(@Min(1) int coldEventExpiryTimeInMinutes) {
+            this.coldEventExpiryTimeInMinutes = coldEventExpiryTimeInMinutes;
+        }
+    }
+
+    public static class Ids {
+
+        /**
+         * Number of IDs each node reserves from a cluster-wide sequence at a time
+         */
+        @Min(1)
+        @Max(Integer.MAX_VALUE)
+        private int reserveSize = 1000;
+
+        public @Min(1) @Max(Integer.MAX_VALUE) int getReserveSize() {
+            return reserveSize;
+        }
+
+        public void setReserveSize(@Min(1) @Max(Integer.MAX_VALUE) int reserveSize) {
+            this.reserveSize = reserveSize;
+        }
+    }
+
+    public static class Feed {
+
+        /**
+         * Interval at which coalesced seat map changes are pushed to subscribers
+         */
+        @Min(10)
+        @Max(60000)
+        private long flushIntervalInMillis = 250;
+
+        /**
+         * Maximum number of concurrent seat map subscribers on a node
+         */
+        @Min(1)
+        @Max(Integer.MAX_VALUE)
+        private int maxSubscribers = 10000;
+
+        /**
+         * Number of threads used to push seat map changes to subscribers
+         */
+        @Min(1)
+        @Max(256)
+        private int senderThreads = 4;
+
+        /**
+         * Time after which an idle subscription is closed, the client is expected to reconnect
+         */
+        @Min(1000)
+        private long subscriptionTimeoutInMillis = 1800000;
+
+        public @Min(10) @Max(60000) long getFlushIntervalInMillis() {
+            return flushIntervalInMillis;
+        }
+
+        public void setFlushIntervalInMillis(@Min(10) @Max(60000) long flushIntervalInMillis) {
+            this.flushIntervalInMillis = flushIntervalInMillis;
+        }
+
+        public @Min(1) @Max(Integer.MAX_VALUE) int getMaxSubscribers() {
+            return maxSubscribers;
+        }
+
+        public void setMaxSubscribers(@Min(1) @Max(Integer.MAX_VALUE) int maxSubscribers) {
+            this.maxSubscribers = maxSubscribers;
+        }
+
+        public @Min(1) @Max(256) int getSenderThreads() {
+            return senderThreads;
+        }
+
+        public void setSenderThreads(@Min(1) @Max(256) int senderThreads) {
+            this.senderThreads = senderThreads;
+        }
+
+        public @Min(1000) long getSubscriptionTimeoutInMillis() {
+            return subscriptionTimeoutInMillis;
+        }
+
+        public void setSubscriptionTimeoutInMillis(@Min(1000) long subscriptionTimeoutInMillis) {
+            this.subscriptionTimeoutInMillis = subscriptionTimeoutInMillis;
+        }
+    }
+
+    public static class Transactions {
+
+        /**
+         * Transaction policy for finding and holding seats
+         */
+        public final TransactionPolicy hold = new TransactionPolicy();
+
+        /**
+         * Transaction policy for reserving held seats
+         */
+        public final TransactionPolicy reserve = new TransactionPolicy();
+
+        /**
+         * Transaction policy for expiring holds
+         */
+        public final TransactionPolicy expire = new TransactionPolicy();
+
+        public TransactionPolicy getHold() {
+            return hold;
+        }
+
+        public TransactionPolicy getReserve() {
+            return reserve;
+        }
+
+        public TransactionPolicy getExpire() {
+            return expire;
+        }
+    }
+
+    public static class TransactionPolicy {
+
+        @Enum(enumClass = TransactionConcurrency.class, ignoreCase = true)
+        private String concurrency = TransactionConcurrency.PESSIMISTIC.name();
+
+        @Enum(enumClass = TransactionIsolation.class, ignoreCase = true)
+        private String isolation = TransactionIsolation.REPEATABLE_READ.name();
+
+        /**
+         * Number of times a transaction is retried after losing an optimistic conflict
+         */
+        @Min(0)
+        @Max(100)
+        private int maxRetries = 3;
+
+        public String getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(String concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public String getIsolation() {
+            return isolation;
+        }
+
+        public void setIsolation(String isolation) {
+            this.isolation = isolation;
+        }
+
+        public @Min(0) @Max(100) int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(@Min(0) @Max(100) int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+    }
+
+    public static class Persistence {
+
+        /**
+         * Whether reservations are written behind to a relational database
+         */
+        private boolean enabled;
+
+        @NotBlank
+        private String jdbcUrl = "jdbc:h2:mem:bookit;DB_CLOSE_DELAY=-1";
+
+        private String username = "";
+
+        private String password = "";
+
+        /**
+         * Maximum number of reservations written to the database in one batch
+         */
+        @Min(1)
+        @Max(Integer.MAX_VALUE)
+        private int writeBehindBatchSize = 512;
+
+        /**
+         * Maximum time a reservation waits before it is written to the database
+         */
+        @Min(1)
+        private long writeBehindFlushFrequencyInMillis = 5000;
+
+        /**
+         * Number of pending reservations that triggers a write ahead of the flush frequency
+         */
+        @Min(1)
+        @Max(Integer.MAX_VALUE)
+        private int writeBehindFlushSize = 10240;
+
+        /**
+         * Whether successive writes of the same reservation are merged into one
+         */
+        private boolean writeBehindCoalescing = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public @NotBlank String getJdbcUrl() {
+            return jdbcUrl;
+        }
+
+        public void setJdbcUrl(@NotBlank String jdbcUrl) {
+            this.jdbcUrl = jdbcUrl;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public @Min(1) @Max(Integer.MAX_VALUE) int getWriteBehindBatchSize() {
+            return writeBehindBatchSize;
+        }
+
+        public void setWriteBehindBatchSize(@Min(1) @Max(Integer.MAX_VALUE) int writeBehindBatchSize) {
+            this.writeBehindBatchSize = writeBehindBatchSize;
+        }
+
+        public @Min(1) long getWriteBehindFlushFrequencyInMillis() {
+            return writeBehindFlushFrequencyInMillis;
+        }
+
+        public void setWriteBehindFlushFrequencyInMillis(@Min(1) long writeBehindFlushFrequencyInMillis) {
+            this.writeBehindFlushFrequencyInMillis = writeBehindFlushFrequencyInMillis;
+        }
+
+        public @Min(1) @Max(Integer.MAX_VALUE) int getWriteBehindFlushSize() {
+            return writeBehindFlushSize;
+        }
+
+        public void setWriteBehindFlushSize(@Min(1) @Max(Integer.MAX_VALUE) int writeBehindFlushSize) {
+            this.writeBehindFlushSize = writeBehindFlushSize;
+        }
+
+        public boolean isWriteBehindCoalescing() {
+            return writeBehindCoalescing;
+        }
+
+        public void setWriteBehindCoalescing(boolean writeBehindCoalescing) {
+            this.writeBehindCoalescing = writeBehindCoalescing;
+        }
+    }
+
+    public static class Journal {
+
+        /**
+         * Whether holds, reservations and expiries are recorded in an audit journal
+         */
+        private boolean enabled;
+
+        /**
+         * Directory the journal files are written to
+         */
+        @NotBlank
+        private String directory = "./data/journal";
+
+        /**
+         * Maximum number of records waiting to be written, callers wait when it is reached
+         */
+        @Min(1)
+        @Max(Integer.MAX_VALUE)
+        private int queueCapacity = 65536;
+
+        /**
+         * Maximum number of records written to the journal in one batch
+         */
+        @Min(1)
+        @Max(Integer.MAX_VALUE)
+        private int batchSize = 1024;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public @NotBlank String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(@NotBlank String directory) {
+            this.directory = directory;
+        }
+
+        public @Min(1) @Max(Integer.MAX_VALUE) int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(@Min(1) @Max(Integer.MAX_VALUE) int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public @Min(1) @Max(Integer.MAX_VALUE) int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(@Min(1) @Max(Integer.MAX_VALUE) int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class Export {
+
+        /**
+         * Number of partitions of the reservation cache scanned at the same time
+         */
+        @Min(1)
+        @Max(256)
+        private int parallelism = 4;
+
+        /**
+         * Number of reservations fetched from a node in one page of a scan
+         */
+        @Min(1)
+        @Max(Integer.MAX_VALUE)
+        private int pageSize = 1024;
+
+        /**
+         * Compressed size at which a scan writes out what it has exported so far
+         */
+        @Min(1)
+        @Max(Integer.MAX_VALUE)
+        private int chunkSizeInBytes = 1048576;
+
+        public @Min(1) @Max(256) int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(@Min(1) @Max(256) int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public @Min(1) @Max(Integer.MAX_VALUE) int getPageSize() {
+            return pageSize;
+        }
+
+        public void setPageSize(@Min(1) @Max(Integer.MAX_VALUE) int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        public @Min(1) @Max(Integer.MAX_VALUE) int getChunkSizeInBytes() {
+            return chunkSizeInBytes;
+        }
+
+        public void setChunkSizeInBytes(@Min(1) @Max(Integer.MAX_VALUE) int chunkSizeInBytes) {
+            this.chunkSizeInBytes = chunkSizeInBytes;
+        }
+    }
+
+    public static class RateLimit {
+
+        /**
+         * Whether attempts to hold seats are limited per customer and per client
+         */
+        private boolean enabled = true;
+
+        /**
+         * Number of attempts to hold seats a customer or client may make per minute, across the cluster
+         */
+        @Min(1)
+        @Max(Integer.MAX_VALUE)
+        private int attemptsPerMinute = 10;
+
+        /**
+         * Number of attempts a customer or client may make in quick succession on a node
+         */
+        @Min(1)
+        @Max(Integer.MAX_VALUE)
+        private int burst = 5;
+
+        /**
+         * Interval at which attempts counted on a node are added to the cluster-wide counters
+         */
+        @Min(100)
+        @Max(60000)
+        private long syncIntervalInMillis = 1000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public @Min(1) @Max(Integer.MAX_VALUE) int getAttemptsPerMinute() {
+            return attemptsPerMinute;
+        }
+
+        public void setAttemptsPerMinute(@Min(1) @Max(Integer.MAX_VALUE) int attemptsPerMinute) {
+            this.attemptsPerMinute = attemptsPerMinute;
+        }
+
+        public @Min(1) @Max(Integer.MAX_VALUE) int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(@Min(1) @Max(Integer.MAX_VALUE) int burst) {
+            this.burst = burst;
+        }
+
+        public @Min(100) @Max(60000) long getSyncIntervalInMillis() {
+            return syncIntervalInMillis;
+        }
+
+        public void setSyncIntervalInMillis(@Min(100) @Max(60000) long syncIntervalInMillis) {
+            this.syncIntervalInMillis = syncIntervalInMillis;
+        }
+    }
+
+    public static class Idempotency {
+
+        /**
+         * Time for which the outcome of a request is kept, a retry after that is treated as a new request
+         */
+        @Min(1)
+        @Max(1440)
+        private int requestTtlInMinutes = 10;
+
+        public @Min(1) @Max(1440) int getRequestTtlInMinutes() {
+            return requestTtlInMinutes;
+        }
+
+        public void setRequestTtlInMinutes(@Min(1) @Max(1440) int requestTtlInMinutes) {
+            this.requestTtlInMinutes = requestTtlInMinutes;
+        }
+    }
+
+    public static class Consistency {
+
+        /**
+         * Whether seat inventory is checked in the background
+         */
+        private boolean enabled = true;
+
+        /**
+         * Whether drift found on two checks in a row is repaired
+         */
+        private boolean repair = true;
+
+        /**
+         * Interval between checks of the seat inventory
+         */
+        @Min(1000)
+        @Max(Integer.MAX_VALUE)
+        private long checkIntervalInMillis = 60000;
+
+        /**
+         * Number of partitions of the hold and reservation caches scanned at the same time
+         */
+        @Min(1)
+        @Max(256)
+        private int parallelism = 4;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isRepair() {
+            return repair;
+        }
+
+        public void setRepair(boolean repair) {
+            this.repair = repair;
+        }
+
+        public @Min(1000) @Max(Integer.MAX_VALUE) long getCheckIntervalInMillis() {
+            return checkIntervalInMillis;
+        }
+
+        public void setCheckIntervalInMillis(@Min(1000) @Max(Integer.MAX_VALUE) long checkIntervalInMillis) {
+            this.checkIntervalInMillis = checkIntervalInMillis;
+        }
+
+        public @Min(1) @Max(256) int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(@Min(1) @Max(256) int parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+
+    public static class Profiler {
+
+        /**
+         * Whether transactions are traced, with the keys they lock and the time each step takes
+         */
+        private boolean enabled = false;
+
+        /**
+         * Transactions that take at least this long are kept as slow transactions
+         */
+        @Min(0)
+        @Max(Integer.MAX_VALUE)
+        private long slowTransactionThresholdInMillis = 100;
+
+        /**
+         * Number of the most recent slow transactions kept
+         */
+        @Min(1)
+        @Max(10000)
+        private int maxSlowTransactions = 100;
+
+        /**
+         * Number of hot keys reported unless another number is asked for
+         */
+        @Min(1)
+        @Max(10000)
+        private int hotKeys = 10;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public @Min(0) @Max(Integer.MAX_VALUE) long getSlowTransactionThresholdInMillis() {
+            return slowTransactionThresholdInMillis;
+        }
+
+        public void setSlowTransactionThresholdInMillis(@Min(0) @Max(Integer.MAX_VALUE) long slowTransactionThresholdInMillis) {
+            this.slowTransactionThresholdInMillis = slowTransactionThresholdInMillis;
+        }
+
+        public @Min(1) @Max(10000) int getMaxSlowTransactions() {
+            return maxSlowTransactions;
+        }
+
+        public void setMaxSlowTransactions(@Min(1) @Max(10000) int maxSlowTransactions) {
+            this.maxSlowTransactions = maxSlowTransactions;
+        }
+
+        public @Min(1) @Max(10000) int getHotKeys() {
+            return hotKeys;
+        }
+
+        public void setHotKeys(@Min(1) @Max(10000) int hotKeys) {
+            this.hotKeys = hotKeys;
+        }
+    }
+
+    public static class Lookup {
+
+        /**
+         * Number of parts the reservations of each event are indexed in, so reservations for the same event do not all
+         * wait on one counter. Changing it loses track of the reservations already indexed.
+         */
+        @Min(1)
+        @Max(1024)
+        private int eventStripes = 16;
+
+        /**
+         * Number of reservations on a page unless another number is asked for
+         */
+        @Min(1)
+        @Max(10000)
+        private int pageSize = 100;
+
+        /**
+         * Largest number of reservations on a page
+         */
+        @Min(1)
+        @Max(10000)
+        private int maxPageSize = 1000;
+
+        public @Min(1) @Max(1024) int getEventStripes() {
+            return eventStripes;
+        }
+
+        public void setEventStripes(@Min(1) @Max(1024) int eventStripes) {
+            this.eventStripes = eventStripes;
+        }
+
+        public @Min(1) @Max(10000) int getPageSize() {
+            return pageSize;
+        }
+
+        public void setPageSize(@Min(1) @Max(10000) int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        public @Min(1) @Max(10000) int getMaxPageSize() {
+            return maxPageSize;
+        }
+
+        public void setMaxPageSize(@Min(1) @Max(10000) int maxPageSize) {
+            this.maxPageSize = maxPageSize;
+        }
     }
 
 }
@@ -0,0 +1,22 @@
+package com.mukundsankaran.bookit.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * Marks beans that are only created when the seat inventory is kept in the data grid, "bookit.engine=grid", which is
+ * the default
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@ConditionalOnProperty(prefix = "bookit", name = "engine", havingValue = "grid", matchIfMissing = true)
+public @interface ConditionalOnGridEngine {
+}
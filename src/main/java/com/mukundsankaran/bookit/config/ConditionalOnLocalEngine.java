@@ -0,0 +1,21 @@
+package com.mukundsankaran.bookit.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * Marks beans that are only created when the seat inventory is kept in this JVM alone, "bookit.engine=local"
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@ConditionalOnProperty(prefix = "bookit", name = "engine", havingValue = "local")
+public @interface ConditionalOnLocalEngine {
+}
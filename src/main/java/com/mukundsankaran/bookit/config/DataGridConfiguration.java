@@ -1,6 +1,12 @@
 package com.mukundsankaran.bookit.config;
 
+import com.mukundsankaran.bookit.grid.ColdEntryExpiryPolicy;
+import com.mukundsankaran.bookit.grid.GridCaches;
 import com.mukundsankaran.bookit.model.*;
+import com.mukundsankaran.bookit.service.ContentionProfiler;
+import com.mukundsankaran.bookit.store.EventCacheStore;
+import com.mukundsankaran.bookit.store.ReservationCacheStore;
+import com.mukundsankaran.bookit.store.RowCacheStore;
 import org.apache.ignite.Ignite;
 import org.apache.ignite.IgniteException;
 import org.apache.ignite.IgniteLogger;
@@ -14,6 +20,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import javax.cache.configuration.FactoryBuilder;
+import javax.cache.expiry.CreatedExpiryPolicy;
+import javax.cache.expiry.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Created by mukund on 4/12/18.
  *
@@ -22,6 +35,7 @@ import org.springframework.context.annotation.Configuration;
  */
 
 @Configuration
+@ConditionalOnGridEngine
 public class DataGridConfiguration {
 
     private final Logger logger = LoggerFactory.getLogger(DataGridConfiguration.class);
@@ -41,12 +55,42 @@ public class DataGridConfiguration {
         IgniteLogger log = new Slf4jLogger(logger);
         igniteConfiguration.setGridLogger(log);
 
-        // Cache Configuration
+        if(logger.isDebugEnabled()){
+            logger.debug("Ignite Configuration Complete.");
+        }
+
+        return igniteConfiguration;
+    }
+
+    @Bean(destroyMethod = "close")
+    Ignite ignite(IgniteConfiguration igniteConfiguration) throws IgniteException {
+
+        final Ignite ignite = Ignition.getOrStart(igniteConfiguration);
+
+        if(logger.isDebugEnabled()) {
+            logger.debug("Ignite Started!");
+        }
+
+        return ignite;
+    }
+
+    /**
+     * Caches are not part of the Ignite configuration, so the node starts without them. Each cache is created the
+     * first time it is used, or when the grid is warmed up at startup, whichever comes first.
+     */
+    @Bean
+    GridCaches gridCaches(Ignite ignite, BookItProperties bookItProperties, VenueDefinition venueDefinition, ContentionProfiler contentionProfiler) {
+
+        // Events and rows are loaded from the venue definition when first used, and evicted again if they are never booked
+        ColdEntryExpiryPolicy coldEntryExpiryPolicy = new ColdEntryExpiryPolicy(bookItProperties.getVenue().getColdEventExpiryTimeInMinutes());
 
         // This cache holds all events at the venue
         CacheConfiguration<Long, Event> eventCacheConfig = new CacheConfiguration<>();
         eventCacheConfig.setAtomicityMode(CacheAtomicityMode.TRANSACTIONAL);
         eventCacheConfig.setName(CacheName.EVENTS.name());
+        eventCacheConfig.setCacheStoreFactory(FactoryBuilder.factoryOf(new EventCacheStore(venueDefinition)));
+        eventCacheConfig.setReadThrough(true);
+        eventCacheConfig.setExpiryPolicyFactory(FactoryBuilder.factoryOf(coldEntryExpiryPolicy));
 
         if(logger.isDebugEnabled()){
             logger.debug("Configuring Ignite Cache '{}'.", CacheName.EVENTS.name());
@@ -56,6 +100,9 @@ public class DataGridConfiguration {
         CacheConfiguration<Integer, Row> rowCacheConfiguration = new CacheConfiguration<>();
         rowCacheConfiguration.setAtomicityMode(CacheAtomicityMode.TRANSACTIONAL);
         rowCacheConfiguration.setName(CacheName.ROWS.name());
+        rowCacheConfiguration.setCacheStoreFactory(FactoryBuilder.factoryOf(new RowCacheStore(venueDefinition)));
+        rowCacheConfiguration.setReadThrough(true);
+        rowCacheConfiguration.setExpiryPolicyFactory(FactoryBuilder.factoryOf(coldEntryExpiryPolicy));
 
         if(logger.isDebugEnabled()){
             logger.debug("Configuring Ignite Cache '{}'.", CacheName.ROWS.name());
@@ -75,32 +122,64 @@ public class DataGridConfiguration {
         reservationCacheConfig.setAtomicityMode(CacheAtomicityMode.TRANSACTIONAL);
         reservationCacheConfig.setName(CacheName.RESERVATIONS.name());
 
+        // Reservations are written behind to the database in batches, so making a reservation never waits on it.
+        // The store batches writes itself, Ignite's write-behind cannot share transactions with the other caches.
+        BookItProperties.Persistence persistence = bookItProperties.getPersistence();
+        if(persistence.isEnabled()) {
+            reservationCacheConfig.setCacheStoreFactory(FactoryBuilder.factoryOf(new ReservationCacheStore(
+                    persistence.getJdbcUrl(), persistence.getUsername(), persistence.getPassword(),
+                    persistence.getWriteBehindBatchSize(), persistence.getWriteBehindFlushFrequencyInMillis(),
+                    persistence.getWriteBehindFlushSize(), persistence.isWriteBehindCoalescing())));
+            reservationCacheConfig.setReadThrough(true);
+            reservationCacheConfig.setWriteThrough(true);
+        }
+
         if(logger.isDebugEnabled()){
             logger.debug("Configuring Ignite Cache '{}'.", CacheName.RESERVATIONS.name());
         }
 
-        igniteConfiguration.setCacheConfiguration(eventCacheConfig, rowCacheConfiguration, holdCacheConfiguration, reservationCacheConfig);
+        // This cache indexes reservations by customer, event and seat. It is updated in the same transaction as the
+        // reservation.
+        CacheConfiguration<ReservationIndexKey, Object> reservationIndexCacheConfig = new CacheConfiguration<>();
+        reservationIndexCacheConfig.setAtomicityMode(CacheAtomicityMode.TRANSACTIONAL);
+        reservationIndexCacheConfig.setName(CacheName.RESERVATION_INDEX.name());
 
         if(logger.isDebugEnabled()){
-            logger.debug("Ignite Configuration Complete.");
+            logger.debug("Configuring Ignite Cache '{}'.", CacheName.RESERVATION_INDEX.name());
         }
 
-        return igniteConfiguration;
-    }
+        // This cache holds the number of attempts to hold seats made by each customer and client, per minute
+        CacheConfiguration<String, Long> rateLimitCacheConfig = new CacheConfiguration<>();
+        rateLimitCacheConfig.setAtomicityMode(CacheAtomicityMode.ATOMIC);
+        rateLimitCacheConfig.setName(CacheName.RATE_LIMITS.name());
+        rateLimitCacheConfig.setExpiryPolicyFactory(CreatedExpiryPolicy.factoryOf(new Duration(TimeUnit.MINUTES, 2)));
 
-    @Bean(destroyMethod = "close")
-    Ignite ignite(IgniteConfiguration igniteConfiguration) throws IgniteException {
+        if(logger.isDebugEnabled()){
+            logger.debug("Configuring Ignite Cache '{}'.", CacheName.RATE_LIMITS.name());
+        }
 
-        final Ignite ignite = Ignition.getOrStart(igniteConfiguration);
+        // This cache holds the outcome of each hold and reserve request with a request ID, so that retries get the same
+        // outcome. It is updated in the same transaction as the hold or reservation.
+        CacheConfiguration<String, Object> requestCacheConfig = new CacheConfiguration<>();
+        requestCacheConfig.setAtomicityMode(CacheAtomicityMode.TRANSACTIONAL);
+        requestCacheConfig.setName(CacheName.REQUESTS.name());
+        requestCacheConfig.setExpiryPolicyFactory(CreatedExpiryPolicy.factoryOf(
+                new Duration(TimeUnit.MINUTES, bookItProperties.getIdempotency().getRequestTtlInMinutes())));
 
-        if(logger.isDebugEnabled()) {
-            logger.debug("Ignite Started!");
+        if(logger.isDebugEnabled()){
+            logger.debug("Configuring Ignite Cache '{}'.", CacheName.REQUESTS.name());
         }
 
-        return ignite;
+        Map<CacheName, CacheConfiguration<?, ?>> configurations = new EnumMap<>(CacheName.class);
+        configurations.put(CacheName.EVENTS, eventCacheConfig);
+        configurations.put(CacheName.ROWS, rowCacheConfiguration);
+        configurations.put(CacheName.HOLDS, holdCacheConfiguration);
+        configurations.put(CacheName.RESERVATIONS, reservationCacheConfig);
+        configurations.put(CacheName.RESERVATION_INDEX, reservationIndexCacheConfig);
+        configurations.put(CacheName.RATE_LIMITS, rateLimitCacheConfig);
+        configurations.put(CacheName.REQUESTS, requestCacheConfig);
+
+        return new GridCaches(ignite, configurations, contentionProfiler);
     }
 
 }
-
-
-
@@ -0,0 +1,91 @@
+package com.mukundsankaran.bookit.config;
+
+import com.mukundsankaran.bookit.model.EventDefinition;
+import com.mukundsankaran.bookit.model.SeatingPlan;
+import com.mukundsankaran.bookit.model.VenueDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Created by mukund on 4/23/18.
+ *
+ * BookIt Venue Configuration
+ *
+ * The venue is defined by a CSV or JSON file when "bookit.venue.definitionFile" is set (see VenueDefinitionReader),
+ * and otherwise by a single event laid out from the venue properties. The first event in a file is the default event.
+ */
+
+@Configuration
+public class VenueConfiguration {
+
+    private final Logger logger = LoggerFactory.getLogger(VenueConfiguration.class);
+
+    @Bean
+    VenueDefinition venueDefinition(BookItProperties bookItProperties) throws IOException {
+
+        BookItProperties.Venue venue = bookItProperties.getVenue();
+
+        VenueDefinition venueDefinition = venue.getDefinitionFile() != null
+                ? VenueDefinitionReader.read(new File(venue.getDefinitionFile()))
+                : layOutVenue(venue.getDefaultEventName(), venue.getNumRows(), venue.getCapacity(), venue.getSeatingPlan());
+
+        if(logger.isDebugEnabled()) {
+            logger.debug("Venue defines {} events.", venueDefinition.getEvents().size());
+        }
+
+        return venueDefinition;
+    }
+
+    /**
+     * Lay out a single event based on the configured seating plan
+     *
+     * @param eventName - name of the event
+     * @param numRows - number of rows at the venue
+     * @param numSeats - number of seats at the venue
+     * @param seatingPlan - seating plan used at the venue
+     * @return the venue definition
+     */
+    private VenueDefinition layOutVenue(String eventName, int numRows, int numSeats, String seatingPlan) {
+
+        List<Integer> seatsInRows = new ArrayList<>();
+        int remainingRows = numRows;
+        int remainingSeats = numSeats;
+        int seatsInRow;
+        Random random = new Random();
+
+        while(remainingRows > 0 && remainingSeats > 0){
+
+            if(seatingPlan.equalsIgnoreCase(SeatingPlan.EQUAL.name())){
+                // Try to allocate equal number of seats to rows
+                seatsInRow = remainingSeats / remainingRows;
+            } else {
+                // Try to allocate random number of seats to rows
+                seatsInRow = random.nextInt(remainingSeats);
+            }
+
+            remainingRows--;
+            remainingSeats -= seatsInRow;
+
+            // Ensures no seat is left unassigned
+            if(remainingRows == 0 && remainingSeats > 0){
+                seatsInRow = remainingSeats;
+            }
+
+            seatsInRows.add(seatsInRow);
+        }
+
+        EventDefinition event = new EventDefinition(1, eventName, 1, seatsInRows.stream().mapToInt(Integer::intValue).toArray());
+
+        return new VenueDefinition(Collections.singletonList(event));
+    }
+
+}
@@ -0,0 +1,322 @@
+package com.mukundsankaran.bookit.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.mukundsankaran.bookit.model.EventDefinition;
+import com.mukundsankaran.bookit.model.RowLayout;
+import com.mukundsankaran.bookit.model.SeatAllocation;
+import com.mukundsankaran.bookit.model.VenueDefinition;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Created by mukund on 4/24/18.
+ *
+ * Reads venue definition files one row at a time, so reading a venue takes memory in proportion to its seats and
+ * never holds the file, or a parsed tree of a JSON event, in memory. Rows are numbered from 1 in the order they appear in the file. A row is either the
+ * number of seats in a plain row, or a row layout (see RowLayout).
+ *
+ * A CSV file lists each event followed by its rows, from front to rear. An event may choose how its seats are
+ * allocated (see SeatAllocation) and how many minutes its seats are held for, otherwise the venue defaults apply:
+ *
+ * event,1,sample
+ * allocation,best_fit
+ * holdExpiry,5
+ * row,SSSS|SSSSSS|SSSS
+ * row,AA..SSSSSS..AA
+ * row,14
+ *
+ * A JSON file lists the events with their rows:
+ *
+ * {"events": [{"id": 1, "name": "sample", "seatAllocation": "best_fit", "holdExpiryTimeInMinutes": 5, "rows": ["SSSS|SSSSSS|SSSS", "AA..SSSSSS..AA", 14]}]}
+ */
+final class VenueDefinitionReader {
+
+    private VenueDefinitionReader() {
+        // No op
+    }
+
+    /**
+     * Read a venue definition file, in CSV or JSON depending on its extension
+     *
+     * @param file - the venue definition file
+     * @return the venue definition
+     */
+    static VenueDefinition read(File file) throws IOException {
+
+        List<EventDefinition> events = file.getName().toLowerCase().endsWith(".csv") ? readCsv(file) : readJson(file);
+
+        return new VenueDefinition(events);
+    }
+
+    private static List<EventDefinition> readCsv(File file) throws IOException {
+
+        List<EventDefinition> events = new ArrayList<>();
+        EventBuilder event = null;
+        int nextRowId = 1;
+        int lineNumber = 0;
+
+        try(BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+
+            String line;
+            while((line = reader.readLine()) != null) {
+
+                lineNumber++;
+                line = line.trim();
+
+                if(line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                try {
+                    if(line.startsWith("event,")) {
+                        if(event != null) {
+                            events.add(event.build());
+                            nextRowId += event.numRows;
+                        }
+                        String[] fields = line.split(",", 3);
+                        if(fields.length < 3) {
+                            throw new IllegalArgumentException("An event needs an id and a name");
+                        }
+                        event = new EventBuilder(Long.parseLong(fields[1].trim()), fields[2].trim(), nextRowId);
+                    } else if(line.startsWith("allocation,")) {
+                        if(event == null) {
+                            throw new IllegalArgumentException("An allocation needs to follow an event");
+                        }
+                        event.setSeatAllocation(line.substring(11).trim());
+                    } else if(line.startsWith("holdExpiry,")) {
+                        if(event == null) {
+                            throw new IllegalArgumentException("A hold expiry needs to follow an event");
+                        }
+                        event.setHoldExpiryTimeInMinutes(Integer.parseInt(line.substring(11).trim()));
+                    } else if(line.startsWith("row,")) {
+                        if(event == null) {
+                            throw new IllegalArgumentException("A row needs to follow an event");
+                        }
+                        event.addRow(line.substring(4).trim());
+                    } else {
+                        throw new IllegalArgumentException("Expected an event, an allocation, a hold expiry or a row");
+                    }
+                } catch(IllegalArgumentException e) {
+                    throw new IllegalArgumentException(file + ":" + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+
+        if(event != null) {
+            events.add(event.build());
+        }
+
+        return events;
+    }
+
+    private static List<EventDefinition> readJson(File file) throws IOException {
+
+        List<EventDefinition> events = new ArrayList<>();
+        int nextRowId = 1;
+
+        try(JsonParser parser = new JsonFactory().createParser(file)) {
+
+            // Move to the events array
+            while(parser.nextToken() != null && !(parser.getCurrentToken() == JsonToken.START_ARRAY && "events".equals(parser.getCurrentName()))) {
+                // No op
+            }
+
+            // Read one event at a time
+            while(parser.nextToken() == JsonToken.START_OBJECT) {
+                try {
+                    EventBuilder event = readJsonEvent(parser, nextRowId);
+                    events.add(event.build());
+                    nextRowId += event.numRows;
+                } catch(IllegalArgumentException e) {
+                    throw new IllegalArgumentException(file + ":" + parser.getCurrentLocation().getLineNr() + ": " + e.getMessage(), e);
+                }
+            }
+        }
+
+        return events;
+    }
+
+    /**
+     * Read an event token by token, adding each row as it is read rather than building the event in memory first.
+     * Fields may come in any order, and fields that are not known are skipped.
+     *
+     * @param parser - the parser, at the start of the event, left at its end
+     * @param firstRowId - the row ID of the first row of the event
+     * @return the event
+     */
+    private static EventBuilder readJsonEvent(JsonParser parser, int firstRowId) throws IOException {
+
+        EventBuilder event = new EventBuilder(firstRowId);
+
+        while(parser.nextToken() == JsonToken.FIELD_NAME) {
+
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+
+            if(value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+
+            switch(field) {
+                case "id":
+                    event.setId(parser.getValueAsLong());
+                    break;
+                case "name":
+                    event.setName(parser.getValueAsString(""));
+                    break;
+                case "seatAllocation":
+                    event.setSeatAllocation(parser.getValueAsString(""));
+                    break;
+                case "holdExpiryTimeInMinutes":
+                    event.setHoldExpiryTimeInMinutes(parser.getValueAsInt());
+                    break;
+                case "rows":
+                    if(value != JsonToken.START_ARRAY) {
+                        throw new IllegalArgumentException("The rows of an event need to be an array");
+                    }
+                    while(parser.nextToken() != JsonToken.END_ARRAY) {
+                        if(!parser.getCurrentToken().isScalarValue()) {
+                            throw new IllegalArgumentException("A row needs to be a number of seats or a row layout");
+                        }
+                        event.addRow(parser.getText());
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+
+        return event;
+    }
+
+    /**
+     * Collects the rows of an event as they are read
+     */
+    private static final class EventBuilder {
+
+        private final int firstRowId;
+
+        private Long id;
+
+        private String name;
+
+        private int[] seatsInRows = new int[16];
+
+        private String[] rowLayouts;
+
+        private SeatAllocation seatAllocation;
+
+        private Integer holdExpiryTimeInMinutes;
+
+        private int numRows;
+
+        private EventBuilder(int firstRowId) {
+            this.firstRowId = firstRowId;
+        }
+
+        private EventBuilder(long id, String name, int firstRowId) {
+            this(firstRowId);
+            setId(id);
+            setName(name);
+        }
+
+        private void setId(long id) {
+            this.id = id;
+        }
+
+        private void setName(String name) {
+            if(name.isEmpty()) {
+                throw new IllegalArgumentException("An event needs a name");
+            }
+            this.name = name;
+        }
+
+        /**
+         * Set how seats are allocated for the event
+         *
+         * @param seatAllocation - the name of a SeatAllocation, in any case
+         */
+        private void setSeatAllocation(String seatAllocation) {
+            try {
+                this.seatAllocation = SeatAllocation.valueOf(seatAllocation.toUpperCase());
+            } catch(IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown seat allocation " + seatAllocation + ", expected one of " + Arrays.toString(SeatAllocation.values()));
+            }
+        }
+
+        /**
+         * Set how long seats of the event are held
+         *
+         * @param holdExpiryTimeInMinutes - the number of minutes
+         */
+        private void setHoldExpiryTimeInMinutes(int holdExpiryTimeInMinutes) {
+            if(holdExpiryTimeInMinutes < 1) {
+                throw new IllegalArgumentException("Seats need to be held for at least a minute");
+            }
+            this.holdExpiryTimeInMinutes = holdExpiryTimeInMinutes;
+        }
+
+        /**
+         * Add the next row of the event
+         *
+         * @param row - the number of seats in a plain row, or a row layout
+         */
+        private void addRow(String row) {
+
+            if(numRows == seatsInRows.length) {
+                seatsInRows = Arrays.copyOf(seatsInRows, numRows * 2);
+                if(rowLayouts != null) {
+                    rowLayouts = Arrays.copyOf(rowLayouts, numRows * 2);
+                }
+            }
+
+            if(!row.isEmpty() && Character.isDigit(row.charAt(0))) {
+                int seats = Integer.parseInt(row);
+                if(seats < 1) {
+                    throw new IllegalArgumentException("A row needs at least one seat");
+                }
+                seatsInRows[numRows] = seats;
+            } else {
+                RowLayout.validate(row);
+                seatsInRows[numRows] = RowLayout.countSeats(row);
+                // Plain rows are kept as a count
+                if(!RowLayout.isPlain(row)) {
+                    if(rowLayouts == null) {
+                        rowLayouts = new String[seatsInRows.length];
+                    }
+                    rowLayouts[numRows] = row;
+                }
+            }
+
+            numRows++;
+        }
+
+        private EventDefinition build() {
+
+            if(id == null || name == null) {
+                throw new IllegalArgumentException("An event needs an id and a name");
+            }
+
+            if(numRows == 0) {
+                throw new IllegalArgumentException("Event " + id + " needs at least one row");
+            }
+
+            EventDefinition event = new EventDefinition(id, name, firstRowId, Arrays.copyOf(seatsInRows, numRows),
+                    rowLayouts == null ? null : Arrays.copyOf(rowLayouts, numRows));
+            event.setSeatAllocation(seatAllocation);
+            event.setHoldExpiryTimeInMinutes(holdExpiryTimeInMinutes);
+
+            return event;
+        }
+    }
+}
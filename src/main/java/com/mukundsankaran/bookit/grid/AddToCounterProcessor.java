@@ -0,0 +1,39 @@
+package com.mukundsankaran.bookit.grid;
+
+import org.apache.ignite.cache.CacheEntryProcessor;
+
+import javax.cache.processor.MutableEntry;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * Entry processor that adds to a counter, creating it if it does not exist
+ */
+public class AddToCounterProcessor implements CacheEntryProcessor<String, Long, Long> {
+
+    /**
+     * Amount to add
+     */
+    private final long delta;
+
+    /**
+     * Constructs an AddToCounterProcessor
+     *
+     * @param delta - amount to add
+     */
+    public AddToCounterProcessor(long delta) {
+        this.delta = delta;
+    }
+
+    /**
+     * @return the value of the counter after the addition
+     */
+    @Override
+    public Long process(MutableEntry<String, Long> entry, Object... arguments) {
+
+        long value = (entry.exists() ? entry.getValue() : 0L) + delta;
+        entry.setValue(value);
+
+        return value;
+    }
+}
@@ -0,0 +1,46 @@
+package com.mukundsankaran.bookit.grid;
+
+import com.mukundsankaran.bookit.model.Event;
+import org.apache.ignite.cache.CacheEntryProcessor;
+
+import javax.cache.processor.MutableEntry;
+
+/**
+ * Created by mukund on 4/20/18.
+ *
+ * Entry processor that adjusts the number of seats available for an event
+ */
+public class AdjustSeatsAvailableProcessor implements CacheEntryProcessor<Long, Event, Integer> {
+
+    /**
+     * Number of seats to add, negative to remove seats
+     */
+    private final int delta;
+
+    /**
+     * Constructs an AdjustSeatsAvailableProcessor
+     *
+     * @param delta - number of seats to add, negative to remove seats
+     */
+    public AdjustSeatsAvailableProcessor(int delta) {
+        this.delta = delta;
+    }
+
+    /**
+     * @return the number of seats available after the adjustment
+     */
+    @Override
+    public Integer process(MutableEntry<Long, Event> entry, Object... arguments) {
+
+        Event event = entry.getValue();
+
+        if(event == null) {
+            return null;
+        }
+
+        event.setNumSeatsAvailable(event.getNumSeatsAvailable() + delta);
+        entry.setValue(event);
+
+        return event.getNumSeatsAvailable();
+    }
+}
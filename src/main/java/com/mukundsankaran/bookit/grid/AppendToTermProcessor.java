@@ -0,0 +1,27 @@
+package com.mukundsankaran.bookit.grid;
+
+import com.mukundsankaran.bookit.model.ReservationIndexKey;
+import org.apache.ignite.cache.CacheEntryProcessor;
+
+import javax.cache.processor.MutableEntry;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * Entry processor that makes room for one more reservation in a term of the reservation index, by counting it at the
+ * head of the term
+ */
+public class AppendToTermProcessor implements CacheEntryProcessor<ReservationIndexKey, Object, Long> {
+
+    /**
+     * @return the position of the new reservation in the term
+     */
+    @Override
+    public Long process(MutableEntry<ReservationIndexKey, Object> entry, Object... arguments) {
+
+        long position = entry.exists() ? (Long) entry.getValue() : 0L;
+        entry.setValue(position + 1);
+
+        return position;
+    }
+}
@@ -0,0 +1,114 @@
+package com.mukundsankaran.bookit.grid;
+
+import com.mukundsankaran.bookit.model.CacheName;
+import com.mukundsankaran.bookit.model.Row;
+import com.mukundsankaran.bookit.model.RowCheck;
+import com.mukundsankaran.bookit.model.SeatState;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.CachePeekMode;
+import org.apache.ignite.cache.affinity.Affinity;
+import org.apache.ignite.cluster.ClusterNode;
+import org.apache.ignite.lang.IgniteCallable;
+import org.apache.ignite.resources.IgniteInstanceResource;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * Compute job that checks the rows a node is primary for against the seats claimed by holds and reservations. Rows are
+ * read where they live and never locked, so checking does not hold up live traffic. Only rows already in memory are
+ * checked, a row that was never loaded or has expired is left in the store. A check of every row checked comes back,
+ * whether or not it drifted, so the caller can also check the event.
+ */
+public class CheckRowsJob implements IgniteCallable<List<RowCheck>> {
+
+    @IgniteInstanceResource
+    private transient Ignite ignite;
+
+    /**
+     * IDs of the rows to check
+     */
+    private final Collection<Integer> rowIds;
+
+    /**
+     * The state each claimed seat of the rows should be in, by row and seat
+     */
+    private final Map<Integer, Map<Integer, SeatState>> claims;
+
+    /**
+     * Constructs a CheckRowsJob
+     *
+     * @param rowIds - IDs of the rows to check, rows the node is no longer primary for are skipped
+     * @param claims - the state each claimed seat of the rows should be in, by row and seat
+     */
+    public CheckRowsJob(Collection<Integer> rowIds, Map<Integer, Map<Integer, SeatState>> claims) {
+        this.rowIds = rowIds;
+        this.claims = claims;
+    }
+
+    @Override
+    public List<RowCheck> call() {
+
+        IgniteCache<Integer, Row> rowCache = ignite.cache(CacheName.ROWS.name());
+        Affinity<Integer> affinity = ignite.affinity(CacheName.ROWS.name());
+        ClusterNode localNode = ignite.cluster().localNode();
+
+        List<RowCheck> checks = new ArrayList<>(rowIds.size());
+
+        for(Integer rowId : rowIds) {
+
+            if(!affinity.isPrimary(localNode, rowId)) {
+                continue;
+            }
+
+            // Loading the row would undo lazy loading and the expiry of cold rows
+            Row row = rowCache.localPeek(rowId, CachePeekMode.PRIMARY);
+
+            if(row != null) {
+                checks.add(check(row));
+            }
+        }
+
+        return checks;
+    }
+
+    /**
+     * Check a row. A claimed seat should be in the state its claim calls for, and a held seat nobody claims should be
+     * free. Reserved seats are left as they are, a reservation is never undone by a check.
+     */
+    private RowCheck check(Row row) {
+
+        Map<Integer, SeatState> rowClaims = claims.getOrDefault(row.getId(), Collections.emptyMap());
+        RowCheck check = new RowCheck(row.getId(), row.getFreeSeats());
+
+        int countedFreeSeats = 0;
+        int expectedFreeSeats = 0;
+
+        for(int seatId = 0; seatId < row.getSeats().length; seatId++) {
+
+            SeatState state = row.getSeat(seatId).getState();
+            SeatState expected = state == SeatState.RESERVED ? state : rowClaims.getOrDefault(seatId, SeatState.FREE);
+
+            if(state == SeatState.FREE) {
+                countedFreeSeats++;
+            }
+            if(expected == SeatState.FREE) {
+                expectedFreeSeats++;
+            }
+            if(expected != state) {
+                check.getDriftedSeats().put(seatId, expected);
+            }
+        }
+
+        check.setCountedFreeSeats(countedFreeSeats);
+        check.setExpectedFreeSeats(expectedFreeSeats);
+
+        return check;
+    }
+}
@@ -0,0 +1,44 @@
+package com.mukundsankaran.bookit.grid;
+
+import javax.cache.expiry.Duration;
+import javax.cache.expiry.ExpiryPolicy;
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by mukund on 4/23/18.
+ *
+ * Expiry policy for entries loaded through a read-through store that never writes back
+ *
+ * An entry expires a while after it is loaded, and is loaded again the next time it is used. Once an entry is
+ * updated it no longer matches the store and never expires. Reading an entry leaves its expiry as it was, since
+ * otherwise a read would put an expiry back on an updated entry.
+ */
+public class ColdEntryExpiryPolicy implements ExpiryPolicy, Serializable {
+
+    private final long expiryTimeInMinutes;
+
+    /**
+     * Constructs a ColdEntryExpiryPolicy
+     *
+     * @param expiryTimeInMinutes - time after which an entry that was loaded but never updated expires
+     */
+    public ColdEntryExpiryPolicy(long expiryTimeInMinutes) {
+        this.expiryTimeInMinutes = expiryTimeInMinutes;
+    }
+
+    @Override
+    public Duration getExpiryForCreation() {
+        return new Duration(TimeUnit.MINUTES, expiryTimeInMinutes);
+    }
+
+    @Override
+    public Duration getExpiryForAccess() {
+        return null;
+    }
+
+    @Override
+    public Duration getExpiryForUpdate() {
+        return Duration.ETERNAL;
+    }
+}
@@ -0,0 +1,87 @@
+package com.mukundsankaran.bookit.grid;
+
+import com.mukundsankaran.bookit.model.Row;
+import com.mukundsankaran.bookit.model.Seat;
+import com.mukundsankaran.bookit.model.SeatState;
+import org.apache.ignite.cache.CacheEntryProcessor;
+
+import javax.cache.processor.MutableEntry;
+
+/**
+ * Created by mukund on 4/20/18.
+ *
+ * Entry processor that holds up to a given number of empty seats in a row, in seat order. The seats filled are returned
+ * as runs of consecutive seats, so a group that sits together costs two values rather than one per seat.
+ */
+public class FillFreeSeatsProcessor implements CacheEntryProcessor<Integer, Row, int[]> {
+
+    /**
+     * No seats filled, shared rather than allocated for every full row
+     */
+    private static final int[] NONE = new int[0];
+
+    /**
+     * Maximum number of seats to fill
+     */
+    private final int maxSeats;
+
+    /**
+     * Constructs a FillFreeSeatsProcessor
+     *
+     * @param maxSeats - maximum number of seats to fill
+     */
+    public FillFreeSeatsProcessor(int maxSeats) {
+        this.maxSeats = maxSeats;
+    }
+
+    /**
+     * @return the seats that were filled, as pairs of the position of the first seat of a run and the number of seats
+     *         in the run, in seat order
+     */
+    @Override
+    public int[] process(MutableEntry<Integer, Row> entry, Object... arguments) {
+
+        Row row = entry.getValue();
+
+        if(row == null || row.getFreeSeats() == 0) {
+            return NONE;
+        }
+
+        Seat[] seats = row.getSeats();
+        int numSeats = Math.min(maxSeats, row.getFreeSeats());
+
+        // Count the runs first, so the result is the only array and is allocated at its final size
+        int numRuns = 0;
+        int count = 0;
+        for(int seatId = 0; seatId < seats.length && count < numSeats; seatId++) {
+            if(seats[seatId].getEmpty()) {
+                if(count == 0 || !seats[seatId - 1].getEmpty()) {
+                    numRuns++;
+                }
+                count++;
+            }
+        }
+
+        int[] runs = new int[2 * numRuns];
+        int run = -2;
+        int lastSeatId = -2;
+
+        for(int seatId = 0, filled = 0; seatId < seats.length && filled < count; seatId++) {
+            if(seats[seatId].getEmpty()) {
+                seats[seatId].setState(SeatState.HELD);
+                if(seatId != lastSeatId + 1) {
+                    run += 2;
+                    runs[run] = seatId;
+                }
+                runs[run + 1]++;
+                lastSeatId = seatId;
+                filled++;
+            }
+        }
+        row.setFreeSeats(row.getFreeSeats() - count);
+
+        entry.setValue(row);
+
+        return runs;
+    }
+}
@@ -0,0 +1,58 @@
+package com.mukundsankaran.bookit.grid;
+
+import com.mukundsankaran.bookit.model.Row;
+import com.mukundsankaran.bookit.model.SeatState;
+import org.apache.ignite.cache.CacheEntryProcessor;
+
+import javax.cache.processor.MutableEntry;
+
+/**
+ * Created by mukund on 4/20/18.
+ *
+ * Entry processor that holds a sequence of seats in a row, provided every seat in the sequence is still empty
+ */
+public class FillSeatsProcessor implements CacheEntryProcessor<Integer, Row, Boolean> {
+
+    /**
+     * Position of the first seat in the sequence
+     */
+    private final int start;
+
+    /**
+     * Number of seats in the sequence
+     */
+    private final int numSeats;
+
+    /**
+     * Constructs a FillSeatsProcessor
+     *
+     * @param start - position of the first seat in the sequence
+     * @param numSeats - number of seats in the sequence
+     */
+    public FillSeatsProcessor(int start, int numSeats) {
+        this.start = start;
+        this.numSeats = numSeats;
+    }
+
+    /**
+     * @return a boolean indicating whether the seats were filled
+     */
+    @Override
+    public Boolean process(MutableEntry<Integer, Row> entry, Object... arguments) {
+
+        Row row = entry.getValue();
+
+        if(row == null || !row.isSequenceEmpty(start, numSeats)) {
+            return false;
+        }
+
+        for(int seatId = start; seatId < start + numSeats; seatId++) {
+            row.getSeat(seatId).setState(SeatState.HELD);
+        }
+        row.setFreeSeats(row.getFreeSeats() - numSeats);
+
+        entry.setValue(row);
+
+        return true;
+    }
+}
@@ -0,0 +1,107 @@
+package com.mukundsankaran.bookit.grid;
+
+import com.mukundsankaran.bookit.allocation.AvailabilityBuffer;
+import com.mukundsankaran.bookit.allocation.SeatAllocationStrategy;
+import com.mukundsankaran.bookit.model.CacheName;
+import com.mukundsankaran.bookit.model.Row;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.CachePeekMode;
+import org.apache.ignite.cache.affinity.Affinity;
+import org.apache.ignite.cluster.ClusterNode;
+import org.apache.ignite.lang.IgniteCallable;
+import org.apache.ignite.resources.IgniteInstanceResource;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Created by mukund on 4/19/18.
+ *
+ * Compute job that searches the rows of an event a node is primary for, so rows never have to leave the node that
+ * owns them. Rows that are not in memory are loaded first. Only a summary of each row with free seats is sent back
+ * to the caller, packed into a single array. The rows are summarized into the buffers of the thread running the job,
+ * so a search allocates nothing per row.
+ */
+public class FindAvailableSeatsJob implements IgniteCallable<int[]> {
+
+    @IgniteInstanceResource
+    private transient Ignite ignite;
+
+    /**
+     * ID of the first row of the event
+     */
+    private final int firstRowId;
+
+    /**
+     * Number of rows in the event
+     */
+    private final int numRows;
+
+    /**
+     * Number of contiguous seats requested
+     */
+    private final int numSeats;
+
+    /**
+     * Strategy that chooses where the seats would sit in each row
+     */
+    private final SeatAllocationStrategy strategy;
+
+    /**
+     * Constructs a FindAvailableSeatsJob
+     *
+     * @param firstRowId - ID of the first row of the event
+     * @param numRows - number of rows in the event
+     * @param numSeats - number of contiguous seats requested
+     * @param strategy - strategy that chooses where the seats would sit in each row
+     */
+    public FindAvailableSeatsJob(int firstRowId, int numRows, int numSeats, SeatAllocationStrategy strategy) {
+        this.firstRowId = firstRowId;
+        this.numRows = numRows;
+        this.numSeats = numSeats;
+        this.strategy = strategy;
+    }
+
+    /**
+     * @return a summary of each row with free seats, packed six values a row, see AvailabilityBuffer
+     */
+    @Override
+    public int[] call() {
+
+        IgniteCache<Integer, Row> rowCache = ignite.cache(CacheName.ROWS.name());
+        Affinity<Integer> affinity = ignite.affinity(CacheName.ROWS.name());
+        ClusterNode localNode = ignite.cluster().localNode();
+
+        AvailabilityBuffer buffer = AvailabilityBuffer.forThread();
+        Set<Integer> unloadedRows = null;
+
+        for(int rowId = firstRowId; rowId < firstRowId + numRows; rowId++) {
+
+            if(!affinity.isPrimary(localNode, rowId)) {
+                continue;
+            }
+
+            Row row = rowCache.localPeek(rowId, CachePeekMode.PRIMARY);
+
+            if(row == null) {
+                if(unloadedRows == null) {
+                    unloadedRows = new HashSet<>();
+                }
+                unloadedRows.add(rowId);
+            } else if(row.getFreeSeats() > 0) {
+                buffer.add(row, numSeats, strategy);
+            }
+        }
+
+        if(unloadedRows != null) {
+            for(Row row : rowCache.getAll(unloadedRows).values()) {
+                if(row.getFreeSeats() > 0) {
+                    buffer.add(row, numSeats, strategy);
+                }
+            }
+        }
+
+        return buffer.pack();
+    }
+}
@@ -0,0 +1,93 @@
+package com.mukundsankaran.bookit.grid;
+
+import com.mukundsankaran.bookit.model.CacheName;
+import com.mukundsankaran.bookit.model.Reservation;
+import com.mukundsankaran.bookit.model.SeatHold;
+import com.mukundsankaran.bookit.model.SeatState;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.query.ScanQuery;
+import org.apache.ignite.lang.IgniteCallable;
+import org.apache.ignite.resources.IgniteInstanceResource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * Compute job that finds the seats claimed by the holds or reservations of one partition. The job is sent to the
+ * primary node of the partition, which scans it locally, so holds and reservations are read where they live and only
+ * the seats they claim come back.
+ */
+public class FindClaimedSeatsJob implements IgniteCallable<Map<Integer, Map<Integer, SeatState>>> {
+
+    @IgniteInstanceResource
+    private transient Ignite ignite;
+
+    /**
+     * The cache to scan, HOLDS or RESERVATIONS
+     */
+    private final CacheName cacheName;
+
+    /**
+     * The partition to scan
+     */
+    private final int partition;
+
+    /**
+     * Constructs a FindClaimedSeatsJob
+     *
+     * @param cacheName - the cache to scan, HOLDS or RESERVATIONS
+     * @param partition - the partition to scan
+     */
+    public FindClaimedSeatsJob(CacheName cacheName, int partition) {
+        this.cacheName = cacheName;
+        this.partition = partition;
+    }
+
+    /**
+     * @return the state each claimed seat should be in, by row and seat
+     */
+    @Override
+    public Map<Integer, Map<Integer, SeatState>> call() {
+
+        Map<Integer, Map<Integer, SeatState>> claims = new HashMap<>();
+
+        if(cacheName == CacheName.HOLDS) {
+            IgniteCache<Integer, SeatHold> holdCache = ignite.cache(cacheName.name());
+            addClaims(holdCache.query(new ScanQuery<Integer, SeatHold>().setPartition(partition).setLocal(true),
+                    entry -> entry.getValue().getSeats()).getAll(), SeatState.HELD, claims);
+        } else {
+            IgniteCache<String, Reservation> reservationCache = ignite.cache(cacheName.name());
+            addClaims(reservationCache.query(new ScanQuery<String, Reservation>().setPartition(partition).setLocal(true),
+                    entry -> entry.getValue().getSeats()).getAll(), SeatState.RESERVED, claims);
+        }
+
+        return claims;
+    }
+
+    /**
+     * Add a claim on a seat. A seat claimed by both a hold and a reservation is taken to be reserved.
+     *
+     * @param claims - the state each claimed seat should be in, by row and seat, added to
+     * @param rowId - the row
+     * @param seatId - the position of the seat
+     * @param state - the state the claim calls for
+     */
+    public static void addClaim(Map<Integer, Map<Integer, SeatState>> claims, Integer rowId, Integer seatId, SeatState state) {
+        claims.computeIfAbsent(rowId, id -> new HashMap<>()).merge(seatId, state,
+                (first, second) -> first == SeatState.RESERVED ? first : second);
+    }
+
+    private static void addClaims(List<Map<Integer, List<Integer>>> seatMaps, SeatState state, Map<Integer, Map<Integer, SeatState>> claims) {
+        for(Map<Integer, List<Integer>> seatMap : seatMaps) {
+            for(Map.Entry<Integer, List<Integer>> rowSeats : seatMap.entrySet()) {
+                for(Integer seatId : rowSeats.getValue()) {
+                    addClaim(claims, rowSeats.getKey(), seatId, state);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.mukundsankaran.bookit.grid;
+
+import com.mukundsankaran.bookit.model.CacheName;
+import com.mukundsankaran.bookit.service.ContentionProfiler;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.affinity.Affinity;
+import org.apache.ignite.cluster.ClusterGroup;
+import org.apache.ignite.configuration.CacheConfiguration;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * The caches of the grid, each created from its configuration the first time it is used. A cache already started by
+ * this or any other node is simply looked up. Caches are handed out profiled by the contention profiler.
+ */
+public class GridCaches {
+
+    private final Ignite ignite;
+
+    private final Map<CacheName, CacheConfiguration<?, ?>> configurations;
+
+    private final ContentionProfiler contentionProfiler;
+
+    /**
+     * Constructs GridCaches
+     *
+     * @param ignite - the Ignite node
+     * @param configurations - the configuration of each cache
+     * @param contentionProfiler - the profiler of the caches
+     */
+    public GridCaches(Ignite ignite, Map<CacheName, CacheConfiguration<?, ?>> configurations, ContentionProfiler contentionProfiler) {
+        this.ignite = ignite;
+        this.configurations = configurations;
+        this.contentionProfiler = contentionProfiler;
+    }
+
+    /**
+     * Get a cache, creating it if it is not started yet
+     *
+     * @param name - the name of the cache
+     * @return the cache
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> IgniteCache<K, V> get(CacheName name) {
+
+        IgniteCache<K, V> cache = ignite.cache(name.name());
+
+        if(cache == null) {
+            cache = ignite.getOrCreateCache((CacheConfiguration<K, V>) configurations.get(name));
+        }
+
+        return contentionProfiler.profile(name, cache);
+    }
+
+    /**
+     * Get the affinity of a cache, creating the cache if it is not started yet
+     *
+     * @param name - the name of the cache
+     * @return the affinity of the cache
+     */
+    public <K> Affinity<K> affinity(CacheName name) {
+        get(name);
+        return ignite.affinity(name.name());
+    }
+
+    /**
+     * Get the nodes that store a cache, creating the cache if it is not started yet
+     *
+     * @param name - the name of the cache
+     * @return the nodes that store the cache
+     */
+    public ClusterGroup dataNodes(CacheName name) {
+        get(name);
+        return ignite.cluster().forDataNodes(name.name());
+    }
+
+    /**
+     * Create every cache that is not started yet, in a single exchange across the cluster
+     */
+    public void createAll() {
+        ignite.getOrCreateCaches(new ArrayList<CacheConfiguration>(configurations.values()));
+    }
+
+    /**
+     * @param name - the name of the cache
+     * @return true if the cache has been started
+     */
+    public boolean isStarted(CacheName name) {
+        return ignite.cacheNames().contains(name.name());
+    }
+}
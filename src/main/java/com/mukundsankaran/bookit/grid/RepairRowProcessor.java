@@ -0,0 +1,67 @@
+package com.mukundsankaran.bookit.grid;
+
+import com.mukundsankaran.bookit.model.Row;
+import com.mukundsankaran.bookit.model.Seat;
+import com.mukundsankaran.bookit.model.SeatState;
+import org.apache.ignite.cache.CacheEntryProcessor;
+
+import javax.cache.processor.MutableEntry;
+import java.util.Map;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * Entry processor that puts drifted seats of a row back in the state they should be in, then recounts the free seats
+ * of the row. Reserved seats are never changed.
+ */
+public class RepairRowProcessor implements CacheEntryProcessor<Integer, Row, Integer> {
+
+    /**
+     * The state each drifted seat should be in, by seat
+     */
+    private final Map<Integer, SeatState> driftedSeats;
+
+    /**
+     * Constructs a RepairRowProcessor
+     *
+     * @param driftedSeats - the state each drifted seat should be in, by seat
+     */
+    public RepairRowProcessor(Map<Integer, SeatState> driftedSeats) {
+        this.driftedSeats = driftedSeats;
+    }
+
+    /**
+     * @return the number of seats that were repaired
+     */
+    @Override
+    public Integer process(MutableEntry<Integer, Row> entry, Object... arguments) {
+
+        Row row = entry.getValue();
+
+        if(row == null) {
+            return 0;
+        }
+
+        int repaired = 0;
+
+        for(Map.Entry<Integer, SeatState> drifted : driftedSeats.entrySet()) {
+            Seat seat = row.getSeat(drifted.getKey());
+            if(seat.getState() != SeatState.RESERVED && seat.getState() != drifted.getValue()) {
+                seat.setState(drifted.getValue());
+                repaired++;
+            }
+        }
+
+        int freeSeats = 0;
+        for(Seat seat : row.getSeats()) {
+            if(seat.getState() == SeatState.FREE) {
+                freeSeats++;
+            }
+        }
+        row.setFreeSeats(freeSeats);
+
+        entry.setValue(row);
+
+        return repaired;
+    }
+}
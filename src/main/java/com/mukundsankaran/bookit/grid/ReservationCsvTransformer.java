@@ -0,0 +1,43 @@
+package com.mukundsankaran.bookit.grid;
+
+import com.mukundsankaran.bookit.store.SeatsFormat;
+import org.apache.ignite.binary.BinaryObject;
+import org.apache.ignite.lang.IgniteClosure;
+
+import javax.cache.Cache;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Created by mukund on 4/26/18.
+ *
+ * Scan query transformer that turns a reservation into a CSV line on the node that owns it. The reservation is read
+ * in its binary form field by field, so it is never deserialized.
+ */
+public class ReservationCsvTransformer implements IgniteClosure<Cache.Entry<String, BinaryObject>, String> {
+
+    public static final String HEADER = "id,event_id,customer_email,seats";
+
+    @Override
+    public String apply(Cache.Entry<String, BinaryObject> entry) {
+
+        BinaryObject reservation = entry.getValue();
+        Long eventId = reservation.field("eventId");
+        String customerEmail = reservation.field("customerEmail");
+        Map<Integer, List<Integer>> seats = reservation.field("seats");
+
+        return entry.getKey() + ',' + eventId + ',' + escape(customerEmail) + ',' + escape(SeatsFormat.encode(seats));
+    }
+
+    /**
+     * Quote a CSV field if it contains a separator or a quote
+     */
+    private static String escape(String field) {
+
+        if(field.indexOf(',') < 0 && field.indexOf(';') < 0 && field.indexOf('"') < 0) {
+            return field;
+        }
+
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,61 @@
+package com.mukundsankaran.bookit.grid;
+
+import com.mukundsankaran.bookit.model.Row;
+import com.mukundsankaran.bookit.model.Seat;
+import com.mukundsankaran.bookit.model.SeatState;
+import org.apache.ignite.cache.CacheEntryProcessor;
+
+import javax.cache.processor.MutableEntry;
+import java.util.List;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * Entry processor that turns a set of held seats in a row into reserved seats
+ */
+public class ReserveSeatsProcessor implements CacheEntryProcessor<Integer, Row, Integer> {
+
+    /**
+     * Positions of the seats to reserve. The processor is kept by its transaction until it commits, so the list is the
+     * hold's own rather than a buffer that is reused.
+     */
+    private final List<Integer> seatIds;
+
+    /**
+     * Constructs a ReserveSeatsProcessor
+     *
+     * @param seatIds - positions of the seats to reserve
+     */
+    public ReserveSeatsProcessor(List<Integer> seatIds) {
+        this.seatIds = seatIds;
+    }
+
+    /**
+     * @return the number of seats that were reserved
+     */
+    @Override
+    public Integer process(MutableEntry<Integer, Row> entry, Object... arguments) {
+
+        Row row = entry.getValue();
+
+        if(row == null) {
+            return 0;
+        }
+
+        int reserved = 0;
+
+        for(int index = 0; index < seatIds.size(); index++) {
+            Seat seat = row.getSeat(seatIds.get(index));
+            if(seat.getState() == SeatState.HELD) {
+                seat.setState(SeatState.RESERVED);
+                reserved++;
+            }
+        }
+
+        if(reserved > 0) {
+            entry.setValue(row);
+        }
+
+        return reserved;
+    }
+}
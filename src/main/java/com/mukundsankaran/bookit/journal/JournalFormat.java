@@ -0,0 +1,130 @@
+package com.mukundsankaran.bookit.journal;
+
+import com.mukundsankaran.bookit.model.JournalRecord;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Created by mukund on 4/25/18.
+ *
+ * Binary format of the audit journal
+ *
+ * Each record is written as its length, the CRC32 of its body and the body itself. The body starts with the record
+ * type, timestamp, hold ID and event ID, followed by the customer and seat map for a HOLD and the reservation ID for a
+ * RESERVE. A record cut short by a crash fails its length or checksum, and reading stops there.
+ */
+public final class JournalFormat {
+
+    private static final JournalRecord.Type[] TYPES = JournalRecord.Type.values();
+
+    private JournalFormat() {
+        // No op
+    }
+
+    /**
+     * Encode a record
+     *
+     * @param record - the record
+     * @param body - a buffer the body is encoded into, reset before use
+     * @param out - the stream the framed record is written to
+     */
+    public static void write(JournalRecord record, ByteArrayOutputStream body, DataOutputStream out) throws IOException {
+
+        body.reset();
+        DataOutputStream data = new DataOutputStream(body);
+
+        data.writeByte(record.getType().ordinal());
+        data.writeLong(record.getTimestamp());
+        data.writeInt(record.getHoldId());
+        data.writeLong(record.getEventId());
+
+        switch(record.getType()) {
+            case HOLD:
+                data.writeUTF(record.getCustomerEmail());
+                data.writeInt(record.getSeats().size());
+                for(Map.Entry<Integer, List<Integer>> rowSeats : record.getSeats().entrySet()) {
+                    data.writeInt(rowSeats.getKey());
+                    data.writeInt(rowSeats.getValue().size());
+                    for(int seatId : rowSeats.getValue()) {
+                        data.writeInt(seatId);
+                    }
+                }
+                break;
+            case RESERVE:
+                data.writeUTF(record.getReservationId());
+                break;
+            default:
+                break;
+        }
+
+        data.flush();
+
+        CRC32 crc = new CRC32();
+        crc.update(body.toByteArray(), 0, body.size());
+
+        out.writeInt(body.size());
+        out.writeInt((int) crc.getValue());
+        body.writeTo(out);
+    }
+
+    /**
+     * Decode the next record
+     *
+     * @param in - the stream to read from
+     * @return the record, or null at the end of the journal or at a record that was not completely written
+     */
+    public static JournalRecord read(DataInputStream in) throws IOException {
+
+        byte[] body;
+        int checksum;
+
+        try {
+            int length = in.readInt();
+            if(length <= 0) {
+                return null;
+            }
+            checksum = in.readInt();
+            body = new byte[length];
+            in.readFully(body);
+        } catch(EOFException e) {
+            return null;
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        if((int) crc.getValue() != checksum) {
+            return null;
+        }
+
+        DataInputStream data = new DataInputStream(new ByteArrayInputStream(body));
+
+        JournalRecord record = new JournalRecord(TYPES[data.readByte()], data.readLong(), data.readInt(), data.readLong());
+
+        switch(record.getType()) {
+            case HOLD:
+                record.setCustomerEmail(data.readUTF());
+                int numRows = data.readInt();
+                Map<Integer, List<Integer>> seats = new HashMap<>();
+                for(int row = 0; row < numRows; row++) {
+                    int rowId = data.readInt();
+                    int numSeats = data.readInt();
+                    List<Integer> seatIds = new ArrayList<>(numSeats);
+                    for(int seat = 0; seat < numSeats; seat++) {
+                        seatIds.add(data.readInt());
+                    }
+                    seats.put(rowId, seatIds);
+                }
+                record.setSeats(seats);
+                break;
+            case RESERVE:
+                record.setReservationId(data.readUTF());
+                break;
+            default:
+                break;
+        }
+
+        return record;
+    }
+}
@@ -0,0 +1,139 @@
+package com.mukundsankaran.bookit.journal;
+
+import com.mukundsankaran.bookit.model.JournalRecord;
+import com.mukundsankaran.bookit.model.SeatState;
+import com.mukundsankaran.bookit.service.SeatMapService;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Created by mukund on 4/25/18.
+ *
+ * Replays an audit journal
+ *
+ * Replaying a journal from the start rebuilds the state of every seat the node held, reserved or freed. Run from the
+ * command line, it prints the held and reserved seats of each row:
+ *
+ * java -cp target/classes com.mukundsankaran.bookit.journal.JournalReplay data/journal/bookit-20180425120000000-1a2b3c4d.journal
+ */
+public final class JournalReplay {
+
+    private JournalReplay() {
+        // No op
+    }
+
+    /**
+     * Read every complete record of a journal, in the order they were written
+     *
+     * @param journal - the journal file
+     * @param consumer - receives each record
+     */
+    public static void replay(Path journal, Consumer<JournalRecord> consumer) throws IOException {
+
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(journal)))) {
+
+            JournalRecord record;
+            while((record = JournalFormat.read(in)) != null) {
+                consumer.accept(record);
+            }
+        }
+    }
+
+    /**
+     * Find the highest hold ID recorded in the journals of a directory
+     *
+     * @param directory - the journal directory
+     * @return the highest hold ID, or 0 if the directory holds no journals
+     */
+    public static int maxHoldId(Path directory) throws IOException {
+
+        if(!Files.isDirectory(directory)) {
+            return 0;
+        }
+
+        int[] maxHoldId = {0};
+
+        try(DirectoryStream<Path> journals = Files.newDirectoryStream(directory, "bookit-*.journal")) {
+            for(Path journal : journals) {
+                replay(journal, record -> maxHoldId[0] = Math.max(maxHoldId[0], record.getHoldId()));
+            }
+        }
+
+        return maxHoldId[0];
+    }
+
+    /**
+     * Rebuild the state of seats from a journal
+     *
+     * @param journal - the journal file
+     * @param listener - told about each seat state change, in order, the last change to a seat is its current state
+     */
+    public static void rebuildSeatState(Path journal, SeatMapService.SeatChangeListener listener) throws IOException {
+
+        Map<Integer, Map<Integer, List<Integer>>> heldSeats = new HashMap<>();
+
+        replay(journal, record -> {
+
+            Map<Integer, List<Integer>> seats;
+            SeatState state;
+
+            switch(record.getType()) {
+                case HOLD:
+                    seats = record.getSeats();
+                    heldSeats.put(record.getHoldId(), seats);
+                    state = SeatState.HELD;
+                    break;
+                case RESERVE:
+                    seats = heldSeats.remove(record.getHoldId());
+                    state = SeatState.RESERVED;
+                    break;
+                default:
+                    seats = heldSeats.remove(record.getHoldId());
+                    state = SeatState.FREE;
+                    break;
+            }
+
+            // The hold was made before the journal started
+            if(seats == null) {
+                return;
+            }
+
+            for(Map.Entry<Integer, List<Integer>> rowSeats : seats.entrySet()) {
+                for(int seatId : rowSeats.getValue()) {
+                    listener.onSeatChanged(rowSeats.getKey(), seatId, state);
+                }
+            }
+        });
+    }
+
+    public static void main(String[] args) throws IOException {
+
+        if(args.length != 1) {
+            System.err.println("Usage: JournalReplay <journal file>");
+            System.exit(1);
+        }
+
+        Map<Integer, Map<Integer, SeatState>> rows = new TreeMap<>();
+        rebuildSeatState(Paths.get(args[0]), (rowId, seatId, state) -> rows.computeIfAbsent(rowId, id -> new TreeMap<>()).put(seatId, state));
+
+        for(Map.Entry<Integer, Map<Integer, SeatState>> row : rows.entrySet()) {
+            Map<SeatState, List<Integer>> seatsByState = new EnumMap<>(SeatState.class);
+            for(Map.Entry<Integer, SeatState> seat : row.getValue().entrySet()) {
+                if(seat.getValue() != SeatState.FREE) {
+                    seatsByState.computeIfAbsent(seat.getValue(), state -> new ArrayList<>()).add(seat.getKey());
+                }
+            }
+            if(!seatsByState.isEmpty()) {
+                System.out.println("Row " + row.getKey() + ": " + seatsByState);
+            }
+        }
+    }
+}
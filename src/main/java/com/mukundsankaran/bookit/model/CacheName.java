@@ -9,5 +9,8 @@ public enum CacheName {
     EVENTS,
     ROWS,
     HOLDS,
-    RESERVATIONS
+    RESERVATIONS,
+    RESERVATION_INDEX,
+    RATE_LIMITS,
+    REQUESTS
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.mukundsankaran.bookit.model;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * Classes of customers, which may hold seats for different lengths of time
+ */
+public enum CustomerClass {
+    GENERAL,
+    PRESALE,
+    VIP
+}
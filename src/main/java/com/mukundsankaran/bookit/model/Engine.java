@@ -0,0 +1,11 @@
+package com.mukundsankaran.bookit.model;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * Engines that can keep the seat inventory
+ */
+public enum Engine {
+    GRID,
+    LOCAL
+}
@@ -4,7 +4,6 @@ import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import java.io.Serializable;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Created by mukund on 4/11/18.
@@ -13,8 +12,6 @@ import java.util.concurrent.atomic.AtomicLong;
  */
 public class Event implements Serializable {
 
-    private static final AtomicLong ID_GEN = new AtomicLong();
-
     /**
      * Event ID - Unique for each Event
      */
@@ -43,14 +40,13 @@ public class Event implements Serializable {
     /**
      * Constructs an Event
      *
+     * @param id - Unique ID for Event
      * @param name - Event Name
      * @param numSeatsAvailable - Seats Available for Event
      */
-    public Event(String name, int numSeatsAvailable){
-
-        // Generate Unique ID for Event
-        id = ID_GEN.incrementAndGet();
+    public Event(long id, String name, int numSeatsAvailable){
 
+        this.id = id;
         this.name = name;
         this.numSeatsAvailable = numSeatsAvailable;
     }
@@ -0,0 +1,172 @@
+package com.mukundsankaran.bookit.model;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Created by mukund on 4/23/18.
+ *
+ * Event Definition Model
+ *
+ * The layout of an event as defined for the venue, from which the event and its rows are loaded. The rows of an
+ * event have consecutive IDs, from front to rear.
+ */
+public class EventDefinition implements Serializable {
+
+    /**
+     * Event ID - Unique for each Event
+     */
+    @NotNull
+    private Long id;
+
+    /**
+     * Event Name
+     */
+    @NotBlank
+    private String name;
+
+    /**
+     * ID of the row nearest to the stage
+     */
+    @Min(1)
+    private int firstRowId;
+
+    /**
+     * Number of seats in each row, from front to rear
+     */
+    @NotNull
+    private int[] seatsInRows;
+
+    /**
+     * Layout of each row, from front to rear. Null if every row is a plain run of seats, and null for each row that is.
+     */
+    private String[] rowLayouts;
+
+    /**
+     * How seats are allocated for the event, null if the venue default applies
+     */
+    private SeatAllocation seatAllocation;
+
+    /**
+     * Time for which seats of the event are held, null if the venue default applies
+     */
+    @Min(1)
+    private Integer holdExpiryTimeInMinutes;
+
+    /**
+     * Constructs an EventDefinition where every row is a plain run of seats
+     *
+     * @param id - unique ID for the event
+     * @param name - event name
+     * @param firstRowId - ID of the row nearest to the stage
+     * @param seatsInRows - number of seats in each row, from front to rear
+     */
+    public EventDefinition(long id, String name, int firstRowId, int[] seatsInRows) {
+        this(id, name, firstRowId, seatsInRows, null);
+    }
+
+    /**
+     * Constructs an EventDefinition
+     *
+     * @param id - unique ID for the event
+     * @param name - event name
+     * @param firstRowId - ID of the row nearest to the stage
+     * @param seatsInRows - number of seats in each row, from front to rear
+     * @param rowLayouts - layout of each row, from front to rear, or null if every row is a plain run of seats
+     */
+    public EventDefinition(long id, String name, int firstRowId, int[] seatsInRows, String[] rowLayouts) {
+        this.id = id;
+        this.name = name;
+        this.firstRowId = firstRowId;
+        this.seatsInRows = seatsInRows;
+        this.rowLayouts = rowLayouts;
+    }
+
+    public @NotNull Long getId() {
+        return id;
+    }
+
+    public @NotBlank String getName() {
+        return name;
+    }
+
+    public @Min(1) int getFirstRowId() {
+        return firstRowId;
+    }
+
+    public @NotNull int[] getSeatsInRows() {
+        return seatsInRows;
+    }
+
+    public SeatAllocation getSeatAllocation() {
+        return seatAllocation;
+    }
+
+    public void setSeatAllocation(SeatAllocation seatAllocation) {
+        this.seatAllocation = seatAllocation;
+    }
+
+    public @Min(1) Integer getHoldExpiryTimeInMinutes() {
+        return holdExpiryTimeInMinutes;
+    }
+
+    public void setHoldExpiryTimeInMinutes(@Min(1) Integer holdExpiryTimeInMinutes) {
+        this.holdExpiryTimeInMinutes = holdExpiryTimeInMinutes;
+    }
+
+    public int getNumRows() {
+        return seatsInRows.length;
+    }
+
+    public int getNumSeats() {
+        return Arrays.stream(seatsInRows).sum();
+    }
+
+    /**
+     * Check if a row belongs to the event
+     *
+     * @param rowId - the row ID
+     * @return a boolean indicating whether the row belongs to the event
+     */
+    public boolean containsRow(int rowId) {
+        return rowId >= firstRowId && rowId - firstRowId < seatsInRows.length;
+    }
+
+    /**
+     * Get the number of seats in a row of the event
+     *
+     * @param rowId - the row ID
+     * @return the number of seats in the row
+     */
+    public int getSeatsInRow(int rowId) {
+        return seatsInRows[rowId - firstRowId];
+    }
+
+    /**
+     * Create a row of the event with every seat empty
+     *
+     * @param rowId - the row ID
+     * @return the row
+     */
+    public Row createRow(int rowId) {
+
+        String layout = rowLayouts == null ? null : rowLayouts[rowId - firstRowId];
+
+        return layout == null ? new Row(rowId, getSeatsInRow(rowId)) : new Row(rowId, layout);
+    }
+
+    @Override
+    public String toString() {
+        return "EventDefinition{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", firstRowId=" + firstRowId +
+                ", seatsInRows=" + Arrays.toString(seatsInRows) +
+                ", seatAllocation=" + seatAllocation +
+                ", holdExpiryTimeInMinutes=" + holdExpiryTimeInMinutes +
+                '}';
+    }
+}
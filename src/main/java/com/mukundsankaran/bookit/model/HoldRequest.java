@@ -0,0 +1,112 @@
+package com.mukundsankaran.bookit.model;
+
+import javax.validation.constraints.Email;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * HoldRequest Model - a request to find and hold seats
+ */
+public class HoldRequest {
+
+    /**
+     * Number of seats to find and hold
+     */
+    @Min(1)
+    private int numSeats;
+
+    /**
+     * Email of the customer the seats are for
+     */
+    @NotNull
+    @Email
+    private String customerEmail;
+
+    /**
+     * Class of the customer, which decides how long the seats are held. The time set for the class takes precedence
+     * over the time set by the event, which takes precedence over the venue default.
+     */
+    @NotNull
+    private CustomerClass customerClass = CustomerClass.GENERAL;
+
+    /**
+     * Identifier of the client making the request, such as its address, or null if unknown
+     */
+    private String clientId;
+
+    /**
+     * Identifier the client chose for the request, or null if retries are not to be recognized
+     */
+    private String requestId;
+
+    /**
+     * Default Constructor
+     */
+    public HoldRequest() {
+        // No op
+    }
+
+    /**
+     * Constructs a HoldRequest for a customer in general sale
+     *
+     * @param numSeats - number of seats to find and hold
+     * @param customerEmail - email of the customer the seats are for
+     */
+    public HoldRequest(int numSeats, String customerEmail) {
+        this.numSeats = numSeats;
+        this.customerEmail = customerEmail;
+    }
+
+    public @Min(1) int getNumSeats() {
+        return numSeats;
+    }
+
+    public void setNumSeats(@Min(1) int numSeats) {
+        this.numSeats = numSeats;
+    }
+
+    public @NotNull @Email String getCustomerEmail() {
+        return customerEmail;
+    }
+
+    public void setCustomerEmail(@NotNull @Email String customerEmail) {
+        this.customerEmail = customerEmail;
+    }
+
+    public @NotNull CustomerClass getCustomerClass() {
+        return customerClass;
+    }
+
+    public void setCustomerClass(@NotNull CustomerClass customerClass) {
+        this.customerClass = customerClass;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(String clientId) {
+        this.clientId = clientId;
+    }
+
+    public String getRequestId() {
+        return requestId;
+    }
+
+    public void setRequestId(String requestId) {
+        this.requestId = requestId;
+    }
+
+    @Override
+    public String toString() {
+        return "HoldRequest{" +
+                "numSeats=" + numSeats +
+                ", customerEmail='" + customerEmail + '\'' +
+                ", customerClass=" + customerClass +
+                ", clientId='" + clientId + '\'' +
+                ", requestId='" + requestId + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,107 @@
+package com.mukundsankaran.bookit.model;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * HotKey Model - how often a key shared by many transactions was locked, and how long locking it took
+ */
+public class HotKey {
+
+    /**
+     * Cache and key, as "CACHE:key"
+     */
+    @NotNull
+    private String key;
+
+    /**
+     * Number of transactions that locked the key
+     */
+    @Min(0)
+    private long locks;
+
+    /**
+     * Total time transactions spent locking the key
+     */
+    @Min(0)
+    private long totalWaitInMicros;
+
+    /**
+     * Longest time a transaction spent locking the key
+     */
+    @Min(0)
+    private long maxWaitInMicros;
+
+    /**
+     * Default Constructor
+     */
+    public HotKey() {
+        // No op
+    }
+
+    /**
+     * Constructs a HotKey
+     *
+     * @param key - cache and key
+     * @param locks - number of transactions that locked the key
+     * @param totalWaitInMicros - total time transactions spent locking the key
+     * @param maxWaitInMicros - longest time a transaction spent locking the key
+     */
+    public HotKey(String key, long locks, long totalWaitInMicros, long maxWaitInMicros) {
+        this.key = key;
+        this.locks = locks;
+        this.totalWaitInMicros = totalWaitInMicros;
+        this.maxWaitInMicros = maxWaitInMicros;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public long getLocks() {
+        return locks;
+    }
+
+    public void setLocks(long locks) {
+        this.locks = locks;
+    }
+
+    public long getTotalWaitInMicros() {
+        return totalWaitInMicros;
+    }
+
+    public void setTotalWaitInMicros(long totalWaitInMicros) {
+        this.totalWaitInMicros = totalWaitInMicros;
+    }
+
+    public long getMaxWaitInMicros() {
+        return maxWaitInMicros;
+    }
+
+    public void setMaxWaitInMicros(long maxWaitInMicros) {
+        this.maxWaitInMicros = maxWaitInMicros;
+    }
+
+    /**
+     * @return the mean time a transaction spent locking the key
+     */
+    public long getMeanWaitInMicros() {
+        return locks == 0 ? 0 : totalWaitInMicros / locks;
+    }
+
+    @Override
+    public String toString() {
+        return "HotKey{" +
+                "key='" + key + '\'' +
+                ", locks=" + locks +
+                ", totalWaitInMicros=" + totalWaitInMicros +
+                ", maxWaitInMicros=" + maxWaitInMicros +
+                '}';
+    }
+}
@@ -0,0 +1,114 @@
+package com.mukundsankaran.bookit.model;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * InventoryReport Model - the drift found by a check of the seat inventory, and what was repaired
+ */
+public class InventoryReport {
+
+    /**
+     * Number of seats whose state disagreed with the holds and reservations
+     */
+    @Min(0)
+    private int driftedSeats;
+
+    /**
+     * Number of rows whose free seat count disagreed with their seats
+     */
+    @Min(0)
+    private int driftedRows;
+
+    /**
+     * Number of events whose available seat count disagreed with their rows
+     */
+    @Min(0)
+    private int driftedEvents;
+
+    /**
+     * Number of seats put back in the state the holds and reservations call for
+     */
+    @Min(0)
+    private int repairedSeats;
+
+    /**
+     * Number of rows whose free seat count was recounted
+     */
+    @Min(0)
+    private int repairedRows;
+
+    /**
+     * Number of events whose available seat count was corrected
+     */
+    @Min(0)
+    private int repairedEvents;
+
+    public @Min(0) int getDriftedSeats() {
+        return driftedSeats;
+    }
+
+    public void setDriftedSeats(@Min(0) int driftedSeats) {
+        this.driftedSeats = driftedSeats;
+    }
+
+    public @Min(0) int getDriftedRows() {
+        return driftedRows;
+    }
+
+    public void setDriftedRows(@Min(0) int driftedRows) {
+        this.driftedRows = driftedRows;
+    }
+
+    public @Min(0) int getDriftedEvents() {
+        return driftedEvents;
+    }
+
+    public void setDriftedEvents(@Min(0) int driftedEvents) {
+        this.driftedEvents = driftedEvents;
+    }
+
+    public @Min(0) int getRepairedSeats() {
+        return repairedSeats;
+    }
+
+    public void setRepairedSeats(@Min(0) int repairedSeats) {
+        this.repairedSeats = repairedSeats;
+    }
+
+    public @Min(0) int getRepairedRows() {
+        return repairedRows;
+    }
+
+    public void setRepairedRows(@Min(0) int repairedRows) {
+        this.repairedRows = repairedRows;
+    }
+
+    public @Min(0) int getRepairedEvents() {
+        return repairedEvents;
+    }
+
+    public void setRepairedEvents(@Min(0) int repairedEvents) {
+        this.repairedEvents = repairedEvents;
+    }
+
+    /**
+     * @return true if nothing disagreed
+     */
+    public boolean isConsistent() {
+        return driftedSeats == 0 && driftedRows == 0 && driftedEvents == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "InventoryReport{" +
+                "driftedSeats=" + driftedSeats +
+                ", driftedRows=" + driftedRows +
+                ", driftedEvents=" + driftedEvents +
+                ", repairedSeats=" + repairedSeats +
+                ", repairedRows=" + repairedRows +
+                ", repairedEvents=" + repairedEvents +
+                '}';
+    }
+}
@@ -0,0 +1,117 @@
+package com.mukundsankaran.bookit.model;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Created by mukund on 4/25/18.
+ *
+ * Journal Record Model
+ *
+ * A state change of a SeatHold, as recorded in the audit journal. A HOLD record carries the held seats and the
+ * customer, later records for the same hold only refer to it by its ID.
+ */
+public class JournalRecord {
+
+    public enum Type {
+        HOLD,
+        RESERVE,
+        EXPIRE
+    }
+
+    @NotNull
+    private Type type;
+
+    /**
+     * The time at which the change was committed
+     */
+    private long timestamp;
+
+    private int holdId;
+
+    private long eventId;
+
+    /**
+     * Email of the customer, HOLD records only
+     */
+    private String customerEmail;
+
+    /**
+     * Seat map of the held seats, HOLD records only
+     */
+    private Map<Integer, List<Integer>> seats;
+
+    /**
+     * Reservation ID, RESERVE records only
+     */
+    private String reservationId;
+
+    /**
+     * Constructs a JournalRecord
+     *
+     * @param type - the type of the change
+     * @param timestamp - the time at which the change was committed
+     * @param holdId - the SeatHold ID
+     * @param eventId - the Event ID
+     */
+    public JournalRecord(Type type, long timestamp, int holdId, long eventId) {
+        this.type = type;
+        this.timestamp = timestamp;
+        this.holdId = holdId;
+        this.eventId = eventId;
+    }
+
+    public @NotNull Type getType() {
+        return type;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public int getHoldId() {
+        return holdId;
+    }
+
+    public long getEventId() {
+        return eventId;
+    }
+
+    public String getCustomerEmail() {
+        return customerEmail;
+    }
+
+    public void setCustomerEmail(String customerEmail) {
+        this.customerEmail = customerEmail;
+    }
+
+    public Map<Integer, List<Integer>> getSeats() {
+        return seats;
+    }
+
+    public void setSeats(Map<Integer, List<Integer>> seats) {
+        this.seats = seats;
+    }
+
+    public String getReservationId() {
+        return reservationId;
+    }
+
+    public void setReservationId(String reservationId) {
+        this.reservationId = reservationId;
+    }
+
+    @Override
+    public String toString() {
+        return "JournalRecord{" +
+                "type=" + type +
+                ", timestamp=" + timestamp +
+                ", holdId=" + holdId +
+                ", eventId=" + eventId +
+                ", customerEmail='" + customerEmail + '\'' +
+                ", seats=" + seats +
+                ", reservationId='" + reservationId + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,96 @@
+package com.mukundsankaran.bookit.model;
+
+import org.apache.ignite.cache.affinity.AffinityKeyMapped;
+
+import javax.validation.constraints.NotBlank;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * ReservationIndexKey Model - a key of the RESERVATION_INDEX cache. Each term of the index, such as a customer, lists
+ * its reservations at positions 0, 1, 2... and keeps the number of them at the head position. Every key of a term is
+ * stored on the same node, so a page of a term is read from a single node.
+ */
+public class ReservationIndexKey implements Serializable {
+
+    /**
+     * Position of the number of reservations of a term
+     */
+    public static final long HEAD = -1;
+
+    /**
+     * The term, e.g. "customer:abc@gmail.com"
+     */
+    @NotBlank
+    @AffinityKeyMapped
+    private String term;
+
+    /**
+     * Position of a reservation in the term, or HEAD
+     */
+    private long position;
+
+    /**
+     * Default Constructor
+     */
+    public ReservationIndexKey() {
+        // No op
+    }
+
+    /**
+     * Constructs a ReservationIndexKey
+     *
+     * @param term - the term
+     * @param position - position of a reservation in the term, or HEAD
+     */
+    public ReservationIndexKey(String term, long position) {
+        this.term = term;
+        this.position = position;
+    }
+
+    public @NotBlank String getTerm() {
+        return term;
+    }
+
+    public void setTerm(@NotBlank String term) {
+        this.term = term;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public void setPosition(long position) {
+        this.position = position;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+
+        if(this == o) {
+            return true;
+        }
+
+        if(o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        ReservationIndexKey that = (ReservationIndexKey) o;
+        return position == that.position && Objects.equals(term, that.term);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(term, position);
+    }
+
+    @Override
+    public String toString() {
+        return "ReservationIndexKey{" +
+                "term='" + term + '\'' +
+                ", position=" + position +
+                '}';
+    }
+}
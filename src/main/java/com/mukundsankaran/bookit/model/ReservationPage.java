@@ -0,0 +1,66 @@
+package com.mukundsankaran.bookit.model;
+
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * ReservationPage Model - a page of reservations found by a lookup, with the cursor of the next page
+ */
+public class ReservationPage {
+
+    /**
+     * Reservations on the page
+     */
+    @NotNull
+    private List<Reservation> reservations = new ArrayList<>();
+
+    /**
+     * Cursor to pass to the lookup for the next page, or null if this is the last page
+     */
+    private String next;
+
+    /**
+     * Default Constructor
+     */
+    public ReservationPage() {
+        // No op
+    }
+
+    /**
+     * Constructs a ReservationPage
+     *
+     * @param reservations - reservations on the page
+     * @param next - cursor of the next page, or null if this is the last page
+     */
+    public ReservationPage(List<Reservation> reservations, String next) {
+        this.reservations = reservations;
+        this.next = next;
+    }
+
+    public @NotNull List<Reservation> getReservations() {
+        return reservations;
+    }
+
+    public void setReservations(@NotNull List<Reservation> reservations) {
+        this.reservations = reservations;
+    }
+
+    public String getNext() {
+        return next;
+    }
+
+    public void setNext(String next) {
+        this.next = next;
+    }
+
+    @Override
+    public String toString() {
+        return "ReservationPage{" +
+                "reservations=" + reservations +
+                ", next='" + next + '\'' +
+                '}';
+    }
+}
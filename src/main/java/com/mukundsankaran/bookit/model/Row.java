@@ -3,8 +3,7 @@ package com.mukundsankaran.bookit.model;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import java.io.Serializable;
-import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Arrays;
 
 /**
  * Created by mukund on 4/13/18.
@@ -13,8 +12,6 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class Row implements Serializable {
 
-    private static final AtomicInteger ID_GEN = new AtomicInteger();
-
     /**
      * Row ID - Unique for each Row
      */
@@ -28,9 +25,9 @@ public class Row implements Serializable {
     private int freeSeats;
 
     /**
-     * List of seats belonging to a row
+     * Seats belonging to a row, addressed by their position in the row
      */
-    private List<Seat> seats;
+    private Seat[] seats;
 
     /**
      * Default constructor
@@ -42,23 +39,51 @@ public class Row implements Serializable {
     /**
      * Constructs a Row
      *
+     * @param id - unique ID for the row
      * @param seatsInRow - the number of seats in the row
      */
-    public Row(int seatsInRow){
+    public Row(int id, int seatsInRow){
 
-        // Generate a unique ID for the Row
-        id = ID_GEN.incrementAndGet();
+        this.id = id;
 
-        List<Seat> seats = new ArrayList<>();
-        int seat = 0;
-        while(seat < seatsInRow){
-            seats.add(new Seat());
-            seat++;
+        Seat[] seats = new Seat[seatsInRow];
+        for(int seat = 0; seat < seatsInRow; seat++){
+            seats[seat] = new Seat(seat);
         }
         this.seats = seats;
         this.freeSeats = seatsInRow;
     }
 
+    /**
+     * Constructs a Row from its layout. Each character of the layout is a seat ('S'), an accessible seat ('A'), an
+     * aisle ('|') or a gap where there is no seat ('.'). Groups of seats are never placed across an aisle or a gap.
+     *
+     * @param id - unique ID for the row
+     * @param layout - the layout of the row
+     */
+    public Row(int id, String layout){
+
+        this.id = id;
+
+        Seat[] seats = new Seat[RowLayout.countSeats(layout)];
+        int seat = 0;
+        boolean separated = false;
+        for(int position = 0; position < layout.length(); position++){
+            char c = layout.charAt(position);
+            if(RowLayout.isSeat(c)){
+                seats[seat] = new Seat(seat);
+                seats[seat].setAccessible(c == RowLayout.ACCESSIBLE_SEAT);
+                seats[seat].setSeparated(separated && seat > 0);
+                separated = false;
+                seat++;
+            } else {
+                separated = true;
+            }
+        }
+        this.seats = seats;
+        this.freeSeats = seats.length;
+    }
+
     public @NotNull Integer getId() {
         return id;
     }
@@ -75,20 +100,114 @@ public class Row implements Serializable {
         this.freeSeats = freeSeats;
     }
 
-    public List<Seat> getSeats() {
+    public Seat[] getSeats() {
         return seats;
     }
 
-    public void setSeats(List<Seat> seats) {
+    public void setSeats(Seat[] seats) {
         this.seats = seats;
     }
 
+    /**
+     * Get a seat by its position in the row
+     *
+     * @param seatId - the position of the seat in the row
+     * @return the seat at the given position
+     */
+    public Seat getSeat(int seatId) {
+        return seats[seatId];
+    }
+
+    /**
+     * If "sequenceLength" contiguous seats are empty, find the position of the first seat in the sequence
+     *
+     * @param sequenceLength - the number of contiguous seats requested
+     * @return the position of the first seat in the sequence, if found, and -1 otherwise
+     */
+    public int findSequenceStart(int sequenceLength) {
+
+        int count = 0;
+
+        for(int seatId = 0; seatId < seats.length; seatId++) {
+            if(seats[seatId].isSeparated()) {
+                count = 0;
+            }
+            if(seats[seatId].getEmpty()) {
+                count++;
+                if(count == sequenceLength) {
+                    return seatId - sequenceLength + 1;
+                }
+            } else {
+                count = 0;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Find the next empty seat
+     *
+     * @param from - the position to start looking from
+     * @return the position of the first empty seat at or after "from", and -1 if there is none
+     */
+    public int nextEmptySeat(int from) {
+
+        for(int seatId = Math.max(from, 0); seatId < seats.length; seatId++) {
+            if(seats[seatId].getEmpty()) {
+                return seatId;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Count the empty seats that follow on from a seat, up to the next occupied seat, aisle or gap. Walking a row with
+     * nextEmptySeat and this visits each run of empty seats that a group could be placed in.
+     *
+     * @param start - the position of an empty seat
+     * @return the number of contiguous empty seats starting at "start"
+     */
+    public int emptyRunLength(int start) {
+
+        int seatId = start;
+
+        while(seatId < seats.length && seats[seatId].getEmpty() && (seatId == start || !seats[seatId].isSeparated())) {
+            seatId++;
+        }
+
+        return seatId - start;
+    }
+
+    /**
+     * Check if a sequence of seats is empty, and not split by an aisle or a gap
+     *
+     * @param start - the position of the first seat in the sequence
+     * @param sequenceLength - the number of seats in the sequence
+     * @return a boolean indicating whether every seat in the sequence is empty
+     */
+    public boolean isSequenceEmpty(int start, int sequenceLength) {
+
+        if(start < 0 || start + sequenceLength > seats.length) {
+            return false;
+        }
+
+        for(int seatId = start; seatId < start + sequenceLength; seatId++) {
+            if(!seats[seatId].getEmpty() || (seatId > start && seats[seatId].isSeparated())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     @Override
     public String toString() {
         return "Row{" +
                 "id=" + id +
                 ", freeSeats=" + freeSeats +
-                ", seats=" + seats +
+                ", seats=" + Arrays.toString(seats) +
                 '}';
     }
 }
@@ -0,0 +1,132 @@
+package com.mukundsankaran.bookit.model;
+
+import javax.validation.constraints.Min;
+import java.io.Serializable;
+
+/**
+ * Created by mukund on 4/19/18.
+ *
+ * RowAvailability Model - a summary of the free seats in a row, as seen when the row was searched
+ */
+public class RowAvailability implements Serializable {
+
+    /**
+     * Row ID
+     */
+    private int rowId;
+
+    /**
+     * Number of free seats in the row
+     */
+    @Min(0)
+    private int freeSeats;
+
+    /**
+     * Position of the first seat of a free sequence of the requested length, or -1 if there is none
+     */
+    private int sequenceStart;
+
+    /**
+     * Number of contiguous free seats from the start of the sequence, 0 if there is no sequence
+     */
+    @Min(0)
+    private int runLength;
+
+    /**
+     * Length of the longest run of free seats in the row
+     */
+    @Min(0)
+    private int largestRun;
+
+    /**
+     * Number of free seats with no free seat next to them in the row
+     */
+    @Min(0)
+    private int orphanedSeats;
+
+    /**
+     * Default Constructor
+     */
+    public RowAvailability() {
+        // No op
+    }
+
+    /**
+     * Constructs a RowAvailability
+     *
+     * @param rowId - Row ID
+     * @param freeSeats - number of free seats in the row
+     * @param sequenceStart - position of the first seat of a free sequence of the requested length, or -1
+     * @param runLength - number of contiguous free seats from the start of the sequence, or 0
+     * @param largestRun - length of the longest run of free seats in the row
+     * @param orphanedSeats - number of free seats with no free seat next to them in the row
+     */
+    public RowAvailability(int rowId, int freeSeats, int sequenceStart, int runLength, int largestRun, int orphanedSeats) {
+        this.rowId = rowId;
+        this.freeSeats = freeSeats;
+        this.sequenceStart = sequenceStart;
+        this.runLength = runLength;
+        this.largestRun = largestRun;
+        this.orphanedSeats = orphanedSeats;
+    }
+
+    public int getRowId() {
+        return rowId;
+    }
+
+    public void setRowId(int rowId) {
+        this.rowId = rowId;
+    }
+
+    public @Min(0) int getFreeSeats() {
+        return freeSeats;
+    }
+
+    public void setFreeSeats(@Min(0) int freeSeats) {
+        this.freeSeats = freeSeats;
+    }
+
+    public int getSequenceStart() {
+        return sequenceStart;
+    }
+
+    public void setSequenceStart(int sequenceStart) {
+        this.sequenceStart = sequenceStart;
+    }
+
+    public @Min(0) int getRunLength() {
+        return runLength;
+    }
+
+    public void setRunLength(@Min(0) int runLength) {
+        this.runLength = runLength;
+    }
+
+    public @Min(0) int getLargestRun() {
+        return largestRun;
+    }
+
+    public void setLargestRun(@Min(0) int largestRun) {
+        this.largestRun = largestRun;
+    }
+
+    public @Min(0) int getOrphanedSeats() {
+        return orphanedSeats;
+    }
+
+    public void setOrphanedSeats(@Min(0) int orphanedSeats) {
+        this.orphanedSeats = orphanedSeats;
+    }
+
+    @Override
+    public String toString() {
+        return "RowAvailability{" +
+                "rowId=" + rowId +
+                ", freeSeats=" + freeSeats +
+                ", sequenceStart=" + sequenceStart +
+                ", runLength=" + runLength +
+                ", largestRun=" + largestRun +
+                ", orphanedSeats=" + orphanedSeats +
+                '}';
+    }
+}
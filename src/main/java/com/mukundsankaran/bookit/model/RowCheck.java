@@ -0,0 +1,127 @@
+package com.mukundsankaran.bookit.model;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * RowCheck Model - how a row compared with the holds and reservations for its seats, as seen when the row was checked
+ */
+public class RowCheck implements Serializable {
+
+    /**
+     * Row ID
+     */
+    @NotNull
+    private Integer rowId;
+
+    /**
+     * Number of free seats recorded in the row
+     */
+    private int freeSeats;
+
+    /**
+     * Number of seats in the row that are free
+     */
+    @Min(0)
+    private int countedFreeSeats;
+
+    /**
+     * Number of seats in the row that would be free once its seats agree with the holds and reservations
+     */
+    @Min(0)
+    private int expectedFreeSeats;
+
+    /**
+     * Seats whose state disagrees with the holds and reservations, with the state they should be in
+     */
+    @NotNull
+    private Map<Integer, SeatState> driftedSeats = new HashMap<>();
+
+    /**
+     * Default Constructor
+     */
+    public RowCheck() {
+        // No op
+    }
+
+    /**
+     * Constructs a RowCheck
+     *
+     * @param rowId - Row ID
+     * @param freeSeats - number of free seats recorded in the row
+     */
+    public RowCheck(Integer rowId, int freeSeats) {
+        this.rowId = rowId;
+        this.freeSeats = freeSeats;
+    }
+
+    public @NotNull Integer getRowId() {
+        return rowId;
+    }
+
+    public void setRowId(@NotNull Integer rowId) {
+        this.rowId = rowId;
+    }
+
+    public int getFreeSeats() {
+        return freeSeats;
+    }
+
+    public void setFreeSeats(int freeSeats) {
+        this.freeSeats = freeSeats;
+    }
+
+    public @Min(0) int getCountedFreeSeats() {
+        return countedFreeSeats;
+    }
+
+    public void setCountedFreeSeats(@Min(0) int countedFreeSeats) {
+        this.countedFreeSeats = countedFreeSeats;
+    }
+
+    public @Min(0) int getExpectedFreeSeats() {
+        return expectedFreeSeats;
+    }
+
+    public void setExpectedFreeSeats(@Min(0) int expectedFreeSeats) {
+        this.expectedFreeSeats = expectedFreeSeats;
+    }
+
+    public @NotNull Map<Integer, SeatState> getDriftedSeats() {
+        return driftedSeats;
+    }
+
+    public void setDriftedSeats(@NotNull Map<Integer, SeatState> driftedSeats) {
+        this.driftedSeats = driftedSeats;
+    }
+
+    /**
+     * @return true if the free seat count of the row disagrees with its seats
+     */
+    public boolean isCounterDrifted() {
+        return freeSeats != countedFreeSeats;
+    }
+
+    /**
+     * @return true if the row disagrees with its seats, or its seats with the holds and reservations
+     */
+    public boolean isDrifted() {
+        return isCounterDrifted() || !driftedSeats.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "RowCheck{" +
+                "rowId=" + rowId +
+                ", freeSeats=" + freeSeats +
+                ", countedFreeSeats=" + countedFreeSeats +
+                ", expectedFreeSeats=" + expectedFreeSeats +
+                ", driftedSeats=" + driftedSeats +
+                '}';
+    }
+}
@@ -0,0 +1,86 @@
+package com.mukundsankaran.bookit.model;
+
+/**
+ * Created by mukund on 4/24/18.
+ *
+ * Row Layout
+ *
+ * The layout of a row as a string, with one character for each seat, aisle or gap, from one end of the row to the
+ * other. A row layout is only kept for rows that are more than a plain run of seats.
+ */
+public final class RowLayout {
+
+    public static final char SEAT = 'S';
+
+    /**
+     * A seat marked as accessible. Accessible seats are not kept back, seats are allocated as if they were standard.
+     */
+    public static final char ACCESSIBLE_SEAT = 'A';
+
+    public static final char AISLE = '|';
+
+    public static final char GAP = '.';
+
+    private RowLayout() {
+        // No op
+    }
+
+    /**
+     * Check if a layout character is a seat
+     *
+     * @param c - the layout character
+     * @return a boolean indicating whether the character is a seat
+     */
+    public static boolean isSeat(char c) {
+        return c == SEAT || c == ACCESSIBLE_SEAT;
+    }
+
+    /**
+     * Check if a layout is a plain run of seats
+     *
+     * @param layout - the layout
+     * @return a boolean indicating whether every character of the layout is a standard seat
+     */
+    public static boolean isPlain(String layout) {
+        for(int position = 0; position < layout.length(); position++) {
+            if(layout.charAt(position) != SEAT) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Count the seats in a layout
+     *
+     * @param layout - the layout
+     * @return the number of seats in the layout
+     */
+    public static int countSeats(String layout) {
+        int seats = 0;
+        for(int position = 0; position < layout.length(); position++) {
+            if(isSeat(layout.charAt(position))) {
+                seats++;
+            }
+        }
+        return seats;
+    }
+
+    /**
+     * Check that a layout only contains seats, aisles and gaps, and at least one seat
+     *
+     * @param layout - the layout
+     * @throws IllegalArgumentException if the layout is not valid
+     */
+    public static void validate(String layout) {
+        for(int position = 0; position < layout.length(); position++) {
+            char c = layout.charAt(position);
+            if(!isSeat(c) && c != AISLE && c != GAP) {
+                throw new IllegalArgumentException("Unknown character '" + c + "' in row layout " + layout);
+            }
+        }
+        if(countSeats(layout) == 0) {
+            throw new IllegalArgumentException("Row layout " + layout + " has no seats");
+        }
+    }
+}
@@ -2,7 +2,6 @@ package com.mukundsankaran.bookit.model;
 
 import javax.validation.constraints.NotNull;
 import java.io.Serializable;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Created by mukund on 4/15/18.
@@ -11,27 +10,43 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class Seat implements Serializable {
 
-    private static final AtomicInteger ID_GEN = new AtomicInteger();
-
     /**
-     * Seat ID - Unique for each Seat
+     * Seat ID - Position of the Seat within its Row, starting at 0
      */
     @NotNull
     private Integer id;
 
     /**
-     * Boolean property that indicates whether the seat is occupied
+     * Whether the seat is free, held or reserved
      */
     @NotNull
-    private Boolean empty;
+    private SeatState state;
+
+    /**
+     * Boolean property that indicates whether the seat is accessible
+     */
+    private boolean accessible;
+
+    /**
+     * Boolean property that indicates whether an aisle or a gap separates the seat from the previous seat in its Row
+     */
+    private boolean separated;
 
     /**
-     * Constructs a Seat
+     * Default Constructor
      */
     public Seat() {
-        // Generate a unique ID for the Seat
-        id = ID_GEN.incrementAndGet();
-        empty = true;
+        // No op
+    }
+
+    /**
+     * Constructs an empty Seat
+     *
+     * @param id - position of the Seat within its Row
+     */
+    public Seat(int id) {
+        this.id = id;
+        state = SeatState.FREE;
     }
 
     public @NotNull Integer getId() {
@@ -42,19 +57,44 @@ public class Seat implements Serializable {
         this.id = id;
     }
 
-    public @NotNull Boolean getEmpty() {
-        return empty;
+    public @NotNull SeatState getState() {
+        return state;
+    }
+
+    public void setState(@NotNull SeatState state) {
+        this.state = state;
+    }
+
+    /**
+     * @return a boolean indicating whether the seat is neither held nor reserved
+     */
+    public boolean getEmpty() {
+        return state == SeatState.FREE;
+    }
+
+    public boolean isAccessible() {
+        return accessible;
+    }
+
+    public void setAccessible(boolean accessible) {
+        this.accessible = accessible;
+    }
+
+    public boolean isSeparated() {
+        return separated;
     }
 
-    public void setEmpty(@NotNull Boolean empty) {
-        this.empty = empty;
+    public void setSeparated(boolean separated) {
+        this.separated = separated;
     }
 
     @Override
     public String toString() {
         return "Seat{" +
                 "id=" + id +
-                ", empty=" + empty +
+                ", state=" + state +
+                ", accessible=" + accessible +
+                ", separated=" + separated +
                 '}';
     }
 }
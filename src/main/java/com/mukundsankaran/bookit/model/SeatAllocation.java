@@ -0,0 +1,13 @@
+package com.mukundsankaran.bookit.model;
+
+/**
+ * Created by mukund on 4/26/18.
+ *
+ * Ways of choosing the best available seats for a group
+ */
+public enum SeatAllocation {
+    FRONT_FIRST,
+    CENTER_OUT,
+    BEST_FIT,
+    RANDOM_SPREAD
+}
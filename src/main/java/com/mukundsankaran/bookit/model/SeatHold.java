@@ -5,9 +5,10 @@ import javax.validation.constraints.Email;
 import javax.validation.constraints.NotNull;
 import java.io.Serializable;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Created by mukund on 4/11/18.
@@ -16,8 +17,6 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class SeatHold implements Serializable {
 
-    private static final AtomicInteger ID_GEN = new AtomicInteger();
-
     /**
      * SeatHold ID - Unique for each SeatHold
      */
@@ -49,6 +48,18 @@ public class SeatHold implements Serializable {
     @NotNull
     private Long holdTime;
 
+    /**
+     * Time for which the hold lasts, from the time it was made
+     */
+    @NotNull
+    private Long expiryTimeInMillis;
+
+    /**
+     * Class of the customer who requested the SeatHold
+     */
+    @NotNull
+    private CustomerClass customerClass;
+
     /**
      * Default Constructor
      */
@@ -59,22 +70,44 @@ public class SeatHold implements Serializable {
     /**
      * Constructs a SeatHold
      *
+     * @param id - unique ID for the SeatHold
      * @param seats - seats that make up the SeatHold
      * @param customerEmail - Email ID of the customer who requested the SeatHold
      * @param eventId - Event ID of the event for which the SeatHold was created
+     * @param customerClass - class of the customer who requested the SeatHold
+     * @param expiryTimeInMillis - time for which the hold lasts
      */
-    public SeatHold(Map<Integer, List<Integer>> seats, String customerEmail, Long eventId) {
-
-        // Generate Unique ID for SeatHold
-        id = ID_GEN.incrementAndGet();
+    public SeatHold(int id, Map<Integer, List<Integer>> seats, String customerEmail, Long eventId, CustomerClass customerClass, long expiryTimeInMillis) {
 
+        this.id = id;
         this.seats = seats;
         this.customerEmail = customerEmail;
         this.eventId = eventId;
+        this.customerClass = customerClass;
+        this.expiryTimeInMillis = expiryTimeInMillis;
         Instant instant = Instant.now();
         this.holdTime = instant.toEpochMilli();
     }
 
+    /**
+     * Constructs a copy of a SeatHold, with its own seat map
+     *
+     * @param hold - the SeatHold to copy
+     */
+    public SeatHold(SeatHold hold) {
+
+        this.id = hold.id;
+        this.seats = new LinkedHashMap<>();
+        for(Map.Entry<Integer, List<Integer>> rowSeats : hold.seats.entrySet()) {
+            this.seats.put(rowSeats.getKey(), new ArrayList<>(rowSeats.getValue()));
+        }
+        this.customerEmail = hold.customerEmail;
+        this.eventId = hold.eventId;
+        this.customerClass = hold.customerClass;
+        this.expiryTimeInMillis = hold.expiryTimeInMillis;
+        this.holdTime = hold.holdTime;
+    }
+
     public @NotNull Integer getId() {
         return id;
     }
@@ -115,6 +148,32 @@ public class SeatHold implements Serializable {
         this.holdTime = holdTime;
     }
 
+    public @NotNull Long getExpiryTimeInMillis() {
+        return expiryTimeInMillis;
+    }
+
+    public void setExpiryTimeInMillis(@NotNull Long expiryTimeInMillis) {
+        this.expiryTimeInMillis = expiryTimeInMillis;
+    }
+
+    public @NotNull CustomerClass getCustomerClass() {
+        return customerClass;
+    }
+
+    public void setCustomerClass(@NotNull CustomerClass customerClass) {
+        this.customerClass = customerClass;
+    }
+
+    /**
+     * Check if the hold has expired
+     *
+     * @param currentTime - the current time in milliseconds
+     * @return a boolean indicating whether the hold has expired
+     */
+    public boolean isExpired(long currentTime) {
+        return holdTime + expiryTimeInMillis <= currentTime;
+    }
+
     @Override
     public String toString() {
         return "SeatHold{" +
@@ -123,6 +182,8 @@ public class SeatHold implements Serializable {
                 ", seats=" + seats +
                 ", customerEmail='" + customerEmail + '\'' +
                 ", holdTime=" + holdTime +
+                ", expiryTimeInMillis=" + expiryTimeInMillis +
+                ", customerClass=" + customerClass +
                 '}';
     }
 }
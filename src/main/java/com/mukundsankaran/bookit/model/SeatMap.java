@@ -0,0 +1,84 @@
+package com.mukundsankaran.bookit.model;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Created by mukund on 4/18/18.
+ *
+ * SeatMap Model - a snapshot of the seat map, or of the rows which changed since an earlier snapshot
+ */
+public class SeatMap implements Serializable {
+
+    /**
+     * Version of the seat map the snapshot was taken at
+     */
+    @NotBlank
+    private String version;
+
+    /**
+     * Whether the snapshot contains every row, or only the rows which changed since the requested version
+     */
+    private boolean complete;
+
+    /**
+     * Rows contained in the snapshot
+     */
+    @NotNull
+    private List<SeatMapRow> rows;
+
+    /**
+     * Default Constructor
+     */
+    public SeatMap() {
+        // No op
+    }
+
+    /**
+     * Constructs a SeatMap
+     *
+     * @param version - version of the seat map the snapshot was taken at
+     * @param complete - whether the snapshot contains every row
+     * @param rows - rows contained in the snapshot
+     */
+    public SeatMap(String version, boolean complete, List<SeatMapRow> rows) {
+        this.version = version;
+        this.complete = complete;
+        this.rows = rows;
+    }
+
+    public @NotBlank String getVersion() {
+        return version;
+    }
+
+    public void setVersion(@NotBlank String version) {
+        this.version = version;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+
+    public @NotNull List<SeatMapRow> getRows() {
+        return rows;
+    }
+
+    public void setRows(@NotNull List<SeatMapRow> rows) {
+        this.rows = rows;
+    }
+
+    @Override
+    public String toString() {
+        return "SeatMap{" +
+                "version='" + version + '\'' +
+                ", complete=" + complete +
+                ", rows=" + rows +
+                '}';
+    }
+}
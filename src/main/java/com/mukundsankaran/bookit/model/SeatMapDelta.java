@@ -0,0 +1,116 @@
+package com.mukundsankaran.bookit.model;
+
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Created by mukund on 4/17/18.
+ *
+ * SeatMapDelta Model - the seats of a single row whose state changed
+ */
+public class SeatMapDelta implements Serializable {
+
+    /**
+     * Row ID of the row the seats belong to
+     */
+    @NotNull
+    private Integer rowId;
+
+    /**
+     * Seats which became free
+     */
+    @NotNull
+    private List<Integer> free = new ArrayList<>();
+
+    /**
+     * Seats which became held
+     */
+    @NotNull
+    private List<Integer> held = new ArrayList<>();
+
+    /**
+     * Seats which became reserved
+     */
+    @NotNull
+    private List<Integer> reserved = new ArrayList<>();
+
+    /**
+     * Default Constructor
+     */
+    public SeatMapDelta() {
+        // No op
+    }
+
+    /**
+     * Constructs an empty SeatMapDelta
+     *
+     * @param rowId - Row ID of the row the seats belong to
+     */
+    public SeatMapDelta(Integer rowId) {
+        this.rowId = rowId;
+    }
+
+    /**
+     * Record a change of seat state
+     *
+     * @param seatId - the position of the seat in the row
+     * @param state - the new state of the seat
+     */
+    public void add(int seatId, SeatState state) {
+        switch(state) {
+            case FREE:
+                free.add(seatId);
+                break;
+            case HELD:
+                held.add(seatId);
+                break;
+            case RESERVED:
+                reserved.add(seatId);
+                break;
+        }
+    }
+
+    public @NotNull Integer getRowId() {
+        return rowId;
+    }
+
+    public void setRowId(@NotNull Integer rowId) {
+        this.rowId = rowId;
+    }
+
+    public @NotNull List<Integer> getFree() {
+        return free;
+    }
+
+    public void setFree(@NotNull List<Integer> free) {
+        this.free = free;
+    }
+
+    public @NotNull List<Integer> getHeld() {
+        return held;
+    }
+
+    public void setHeld(@NotNull List<Integer> held) {
+        this.held = held;
+    }
+
+    public @NotNull List<Integer> getReserved() {
+        return reserved;
+    }
+
+    public void setReserved(@NotNull List<Integer> reserved) {
+        this.reserved = reserved;
+    }
+
+    @Override
+    public String toString() {
+        return "SeatMapDelta{" +
+                "rowId=" + rowId +
+                ", free=" + free +
+                ", held=" + held +
+                ", reserved=" + reserved +
+                '}';
+    }
+}
@@ -0,0 +1,103 @@
+package com.mukundsankaran.bookit.model;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+
+/**
+ * Created by mukund on 4/18/18.
+ *
+ * SeatMapRow Model - the packed state of every seat in a row
+ *
+ * Seat states are packed 2 bits per seat, 4 seats per byte, seat 0 in the lowest bits of the first byte.
+ * 0 means free, 1 held and 2 reserved (the ordinal of {@link SeatState}).
+ */
+public class SeatMapRow implements Serializable {
+
+    /**
+     * Row ID
+     */
+    @NotNull
+    private Integer rowId;
+
+    /**
+     * Number of seats in the row
+     */
+    @Min(0)
+    private int numSeats;
+
+    /**
+     * Seat map version at which the row last changed
+     */
+    @Min(0)
+    private long version;
+
+    /**
+     * Packed seat states
+     */
+    @NotNull
+    private byte[] seats;
+
+    /**
+     * Default Constructor
+     */
+    public SeatMapRow() {
+        // No op
+    }
+
+    /**
+     * Constructs a SeatMapRow
+     *
+     * @param rowId - Row ID
+     * @param numSeats - number of seats in the row
+     * @param version - seat map version at which the row last changed
+     * @param seats - packed seat states
+     */
+    public SeatMapRow(Integer rowId, int numSeats, long version, byte[] seats) {
+        this.rowId = rowId;
+        this.numSeats = numSeats;
+        this.version = version;
+        this.seats = seats;
+    }
+
+    public @NotNull Integer getRowId() {
+        return rowId;
+    }
+
+    public void setRowId(@NotNull Integer rowId) {
+        this.rowId = rowId;
+    }
+
+    public @Min(0) int getNumSeats() {
+        return numSeats;
+    }
+
+    public void setNumSeats(@Min(0) int numSeats) {
+        this.numSeats = numSeats;
+    }
+
+    public @Min(0) long getVersion() {
+        return version;
+    }
+
+    public void setVersion(@Min(0) long version) {
+        this.version = version;
+    }
+
+    public @NotNull byte[] getSeats() {
+        return seats;
+    }
+
+    public void setSeats(@NotNull byte[] seats) {
+        this.seats = seats;
+    }
+
+    @Override
+    public String toString() {
+        return "SeatMapRow{" +
+                "rowId=" + rowId +
+                ", numSeats=" + numSeats +
+                ", version=" + version +
+                '}';
+    }
+}
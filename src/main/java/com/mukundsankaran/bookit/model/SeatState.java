@@ -0,0 +1,12 @@
+package com.mukundsankaran.bookit.model;
+
+/**
+ * Created by mukund on 4/17/18.
+ *
+ * States a seat can be in
+ */
+public enum SeatState {
+    FREE,
+    HELD,
+    RESERVED
+}
@@ -0,0 +1,203 @@
+package com.mukundsankaran.bookit.model;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * TransactionTrace Model - where the time of one attempt at a transaction went
+ */
+public class TransactionTrace {
+
+    /**
+     * Operation the transaction belongs to
+     */
+    @NotNull
+    private String operation;
+
+    /**
+     * Time the transaction started
+     */
+    private long startTime;
+
+    /**
+     * Number of earlier attempts at the transaction that lost an optimistic conflict
+     */
+    @Min(0)
+    private int retries;
+
+    /**
+     * Time from the start of the transaction until it was committed or rolled back
+     */
+    @Min(0)
+    private long durationInMicros;
+
+    /**
+     * Time spent waiting in the hold lane before the transaction started
+     */
+    @Min(0)
+    private long laneWaitInMicros;
+
+    /**
+     * Time spent on the first access of each key, which is when a pessimistic transaction locks it
+     */
+    @Min(0)
+    private long lockWaitInMicros;
+
+    /**
+     * Time spent scanning caches
+     */
+    @Min(0)
+    private long scanInMicros;
+
+    /**
+     * Time spent committing, which is when an optimistic transaction locks its keys
+     */
+    @Min(0)
+    private long commitInMicros;
+
+    /**
+     * Whether the transaction was committed, rolled back or failed
+     */
+    private String outcome;
+
+    /**
+     * Keys the transaction locked, in the order it locked them, with the time the first access of each took
+     */
+    @NotNull
+    private Map<String, Long> keys = new LinkedHashMap<>();
+
+    /**
+     * Caches the transaction scanned, with the time the scans took
+     */
+    @NotNull
+    private Map<String, Long> scans = new LinkedHashMap<>();
+
+    /**
+     * Default Constructor
+     */
+    public TransactionTrace() {
+        // No op
+    }
+
+    /**
+     * Constructs a TransactionTrace
+     *
+     * @param operation - operation the transaction belongs to
+     * @param startTime - time the transaction started
+     * @param retries - number of earlier attempts at the transaction
+     */
+    public TransactionTrace(String operation, long startTime, int retries) {
+        this.operation = operation;
+        this.startTime = startTime;
+        this.retries = retries;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(long startTime) {
+        this.startTime = startTime;
+    }
+
+    public int getRetries() {
+        return retries;
+    }
+
+    public void setRetries(int retries) {
+        this.retries = retries;
+    }
+
+    public long getDurationInMicros() {
+        return durationInMicros;
+    }
+
+    public void setDurationInMicros(long durationInMicros) {
+        this.durationInMicros = durationInMicros;
+    }
+
+    public long getLaneWaitInMicros() {
+        return laneWaitInMicros;
+    }
+
+    public void setLaneWaitInMicros(long laneWaitInMicros) {
+        this.laneWaitInMicros = laneWaitInMicros;
+    }
+
+    public long getLockWaitInMicros() {
+        return lockWaitInMicros;
+    }
+
+    public void setLockWaitInMicros(long lockWaitInMicros) {
+        this.lockWaitInMicros = lockWaitInMicros;
+    }
+
+    public long getScanInMicros() {
+        return scanInMicros;
+    }
+
+    public void setScanInMicros(long scanInMicros) {
+        this.scanInMicros = scanInMicros;
+    }
+
+    public long getCommitInMicros() {
+        return commitInMicros;
+    }
+
+    public void setCommitInMicros(long commitInMicros) {
+        this.commitInMicros = commitInMicros;
+    }
+
+    public String getOutcome() {
+        return outcome;
+    }
+
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+
+    public Map<String, Long> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(Map<String, Long> keys) {
+        this.keys = keys;
+    }
+
+    public Map<String, Long> getScans() {
+        return scans;
+    }
+
+    public void setScans(Map<String, Long> scans) {
+        this.scans = scans;
+    }
+
+    @Override
+    public String toString() {
+        return "TransactionTrace{" +
+                "operation='" + operation + '\'' +
+                ", startTime=" + startTime +
+                ", retries=" + retries +
+                ", durationInMicros=" + durationInMicros +
+                ", laneWaitInMicros=" + laneWaitInMicros +
+                ", lockWaitInMicros=" + lockWaitInMicros +
+                ", scanInMicros=" + scanInMicros +
+                ", commitInMicros=" + commitInMicros +
+                ", outcome='" + outcome + '\'' +
+                ", keys=" + keys +
+                ", scans=" + scans +
+                '}';
+    }
+}
@@ -0,0 +1,102 @@
+package com.mukundsankaran.bookit.model;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Created by mukund on 4/23/18.
+ *
+ * Venue Definition Model
+ *
+ * Every event defined for the venue. Only the layout of each event is kept here, the events and rows themselves are
+ * loaded into the grid when they are first used.
+ */
+public class VenueDefinition implements Serializable {
+
+    /**
+     * Events ordered by the ID of their first row
+     */
+    private final List<EventDefinition> events;
+
+    private final Map<Long, EventDefinition> eventsById = new HashMap<>();
+
+    /**
+     * The event served by the TicketService
+     */
+    private final EventDefinition defaultEvent;
+
+    /**
+     * Constructs a VenueDefinition
+     *
+     * @param events - the events at the venue, the first is the default event
+     */
+    public VenueDefinition(List<EventDefinition> events) {
+
+        if(events.isEmpty()) {
+            throw new IllegalArgumentException("A venue needs at least one event");
+        }
+
+        for(EventDefinition event : events) {
+            if(eventsById.put(event.getId(), event) != null) {
+                throw new IllegalArgumentException("Duplicate event ID " + event.getId());
+            }
+        }
+
+        this.events = new ArrayList<>(events);
+        this.events.sort(Comparator.comparing(EventDefinition::getFirstRowId));
+        this.defaultEvent = events.get(0);
+    }
+
+    public List<EventDefinition> getEvents() {
+        return Collections.unmodifiableList(events);
+    }
+
+    public EventDefinition getDefaultEvent() {
+        return defaultEvent;
+    }
+
+    /**
+     * Get an event by its ID
+     *
+     * @param eventId - the event ID
+     * @return the event, or null if no event has the ID
+     */
+    public EventDefinition getEvent(long eventId) {
+        return eventsById.get(eventId);
+    }
+
+    /**
+     * Get the event a row belongs to
+     *
+     * @param rowId - the row ID
+     * @return the event, or null if the row belongs to no event
+     */
+    public EventDefinition getEventOfRow(int rowId) {
+
+        int low = 0;
+        int high = events.size() - 1;
+
+        // Find the last event whose first row is not after the row
+        while(low <= high) {
+            int mid = (low + high) >>> 1;
+            if(events.get(mid).getFirstRowId() <= rowId) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        if(high < 0 || !events.get(high).containsRow(rowId)) {
+            return null;
+        }
+
+        return events.get(high);
+    }
+
+    @Override
+    public String toString() {
+        return "VenueDefinition{" +
+                "events=" + events +
+                '}';
+    }
+}
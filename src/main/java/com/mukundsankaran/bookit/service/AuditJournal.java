@@ -0,0 +1,48 @@
+package com.mukundsankaran.bookit.service;
+
+import com.mukundsankaran.bookit.model.SeatHold;
+
+import java.nio.file.Path;
+
+/**
+ * Created by mukund on 4/25/18.
+ *
+ * BookIt Audit Journal Interface
+ *
+ * Records every committed hold, reservation and expiry in an append-only journal, see JournalReplay to read it back
+ */
+
+public interface AuditJournal {
+    /**
+     * Record that seats were held
+     *
+     * @param hold the new hold
+     */
+    void recordHold(SeatHold hold);
+    /**
+     * Record that a hold was reserved
+     *
+     * @param hold the reserved hold
+     * @param reservationId the reservation confirmation code
+     */
+    void recordReserve(SeatHold hold, String reservationId);
+    /**
+     * Record that a hold expired and its seats were freed
+     *
+     * @param hold the expired hold
+     */
+    void recordExpire(SeatHold hold);
+    /**
+     * Wait until every record queued so far has been written to the journal
+     *
+     * @param timeoutInMillis the maximum time to wait
+     * @return true if the records were written, false if the wait timed out or journaling is disabled
+     */
+    boolean flush(long timeoutInMillis) throws InterruptedException;
+    /**
+     * The journal file this node is writing to
+     *
+     * @return the journal file, or null if journaling is disabled
+     */
+    Path getFile();
+}
@@ -0,0 +1,81 @@
+package com.mukundsankaran.bookit.service;
+
+import com.mukundsankaran.bookit.model.CacheName;
+import com.mukundsankaran.bookit.model.HotKey;
+import com.mukundsankaran.bookit.model.TransactionTrace;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.transactions.Transaction;
+
+import java.util.List;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * BookIt Contention Profiler Interface
+ *
+ * Traces transactions to show where their time goes - waiting in the hold lane, locking keys, scanning caches or
+ * committing - and which keys shared by many transactions take the longest to lock
+ */
+
+public interface ContentionProfiler {
+    /**
+     * @return true if transactions are being profiled
+     */
+    boolean isEnabled();
+
+    /**
+     * Start tracing an attempt at a transaction on this thread
+     *
+     * @param operation the operation the transaction belongs to
+     * @param tx the transaction
+     * @param retries the number of earlier attempts at the transaction
+     * @return the transaction to run the work in, which times the commit
+     */
+    Transaction begin(TransactionExecutor.Operation operation, Transaction tx, int retries);
+
+    /**
+     * Finish tracing the transaction on this thread
+     *
+     * @param failure the reason the transaction failed, or null if it did not fail
+     */
+    void end(Throwable failure);
+
+    /**
+     * Profile the accesses to a cache made by traced transactions
+     *
+     * @param name the name of the cache
+     * @param cache the cache
+     * @param <K> the type of the keys
+     * @param <V> the type of the values
+     * @return the cache to use
+     */
+    <K, V> IgniteCache<K, V> profile(CacheName name, IgniteCache<K, V> cache);
+
+    /**
+     * Record that this thread entered the hold lane. Transactions started before it leaves are traced with the wait.
+     *
+     * @param waitInNanos the time spent waiting to enter
+     */
+    void laneEntered(long waitInNanos);
+
+    /**
+     * Record that this thread left the hold lane
+     */
+    void laneExited();
+
+    /**
+     * @param limit the number of keys
+     * @return the keys that took transactions the longest to lock in total, longest first
+     */
+    List<HotKey> getHotKeys(int limit);
+
+    /**
+     * @return the most recent transactions that took longer than the threshold, slowest first
+     */
+    List<TransactionTrace> getSlowTransactions();
+
+    /**
+     * Forget the hot keys and slow transactions recorded so far
+     */
+    void reset();
+}
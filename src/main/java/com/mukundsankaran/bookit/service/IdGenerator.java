@@ -0,0 +1,19 @@
+package com.mukundsankaran.bookit.service;
+
+/**
+ * Created by mukund on 4/16/18.
+ *
+ * BookIt ID Generator Interface
+ *
+ * IDs handed out by the generator are unique across all nodes of the cluster and across node restarts, and across
+ * cluster restarts as long as the audit journal is kept
+ */
+
+public interface IdGenerator {
+    /**
+     * Generate the next SeatHold ID
+     *
+     * @return a cluster-wide unique SeatHold ID
+     */
+    int nextSeatHoldId();
+}
@@ -0,0 +1,21 @@
+package com.mukundsankaran.bookit.service;
+
+import com.mukundsankaran.bookit.model.InventoryReport;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * BookIt Inventory Checker Interface
+ *
+ * Checks that the seats available for each event, the free seats of each row and the state of each seat agree with
+ * each other and with the holds and reservations, and repairs drift that persists
+ */
+
+public interface InventoryChecker {
+    /**
+     * Check the seat inventory of every event. Drift that was also found by the previous check is repaired.
+     *
+     * @return the drift found and what was repaired
+     */
+    InventoryReport check();
+}
@@ -0,0 +1,19 @@
+package com.mukundsankaran.bookit.service;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * BookIt Rate Limiter Interface
+ *
+ * Limits how often a customer or a client may attempt to hold seats, across the cluster
+ */
+
+public interface RateLimiter {
+    /**
+     * Take a permit for an attempt
+     *
+     * @param key the customer or client making the attempt
+     * @return true if the attempt may go ahead, false if the key has made too many attempts
+     */
+    boolean tryAcquire(String key);
+}
@@ -0,0 +1,24 @@
+package com.mukundsankaran.bookit.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Created by mukund on 4/26/18.
+ *
+ * BookIt Reservation Exporter Interface
+ *
+ * Exports every reservation as gzip-compressed CSV
+ */
+
+public interface ReservationExporter {
+    /**
+     * Export every reservation. The output is a CSV file with a header line, compressed as a sequence of gzip members,
+     * and reservations appear in no particular order.
+     *
+     * @param out the stream the export is written to, left open
+     * @return the number of reservations exported
+     * @throws IOException if the export could not be written
+     */
+    long export(OutputStream out) throws IOException;
+}
@@ -0,0 +1,74 @@
+package com.mukundsankaran.bookit.service;
+
+import com.mukundsankaran.bookit.model.Reservation;
+import com.mukundsankaran.bookit.model.ReservationPage;
+
+import java.util.function.Consumer;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * BookIt Reservation Index Interface
+ *
+ * Finds reservations by customer, by event and by seat without scanning every reservation. A reservation is added to
+ * the index in the transaction that makes it.
+ */
+
+public interface ReservationIndex {
+    /**
+     * Add a reservation to the index. Must be called in the transaction that puts the reservation.
+     *
+     * @param reservation the reservation
+     */
+    void add(Reservation reservation);
+
+    /**
+     * Check if a customer has a reservation for an event
+     *
+     * @param customerEmail the email address of the customer
+     * @param eventId the event
+     * @return true if the customer has a reservation for the event
+     */
+    boolean hasReservation(String customerEmail, Long eventId);
+
+    /**
+     * Find the reservations of a customer, a page at a time, oldest first
+     *
+     * @param customerEmail the email address of the customer
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param limit the maximum number of reservations on the page
+     * @return the page of reservations
+     * @throws IllegalArgumentException if the cursor is not valid
+     */
+    ReservationPage findByCustomer(String customerEmail, String cursor, int limit);
+
+    /**
+     * Find the reservations for an event, a page at a time
+     *
+     * @param eventId the event
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param limit the maximum number of reservations on the page
+     * @return the page of reservations
+     * @throws IllegalArgumentException if the cursor is not valid
+     */
+    ReservationPage findByEvent(Long eventId, String cursor, int limit);
+
+    /**
+     * Find the reservation of a seat
+     *
+     * @param eventId the event
+     * @param rowId the row of the seat
+     * @param seatId the position of the seat in the row
+     * @return the reservation, or null if the seat is not reserved
+     */
+    Reservation findBySeat(Long eventId, int rowId, int seatId);
+
+    /**
+     * Hand every reservation for an event to an action, reading them a page at a time
+     *
+     * @param eventId the event
+     * @param action the action
+     * @return the number of reservations
+     */
+    long forEachByEvent(Long eventId, Consumer<Reservation> action);
+}
@@ -0,0 +1,21 @@
+package com.mukundsankaran.bookit.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Created by mukund on 4/17/18.
+ *
+ * BookIt Seat Map Feed Interface
+ *
+ * Pushes changes to the seat map to subscribed clients as they happen
+ */
+
+public interface SeatMapFeed {
+    /**
+     * Subscribe to seat map changes. The first event delivered to a new subscriber contains every seat that is
+     * currently held or reserved, subsequent events only contain seats whose state changed.
+     *
+     * @return an emitter delivering seat map changes, or null if the node cannot accept more subscribers
+     */
+    SseEmitter subscribe();
+}
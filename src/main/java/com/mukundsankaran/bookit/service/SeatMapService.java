@@ -0,0 +1,55 @@
+package com.mukundsankaran.bookit.service;
+
+import com.mukundsankaran.bookit.model.SeatMap;
+import com.mukundsankaran.bookit.model.SeatState;
+
+/**
+ * Created by mukund on 4/18/18.
+ *
+ * BookIt Seat Map Service Interface
+ *
+ * Keeps a node-local copy of the state of every seat, updated incrementally as seats are held, reserved and freed
+ */
+
+public interface SeatMapService {
+    /**
+     * The current version of the seat map. Versions are opaque and only comparable when issued by the same node.
+     *
+     * @return the current seat map version
+     */
+    String getVersion();
+    /**
+     * Take a snapshot of the seat map
+     *
+     * @param sinceVersion a version returned by an earlier snapshot, or null for a complete snapshot
+     * @return the rows which changed since the given version, or every row if the version is null or unknown
+     */
+    SeatMap getSeatMap(String sinceVersion);
+    /**
+     * Visit every seat that is currently held or reserved
+     *
+     * @param visitor the visitor
+     */
+    void visitSeats(SeatChangeListener visitor);
+    /**
+     * Register a listener that is told about every seat state change
+     *
+     * @param listener the listener
+     */
+    void addListener(SeatChangeListener listener);
+
+    /**
+     * Receives seat state changes
+     */
+    @FunctionalInterface
+    interface SeatChangeListener {
+        /**
+         * Called when a seat changes state
+         *
+         * @param rowId the row the seat belongs to
+         * @param seatId the position of the seat in the row
+         * @param state the new state of the seat
+         */
+        void onSeatChanged(int rowId, int seatId, SeatState state);
+    }
+}
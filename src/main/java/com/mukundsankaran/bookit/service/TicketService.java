@@ -1,5 +1,6 @@
 package com.mukundsankaran.bookit.service;
 
+import com.mukundsankaran.bookit.model.HoldRequest;
 import com.mukundsankaran.bookit.model.SeatHold;
 
 /**
@@ -25,6 +26,19 @@ public interface TicketService {
     information
      */
     SeatHold findAndHoldSeats(int numSeats, String customerEmail);
+    /**
+     * Find and hold the best available seats for a request. The class of the customer decides how long the seats are
+     * held, and whether the request goes ahead of requests from other customers: a hold lasts for the time set for
+     * the customer class if there is one, else for the time set by the event, else for the venue default.
+     *
+     * Customers and clients that make too many attempts are turned away. A retry with the same request ID returns the
+     * hold made by the first attempt.
+     *
+     * @param request the number of seats, the customer, the client making the request and the request ID
+     * @return a SeatHold object identifying the specific seats and related information, or null if the request was
+     * invalid, could not be met or was turned away
+     */
+    SeatHold findAndHoldSeats(HoldRequest request);
     /**
      * Commit seats held for a specific customer
      *
@@ -34,4 +48,14 @@ public interface TicketService {
      * @return a reservation confirmation code
      */
     String reserveSeats(int seatHoldId, String customerEmail);
+    /**
+     * Commit seats held for a specific customer, at most once per request ID. A retry with the same request ID
+     * returns the confirmation code of the first attempt.
+     *
+     * @param seatHoldId the seat hold identifier
+     * @param customerEmail the email address of the customer to which the seat hold is assigned
+     * @param requestId identifier the client chose for the request, or null if retries are not to be recognized
+     * @return a reservation confirmation code
+     */
+    String reserveSeats(int seatHoldId, String customerEmail, String requestId);
 }
@@ -0,0 +1,50 @@
+package com.mukundsankaran.bookit.service;
+
+import org.apache.ignite.transactions.Transaction;
+
+/**
+ * Created by mukund on 4/21/18.
+ *
+ * BookIt Transaction Executor Interface
+ *
+ * Runs work in an Ignite transaction started with the concurrency and isolation configured for the operation, and
+ * retries the work when an optimistic transaction loses a conflict
+ */
+
+public interface TransactionExecutor {
+    /**
+     * Run work in a transaction. The work is responsible for committing the transaction, a transaction that is not
+     * committed is rolled back when the work returns.
+     *
+     * @param operation the operation the work belongs to
+     * @param work the work
+     * @param <T> the type of the result of the work
+     * @return the result of the work
+     */
+    <T> T execute(Operation operation, TransactionalWork<T> work);
+
+    /**
+     * Operations with their own transaction policy
+     */
+    enum Operation {
+        HOLD,
+        RESERVE,
+        EXPIRE
+    }
+
+    /**
+     * Work that runs in a transaction, and may run more than once
+     *
+     * @param <T> the type of the result of the work
+     */
+    @FunctionalInterface
+    interface TransactionalWork<T> {
+        /**
+         * Run the work
+         *
+         * @param tx the transaction the work runs in
+         * @return the result of the work
+         */
+        T run(Transaction tx);
+    }
+}
@@ -0,0 +1,335 @@
+package com.mukundsankaran.bookit.service.impl;
+
+import com.mukundsankaran.bookit.allocation.Fragmentation;
+import com.mukundsankaran.bookit.allocation.SeatAllocationStrategies;
+import com.mukundsankaran.bookit.allocation.SeatAllocationStrategy;
+import com.mukundsankaran.bookit.config.BookItProperties;
+import com.mukundsankaran.bookit.model.*;
+import com.mukundsankaran.bookit.service.AuditJournal;
+import com.mukundsankaran.bookit.service.RateLimiter;
+import com.mukundsankaran.bookit.service.TicketService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.annotation.PostConstruct;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * The part of a BookIt Ticket Service that does not depend on where the seats are kept, shared by the grid and local
+ * engines
+ *
+ * A request to hold seats is answered from the outcome of an earlier attempt when it carries a request ID that has
+ * been seen before, then checked against the rate limits of the customer and the client, and then waits its turn in
+ * the hold lane, where customers in a priority class go first. The engine places the hold once the request is through
+ * the lane. Reservations are replayed the same way, and expired holds are swept every minute.
+ *
+ * Records how many holds were seated together and how many had to be spread over rows, as the "bookit.holds" counter
+ * tagged with the placement. The fragmentation and orphaned seats of the event, as seen by the latest search for seats,
+ * are the "bookit.seats.fragmentation" and "bookit.seats.orphaned" gauges. Attempts turned away by the rate limiter
+ * are counted as "bookit.holds.throttled", tagged with whether the customer or the client was over its limit, and
+ * retries answered from an earlier outcome as "bookit.requests.replayed".
+ */
+abstract class AbstractTicketService implements TicketService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbstractTicketService.class);
+
+    @Autowired
+    protected BookItProperties bookItProperties;
+
+    @Autowired
+    protected VenueDefinition venueDefinition;
+
+    @Autowired
+    protected AuditJournal auditJournal;
+
+    @Autowired
+    protected MeterRegistry meterRegistry;
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    protected final HoldLane holdLane = new HoldLane();
+
+    protected HoldPolicy holdPolicy;
+
+    private SeatAllocation defaultSeatAllocation;
+
+    protected Counter contiguousHolds;
+
+    protected Counter staggeredHolds;
+
+    private Counter throttledCustomers;
+
+    private Counter throttledClients;
+
+    protected Counter replayedHolds;
+
+    protected Counter replayedReservations;
+
+    private volatile double fragmentation;
+
+    private volatile int orphanedSeats;
+
+    /**
+     * Initialize the parts of TicketService shared by the engines, ahead of the engine itself
+     */
+    @PostConstruct
+    private void initShared() {
+        holdPolicy = new HoldPolicy(bookItProperties.getVenue());
+        defaultSeatAllocation = SeatAllocation.valueOf(bookItProperties.getVenue().getSeatAllocation().toUpperCase());
+
+        contiguousHolds = meterRegistry.counter("bookit.holds", "placement", "contiguous");
+        staggeredHolds = meterRegistry.counter("bookit.holds", "placement", "staggered");
+        throttledCustomers = meterRegistry.counter("bookit.holds.throttled", "key", "customer");
+        throttledClients = meterRegistry.counter("bookit.holds.throttled", "key", "client");
+        replayedHolds = meterRegistry.counter("bookit.requests.replayed", "operation", "hold");
+        replayedReservations = meterRegistry.counter("bookit.requests.replayed", "operation", "reserve");
+        Gauge.builder("bookit.seats.fragmentation", this, service -> service.fragmentation).register(meterRegistry);
+        Gauge.builder("bookit.seats.orphaned", this, service -> service.orphanedSeats).register(meterRegistry);
+        Gauge.builder("bookit.holds.priorityWaiting", holdLane, HoldLane::getPriorityWaiting).register(meterRegistry);
+    }
+
+    /**
+     * Find and hold the best available seats for a customer
+     *
+     * @param numSeats the number of seats to find and hold
+     * @param customerEmail unique identifier for the customer
+     * @return a SeatHold object identifying the specific seats and related information
+     */
+    public SeatHold findAndHoldSeats(int numSeats, String customerEmail) {
+        return findAndHoldSeats(numSeats, customerEmail, CustomerClass.GENERAL, null, null);
+    }
+
+    /**
+     * Find and hold the best available seats for a request. Customers in a priority class go ahead of other customers
+     * waiting to hold seats on this node.
+     *
+     * @param request the number of seats, the customer, the client making the request and the request ID
+     * @return a SeatHold object identifying the specific seats and related information
+     */
+    public SeatHold findAndHoldSeats(HoldRequest request) {
+        return findAndHoldSeats(request.getNumSeats(), request.getCustomerEmail(),
+                request.getCustomerClass() == null ? CustomerClass.GENERAL : request.getCustomerClass(),
+                request.getClientId(), request.getRequestId());
+    }
+
+    /**
+     * Find and hold the best available seats for a customer. Customers in a priority class go ahead of other customers
+     * waiting to hold seats on this node.
+     *
+     * @param numSeats - the number of seats to find and hold
+     * @param customerEmail - unique identifier for the customer
+     * @param customerClass - the class of the customer
+     * @param clientId - identifier of the client making the request, or null if unknown
+     * @param requestId - identifier the client chose for the request, or null
+     * @return a SeatHold object identifying the specific seats and related information
+     */
+    private SeatHold findAndHoldSeats(int numSeats, String customerEmail, CustomerClass customerClass, String clientId, String requestId) {
+
+        String requestKey = requestKey("hold", customerEmail, requestId);
+
+        // A retry is answered before it counts against any limit
+        if(requestKey != null) {
+            SeatHold hold = (SeatHold) getRequestOutcome(requestKey);
+            if(hold != null) {
+                replayedHolds.increment();
+                return hold;
+            }
+        }
+
+        if(customerEmail != null && !rateLimiter.tryAcquire("customer:" + customerEmail.toLowerCase())) {
+            if(logger.isDebugEnabled()) {
+                logger.debug("Unable to service request from customer {}. Too many attempts by the customer.", customerEmail);
+            }
+            throttledCustomers.increment();
+            return null;
+        }
+
+        if(clientId != null && !rateLimiter.tryAcquire("client:" + clientId)) {
+            if(logger.isDebugEnabled()) {
+                logger.debug("Unable to service request from customer {}. Too many attempts by client {}.", customerEmail, clientId);
+            }
+            throttledClients.increment();
+            return null;
+        }
+
+        long laneStartTime = System.nanoTime();
+
+        try {
+            holdLane.enter(holdPolicy.isPriority(customerClass));
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+
+        onLaneEntered(System.nanoTime() - laneStartTime);
+
+        try {
+            return holdSeats(numSeats, customerEmail, customerClass, requestKey);
+        } finally {
+            onLaneExited();
+            holdLane.exit();
+        }
+    }
+
+    /**
+     * Find and hold the best available seats for a customer. Only one hold is placed at a time on this node, callers
+     * take their turn through the hold lane.
+     *
+     * @param numSeats - the number of seats to find and hold
+     * @param customerEmail - unique identifier for the customer
+     * @param customerClass - the class of the customer, which decides how long the seats are held
+     * @param requestKey - the key the hold is recorded under, or null
+     * @return a SeatHold object identifying the specific seats and related information
+     */
+    protected abstract SeatHold holdSeats(int numSeats, String customerEmail, CustomerClass customerClass, String requestKey);
+
+    /**
+     * Called once a request to hold seats is through the hold lane
+     *
+     * @param waitTimeInNanos - how long the request waited in the lane
+     */
+    protected void onLaneEntered(long waitTimeInNanos) {
+        // No op
+    }
+
+    /**
+     * Called once a request to hold seats leaves the hold lane
+     */
+    protected void onLaneExited() {
+        // No op
+    }
+
+    /**
+     * Commit seats held for a specific customer
+     *
+     * @param seatHoldId the seat hold identifier
+     * @param customerEmail the email address of the customer to which the seat hold is assigned
+     * @return a reservation confirmation code
+     */
+    public String reserveSeats(int seatHoldId, String customerEmail) {
+        return reserveSeats(seatHoldId, customerEmail, null);
+    }
+
+    /**
+     * Commit seats held for a specific customer, at most once per request ID
+     *
+     * @param seatHoldId the seat hold identifier
+     * @param customerEmail the email address of the customer to which the seat hold is assigned
+     * @param requestId identifier the client chose for the request, or null if retries are not to be recognized
+     * @return a reservation confirmation code
+     */
+    public String reserveSeats(int seatHoldId, String customerEmail, String requestId) {
+
+        if(logger.isDebugEnabled()) {
+            logger.debug("Attempting to reserve hold with ID {} for customer {}.", seatHoldId, customerEmail);
+        }
+
+        String requestKey = requestKey("reserve", customerEmail, requestId);
+
+        if(requestKey != null) {
+            String reservationId = (String) getRequestOutcome(requestKey);
+            if(reservationId != null) {
+                replayedReservations.increment();
+                return reservationId;
+            }
+        }
+
+        return reserve(seatHoldId, customerEmail, requestKey);
+    }
+
+    /**
+     * Reserve the seats of a hold
+     *
+     * @param seatHoldId - the seat hold identifier
+     * @param customerEmail - the email address of the customer to which the seat hold is assigned
+     * @param requestKey - the key the reservation is recorded under, or null
+     * @return a reservation confirmation code, or null if the customer has no such hold
+     */
+    protected abstract String reserve(int seatHoldId, String customerEmail, String requestKey);
+
+    /**
+     * A scheduled task that checks for and cleans up expired holds every minute
+     */
+    @Scheduled(fixedDelay = 60000)
+    private void expireHolds() {
+
+        if(logger.isDebugEnabled()) {
+            logger.debug("Checking for expired holds.");
+        }
+
+        expireHolds(Instant.now().toEpochMilli());
+    }
+
+    /**
+     * Free the seats of holds that have expired by a given time
+     *
+     * @param currentTime - the time, in milliseconds since the epoch
+     */
+    protected abstract void expireHolds(long currentTime);
+
+    /**
+     * Look up the outcome of an earlier attempt at a request
+     *
+     * @param requestKey - the key the outcome is recorded under
+     * @return the outcome, or null if no attempt has succeeded lately
+     */
+    protected abstract Object getRequestOutcome(String requestKey);
+
+    /**
+     * Build the key a request's outcome is recorded under. Request IDs are chosen by clients, so they are scoped to
+     * the operation and the customer.
+     *
+     * @param operation - the operation requested
+     * @param customerEmail - the customer the request is for
+     * @param requestId - the request ID, or null
+     * @return the key, or null if there is no request ID
+     */
+    private static String requestKey(String operation, String customerEmail, String requestId) {
+
+        if(requestId == null || customerEmail == null) {
+            return null;
+        }
+
+        return operation + ':' + customerEmail.toLowerCase() + ':' + requestId;
+    }
+
+    /**
+     * @param eventDefinition - the event
+     * @return the strategy that chooses seats for the event
+     */
+    protected SeatAllocationStrategy getStrategy(EventDefinition eventDefinition) {
+        return SeatAllocationStrategies.get(eventDefinition.getSeatAllocation() == null
+                ? defaultSeatAllocation : eventDefinition.getSeatAllocation());
+    }
+
+    /**
+     * Update the fragmentation gauges from the rows of the latest search
+     *
+     * @param availability - a summary of each row with free seats
+     */
+    protected void measureFragmentation(List<RowAvailability> availability) {
+
+        long freeSeats = 0;
+        long largestRuns = 0;
+        int orphaned = 0;
+
+        for(int index = 0; index < availability.size(); index++) {
+            RowAvailability row = availability.get(index);
+            freeSeats += row.getFreeSeats();
+            largestRuns += row.getLargestRun();
+            orphaned += row.getOrphanedSeats();
+        }
+
+        fragmentation = Fragmentation.of(largestRuns, freeSeats);
+        orphanedSeats = orphaned;
+    }
+}
@@ -0,0 +1,280 @@
+package com.mukundsankaran.bookit.service.impl;
+
+import com.mukundsankaran.bookit.config.BookItProperties;
+import com.mukundsankaran.bookit.journal.JournalFormat;
+import com.mukundsankaran.bookit.model.JournalRecord;
+import com.mukundsankaran.bookit.model.SeatHold;
+import com.mukundsankaran.bookit.service.AuditJournal;
+import org.apache.ignite.Ignite;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Created by mukund on 4/25/18.
+ *
+ * BookIt Audit Journal Implementation
+ *
+ * Callers only queue records. A single writer thread drains the queue, encodes whatever has accumulated as one batch
+ * and appends it to the journal with one write and one sync, so the hold path never touches the disk. If the writer
+ * falls so far behind that the queue fills up, callers wait for room rather than lose records.
+ *
+ * Each node writes its own journal, and starts a new file every time it starts. Hold IDs carry on from the highest
+ * hold ID in the journal directory after a cluster restart, so a hold ID identifies a single hold across the files.
+ */
+
+@Service
+public class AuditJournalImpl implements AuditJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditJournalImpl.class);
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS");
+
+    /**
+     * The data grid, or null when the seat inventory is kept in this JVM alone
+     */
+    @Autowired(required = false)
+    private Ignite ignite;
+
+    @Autowired
+    private BookItProperties bookItProperties;
+
+    private BlockingQueue<JournalRecord> queue;
+
+    private Path file;
+
+    private FileChannel channel;
+
+    private Thread writer;
+
+    private volatile boolean running;
+
+    /**
+     * Number of records queued so far
+     */
+    private final AtomicLong queued = new AtomicLong();
+
+    /**
+     * Number of records the writer has appended, or failed to append, so far
+     */
+    private long written;
+
+    private final Object writtenLock = new Object();
+
+    /**
+     * Initialize AuditJournal
+     */
+    @PostConstruct
+    private void init() throws IOException {
+
+        BookItProperties.Journal journal = bookItProperties.getJournal();
+
+        if(!journal.isEnabled()) {
+            return;
+        }
+
+        Path directory = Paths.get(journal.getDirectory());
+        Files.createDirectories(directory);
+
+        String nodeId = ignite == null ? "local" : ignite.cluster().localNode().id().toString().substring(0, 8);
+        file = directory.resolve("bookit-" + LocalDateTime.now().format(FILE_TIMESTAMP) + "-" + nodeId + ".journal");
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+        queue = new LinkedBlockingQueue<>(journal.getQueueCapacity());
+        running = true;
+        writer = new Thread(this::write, "audit-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+
+        if(logger.isDebugEnabled()) {
+            logger.debug("Audit journal started at {}.", file);
+        }
+    }
+
+    /**
+     * Stop AuditJournal, once every queued record is written
+     */
+    @PreDestroy
+    private void close() throws IOException, InterruptedException {
+
+        if(writer == null) {
+            return;
+        }
+
+        running = false;
+        writer.join();
+        channel.close();
+    }
+
+    /**
+     * Record that seats were held
+     *
+     * @param hold the new hold
+     */
+    public void recordHold(SeatHold hold) {
+
+        if(queue == null) {
+            return;
+        }
+
+        JournalRecord record = new JournalRecord(JournalRecord.Type.HOLD, System.currentTimeMillis(), hold.getId(), hold.getEventId());
+        record.setCustomerEmail(hold.getCustomerEmail());
+        record.setSeats(hold.getSeats());
+        enqueue(record);
+    }
+
+    /**
+     * Record that a hold was reserved
+     *
+     * @param hold the reserved hold
+     * @param reservationId the reservation confirmation code
+     */
+    public void recordReserve(SeatHold hold, String reservationId) {
+
+        if(queue == null) {
+            return;
+        }
+
+        JournalRecord record = new JournalRecord(JournalRecord.Type.RESERVE, System.currentTimeMillis(), hold.getId(), hold.getEventId());
+        record.setReservationId(reservationId);
+        enqueue(record);
+    }
+
+    /**
+     * Record that a hold expired and its seats were freed
+     *
+     * @param hold the expired hold
+     */
+    public void recordExpire(SeatHold hold) {
+
+        if(queue == null) {
+            return;
+        }
+
+        enqueue(new JournalRecord(JournalRecord.Type.EXPIRE, System.currentTimeMillis(), hold.getId(), hold.getEventId()));
+    }
+
+    /**
+     * The journal file this node is writing to
+     *
+     * @return the journal file, or null if journaling is disabled
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Wait until every record queued so far has been written to the journal
+     *
+     * @param timeoutInMillis the maximum time to wait
+     * @return true if the records were written, false if the wait timed out or journaling is disabled
+     */
+    public boolean flush(long timeoutInMillis) throws InterruptedException {
+
+        if(queue == null) {
+            return false;
+        }
+
+        long target = queued.get();
+        long deadline = System.currentTimeMillis() + timeoutInMillis;
+
+        synchronized(writtenLock) {
+            while(written < target) {
+                long remaining = deadline - System.currentTimeMillis();
+                if(remaining <= 0) {
+                    return false;
+                }
+                writtenLock.wait(remaining);
+            }
+        }
+
+        return true;
+    }
+
+    private void enqueue(JournalRecord record) {
+        try {
+            queue.put(record);
+            queued.incrementAndGet();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted before journaling {}.", record);
+        }
+    }
+
+    /**
+     * Append queued records to the journal in batches, until stopped and the queue is empty
+     */
+    private void write() {
+
+        int batchSize = bookItProperties.getJournal().getBatchSize();
+        List<JournalRecord> batch = new ArrayList<>(batchSize);
+        ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(64 * 1024);
+        DataOutputStream out = new DataOutputStream(encoded);
+
+        while(running || !queue.isEmpty()) {
+
+            try {
+                JournalRecord first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if(first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+            } catch(InterruptedException e) {
+                // Stopping, drain what is left
+                running = false;
+                continue;
+            }
+
+            try {
+                encoded.reset();
+                for(JournalRecord record : batch) {
+                    JournalFormat.write(record, body, out);
+                }
+                out.flush();
+
+                ByteBuffer buffer = ByteBuffer.wrap(encoded.toByteArray());
+                while(buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+
+                if(logger.isDebugEnabled()) {
+                    logger.debug("Journaled {} records.", batch.size());
+                }
+            } catch(IOException e) {
+                logger.error("Failed to journal {} records.", batch.size(), e);
+            }
+
+            synchronized(writtenLock) {
+                written += batch.size();
+                writtenLock.notifyAll();
+            }
+
+            batch.clear();
+        }
+    }
+
+}
@@ -0,0 +1,460 @@
+package com.mukundsankaran.bookit.service.impl;
+
+import com.mukundsankaran.bookit.config.BookItProperties;
+import com.mukundsankaran.bookit.config.ConditionalOnGridEngine;
+import com.mukundsankaran.bookit.model.CacheName;
+import com.mukundsankaran.bookit.model.HotKey;
+import com.mukundsankaran.bookit.model.TransactionTrace;
+import com.mukundsankaran.bookit.service.ContentionProfiler;
+import com.mukundsankaran.bookit.service.TransactionExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.query.QueryCursor;
+import org.apache.ignite.transactions.Transaction;
+import org.apache.ignite.transactions.TransactionState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * BookIt Contention Profiler Implementation
+ *
+ * Caches are profiled by wrapping them in a proxy that times every access made by a traced transaction. The first
+ * access of a key is when a pessimistic transaction locks it, so its time is counted as lock wait, while an optimistic
+ * transaction locks its keys when it commits. Only the events and rows are counted as hot keys, every other key belongs
+ * to a single customer or request and is never contended.
+ *
+ * Records, per operation, the time transactions spend locking keys and committing as the
+ * "bookit.transactions.lockWait" and "bookit.transactions.commit" timers, and the time holds wait in the hold lane as
+ * the "bookit.holds.laneWait" timer. When profiling is disabled transactions and caches are used as they are.
+ */
+
+@Service
+@ConditionalOnGridEngine
+public class ContentionProfilerImpl implements ContentionProfiler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentionProfilerImpl.class);
+
+    // Cache methods whose first argument is a key
+    private static final Set<String> KEY_METHODS = new HashSet<>(Arrays.asList(
+            "get", "getEntry", "containsKey", "put", "putIfAbsent", "getAndPut", "getAndPutIfAbsent", "replace",
+            "getAndReplace", "remove", "getAndRemove", "invoke"));
+
+    // Cache methods whose first argument is a set of keys
+    private static final Set<String> KEYS_METHODS = new HashSet<>(Arrays.asList(
+            "getAll", "getEntries", "containsKeys", "removeAll", "invokeAll"));
+
+    private static final Set<CacheName> SHARED_CACHES = EnumSet.of(CacheName.EVENTS, CacheName.ROWS);
+
+    private static final String COMMITTED = "committed";
+
+    private static final String ROLLED_BACK = "rolled back";
+
+    private static final String FAILED = "failed";
+
+    @Autowired
+    private BookItProperties bookItProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private boolean enabled;
+
+    private long slowTransactionThresholdInNanos;
+
+    private int maxSlowTransactions;
+
+    private final ThreadLocal<Recording> recording = new ThreadLocal<>();
+
+    private final ThreadLocal<long[]> laneWait = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final ConcurrentMap<String, KeyContention> keyContention = new ConcurrentHashMap<>();
+
+    private final ConcurrentLinkedDeque<TransactionTrace> slowTransactions = new ConcurrentLinkedDeque<>();
+
+    private final AtomicInteger numSlowTransactions = new AtomicInteger();
+
+    private final AtomicReferenceArray<ProfiledCache> profiledCaches = new AtomicReferenceArray<>(CacheName.values().length);
+
+    private final Map<TransactionExecutor.Operation, Timer> lockWaitTimers = new EnumMap<>(TransactionExecutor.Operation.class);
+
+    private final Map<TransactionExecutor.Operation, Timer> commitTimers = new EnumMap<>(TransactionExecutor.Operation.class);
+
+    private Timer laneWaitTimer;
+
+    /**
+     * Initialize ContentionProfiler
+     */
+    @PostConstruct
+    private void init() {
+
+        BookItProperties.Profiler profiler = bookItProperties.getProfiler();
+
+        enabled = profiler.isEnabled();
+        slowTransactionThresholdInNanos = TimeUnit.MILLISECONDS.toNanos(profiler.getSlowTransactionThresholdInMillis());
+        maxSlowTransactions = profiler.getMaxSlowTransactions();
+
+        if(!enabled) {
+            return;
+        }
+
+        for(TransactionExecutor.Operation operation : TransactionExecutor.Operation.values()) {
+            String tag = operation.name().toLowerCase();
+            lockWaitTimers.put(operation, meterRegistry.timer("bookit.transactions.lockWait", "operation", tag));
+            commitTimers.put(operation, meterRegistry.timer("bookit.transactions.commit", "operation", tag));
+        }
+
+        laneWaitTimer = meterRegistry.timer("bookit.holds.laneWait");
+
+        if(logger.isDebugEnabled()) {
+            logger.debug("Profiling transactions, keeping up to {} taking at least {} ms.", maxSlowTransactions, profiler.getSlowTransactionThresholdInMillis());
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public Transaction begin(TransactionExecutor.Operation operation, Transaction tx, int retries) {
+
+        if(!enabled) {
+            return tx;
+        }
+
+        Recording current = new Recording(operation, tx, retries);
+        current.trace.setLaneWaitInMicros(TimeUnit.NANOSECONDS.toMicros(laneWait.get()[0]));
+        recording.set(current);
+
+        return (Transaction) Proxy.newProxyInstance(Transaction.class.getClassLoader(), new Class<?>[]{Transaction.class}, (proxy, method, args) -> {
+
+            if(!method.getName().equals("commit")) {
+                return invoke(tx, method, args);
+            }
+
+            long startTime = System.nanoTime();
+            try {
+                return invoke(tx, method, args);
+            } finally {
+                current.commitInNanos += System.nanoTime() - startTime;
+            }
+        });
+    }
+
+    @Override
+    public void end(Throwable failure) {
+
+        Recording current = recording.get();
+
+        if(current == null) {
+            return;
+        }
+
+        recording.remove();
+
+        TransactionTrace trace = current.trace;
+        long durationInNanos = System.nanoTime() - current.startTime;
+
+        trace.setDurationInMicros(TimeUnit.NANOSECONDS.toMicros(durationInNanos));
+        trace.setLockWaitInMicros(TimeUnit.NANOSECONDS.toMicros(current.lockWaitInNanos));
+        trace.setScanInMicros(TimeUnit.NANOSECONDS.toMicros(current.scanInNanos));
+        trace.setCommitInMicros(TimeUnit.NANOSECONDS.toMicros(current.commitInNanos));
+
+        if(failure != null) {
+            trace.setOutcome(FAILED);
+        } else {
+            trace.setOutcome(current.tx.state() == TransactionState.COMMITTED ? COMMITTED : ROLLED_BACK);
+        }
+
+        lockWaitTimers.get(current.operation).record(current.lockWaitInNanos, TimeUnit.NANOSECONDS);
+        if(current.commitInNanos > 0) {
+            commitTimers.get(current.operation).record(current.commitInNanos, TimeUnit.NANOSECONDS);
+        }
+
+        if(durationInNanos < slowTransactionThresholdInNanos) {
+            return;
+        }
+
+        // Keep only the most recent slow transactions
+        slowTransactions.addFirst(trace);
+        if(numSlowTransactions.incrementAndGet() > maxSlowTransactions && slowTransactions.pollLast() != null) {
+            numSlowTransactions.decrementAndGet();
+        }
+
+        if(logger.isDebugEnabled()) {
+            logger.debug("Slow transaction: {}.", trace);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K, V> IgniteCache<K, V> profile(CacheName name, IgniteCache<K, V> cache) {
+
+        if(!enabled) {
+            return cache;
+        }
+
+        // Reuse the proxy as long as the cache has not been started again
+        ProfiledCache profiled = profiledCaches.get(name.ordinal());
+
+        if(profiled == null || profiled.cache != cache) {
+            IgniteCache<K, V> proxy = (IgniteCache<K, V>) Proxy.newProxyInstance(IgniteCache.class.getClassLoader(),
+                    new Class<?>[]{IgniteCache.class}, new CacheHandler(name, cache));
+            profiled = new ProfiledCache(cache, proxy);
+            profiledCaches.set(name.ordinal(), profiled);
+        }
+
+        return (IgniteCache<K, V>) profiled.proxy;
+    }
+
+    @Override
+    public void laneEntered(long waitInNanos) {
+
+        if(!enabled) {
+            return;
+        }
+
+        laneWait.get()[0] = waitInNanos;
+        laneWaitTimer.record(waitInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void laneExited() {
+
+        if(!enabled) {
+            return;
+        }
+
+        laneWait.get()[0] = 0;
+    }
+
+    @Override
+    public List<HotKey> getHotKeys(int limit) {
+        return keyContention.entrySet().stream()
+                .map(entry -> entry.getValue().toHotKey(entry.getKey()))
+                .sorted(Comparator.comparingLong(HotKey::getTotalWaitInMicros).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<TransactionTrace> getSlowTransactions() {
+        List<TransactionTrace> traces = new ArrayList<>(slowTransactions);
+        traces.sort(Comparator.comparingLong(TransactionTrace::getDurationInMicros).reversed());
+        return traces;
+    }
+
+    @Override
+    public void reset() {
+        keyContention.clear();
+        slowTransactions.clear();
+        numSlowTransactions.set(0);
+    }
+
+    /**
+     * Record the first access of a key by the transaction on this thread
+     *
+     * @param current - the transaction
+     * @param name - the cache
+     * @param key - the key
+     * @param waitInNanos - the time the access took
+     */
+    private void recordKey(Recording current, CacheName name, Object key, long waitInNanos) {
+
+        String qualifiedKey = name.name() + ":" + key;
+
+        if(current.trace.getKeys().containsKey(qualifiedKey)) {
+            return;
+        }
+
+        current.trace.getKeys().put(qualifiedKey, TimeUnit.NANOSECONDS.toMicros(waitInNanos));
+        current.lockWaitInNanos += waitInNanos;
+
+        if(SHARED_CACHES.contains(name)) {
+            keyContention.computeIfAbsent(qualifiedKey, k -> new KeyContention()).record(waitInNanos);
+        }
+    }
+
+    /**
+     * Record a scan of a cache by the transaction on this thread
+     *
+     * @param current - the transaction
+     * @param name - the cache
+     * @param timeInNanos - the time the scan took
+     */
+    private void recordScan(Recording current, CacheName name, long timeInNanos) {
+        current.trace.getScans().merge(name.name(), TimeUnit.NANOSECONDS.toMicros(timeInNanos), Long::sum);
+        current.scanInNanos += timeInNanos;
+    }
+
+    /**
+     * Invoke a method on the object behind a proxy, rethrowing what the method throws
+     */
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch(InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Times the accesses to a cache made by traced transactions
+     */
+    private class CacheHandler implements InvocationHandler {
+
+        private final CacheName name;
+
+        private final IgniteCache<?, ?> cache;
+
+        private CacheHandler(CacheName name, IgniteCache<?, ?> cache) {
+            this.name = name;
+            this.cache = cache;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+            Recording current = recording.get();
+
+            if(current == null || args == null || args.length == 0) {
+                return ContentionProfilerImpl.invoke(cache, method, args);
+            }
+
+            String methodName = method.getName();
+            long startTime = System.nanoTime();
+            Object result = ContentionProfilerImpl.invoke(cache, method, args);
+            long timeInNanos = System.nanoTime() - startTime;
+
+            if(KEY_METHODS.contains(methodName)) {
+                recordKey(current, name, args[0], timeInNanos);
+            } else if(KEYS_METHODS.contains(methodName) && args[0] instanceof Collection) {
+                for(Object key : (Collection<?>) args[0]) {
+                    recordKey(current, name, key, timeInNanos);
+                }
+            } else if(methodName.equals("putAll") && args[0] instanceof Map) {
+                for(Object key : ((Map<?, ?>) args[0]).keySet()) {
+                    recordKey(current, name, key, timeInNanos);
+                }
+            } else if(methodName.equals("query") && result instanceof QueryCursor) {
+                recordScan(current, name, timeInNanos);
+                return scanCursor(current, (QueryCursor<?>) result);
+            }
+
+            return result;
+        }
+
+        /**
+         * The results of a scan are fetched as they are read, so reading them is timed as part of the scan
+         */
+        private QueryCursor<?> scanCursor(Recording current, QueryCursor<?> cursor) {
+            return (QueryCursor<?>) Proxy.newProxyInstance(QueryCursor.class.getClassLoader(), new Class<?>[]{QueryCursor.class}, (proxy, method, args) -> {
+
+                if(!method.getName().equals("getAll")) {
+                    return ContentionProfilerImpl.invoke(cursor, method, args);
+                }
+
+                long startTime = System.nanoTime();
+                try {
+                    return ContentionProfilerImpl.invoke(cursor, method, args);
+                } finally {
+                    recordScan(current, name, System.nanoTime() - startTime);
+                }
+            });
+        }
+    }
+
+    /**
+     * A transaction being traced on this thread
+     */
+    private static class Recording {
+
+        private final TransactionExecutor.Operation operation;
+
+        private final Transaction tx;
+
+        private final TransactionTrace trace;
+
+        private final long startTime = System.nanoTime();
+
+        private long lockWaitInNanos;
+
+        private long scanInNanos;
+
+        private long commitInNanos;
+
+        private Recording(TransactionExecutor.Operation operation, Transaction tx, int retries) {
+            this.operation = operation;
+            this.tx = tx;
+            this.trace = new TransactionTrace(operation.name(), System.currentTimeMillis(), retries);
+        }
+    }
+
+    /**
+     * How often a key was locked and how long locking it took
+     */
+    private static class KeyContention {
+
+        private final LongAdder locks = new LongAdder();
+
+        private final LongAdder totalWaitInNanos = new LongAdder();
+
+        private final LongAccumulator maxWaitInNanos = new LongAccumulator(Long::max, 0);
+
+        private void record(long waitInNanos) {
+            locks.increment();
+            totalWaitInNanos.add(waitInNanos);
+            maxWaitInNanos.accumulate(waitInNanos);
+        }
+
+        private HotKey toHotKey(String key) {
+            return new HotKey(key, locks.sum(), TimeUnit.NANOSECONDS.toMicros(totalWaitInNanos.sum()),
+                    TimeUnit.NANOSECONDS.toMicros(maxWaitInNanos.get()));
+        }
+    }
+
+    /**
+     * A cache and the proxy that profiles it
+     */
+    private static class ProfiledCache {
+
+        private final IgniteCache<?, ?> cache;
+
+        private final IgniteCache<?, ?> proxy;
+
+        private ProfiledCache(IgniteCache<?, ?> cache, IgniteCache<?, ?> proxy) {
+            this.cache = cache;
+            this.proxy = proxy;
+        }
+    }
+}
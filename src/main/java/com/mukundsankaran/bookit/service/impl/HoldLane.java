@@ -0,0 +1,59 @@
+package com.mukundsankaran.bookit.service.impl;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * Admits one hold at a time on this node. Holds from priority customers wait in their own lane, and whenever the
+ * current hold finishes a waiting priority hold goes next, ahead of general holds that arrived before it.
+ */
+final class HoldLane {
+
+    private boolean busy;
+
+    private int priorityWaiting;
+
+    /**
+     * Wait for the turn of a hold
+     *
+     * @param priority - whether the hold is in the priority lane
+     * @throws InterruptedException if interrupted while waiting
+     */
+    synchronized void enter(boolean priority) throws InterruptedException {
+
+        if(priority) {
+            priorityWaiting++;
+            try {
+                while(busy) {
+                    wait();
+                }
+            } catch(InterruptedException e) {
+                // General holds may have been waiting on this one
+                priorityWaiting--;
+                notifyAll();
+                throw e;
+            }
+            priorityWaiting--;
+        } else {
+            while(busy || priorityWaiting > 0) {
+                wait();
+            }
+        }
+
+        busy = true;
+    }
+
+    /**
+     * Hand the turn to the next hold
+     */
+    synchronized void exit() {
+        busy = false;
+        notifyAll();
+    }
+
+    /**
+     * @return the number of priority holds waiting for their turn
+     */
+    synchronized int getPriorityWaiting() {
+        return priorityWaiting;
+    }
+}
@@ -0,0 +1,79 @@
+package com.mukundsankaran.bookit.service.impl;
+
+import com.mukundsankaran.bookit.config.BookItProperties;
+import com.mukundsankaran.bookit.model.CustomerClass;
+import com.mukundsankaran.bookit.model.EventDefinition;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * How long seats are held and which holds go first, as set by the venue properties. Shared by both engines so a hold
+ * behaves the same wherever the seat inventory is kept.
+ */
+final class HoldPolicy {
+
+    /**
+     * Time for which seats are held when neither the customer class nor the event sets one
+     */
+    private final long holdExpiryTime;
+
+    /**
+     * Time for which seats are held, for customer classes that set one
+     */
+    private final Map<CustomerClass, Long> holdExpiryTimeByCustomerClass = new EnumMap<>(CustomerClass.class);
+
+    private final Set<CustomerClass> priorityCustomerClasses = EnumSet.noneOf(CustomerClass.class);
+
+    /**
+     * Constructs a HoldPolicy
+     *
+     * @param venue - the venue properties
+     */
+    HoldPolicy(BookItProperties.Venue venue) {
+
+        holdExpiryTime = TimeUnit.MINUTES.toMillis(venue.getHoldExpiryTimeInMinutes());
+
+        for(Map.Entry<String, Integer> expiry : venue.getHoldExpiryTimeInMinutesByCustomerClass().entrySet()) {
+            holdExpiryTimeByCustomerClass.put(CustomerClass.valueOf(expiry.getKey().toUpperCase()), TimeUnit.MINUTES.toMillis(expiry.getValue()));
+        }
+        for(String customerClass : venue.getPriorityCustomerClasses()) {
+            priorityCustomerClasses.add(CustomerClass.valueOf(customerClass.toUpperCase()));
+        }
+    }
+
+    /**
+     * Find how long seats are held for, preferring the time set for the customer class, then the time set by the event
+     * and then the venue default
+     *
+     * @param eventDefinition - the event
+     * @param customerClass - the class of the customer
+     * @return the time for which the seats are held, in milliseconds
+     */
+    long getHoldExpiryTime(EventDefinition eventDefinition, CustomerClass customerClass) {
+
+        Long expiryTime = holdExpiryTimeByCustomerClass.get(customerClass);
+        if(expiryTime != null) {
+            return expiryTime;
+        }
+
+        if(eventDefinition.getHoldExpiryTimeInMinutes() != null) {
+            return TimeUnit.MINUTES.toMillis(eventDefinition.getHoldExpiryTimeInMinutes());
+        }
+
+        return holdExpiryTime;
+    }
+
+    /**
+     * @param customerClass - the class of the customer
+     * @return true if holds for the customer go ahead of holds for other customers
+     */
+    boolean isPriority(CustomerClass customerClass) {
+        return priorityCustomerClasses.contains(customerClass);
+    }
+}
@@ -0,0 +1,123 @@
+package com.mukundsankaran.bookit.service.impl;
+
+import com.mukundsankaran.bookit.config.BookItProperties;
+import com.mukundsankaran.bookit.config.ConditionalOnGridEngine;
+import com.mukundsankaran.bookit.journal.JournalReplay;
+import com.mukundsankaran.bookit.service.IdGenerator;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteAtomicSequence;
+import org.apache.ignite.configuration.AtomicConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+
+/**
+ * Created by mukund on 4/16/18.
+ *
+ * BookIt ID Generator Implementation
+ *
+ * Backed by Ignite atomic sequences. Each node reserves a block of IDs from the cluster-wide sequence and hands
+ * them out locally, so generating an ID only goes over the network once per block. A node joins the sequence when it
+ * generates its first ID, not while the application context is starting.
+ *
+ * Sequences live only as long as the cluster. The node that creates the hold sequence, at the first start or after a
+ * full cluster restart, starts it after the highest hold ID in its audit journal directory, so new holds do not reuse
+ * IDs the journals already refer to. Nodes should therefore share the journal directory, and without the journal IDs
+ * start again from 1. Hold IDs are ints; after Integer.MAX_VALUE holds they wrap around to 1, by which time the holds
+ * that first used those IDs are long gone, and the journals written before the wrap should be archived out of the
+ * directory.
+ */
+
+@Service
+@ConditionalOnGridEngine
+public class IdGeneratorImpl implements IdGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdGeneratorImpl.class);
+
+    private static final String SEAT_HOLD_SEQUENCE = "bookit.sequence.holds";
+
+    @Autowired
+    private Ignite ignite;
+
+    @Autowired
+    private BookItProperties bookItProperties;
+
+    private volatile IgniteAtomicSequence seatHoldSequence;
+
+    /**
+     * Generate the next SeatHold ID
+     *
+     * @return a cluster-wide unique SeatHold ID, from 1 up to Integer.MAX_VALUE
+     */
+    public int nextSeatHoldId() {
+
+        IgniteAtomicSequence sequence = seatHoldSequence;
+
+        if(sequence == null || sequence.removed()) {
+            try {
+                sequence = openSeatHoldSequence();
+            } catch(IOException e) {
+                throw new UncheckedIOException("Failed to read the hold IDs in the audit journal", e);
+            }
+        }
+
+        return toSeatHoldId(sequence.incrementAndGet());
+    }
+
+    /**
+     * Map a sequence value onto the range of hold IDs, wrapping around after Integer.MAX_VALUE
+     *
+     * @param value - the sequence value, at least 1
+     * @return the hold ID
+     */
+    private static int toSeatHoldId(long value) {
+        return (int) ((value - 1) % Integer.MAX_VALUE) + 1;
+    }
+
+    /**
+     * Join the cluster-wide hold sequence, or create it if no node has yet, starting after the highest hold ID in the
+     * audit journal
+     *
+     * @return the hold sequence
+     */
+    private synchronized IgniteAtomicSequence openSeatHoldSequence() throws IOException {
+
+        if(seatHoldSequence != null && !seatHoldSequence.removed()) {
+            return seatHoldSequence;
+        }
+
+        AtomicConfiguration atomicConfiguration = new AtomicConfiguration();
+        atomicConfiguration.setAtomicSequenceReserveSize(bookItProperties.getIds().getReserveSize());
+
+        IgniteAtomicSequence sequence = ignite.atomicSequence(SEAT_HOLD_SEQUENCE, atomicConfiguration, 0, false);
+
+        if(sequence == null) {
+
+            int lastHoldId = 0;
+            BookItProperties.Journal journal = bookItProperties.getJournal();
+            if(journal.isEnabled()) {
+                lastHoldId = JournalReplay.maxHoldId(Paths.get(journal.getDirectory()));
+            }
+
+            sequence = ignite.atomicSequence(SEAT_HOLD_SEQUENCE, atomicConfiguration, lastHoldId, true);
+
+            if(logger.isDebugEnabled()) {
+                logger.debug("Hold sequence starts after hold {}.", sequence.get());
+            }
+        }
+
+        seatHoldSequence = sequence;
+
+        if(logger.isDebugEnabled()) {
+            logger.debug("Hold sequence opened with a reserve size of {}.", bookItProperties.getIds().getReserveSize());
+        }
+
+        return sequence;
+    }
+
+}
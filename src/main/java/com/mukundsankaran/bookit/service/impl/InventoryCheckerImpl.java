@@ -0,0 +1,403 @@
+package com.mukundsankaran.bookit.service.impl;
+
+import com.mukundsankaran.bookit.config.BookItProperties;
+import com.mukundsankaran.bookit.config.ConditionalOnGridEngine;
+import com.mukundsankaran.bookit.grid.AdjustSeatsAvailableProcessor;
+import com.mukundsankaran.bookit.grid.CheckRowsJob;
+import com.mukundsankaran.bookit.grid.FindClaimedSeatsJob;
+import com.mukundsankaran.bookit.grid.RepairRowProcessor;
+import com.mukundsankaran.bookit.model.*;
+import com.mukundsankaran.bookit.service.InventoryChecker;
+import com.mukundsankaran.bookit.grid.GridCaches;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.IgniteException;
+import org.apache.ignite.cache.query.ScanQuery;
+import org.apache.ignite.cluster.ClusterNode;
+import org.apache.ignite.lang.IgniteFuture;
+import org.apache.ignite.transactions.Transaction;
+import org.apache.ignite.transactions.TransactionConcurrency;
+import org.apache.ignite.transactions.TransactionIsolation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * BookIt Inventory Checker Implementation
+ *
+ * A check first finds the seats claimed by holds and reservations. Each partition of both caches is scanned on the
+ * node that owns it (see FindClaimedSeatsJob), several partitions at a time, and only the claimed seats come back. The
+ * rows of each event are then checked on the nodes that own them (see CheckRowsJob), each node receiving the claims
+ * of its own rows only, and the seats available for the event are compared with the free seats its rows should have.
+ * Only events and rows already in memory are checked, so a check never loads the venue from the store. An event is
+ * only compared with its rows when every one of its rows was checked.
+ *
+ * Nothing is locked while checking, so a check can see a hold or reservation half way through its transaction. Drift
+ * is therefore only repaired when the next check finds exactly the same drift again. A row is repaired with the row
+ * locked, after the holds and reservations of its seats are found again, and only seats whose claims still call for
+ * the repair are changed. An event is only corrected when its count did not move while its rows were checked.
+ */
+
+@Service
+@ConditionalOnGridEngine
+public class InventoryCheckerImpl implements InventoryChecker {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryCheckerImpl.class);
+
+    @Autowired
+    private Ignite ignite;
+
+    @Autowired
+    private GridCaches gridCaches;
+
+    @Autowired
+    private BookItProperties bookItProperties;
+
+    @Autowired
+    private VenueDefinition venueDefinition;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ExecutorService scanPool;
+
+    /**
+     * Drift found by the previous check
+     */
+    private Set<String> suspects = new HashSet<>();
+
+    private volatile InventoryReport lastReport = new InventoryReport();
+
+    private Counter repairedSeats;
+
+    private Counter repairedRows;
+
+    private Counter repairedEvents;
+
+    /**
+     * Initialize InventoryChecker
+     */
+    @PostConstruct
+    private void init() {
+
+        scanPool = Executors.newFixedThreadPool(bookItProperties.getConsistency().getParallelism(), runnable -> {
+            Thread thread = new Thread(runnable, "inventory-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        repairedSeats = meterRegistry.counter("bookit.inventory.repairs", "kind", "seats");
+        repairedRows = meterRegistry.counter("bookit.inventory.repairs", "kind", "rows");
+        repairedEvents = meterRegistry.counter("bookit.inventory.repairs", "kind", "events");
+        Gauge.builder("bookit.inventory.drift", this, checker -> checker.lastReport.getDriftedSeats()).tag("kind", "seats").register(meterRegistry);
+        Gauge.builder("bookit.inventory.drift", this, checker -> checker.lastReport.getDriftedRows()).tag("kind", "rows").register(meterRegistry);
+        Gauge.builder("bookit.inventory.drift", this, checker -> checker.lastReport.getDriftedEvents()).tag("kind", "events").register(meterRegistry);
+    }
+
+    /**
+     * Stop InventoryChecker
+     */
+    @PreDestroy
+    private void close() {
+        scanPool.shutdownNow();
+    }
+
+    /**
+     * Check the seat inventory of every event. Drift that was also found by the previous check is repaired.
+     *
+     * @return the drift found and what was repaired
+     */
+    public synchronized InventoryReport check() {
+
+        long startTime = System.currentTimeMillis();
+
+        Map<Integer, Map<Integer, SeatState>> claims = findClaimedSeats();
+
+        InventoryReport report = new InventoryReport();
+        Set<String> drift = new HashSet<>();
+
+        for(EventDefinition eventDefinition : venueDefinition.getEvents()) {
+            checkEvent(eventDefinition, claims, drift, report);
+        }
+
+        suspects = drift;
+        lastReport = report;
+
+        if(!report.isConsistent()) {
+            logger.warn("Seat inventory drifted: {}.", report);
+        }
+
+        if(logger.isDebugEnabled()) {
+            logger.debug("Checked seat inventory in {} ms: {}.", System.currentTimeMillis() - startTime, report);
+        }
+
+        return report;
+    }
+
+    /**
+     * Check the seat inventory on a schedule, from the oldest server node only
+     */
+    @Scheduled(fixedDelayString = "${bookit.consistency.checkIntervalInMillis:60000}",
+            initialDelayString = "${bookit.consistency.checkIntervalInMillis:60000}")
+    private void scheduledCheck() {
+
+        if(!bookItProperties.getConsistency().isEnabled()) {
+            return;
+        }
+
+        ClusterNode oldest = ignite.cluster().forServers().forOldest().node();
+        if(oldest == null || !oldest.isLocal()) {
+            return;
+        }
+
+        try {
+            check();
+        } catch(IgniteException e) {
+            logger.error("Failed to check seat inventory.", e);
+        }
+    }
+
+    /**
+     * Check the rows of an event, and the seats available for it
+     *
+     * @param eventDefinition - the event
+     * @param claims - the state each claimed seat should be in, by row and seat
+     * @param drift - the drift found by this check, added to
+     * @param report - the report of this check, added to
+     */
+    private void checkEvent(EventDefinition eventDefinition, Map<Integer, Map<Integer, SeatState>> claims, Set<String> drift,
+                            InventoryReport report) {
+
+        // Reading through would load an event that is not in memory, only to check it
+        IgniteCache<Long, Event> eventCache = gridCaches.<Long, Event>get(CacheName.EVENTS).withSkipStore();
+        boolean repair = bookItProperties.getConsistency().isRepair();
+
+        Event before = eventCache.get(eventDefinition.getId());
+        if(before == null) {
+            return;
+        }
+
+        List<Integer> rowIds = new ArrayList<>(eventDefinition.getNumRows());
+        for(int rowId = eventDefinition.getFirstRowId(); rowId < eventDefinition.getFirstRowId() + eventDefinition.getNumRows(); rowId++) {
+            rowIds.add(rowId);
+        }
+
+        // Each node checks the rows it owns, against the claims on those rows only
+        List<IgniteFuture<List<RowCheck>>> results = new ArrayList<>();
+        for(Map.Entry<ClusterNode, Collection<Integer>> nodeRows : gridCaches.<Integer>affinity(CacheName.ROWS).mapKeysToNodes(rowIds).entrySet()) {
+
+            Map<Integer, Map<Integer, SeatState>> nodeClaims = new HashMap<>();
+            for(Integer rowId : nodeRows.getValue()) {
+                Map<Integer, SeatState> rowClaims = claims.get(rowId);
+                if(rowClaims != null) {
+                    nodeClaims.put(rowId, rowClaims);
+                }
+            }
+
+            results.add(ignite.compute(ignite.cluster().forNode(nodeRows.getKey()))
+                    .callAsync(new CheckRowsJob(new ArrayList<>(nodeRows.getValue()), nodeClaims)));
+        }
+
+        int checkedRows = 0;
+        int expectedSeatsAvailable = 0;
+
+        for(IgniteFuture<List<RowCheck>> result : results) {
+            for(RowCheck check : result.get()) {
+
+                checkedRows++;
+                expectedSeatsAvailable += check.getExpectedFreeSeats();
+
+                if(!check.isDrifted()) {
+                    continue;
+                }
+
+                report.setDriftedSeats(report.getDriftedSeats() + check.getDriftedSeats().size());
+                report.setDriftedRows(report.getDriftedRows() + (check.isCounterDrifted() ? 1 : 0));
+
+                String suspect = "row:" + check.getRowId() + ':' + check.getFreeSeats() + ':' + new TreeMap<>(check.getDriftedSeats());
+                drift.add(suspect);
+
+                if(repair && suspects.contains(suspect)) {
+                    int repaired = repairRow(check);
+                    logger.warn("Repaired {} seats of row {}, found {}.", repaired, check.getRowId(), check);
+                    report.setRepairedSeats(report.getRepairedSeats() + repaired);
+                    report.setRepairedRows(report.getRepairedRows() + 1);
+                    repairedSeats.increment(repaired);
+                    repairedRows.increment();
+                }
+            }
+        }
+
+        // Rows that are not in memory were not checked, the free seats they should have are unknown
+        if(checkedRows < eventDefinition.getNumRows()) {
+            if(logger.isDebugEnabled()) {
+                logger.debug("Checked {} of {} rows of event {}, not checking its seats available.", checkedRows, eventDefinition.getNumRows(), eventDefinition.getId());
+            }
+            return;
+        }
+
+        // Holds and reservations made while the rows were being checked would make any difference meaningless
+        Event after = eventCache.get(eventDefinition.getId());
+        if(after == null || after.getNumSeatsAvailable() != before.getNumSeatsAvailable()) {
+            return;
+        }
+
+        int difference = expectedSeatsAvailable - after.getNumSeatsAvailable();
+        if(difference == 0) {
+            return;
+        }
+
+        report.setDriftedEvents(report.getDriftedEvents() + 1);
+
+        String suspect = "event:" + eventDefinition.getId() + ':' + after.getNumSeatsAvailable() + ':' + difference;
+        drift.add(suspect);
+
+        if(repair && suspects.contains(suspect)) {
+            int numSeatsAvailable = eventCache.invoke(eventDefinition.getId(), new AdjustSeatsAvailableProcessor(difference));
+            logger.warn("Corrected seats available for event {} by {} to {}.", eventDefinition.getId(), difference, numSeatsAvailable);
+            report.setRepairedEvents(report.getRepairedEvents() + 1);
+            repairedEvents.increment();
+        }
+    }
+
+    /**
+     * Repair the drifted seats of a row. The row is locked, so no hold, reservation or expiry can change it meanwhile,
+     * and the holds and reservations of its seats are found again. A seat is only repaired when its claims still call
+     * for the state the check found it should be in.
+     *
+     * @param check - the check that found the row drifted
+     * @return the number of seats that were repaired
+     */
+    private int repairRow(RowCheck check) {
+
+        IgniteCache<Integer, Row> rowCache = gridCaches.get(CacheName.ROWS);
+
+        try(Transaction tx = ignite.transactions().txStart(TransactionConcurrency.PESSIMISTIC, TransactionIsolation.REPEATABLE_READ)) {
+
+            // Reading the row in a pessimistic transaction locks it until the transaction ends
+            if(rowCache.get(check.getRowId()) == null) {
+                return 0;
+            }
+
+            Map<Integer, SeatState> rowClaims = findClaimedSeats(check.getRowId());
+            Map<Integer, SeatState> confirmedSeats = new HashMap<>();
+
+            for(Map.Entry<Integer, SeatState> drifted : check.getDriftedSeats().entrySet()) {
+                if(rowClaims.getOrDefault(drifted.getKey(), SeatState.FREE) == drifted.getValue()) {
+                    confirmedSeats.put(drifted.getKey(), drifted.getValue());
+                }
+            }
+
+            int repaired = rowCache.invoke(check.getRowId(), new RepairRowProcessor(confirmedSeats));
+
+            tx.commit();
+
+            return repaired;
+        }
+    }
+
+    /**
+     * Find the seats claimed by holds and reservations. Each partition is scanned on the node that owns it, and
+     * partitions of both caches are scanned in parallel. A seat claimed by both is taken to be reserved.
+     *
+     * @return the state each claimed seat should be in, by row and seat
+     */
+    private Map<Integer, Map<Integer, SeatState>> findClaimedSeats() {
+
+        int holdPartitions = gridCaches.affinity(CacheName.HOLDS).partitions();
+        int partitions = holdPartitions + gridCaches.affinity(CacheName.RESERVATIONS).partitions();
+
+        // Scans claim the next partition of either cache until every partition is scanned
+        AtomicInteger nextPartition = new AtomicInteger();
+        List<Future<Map<Integer, Map<Integer, SeatState>>>> scans = new ArrayList<>();
+        for(int scan = 0; scan < bookItProperties.getConsistency().getParallelism(); scan++) {
+            scans.add(scanPool.submit(() -> {
+                Map<Integer, Map<Integer, SeatState>> claims = new HashMap<>();
+                for(int partition = nextPartition.getAndIncrement(); partition < partitions; partition = nextPartition.getAndIncrement()) {
+                    CacheName cacheName = partition < holdPartitions ? CacheName.HOLDS : CacheName.RESERVATIONS;
+                    int cachePartition = partition < holdPartitions ? partition : partition - holdPartitions;
+                    addClaims(ignite.compute().affinityCall(Collections.singleton(cacheName.name()), cachePartition,
+                            new FindClaimedSeatsJob(cacheName, cachePartition)), claims);
+                }
+                return claims;
+            }));
+        }
+
+        Map<Integer, Map<Integer, SeatState>> claims = new HashMap<>();
+        try {
+            for(Future<Map<Integer, Map<Integer, SeatState>>> scan : scans) {
+                addClaims(scan.get(), claims);
+            }
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IgniteException("Interrupted while finding claimed seats", e);
+        } catch(ExecutionException e) {
+            throw new IgniteException("Failed to find claimed seats", e.getCause());
+        } finally {
+            // Stop the remaining scans after a failure
+            nextPartition.set(partitions);
+            for(Future<Map<Integer, Map<Integer, SeatState>>> scan : scans) {
+                scan.cancel(true);
+            }
+        }
+
+        return claims;
+    }
+
+    /**
+     * Find the seats of a row claimed by holds and reservations. Only holds and reservations with seats in the row
+     * come back from the nodes that own them.
+     *
+     * @param rowId - the row
+     * @return the state each claimed seat of the row should be in, by seat
+     */
+    private Map<Integer, SeatState> findClaimedSeats(int rowId) {
+
+        IgniteCache<Integer, SeatHold> holdCache = gridCaches.get(CacheName.HOLDS);
+        IgniteCache<String, Reservation> reservationCache = gridCaches.get(CacheName.RESERVATIONS);
+        Map<Integer, Map<Integer, SeatState>> claims = new HashMap<>();
+
+        List<List<Integer>> heldSeats = holdCache.query(new ScanQuery<Integer, SeatHold>((k, v) -> v.getSeats().containsKey(rowId)),
+                entry -> entry.getValue().getSeats().get(rowId)).getAll();
+        for(List<Integer> seats : heldSeats) {
+            for(Integer seatId : seats) {
+                FindClaimedSeatsJob.addClaim(claims, rowId, seatId, SeatState.HELD);
+            }
+        }
+
+        List<List<Integer>> reservedSeats = reservationCache.query(new ScanQuery<String, Reservation>((k, v) -> v.getSeats().containsKey(rowId)),
+                entry -> entry.getValue().getSeats().get(rowId)).getAll();
+        for(List<Integer> seats : reservedSeats) {
+            for(Integer seatId : seats) {
+                FindClaimedSeatsJob.addClaim(claims, rowId, seatId, SeatState.RESERVED);
+            }
+        }
+
+        return claims.getOrDefault(rowId, Collections.emptyMap());
+    }
+
+    private static void addClaims(Map<Integer, Map<Integer, SeatState>> found, Map<Integer, Map<Integer, SeatState>> claims) {
+        for(Map.Entry<Integer, Map<Integer, SeatState>> rowClaims : found.entrySet()) {
+            for(Map.Entry<Integer, SeatState> claim : rowClaims.getValue().entrySet()) {
+                FindClaimedSeatsJob.addClaim(claims, rowClaims.getKey(), claim.getKey(), claim.getValue());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,542 @@
+package com.mukundsankaran.bookit.service.impl;
+
+import com.mukundsankaran.bookit.allocation.AvailabilityBuffer;
+import com.mukundsankaran.bookit.allocation.SeatAllocationStrategy;
+import com.mukundsankaran.bookit.config.BookItProperties;
+import com.mukundsankaran.bookit.config.ConditionalOnLocalEngine;
+import com.mukundsankaran.bookit.journal.JournalReplay;
+import com.mukundsankaran.bookit.model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * BookIt Ticket Service Implementation for a single JVM, "bookit.engine=local"
+ *
+ * Events and their rows are kept on the heap, created from the venue definition when first used, with no data grid
+ * to start. Holds are placed one at a time through the hold lane, exactly as on a grid node, so a hold never competes
+ * with another hold for seats. Reservations and expiries only change seats that are already held, and take the lock
+ * of each row they touch. Rows share a fixed set of locks, striped by row.
+ *
+ * Seats are chosen by the same strategies, hold times and priority lane as the grid engine, and replay, rate limits
+ * and metrics are shared with it (see AbstractTicketService). Nothing is shared with other nodes: holds and
+ * reservations live only as long as the JVM. Callers get copies of holds, never the holds the engine keeps.
+ *
+ * Rows are the same Row objects the grid engine keeps, so the seat allocation strategies and search buffers work on
+ * both engines unchanged.
+ */
+
+@Service
+@ConditionalOnLocalEngine
+public class LocalTicketServiceImpl extends AbstractTicketService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalTicketServiceImpl.class);
+
+    /**
+     * Number of locks shared by the rows of an event
+     */
+    private static final int LOCK_STRIPES = 64;
+
+    private final ConcurrentMap<Long, LocalEvent> events = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Integer, SeatHold> holds = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Reservation> reservations = new ConcurrentHashMap<>();
+
+    /**
+     * Customers with a hold or reservation, by event and email
+     */
+    private final Set<String> customers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Outcomes of requests made with a request ID, by request key
+     */
+    private final ConcurrentMap<String, RequestOutcome> requests = new ConcurrentHashMap<>();
+
+    /**
+     * The last hold ID handed out, hold IDs wrap around to 1 after Integer.MAX_VALUE
+     */
+    private final AtomicInteger seatHoldIds = new AtomicInteger();
+
+    private long requestTtl;
+
+    /**
+     * Initialize TicketService
+     */
+    @PostConstruct
+    private void init() throws IOException {
+        requestTtl = TimeUnit.MINUTES.toMillis(bookItProperties.getIdempotency().getRequestTtlInMinutes());
+
+        // Carry on after the holds of earlier runs, so the journal never has two holds with the same ID
+        BookItProperties.Journal journal = bookItProperties.getJournal();
+        if(journal.isEnabled()) {
+            seatHoldIds.set(JournalReplay.maxHoldId(Paths.get(journal.getDirectory())));
+        }
+
+        getEvent(venueDefinition.getDefaultEvent().getId());
+    }
+
+    /**
+     * The number of seats in the venue that are neither held nor reserved
+     *
+     * @return the number of tickets available in the venue
+     */
+    public int numSeatsAvailable() {
+        return getEvent(venueDefinition.getDefaultEvent().getId()).numSeatsAvailable.get();
+    }
+
+    /**
+     * Find and hold the best available seats for a customer. Only one hold is placed at a time, callers take their
+     * turn through the hold lane.
+     *
+     * @param numSeats - the number of seats to find and hold
+     * @param customerEmail - unique identifier for the customer
+     * @param customerClass - the class of the customer, which decides how long the seats are held
+     * @param requestKey - the key the hold is recorded under, or null
+     * @return a SeatHold object identifying the specific seats and related information
+     */
+    @Override
+    protected SeatHold holdSeats(int numSeats, String customerEmail, CustomerClass customerClass, String requestKey) {
+
+        // A retry may have been let in while the first attempt was holding seats
+        SeatHold replayed = (SeatHold) getRequestOutcome(requestKey);
+        if(replayed != null) {
+            replayedHolds.increment();
+            return replayed;
+        }
+
+        if(logger.isDebugEnabled()) {
+            logger.debug("Finding best {} seats for customer {}.", numSeats, customerEmail);
+        }
+
+        EventDefinition eventDefinition = venueDefinition.getDefaultEvent();
+        LocalEvent event = getEvent(eventDefinition.getId());
+
+        if(!isSeatHoldRequestValid(event, numSeats, customerEmail)) {
+            return null;
+        }
+
+        SeatAllocationStrategy strategy = getStrategy(eventDefinition);
+
+        AvailabilityBuffer buffer = AvailabilityBuffer.forThread();
+        List<RowAvailability> availability = findAvailableSeats(event, numSeats, strategy, buffer);
+
+        if(assignSeatsContiguously(event, numSeats, availability, buffer)) {
+            contiguousHolds.increment();
+        } else {
+            if(logger.isDebugEnabled()) {
+                logger.debug("{} contiguous seats not found. Attempting staggered assignment",  numSeats);
+            }
+            // The rows had fewer free seats than the event counts, the seats filled are freed again
+            if(!assignSeatsStaggered(event, numSeats, availability, buffer)) {
+                if(logger.isDebugEnabled()) {
+                    logger.debug("Unable to service request from customer {}. Only {} of {} seats could be held.", customerEmail, buffer.getNumSeatsChosen(), numSeats);
+                }
+                freeSeats(event, buffer.toSeatMap());
+                return null;
+            }
+            staggeredHolds.increment();
+        }
+
+        SeatHold hold = new SeatHold(seatHoldIds.updateAndGet(id -> id == Integer.MAX_VALUE ? 1 : id + 1), buffer.toSeatMap(), customerEmail, eventDefinition.getId(), customerClass,
+                holdPolicy.getHoldExpiryTime(eventDefinition, customerClass));
+        holds.put(hold.getId(), hold);
+        customers.add(customerKey(hold.getEventId(), customerEmail));
+        event.numSeatsAvailable.addAndGet(-buffer.getNumSeatsChosen());
+        putRequestOutcome(requestKey, hold);
+
+        if(logger.isDebugEnabled()) {
+            logger.debug("SeatHold {} created successfully.", hold);
+        }
+
+        auditJournal.recordHold(hold);
+
+        // The stored hold is shared with the expiry sweep, callers get their own copy
+        return new SeatHold(hold);
+    }
+
+    /**
+     * Check if the request to hold seats is valid
+     *
+     * @param event - the event
+     * @param numSeats - number of seats requested by the customer
+     * @param customerEmail - the Email of the customer who made the SeatHold request
+     * @return a boolean indicating whether the request is valid
+     */
+    private boolean isSeatHoldRequestValid(LocalEvent event, int numSeats, String customerEmail) {
+
+        if(numSeats <= 0) {
+            if(logger.isDebugEnabled()) {
+                logger.debug("Unable to service request from customer {}. Requested number of seats need to be greater than 0.", customerEmail);
+            }
+            return false;
+        }
+
+        if(numSeats > event.numSeatsAvailable.get()) {
+            if(logger.isDebugEnabled()) {
+                logger.debug("Unable to service request from customer {}. Requested number of seats unavailable.", customerEmail);
+            }
+            return false;
+        }
+
+        if(customerEmail == null || customers.contains(customerKey(event.definition.getId(), customerEmail))) {
+            if(logger.isDebugEnabled()) {
+                logger.debug("Unable to service request from customer {}. A hold or reservation already exists for event {}.", customerEmail, event.definition.getName());
+            }
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Summarize every row of the event with free seats
+     *
+     * @param event - the event
+     * @param numSeats - number of seats requested by the customer
+     * @param strategy - the strategy that chooses the seats
+     * @param buffer - the buffers of this thread, the rows are summarized into them
+     * @return a summary of each row with free seats, in the order the strategy prefers, valid until the next search
+     *         on this thread
+     */
+    private List<RowAvailability> findAvailableSeats(LocalEvent event, int numSeats, SeatAllocationStrategy strategy, AvailabilityBuffer buffer) {
+
+        for(int index = 0; index < event.rows.length; index++) {
+
+            Row row = event.rows[index];
+            ReentrantLock lock = event.lockOf(index);
+
+            lock.lock();
+            try {
+                if(row.getFreeSeats() > 0) {
+                    buffer.add(row, numSeats, strategy);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Rows are kept from front to rear
+        List<RowAvailability> availability = buffer.getAvailability();
+        measureFragmentation(availability);
+        strategy.orderRows(availability, numSeats);
+
+        return availability;
+    }
+
+    /**
+     * A helper method that attempts to assign seats contiguously if possible
+     *
+     * @param event - the event
+     * @param numSeats - number of seats requested by the customer
+     * @param availability - a summary of each row with free seats, best first
+     * @param buffer - the buffers of this thread, the seats are chosen in them
+     * @return - a boolean indicating whether seat assignment was successful
+     */
+    private boolean assignSeatsContiguously(LocalEvent event, int numSeats, List<RowAvailability> availability, AvailabilityBuffer buffer) {
+
+        for(int candidate = 0; candidate < availability.size(); candidate++) {
+
+            RowAvailability summary = availability.get(candidate);
+            int start = summary.getSequenceStart();
+
+            if(start >= 0) {
+
+                int index = event.indexOf(summary.getRowId());
+                Row row = event.rows[index];
+                ReentrantLock lock = event.lockOf(index);
+
+                lock.lock();
+                try {
+                    if(!row.isSequenceEmpty(start, numSeats)) {
+                        continue;
+                    }
+
+                    for(int seatId = start; seatId < start + numSeats; seatId++) {
+                        row.getSeat(seatId).setState(SeatState.HELD);
+                    }
+                    row.setFreeSeats(row.getFreeSeats() - numSeats);
+
+                    buffer.choose(row.getId(), start, numSeats);
+
+                    return true;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * A helper method that assigns seats row by row, best row first
+     *
+     * @param event - the event
+     * @param numSeats - number of seats requested by the customer
+     * @param availability - a summary of each row with free seats, best first
+     * @param buffer - the buffers of this thread, the seats are chosen in them
+     * @return - a boolean indicating whether seat assignment was successful
+     */
+    private boolean assignSeatsStaggered(LocalEvent event, int numSeats, List<RowAvailability> availability, AvailabilityBuffer buffer) {
+
+        int remainingSeats = numSeats;
+
+        for(int candidate = 0; candidate < availability.size() && remainingSeats > 0; candidate++) {
+
+            int index = event.indexOf(availability.get(candidate).getRowId());
+            Row row = event.rows[index];
+            ReentrantLock lock = event.lockOf(index);
+
+            lock.lock();
+            try {
+                int filled = 0;
+                for(int seatId = row.nextEmptySeat(0); seatId >= 0 && remainingSeats > 0; seatId = row.nextEmptySeat(seatId + 1)) {
+                    row.getSeat(seatId).setState(SeatState.HELD);
+                    buffer.choose(row.getId(), seatId, 1);
+                    remainingSeats--;
+                    filled++;
+                }
+                row.setFreeSeats(row.getFreeSeats() - filled);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        return remainingSeats == 0;
+    }
+
+    /**
+     * Reserve the seats of a hold
+     *
+     * @param seatHoldId - the seat hold identifier
+     * @param customerEmail - the email address of the customer to which the seat hold is assigned
+     * @param requestKey - the key the reservation is recorded under, or null
+     * @return a reservation confirmation code, or null if the customer has no such hold
+     */
+    @Override
+    protected String reserve(int seatHoldId, String customerEmail, String requestKey) {
+
+        SeatHold hold = holds.get(seatHoldId);
+
+        // Whoever removes the hold reserves it, a concurrent expiry or reservation of the same hold gets nothing
+        if(hold == null || !hold.getCustomerEmail().equalsIgnoreCase(customerEmail) || !holds.remove(seatHoldId, hold)) {
+            if(logger.isDebugEnabled()) {
+                logger.debug("No hold with ID {} found for customer {}.", seatHoldId, customerEmail);
+            }
+            return null;
+        }
+
+        LocalEvent event = getEvent(hold.getEventId());
+        for(Map.Entry<Integer, List<Integer>> rowSeats : hold.getSeats().entrySet()) {
+
+            int index = event.indexOf(rowSeats.getKey());
+            Row row = event.rows[index];
+            ReentrantLock lock = event.lockOf(index);
+
+            lock.lock();
+            try {
+                for(int seatId : rowSeats.getValue()) {
+                    if(row.getSeat(seatId).getState() == SeatState.HELD) {
+                        row.getSeat(seatId).setState(SeatState.RESERVED);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Reservation reservation = new Reservation(hold.getSeats(), hold.getCustomerEmail(), hold.getEventId());
+        reservations.put(reservation.getId(), reservation);
+        putRequestOutcome(requestKey, reservation.getId());
+
+        if(logger.isDebugEnabled()) {
+            logger.debug("Hold {} reserved as {}.", hold, reservation.getId());
+        }
+
+        auditJournal.recordReserve(hold, reservation.getId());
+
+        return reservation.getId();
+    }
+
+    /**
+     * Free the seats of holds that have expired by a given time, and forget request outcomes that are too old to be
+     * replayed by then
+     *
+     * @param currentTime - the time, in milliseconds since the epoch
+     */
+    @Override
+    protected void expireHolds(long currentTime) {
+
+        for(SeatHold hold : holds.values()) {
+            // The hold may have been reserved since it was found
+            if(hold.isExpired(currentTime) && holds.remove(hold.getId(), hold)) {
+                expireHold(hold);
+            }
+        }
+
+        requests.values().removeIf(outcome -> outcome.expiryTime <= currentTime);
+    }
+
+    /**
+     * Free the seats of an expired hold
+     *
+     * @param hold - the expired hold, already removed
+     */
+    private void expireHold(SeatHold hold) {
+
+        LocalEvent event = getEvent(hold.getEventId());
+        int freedSeats = freeSeats(event, hold.getSeats());
+
+        event.numSeatsAvailable.addAndGet(freedSeats);
+        customers.remove(customerKey(hold.getEventId(), hold.getCustomerEmail()));
+
+        if(logger.isDebugEnabled()) {
+            logger.debug("Expired hold {}, freeing {} seats.", hold, freedSeats);
+        }
+
+        auditJournal.recordExpire(hold);
+    }
+
+    /**
+     * Free seats that are held, and return them to their rows
+     *
+     * @param event - the event
+     * @param seats - the seats to free, by row
+     * @return the number of seats freed
+     */
+    private int freeSeats(LocalEvent event, Map<Integer, List<Integer>> seats) {
+
+        int freedSeats = 0;
+
+        for(Map.Entry<Integer, List<Integer>> rowSeats : seats.entrySet()) {
+
+            int index = event.indexOf(rowSeats.getKey());
+            Row row = event.rows[index];
+            ReentrantLock lock = event.lockOf(index);
+
+            lock.lock();
+            try {
+                int freed = 0;
+                for(int seatId : rowSeats.getValue()) {
+                    if(row.getSeat(seatId).getState() == SeatState.HELD) {
+                        row.getSeat(seatId).setState(SeatState.FREE);
+                        freed++;
+                    }
+                }
+                row.setFreeSeats(row.getFreeSeats() + freed);
+                freedSeats += freed;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        return freedSeats;
+    }
+
+    /**
+     * Get an event, creating it and its rows from the venue definition when first used
+     *
+     * @param eventId - the Event ID
+     * @return the event
+     */
+    private LocalEvent getEvent(long eventId) {
+        return events.computeIfAbsent(eventId, id -> new LocalEvent(venueDefinition.getEvent(id)));
+    }
+
+    private static String customerKey(Long eventId, String customerEmail) {
+        return eventId + ":" + customerEmail.toLowerCase();
+    }
+
+    /**
+     * Look up the outcome of an earlier attempt at a request
+     *
+     * @param requestKey - the key the outcome is recorded under, or null
+     * @return the outcome, or null if no attempt has succeeded lately. Holds are copies of the hold the engine keeps.
+     */
+    @Override
+    protected Object getRequestOutcome(String requestKey) {
+
+        if(requestKey == null) {
+            return null;
+        }
+
+        RequestOutcome outcome = requests.get(requestKey);
+
+        if(outcome == null || outcome.expiryTime <= System.currentTimeMillis()) {
+            return null;
+        }
+
+        return outcome.value instanceof SeatHold ? new SeatHold((SeatHold) outcome.value) : outcome.value;
+    }
+
+    private void putRequestOutcome(String requestKey, Object value) {
+        if(requestKey != null) {
+            requests.put(requestKey, new RequestOutcome(value, System.currentTimeMillis() + requestTtl));
+        }
+    }
+
+    /**
+     * An event with its rows, from front to rear
+     */
+    private static final class LocalEvent {
+
+        private final EventDefinition definition;
+
+        private final Row[] rows;
+
+        private final ReentrantLock[] locks;
+
+        private final AtomicInteger numSeatsAvailable;
+
+        private LocalEvent(EventDefinition definition) {
+
+            this.definition = definition;
+            this.rows = new Row[definition.getNumRows()];
+            for(int index = 0; index < rows.length; index++) {
+                rows[index] = definition.createRow(definition.getFirstRowId() + index);
+            }
+            this.locks = new ReentrantLock[Math.min(LOCK_STRIPES, rows.length)];
+            for(int stripe = 0; stripe < locks.length; stripe++) {
+                locks[stripe] = new ReentrantLock();
+            }
+            this.numSeatsAvailable = new AtomicInteger(definition.getNumSeats());
+        }
+
+        private int indexOf(int rowId) {
+            return rowId - definition.getFirstRowId();
+        }
+
+        private ReentrantLock lockOf(int index) {
+            return locks[index % locks.length];
+        }
+    }
+
+    /**
+     * The outcome of a request, kept until it is too old to be replayed
+     */
+    private static final class RequestOutcome {
+
+        private final Object value;
+
+        private final long expiryTime;
+
+        private RequestOutcome(Object value, long expiryTime) {
+            this.value = value;
+            this.expiryTime = expiryTime;
+        }
+    }
+
+}
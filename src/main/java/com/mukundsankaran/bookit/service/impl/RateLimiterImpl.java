@@ -0,0 +1,223 @@
+package com.mukundsankaran.bookit.service.impl;
+
+import com.mukundsankaran.bookit.config.BookItProperties;
+import com.mukundsankaran.bookit.grid.AddToCounterProcessor;
+import com.mukundsankaran.bookit.grid.GridCaches;
+import com.mukundsankaran.bookit.model.CacheName;
+import com.mukundsankaran.bookit.service.RateLimiter;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.IgniteException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.cache.processor.EntryProcessorResult;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * BookIt Rate Limiter Implementation
+ *
+ * Every attempt is decided locally, without touching the grid. Each key has a token bucket on the node, holding up to
+ * "bookit.rateLimit.burst" permits and refilled at "bookit.rateLimit.attemptsPerMinute". A key whose bucket is empty
+ * is turned away at once.
+ *
+ * To stop a client from spreading its attempts over the nodes, each node also counts the attempts it let through.
+ * Every "bookit.rateLimit.syncIntervalInMillis" it adds them to cluster-wide counters in a single batch. A counter
+ * covers one minute. A key that has gone over the limit across the cluster is then blocked on the node until that
+ * minute is over. When the seat inventory is kept in this JVM alone there is no cluster, and only the token buckets
+ * apply.
+ */
+
+@Service
+public class RateLimiterImpl implements RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimiterImpl.class);
+
+    private static final long WINDOW_IN_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * The caches of the data grid, or null when the seat inventory is kept in this JVM alone and there is no cluster
+     * to sync with
+     */
+    @Autowired(required = false)
+    private GridCaches gridCaches;
+
+    @Autowired
+    private BookItProperties bookItProperties;
+
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Attempts let through since the last sync, by key
+     */
+    private final ConcurrentMap<String, LongAdder> unsyncedAttempts = new ConcurrentHashMap<>();
+
+    /**
+     * Keys over the cluster-wide limit, with the time until which they are blocked
+     */
+    private final ConcurrentMap<String, Long> blockedUntil = new ConcurrentHashMap<>();
+
+    private boolean enabled;
+
+    private int burst;
+
+    private double permitsPerMilli;
+
+    private int attemptsPerWindow;
+
+    /**
+     * Initialize RateLimiter
+     */
+    @PostConstruct
+    private void init() {
+
+        BookItProperties.RateLimit rateLimit = bookItProperties.getRateLimit();
+
+        enabled = rateLimit.isEnabled();
+        burst = rateLimit.getBurst();
+        attemptsPerWindow = rateLimit.getAttemptsPerMinute();
+        permitsPerMilli = (double) attemptsPerWindow / WINDOW_IN_MILLIS;
+    }
+
+    /**
+     * Take a permit for an attempt
+     *
+     * @param key the customer or client making the attempt
+     * @return true if the attempt may go ahead, false if the key has made too many attempts
+     */
+    public boolean tryAcquire(String key) {
+
+        if(!enabled) {
+            return true;
+        }
+
+        long now = System.currentTimeMillis();
+
+        Long blocked = blockedUntil.get(key);
+        if(blocked != null) {
+            if(blocked > now) {
+                return false;
+            }
+            blockedUntil.remove(key, blocked);
+        }
+
+        if(!buckets.computeIfAbsent(key, k -> new TokenBucket(burst, now)).tryTake(permitsPerMilli, now)) {
+            return false;
+        }
+
+        if(gridCaches != null) {
+            unsyncedAttempts.computeIfAbsent(key, k -> new LongAdder()).increment();
+        }
+
+        return true;
+    }
+
+    /**
+     * Add the attempts made on this node to the cluster-wide counters, and block the keys that went over the limit
+     */
+    @Scheduled(fixedDelayString = "${bookit.rateLimit.syncIntervalInMillis:1000}")
+    private void sync() {
+
+        if(!enabled || gridCaches == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long window = now / WINDOW_IN_MILLIS;
+
+        Map<String, AddToCounterProcessor> counts = new HashMap<>();
+        for(Map.Entry<String, LongAdder> attempt : unsyncedAttempts.entrySet()) {
+            long count = attempt.getValue().sumThenReset();
+            if(count > 0) {
+                counts.put(attempt.getKey() + '@' + window, new AddToCounterProcessor(count));
+            } else {
+                unsyncedAttempts.remove(attempt.getKey(), attempt.getValue());
+            }
+        }
+
+        if(!counts.isEmpty()) {
+
+            IgniteCache<String, Long> counterCache = gridCaches.get(CacheName.RATE_LIMITS);
+
+            try {
+                Map<String, EntryProcessorResult<Long>> totals = counterCache.invokeAll(counts);
+
+                long endOfWindow = (window + 1) * WINDOW_IN_MILLIS;
+                for(Map.Entry<String, EntryProcessorResult<Long>> total : totals.entrySet()) {
+                    if(total.getValue().get() > attemptsPerWindow) {
+                        String key = total.getKey().substring(0, total.getKey().lastIndexOf('@'));
+                        blockedUntil.put(key, endOfWindow);
+                        logger.warn("Blocking {} until {}, {} attempts across the cluster.", key, endOfWindow, total.getValue().get());
+                    }
+                }
+            } catch(IgniteException e) {
+                // The local buckets still apply, the counts are lost
+                logger.error("Failed to sync {} rate limit counters.", counts.size(), e);
+            }
+        }
+
+        // Forget keys that have been idle long enough to have a full bucket again
+        buckets.values().removeIf(bucket -> bucket.isFull(permitsPerMilli, now));
+        blockedUntil.values().removeIf(until -> until <= now);
+
+        if(logger.isDebugEnabled()) {
+            logger.debug("Synced {} rate limit counters, tracking {} keys and blocking {}.", counts.size(), buckets.size(), blockedUntil.size());
+        }
+    }
+
+    /**
+     * Permits for one key on this node
+     */
+    private static final class TokenBucket {
+
+        private final int capacity;
+
+        private double permits;
+
+        private long lastRefill;
+
+        private TokenBucket(int capacity, long now) {
+            this.capacity = capacity;
+            this.permits = capacity;
+            this.lastRefill = now;
+        }
+
+        private synchronized boolean tryTake(double permitsPerMilli, long now) {
+
+            refill(permitsPerMilli, now);
+
+            if(permits < 1) {
+                return false;
+            }
+
+            permits--;
+
+            return true;
+        }
+
+        private synchronized boolean isFull(double permitsPerMilli, long now) {
+
+            refill(permitsPerMilli, now);
+
+            return permits >= capacity;
+        }
+
+        private void refill(double permitsPerMilli, long now) {
+            if(now > lastRefill) {
+                permits = Math.min(capacity, permits + (now - lastRefill) * permitsPerMilli);
+                lastRefill = now;
+            }
+        }
+    }
+
+}
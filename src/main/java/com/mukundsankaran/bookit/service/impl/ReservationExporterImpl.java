@@ -0,0 +1,203 @@
+package com.mukundsankaran.bookit.service.impl;
+
+import com.mukundsankaran.bookit.config.BookItProperties;
+import com.mukundsankaran.bookit.config.ConditionalOnGridEngine;
+import com.mukundsankaran.bookit.grid.ReservationCsvTransformer;
+import com.mukundsankaran.bookit.model.CacheName;
+import com.mukundsankaran.bookit.service.ReservationExporter;
+import com.mukundsankaran.bookit.grid.GridCaches;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.binary.BinaryObject;
+import org.apache.ignite.cache.query.QueryCursor;
+import org.apache.ignite.cache.query.ScanQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Created by mukund on 4/26/18.
+ *
+ * BookIt Reservation Exporter Implementation
+ *
+ * Partitions of the RESERVATIONS cache are scanned in parallel, each by its own scan query. Reservations are turned
+ * into CSV lines on the nodes that own them and arrive a page at a time. Each scan compresses its lines into gzip
+ * members of up to "bookit.export.chunkSizeInBytes" and hands every completed member straight to the output, where
+ * members from different partitions are simply concatenated. Memory therefore stays within one page and one chunk
+ * per scan, whatever the number of reservations.
+ */
+
+@Service
+@ConditionalOnGridEngine
+public class ReservationExporterImpl implements ReservationExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationExporterImpl.class);
+
+    @Autowired
+    private GridCaches gridCaches;
+
+    @Autowired
+    private BookItProperties bookItProperties;
+
+    private ExecutorService scanPool;
+
+    /**
+     * Initialize ReservationExporter
+     */
+    @PostConstruct
+    private void init() {
+        scanPool = Executors.newFixedThreadPool(bookItProperties.getExport().getParallelism(), runnable -> {
+            Thread thread = new Thread(runnable, "reservation-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stop ReservationExporter
+     */
+    @PreDestroy
+    private void close() {
+        scanPool.shutdownNow();
+    }
+
+    /**
+     * Export every reservation
+     *
+     * @param out the stream the export is written to, left open
+     * @return the number of reservations exported
+     * @throws IOException if the export could not be written
+     */
+    public long export(OutputStream out) throws IOException {
+
+        long startTime = System.currentTimeMillis();
+
+        IgniteCache<String, BinaryObject> reservationCache = gridCaches.get(CacheName.RESERVATIONS).withKeepBinary();
+        int partitions = gridCaches.affinity(CacheName.RESERVATIONS).partitions();
+
+        Chunk header = new Chunk(out);
+        header.append(ReservationCsvTransformer.HEADER);
+        header.close();
+
+        // Scans claim the next partition until every partition is exported
+        AtomicInteger nextPartition = new AtomicInteger();
+        List<Future<Long>> scans = new ArrayList<>();
+        for(int scan = 0; scan < bookItProperties.getExport().getParallelism(); scan++) {
+            scans.add(scanPool.submit(() -> {
+                long exported = 0;
+                for(int partition = nextPartition.getAndIncrement(); partition < partitions; partition = nextPartition.getAndIncrement()) {
+                    exported += exportPartition(reservationCache, partition, out);
+                }
+                return exported;
+            }));
+        }
+
+        long exported = 0;
+        try {
+            for(Future<Long> scan : scans) {
+                exported += scan.get();
+            }
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while exporting reservations", e);
+        } catch(ExecutionException e) {
+            throw new IOException("Failed to export reservations", e.getCause());
+        } finally {
+            // Stop the remaining scans after a failure
+            nextPartition.set(partitions);
+            for(Future<Long> scan : scans) {
+                scan.cancel(true);
+            }
+        }
+
+        if(logger.isDebugEnabled()) {
+            logger.debug("Exported {} reservations from {} partitions in {} ms.", exported, partitions, System.currentTimeMillis() - startTime);
+        }
+
+        return exported;
+    }
+
+    /**
+     * Export the reservations in a partition
+     *
+     * @return the number of reservations exported
+     */
+    private long exportPartition(IgniteCache<String, BinaryObject> reservationCache, int partition, OutputStream out) throws IOException {
+
+        ScanQuery<String, BinaryObject> query = new ScanQuery<String, BinaryObject>().setPartition(partition);
+        query.setPageSize(bookItProperties.getExport().getPageSize());
+
+        long exported = 0;
+        int chunkSize = bookItProperties.getExport().getChunkSizeInBytes();
+        Chunk chunk = null;
+
+        try(QueryCursor<String> lines = reservationCache.query(query, new ReservationCsvTransformer())) {
+            for(String line : lines) {
+                if(chunk == null) {
+                    chunk = new Chunk(out);
+                }
+                chunk.append(line);
+                exported++;
+                if(chunk.size() >= chunkSize) {
+                    chunk.close();
+                    chunk = null;
+                }
+            }
+        } catch(UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        if(chunk != null) {
+            chunk.close();
+        }
+
+        return exported;
+    }
+
+    /**
+     * A gzip member that is compressed in memory, then written to the output in one piece
+     */
+    private static final class Chunk {
+
+        private final OutputStream out;
+
+        private final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+        private final GZIPOutputStream gzip;
+
+        private Chunk(OutputStream out) throws IOException {
+            this.out = out;
+            this.gzip = new GZIPOutputStream(compressed, 8192);
+        }
+
+        private void append(String line) throws IOException {
+            gzip.write(line.getBytes(StandardCharsets.UTF_8));
+            gzip.write('\n');
+        }
+
+        private int size() {
+            return compressed.size();
+        }
+
+        private void close() throws IOException {
+            gzip.close();
+            synchronized(out) {
+                compressed.writeTo(out);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,282 @@
+package com.mukundsankaran.bookit.service.impl;
+
+import com.mukundsankaran.bookit.config.BookItProperties;
+import com.mukundsankaran.bookit.config.ConditionalOnGridEngine;
+import com.mukundsankaran.bookit.grid.AppendToTermProcessor;
+import com.mukundsankaran.bookit.grid.GridCaches;
+import com.mukundsankaran.bookit.model.CacheName;
+import com.mukundsankaran.bookit.model.Reservation;
+import com.mukundsankaran.bookit.model.ReservationIndexKey;
+import com.mukundsankaran.bookit.model.ReservationPage;
+import com.mukundsankaran.bookit.service.ReservationIndex;
+import org.apache.ignite.IgniteCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * BookIt Reservation Index Implementation
+ *
+ * An inverted index kept in the RESERVATION_INDEX cache. Each customer is a term that lists the IDs of their
+ * reservations in the order they were made, and each seat is a term holding the ID of the reservation it belongs to.
+ * The reservations of an event are spread over "bookit.lookup.eventStripes" terms by reservation ID, so reservations
+ * for a popular event do not all wait on a single count. A page is read with one lookup of the counts, one of the
+ * reservation IDs and one of the reservations, however many reservations there are.
+ *
+ * A cursor is the term a page stopped in and the position in it. Reservations made while an event is being paged
+ * through are returned only if they land in a term the paging has not finished yet.
+ */
+
+@Service
+@ConditionalOnGridEngine
+public class ReservationIndexImpl implements ReservationIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationIndexImpl.class);
+
+    @Autowired
+    private GridCaches gridCaches;
+
+    @Autowired
+    private BookItProperties bookItProperties;
+
+    /**
+     * Add a reservation to the index. Must be called in the transaction that puts the reservation.
+     *
+     * @param reservation the reservation
+     */
+    public void add(Reservation reservation) {
+
+        IgniteCache<ReservationIndexKey, Object> indexCache = gridCaches.get(CacheName.RESERVATION_INDEX);
+        Map<ReservationIndexKey, Object> entries = new LinkedHashMap<>();
+
+        // Customer first then event, every transaction counts terms in the same order
+        for(String term : new String[] {customerTerm(reservation.getCustomerEmail()), eventTerm(reservation.getEventId(), stripeOf(reservation.getId()))}) {
+            long position = indexCache.invoke(new ReservationIndexKey(term, ReservationIndexKey.HEAD), new AppendToTermProcessor());
+            entries.put(new ReservationIndexKey(term, position), reservation.getId());
+        }
+
+        for(Map.Entry<Integer, List<Integer>> rowSeats : reservation.getSeats().entrySet()) {
+            for(Integer seatId : rowSeats.getValue()) {
+                entries.put(new ReservationIndexKey(seatTerm(reservation.getEventId(), rowSeats.getKey(), seatId), 0), reservation.getId());
+            }
+        }
+
+        indexCache.putAll(entries);
+
+        if(logger.isDebugEnabled()) {
+            logger.debug("Indexed reservation {} under {} terms.", reservation.getId(), entries.size());
+        }
+    }
+
+    /**
+     * Check if a customer has a reservation for an event
+     *
+     * @param customerEmail the email address of the customer
+     * @param eventId the event
+     * @return true if the customer has a reservation for the event
+     */
+    public boolean hasReservation(String customerEmail, Long eventId) {
+
+        String[] terms = {customerTerm(customerEmail)};
+        String cursor = null;
+
+        do {
+            ReservationPage page = find(terms, cursor, bookItProperties.getLookup().getMaxPageSize());
+            for(Reservation reservation : page.getReservations()) {
+                if(reservation.getEventId().equals(eventId)) {
+                    return true;
+                }
+            }
+            cursor = page.getNext();
+        } while(cursor != null);
+
+        return false;
+    }
+
+    /**
+     * Find the reservations of a customer, a page at a time, oldest first
+     *
+     * @param customerEmail the email address of the customer
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param limit the maximum number of reservations on the page
+     * @return the page of reservations
+     */
+    public ReservationPage findByCustomer(String customerEmail, String cursor, int limit) {
+        return find(new String[] {customerTerm(customerEmail)}, cursor, limit);
+    }
+
+    /**
+     * Find the reservations for an event, a page at a time
+     *
+     * @param eventId the event
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param limit the maximum number of reservations on the page
+     * @return the page of reservations
+     */
+    public ReservationPage findByEvent(Long eventId, String cursor, int limit) {
+        return find(eventTerms(eventId), cursor, limit);
+    }
+
+    /**
+     * Find the reservation of a seat
+     *
+     * @param eventId the event
+     * @param rowId the row of the seat
+     * @param seatId the position of the seat in the row
+     * @return the reservation, or null if the seat is not reserved
+     */
+    public Reservation findBySeat(Long eventId, int rowId, int seatId) {
+
+        IgniteCache<ReservationIndexKey, Object> indexCache = gridCaches.get(CacheName.RESERVATION_INDEX);
+        String reservationId = (String) indexCache.get(new ReservationIndexKey(seatTerm(eventId, rowId, seatId), 0));
+
+        if(reservationId == null) {
+            return null;
+        }
+
+        IgniteCache<String, Reservation> reservationCache = gridCaches.get(CacheName.RESERVATIONS);
+        return reservationCache.get(reservationId);
+    }
+
+    /**
+     * Hand every reservation for an event to an action, reading them a page at a time
+     *
+     * @param eventId the event
+     * @param action the action
+     * @return the number of reservations
+     */
+    public long forEachByEvent(Long eventId, Consumer<Reservation> action) {
+
+        String[] terms = eventTerms(eventId);
+        String cursor = null;
+        long count = 0;
+
+        do {
+            ReservationPage page = find(terms, cursor, bookItProperties.getLookup().getMaxPageSize());
+            for(Reservation reservation : page.getReservations()) {
+                action.accept(reservation);
+                count++;
+            }
+            cursor = page.getNext();
+        } while(cursor != null);
+
+        return count;
+    }
+
+    /**
+     * Read a page of reservations from a list of terms, taken one after another
+     *
+     * @param terms - the terms
+     * @param cursor - the cursor returned with the previous page, or null for the first page
+     * @param limit - the maximum number of reservations on the page
+     * @return the page of reservations
+     */
+    private ReservationPage find(String[] terms, String cursor, int limit) {
+
+        int term = 0;
+        long position = 0;
+
+        if(cursor != null) {
+            String[] parts = cursor.split("\\.");
+            try {
+                term = Integer.parseInt(parts[0]);
+                position = Long.parseLong(parts[1]);
+            } catch(NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid cursor " + cursor);
+            }
+            if(parts.length != 2 || term < 0 || term >= terms.length || position < 0) {
+                throw new IllegalArgumentException("Invalid cursor " + cursor);
+            }
+        }
+
+        int pageSize = Math.max(1, Math.min(limit, bookItProperties.getLookup().getMaxPageSize()));
+        IgniteCache<ReservationIndexKey, Object> indexCache = gridCaches.get(CacheName.RESERVATION_INDEX);
+
+        // Count the reservations of the remaining terms in one lookup
+        Set<ReservationIndexKey> heads = new LinkedHashSet<>();
+        for(int index = term; index < terms.length; index++) {
+            heads.add(new ReservationIndexKey(terms[index], ReservationIndexKey.HEAD));
+        }
+        Map<ReservationIndexKey, Object> counts = indexCache.getAll(heads);
+
+        Set<ReservationIndexKey> keys = new LinkedHashSet<>();
+        while(term < terms.length && keys.size() < pageSize) {
+
+            Long count = (Long) counts.get(new ReservationIndexKey(terms[term], ReservationIndexKey.HEAD));
+            long end = Math.min(count == null ? 0 : count, position + pageSize - keys.size());
+
+            for(; position < end; position++) {
+                keys.add(new ReservationIndexKey(terms[term], position));
+            }
+
+            if(count == null || position >= count) {
+                term++;
+                position = 0;
+            }
+        }
+
+        List<Reservation> reservations = new ArrayList<>(keys.size());
+
+        if(!keys.isEmpty()) {
+
+            Map<ReservationIndexKey, Object> ids = indexCache.getAll(keys);
+
+            Set<String> reservationIds = new LinkedHashSet<>();
+            for(ReservationIndexKey key : keys) {
+                Object reservationId = ids.get(key);
+                if(reservationId != null) {
+                    reservationIds.add((String) reservationId);
+                }
+            }
+
+            IgniteCache<String, Reservation> reservationCache = gridCaches.get(CacheName.RESERVATIONS);
+            Map<String, Reservation> found = reservationCache.getAll(reservationIds);
+
+            for(String reservationId : reservationIds) {
+                Reservation reservation = found.get(reservationId);
+                if(reservation != null) {
+                    reservations.add(reservation);
+                }
+            }
+        }
+
+        return new ReservationPage(reservations, term < terms.length ? term + "." + position : null);
+    }
+
+    private static String customerTerm(String customerEmail) {
+        return "customer:" + customerEmail.toLowerCase();
+    }
+
+    private String[] eventTerms(Long eventId) {
+
+        String[] terms = new String[bookItProperties.getLookup().getEventStripes()];
+        for(int stripe = 0; stripe < terms.length; stripe++) {
+            terms[stripe] = eventTerm(eventId, stripe);
+        }
+
+        return terms;
+    }
+
+    private static String eventTerm(Long eventId, int stripe) {
+        return "event:" + eventId + "#" + stripe;
+    }
+
+    private static String seatTerm(Long eventId, int rowId, int seatId) {
+        return "seat:" + eventId + ":" + rowId + ":" + seatId;
+    }
+
+    private int stripeOf(String reservationId) {
+        return Math.floorMod(reservationId.hashCode(), bookItProperties.getLookup().getEventStripes());
+    }
+}
@@ -0,0 +1,285 @@
+package com.mukundsankaran.bookit.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mukundsankaran.bookit.config.BookItProperties;
+import com.mukundsankaran.bookit.config.ConditionalOnGridEngine;
+import com.mukundsankaran.bookit.model.SeatMapDelta;
+import com.mukundsankaran.bookit.model.SeatState;
+import com.mukundsankaran.bookit.service.SeatMapFeed;
+import com.mukundsankaran.bookit.service.SeatMapService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Created by mukund on 4/17/18.
+ *
+ * BookIt Seat Map Feed Implementation
+ *
+ * Seat changes observed by the node's SeatMapService feed every subscriber on the node. Changes are coalesced per
+ * seat and pushed at a fixed interval, serialized once and shared by all subscribers that are keeping up. A subscriber
+ * that is still busy receiving the previous push accumulates its own coalesced backlog instead, so slow clients
+ * receive fewer, larger updates and never hold up the others. Each push carries the seat map version as its event ID.
+ */
+
+@Service
+@ConditionalOnGridEngine
+public class SeatMapFeedImpl implements SeatMapFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatMapFeedImpl.class);
+
+    private static final String EVENT_NAME = "seats";
+
+    @Autowired
+    private SeatMapService seatMapService;
+
+    @Autowired
+    private BookItProperties bookItProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Changes not yet pushed to subscribers, coalesced by row and seat
+     */
+    private Map<Integer, Map<Integer, SeatState>> pendingChanges = new HashMap<>();
+
+    private final Object pendingChangesLock = new Object();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService senderPool;
+
+    /**
+     * Initialize SeatMapFeed
+     */
+    @PostConstruct
+    private void init() {
+
+        senderPool = Executors.newFixedThreadPool(bookItProperties.getFeed().getSenderThreads());
+
+        seatMapService.addListener(this::recordChange);
+
+        if(logger.isDebugEnabled()) {
+            logger.debug("Seat map feed started.");
+        }
+    }
+
+    /**
+     * Stop SeatMapFeed
+     */
+    @PreDestroy
+    private void close() {
+
+        senderPool.shutdownNow();
+
+        for(Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    /**
+     * Subscribe to seat map changes
+     *
+     * @return an emitter delivering seat map changes, or null if the node cannot accept more subscribers
+     */
+    public SseEmitter subscribe() {
+
+        if(subscribers.size() >= bookItProperties.getFeed().getMaxSubscribers()) {
+            if(logger.isDebugEnabled()) {
+                logger.debug("Rejecting seat map subscription. {} subscribers already connected.", subscribers.size());
+            }
+            return null;
+        }
+
+        SseEmitter emitter = new SseEmitter(bookItProperties.getFeed().getSubscriptionTimeoutInMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        // Start the subscriber off with every seat that is not free. Seat states are absolute, so this may safely
+        // overlap with changes pushed since the subscriber was added.
+        Map<Integer, Map<Integer, SeatState>> seatMap = new HashMap<>();
+        seatMapService.visitSeats((rowId, seatId, state) -> seatMap.computeIfAbsent(rowId, id -> new HashMap<>()).put(seatId, state));
+        synchronized(subscriber) {
+            subscriber.backlog = merge(subscriber.backlog, seatMap);
+        }
+
+        if(logger.isDebugEnabled()) {
+            logger.debug("New seat map subscriber. {} subscribers connected.", subscribers.size());
+        }
+
+        return emitter;
+    }
+
+    /**
+     * A scheduled task that pushes coalesced seat map changes to subscribers
+     */
+    @Scheduled(fixedDelayString = "${bookit.feed.flushIntervalInMillis:250}")
+    private void flush() {
+
+        Map<Integer, Map<Integer, SeatState>> changes = null;
+
+        synchronized(pendingChangesLock) {
+            if(!pendingChanges.isEmpty()) {
+                changes = pendingChanges;
+                pendingChanges = new HashMap<>();
+            }
+        }
+
+        String payload = changes == null ? null : serialize(changes);
+        String version = seatMapService.getVersion();
+
+        for(Subscriber subscriber : subscribers) {
+            subscriber.offer(changes, payload, version);
+        }
+    }
+
+    /**
+     * Add a seat state change to the pending changes, replacing any earlier change to the same seat
+     *
+     * @param rowId - the row the seat belongs to
+     * @param seatId - the position of the seat in the row
+     * @param state - the new state of the seat
+     */
+    private void recordChange(int rowId, int seatId, SeatState state) {
+        synchronized(pendingChangesLock) {
+            pendingChanges.computeIfAbsent(rowId, id -> new HashMap<>()).put(seatId, state);
+        }
+    }
+
+    /**
+     * Merge seat state changes into a backlog, later changes replace earlier changes to the same seat
+     *
+     * @param backlog - the backlog to merge into, may be null
+     * @param changes - the changes to merge, may be null
+     * @return the merged backlog
+     */
+    private static Map<Integer, Map<Integer, SeatState>> merge(Map<Integer, Map<Integer, SeatState>> backlog,
+                                                               Map<Integer, Map<Integer, SeatState>> changes) {
+        if(backlog == null) {
+            backlog = new HashMap<>();
+        }
+        if(changes != null) {
+            for(Map.Entry<Integer, Map<Integer, SeatState>> row : changes.entrySet()) {
+                backlog.computeIfAbsent(row.getKey(), id -> new HashMap<>()).putAll(row.getValue());
+            }
+        }
+        return backlog;
+    }
+
+    /**
+     * Serialize seat state changes into the JSON payload pushed to subscribers
+     *
+     * @param changes - the changes, by row and seat
+     * @return a JSON array of seat map deltas
+     */
+    private String serialize(Map<Integer, Map<Integer, SeatState>> changes) {
+
+        List<SeatMapDelta> deltas = new ArrayList<>(changes.size());
+
+        for(Map.Entry<Integer, Map<Integer, SeatState>> row : changes.entrySet()) {
+            SeatMapDelta delta = new SeatMapDelta(row.getKey());
+            for(Map.Entry<Integer, SeatState> seat : row.getValue().entrySet()) {
+                delta.add(seat.getKey(), seat.getValue());
+            }
+            deltas.add(delta);
+        }
+
+        try {
+            return objectMapper.writeValueAsString(deltas);
+        } catch(JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A connected client and the changes it has fallen behind on
+     */
+    private class Subscriber {
+
+        private final SseEmitter emitter;
+
+        /**
+         * Changes the subscriber has not received yet because it was busy, coalesced by row and seat
+         */
+        private Map<Integer, Map<Integer, SeatState>> backlog;
+
+        /**
+         * Whether a push to the subscriber is in progress
+         */
+        private boolean sending;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * Offer the latest changes to the subscriber
+         *
+         * @param changes - the latest changes, may be null
+         * @param payload - the serialized form of the latest changes, may be null
+         * @param version - the seat map version the changes bring the subscriber up to
+         */
+        private synchronized void offer(Map<Integer, Map<Integer, SeatState>> changes, String payload, String version) {
+
+            if(sending) {
+                if(changes != null) {
+                    backlog = merge(backlog, changes);
+                }
+                return;
+            }
+
+            String toSend;
+            if(backlog != null) {
+                toSend = serialize(merge(backlog, changes));
+                backlog = null;
+            } else if(payload != null) {
+                toSend = payload;
+            } else {
+                return;
+            }
+
+            sending = true;
+            try {
+                senderPool.execute(() -> send(toSend, version));
+            } catch(RejectedExecutionException e) {
+                sending = false;
+            }
+        }
+
+        private void send(String payload, String version) {
+            try {
+                emitter.send(SseEmitter.event().id(version).name(EVENT_NAME).data(payload, MediaType.APPLICATION_JSON));
+            } catch(Exception e) {
+                if(logger.isDebugEnabled()) {
+                    logger.debug("Dropping seat map subscriber. {}", e.getMessage());
+                }
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+            } finally {
+                synchronized(this) {
+                    sending = false;
+                }
+            }
+        }
+    }
+
+}
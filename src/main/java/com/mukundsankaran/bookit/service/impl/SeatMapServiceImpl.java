@@ -0,0 +1,315 @@
+package com.mukundsankaran.bookit.service.impl;
+
+import com.mukundsankaran.bookit.config.ConditionalOnGridEngine;
+import com.mukundsankaran.bookit.model.*;
+import com.mukundsankaran.bookit.service.SeatMapService;
+import com.mukundsankaran.bookit.grid.GridCaches;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.query.ContinuousQuery;
+import org.apache.ignite.cache.query.QueryCursor;
+import org.apache.ignite.cache.query.ScanQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.cache.Cache;
+import javax.cache.event.CacheEntryEvent;
+import javax.cache.event.EventType;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Created by mukund on 4/18/18.
+ *
+ * BookIt Seat Map Service Implementation
+ *
+ * The seat map starts out with every row of the default event free, as laid out in the venue definition, since rows
+ * loaded through the read-through store do not show up as cache updates. A single continuous query over the ROWS
+ * cache then keeps a packed copy of every row up to date, rows record whether each seat is free, held or reserved.
+ * The query is only started when the seat map is first read, so creating the service does not touch the grid while
+ * the application context is starting.
+ * Every row change is stamped with a new version, so a snapshot since a given version only has to copy the rows
+ * stamped after it.
+ */
+
+@Service
+@ConditionalOnGridEngine
+public class SeatMapServiceImpl implements SeatMapService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatMapServiceImpl.class);
+
+    private static final SeatState[] SEAT_STATES = SeatState.values();
+
+    @Autowired
+    private GridCaches gridCaches;
+
+    @Autowired
+    private VenueDefinition venueDefinition;
+
+    /**
+     * Identifies this copy of the seat map, versions issued by another node or before a restart are not comparable
+     */
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
+
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Row updates share the read lock, reading a consistent version takes the write lock
+     */
+    private final ReadWriteLock versionLock = new ReentrantReadWriteLock();
+
+    private final Map<Integer, PackedRow> rows = new ConcurrentHashMap<>();
+
+    private final List<SeatChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    private QueryCursor<Cache.Entry<Integer, Row>> rowQueryCursor;
+
+    private volatile boolean started;
+
+    /**
+     * Initialize SeatMapService
+     */
+    @PostConstruct
+    private void init() {
+        EventDefinition eventDefinition = venueDefinition.getDefaultEvent();
+        for(int rowId = eventDefinition.getFirstRowId(); rowId < eventDefinition.getFirstRowId() + eventDefinition.getNumRows(); rowId++) {
+            rows.put(rowId, new PackedRow(eventDefinition.getSeatsInRow(rowId)));
+        }
+    }
+
+    /**
+     * Start following the ROWS cache, unless already started, and catch up with the rows already in it
+     */
+    private void start() {
+
+        if(started) {
+            return;
+        }
+
+        synchronized(this) {
+
+            if(started) {
+                return;
+            }
+
+            startRowQuery();
+            started = true;
+        }
+
+        if(logger.isDebugEnabled()) {
+            logger.debug("Seat map {} started.", epoch);
+        }
+    }
+
+    private void startRowQuery() {
+
+        IgniteCache<Integer, Row> rowCache = gridCaches.get(CacheName.ROWS);
+        ContinuousQuery<Integer, Row> rowQuery = new ContinuousQuery<>();
+        rowQuery.setInitialQuery(new ScanQuery<>());
+        rowQuery.setLocalListener(events -> {
+            for(CacheEntryEvent<? extends Integer, ? extends Row> event : events) {
+                if(event.getEventType() == EventType.REMOVED) {
+                    rows.remove(event.getKey());
+                } else {
+                    onRowUpdated(event.getValue());
+                }
+            }
+        });
+        rowQueryCursor = rowCache.query(rowQuery);
+        for(Cache.Entry<Integer, Row> entry : rowQueryCursor) {
+            onRowUpdated(entry.getValue());
+        }
+    }
+
+    /**
+     * Stop SeatMapService
+     */
+    @PreDestroy
+    private synchronized void close() {
+        if(rowQueryCursor != null) {
+            rowQueryCursor.close();
+        }
+    }
+
+    /**
+     * The current version of the seat map
+     *
+     * @return the current seat map version
+     */
+    public String getVersion() {
+        start();
+        return formatVersion(currentVersion());
+    }
+
+    /**
+     * Take a snapshot of the seat map
+     *
+     * @param sinceVersion a version returned by an earlier snapshot, or null for a complete snapshot
+     * @return the rows which changed since the given version, or every row if the version is null or unknown
+     */
+    public SeatMap getSeatMap(String sinceVersion) {
+
+        start();
+
+        long since = parseVersion(sinceVersion);
+        long current = currentVersion();
+
+        List<SeatMapRow> changedRows = new ArrayList<>();
+
+        for(Map.Entry<Integer, PackedRow> entry : rows.entrySet()) {
+            PackedRow row = entry.getValue();
+            synchronized(row) {
+                if(row.version > since) {
+                    changedRows.add(new SeatMapRow(entry.getKey(), row.numSeats, row.version, row.seats.clone()));
+                }
+            }
+        }
+
+        changedRows.sort(Comparator.comparing(SeatMapRow::getRowId));
+
+        if(logger.isDebugEnabled()) {
+            logger.debug("Seat map snapshot at version {} contains {} rows changed since {}.", current, changedRows.size(), since);
+        }
+
+        return new SeatMap(formatVersion(current), since < 0, changedRows);
+    }
+
+    /**
+     * Visit every seat that is currently held or reserved
+     *
+     * @param visitor the visitor
+     */
+    public void visitSeats(SeatChangeListener visitor) {
+
+        start();
+
+        for(Map.Entry<Integer, PackedRow> entry : rows.entrySet()) {
+            PackedRow row = entry.getValue();
+            synchronized(row) {
+                for(int seatId = 0; seatId < row.numSeats; seatId++) {
+                    SeatState state = row.get(seatId);
+                    if(state != SeatState.FREE) {
+                        visitor.onSeatChanged(entry.getKey(), seatId, state);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Register a listener that is told about every seat state change
+     *
+     * @param listener the listener
+     */
+    public void addListener(SeatChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Compare a row against the last known state of its seats and record seats which were held, reserved or freed
+     *
+     * @param row - the updated row
+     */
+    private void onRowUpdated(Row row) {
+
+        Seat[] seats = row.getSeats();
+        PackedRow packedRow = rows.computeIfAbsent(row.getId(), rowId -> new PackedRow(seats.length));
+
+        versionLock.readLock().lock();
+        try {
+            synchronized(packedRow) {
+                for(int seatId = 0; seatId < seats.length; seatId++) {
+                    SeatState state = seats[seatId].getState();
+                    if(packedRow.get(seatId) != state) {
+                        changeSeat(row.getId(), packedRow, seatId, state);
+                    }
+                }
+            }
+        } finally {
+            versionLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Change the state of a seat, stamp its row with a new version and notify listeners
+     */
+    private void changeSeat(int rowId, PackedRow packedRow, int seatId, SeatState state) {
+
+        packedRow.set(seatId, state);
+        packedRow.version = version.incrementAndGet();
+
+        for(SeatChangeListener listener : listeners) {
+            listener.onSeatChanged(rowId, seatId, state);
+        }
+    }
+
+    /**
+     * Read the current version once every in-flight row update has been applied
+     */
+    private long currentVersion() {
+        versionLock.writeLock().lock();
+        try {
+            return version.get();
+        } finally {
+            versionLock.writeLock().unlock();
+        }
+    }
+
+    private String formatVersion(long version) {
+        return epoch + "-" + version;
+    }
+
+    /**
+     * Parse a version issued by this copy of the seat map
+     *
+     * @param version - the version
+     * @return the version number, or -1 if the version is null, malformed or was issued elsewhere
+     */
+    private long parseVersion(String version) {
+
+        if(version == null || !version.startsWith(epoch + "-")) {
+            return -1;
+        }
+
+        try {
+            return Long.parseLong(version.substring(epoch.length() + 1));
+        } catch(NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * The state of every seat in a row, packed 2 bits per seat
+     */
+    private static final class PackedRow {
+
+        private final int numSeats;
+
+        private final byte[] seats;
+
+        private long version;
+
+        private PackedRow(int numSeats) {
+            this.numSeats = numSeats;
+            this.seats = new byte[(numSeats + 3) / 4];
+        }
+
+        private SeatState get(int seatId) {
+            return SEAT_STATES[(seats[seatId >> 2] >> ((seatId & 3) << 1)) & 3];
+        }
+
+        private void set(int seatId, SeatState state) {
+            int shift = (seatId & 3) << 1;
+            seats[seatId >> 2] = (byte) ((seats[seatId >> 2] & ~(3 << shift)) | (state.ordinal() << shift));
+        }
+    }
+
+}
@@ -1,54 +1,68 @@
 package com.mukundsankaran.bookit.service.impl;
 
-import com.mukundsankaran.bookit.config.BookItProperties;
+import com.mukundsankaran.bookit.allocation.AvailabilityBuffer;
+import com.mukundsankaran.bookit.allocation.SeatAllocationStrategy;
+import com.mukundsankaran.bookit.config.ConditionalOnGridEngine;
+import com.mukundsankaran.bookit.grid.*;
 import com.mukundsankaran.bookit.model.*;
-import com.mukundsankaran.bookit.service.TicketService;
+import com.mukundsankaran.bookit.service.ContentionProfiler;
+import com.mukundsankaran.bookit.service.IdGenerator;
+import com.mukundsankaran.bookit.service.ReservationIndex;
+import com.mukundsankaran.bookit.service.TransactionExecutor;
 import org.apache.ignite.Ignite;
 import org.apache.ignite.IgniteCache;
 import org.apache.ignite.cache.query.ScanQuery;
-import org.apache.ignite.transactions.Transaction;
-import org.apache.ignite.transactions.TransactionConcurrency;
-import org.apache.ignite.transactions.TransactionIsolation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import javax.annotation.PostConstruct;
 import javax.cache.Cache;
-import java.time.Instant;
+import javax.cache.CacheException;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Created by mukund on 4/11/18.
  *
  * BookIt Ticket Service Implementation
  *
+ * Replay, rate limits, the hold lane and the metrics are shared with the local engine (see AbstractTicketService).
+ *
+ * A hold or reservation made with a request ID is recorded against that ID in the REQUESTS cache, in the same
+ * transaction. A retry is answered from that cache with a single lookup.
+ *
+ * The time each hold waits in the hold lane is reported to the contention profiler, so it shows up in the trace of the
+ * hold's transaction next to the time spent locking rows and the event.
+ *
+ * Reservations are added to the reservation index in the transaction that makes them. The index, rather than a scan of
+ * every reservation, tells whether a customer already has a reservation for an event.
  */
 
 @Service
-public class TicketServiceImpl implements TicketService {
+@ConditionalOnGridEngine
+public class TicketServiceImpl extends AbstractTicketService {
 
     private static final Logger logger = LoggerFactory.getLogger(TicketServiceImpl.class);
 
+    private static final Comparator<RowAvailability> FRONT_TO_REAR = Comparator.comparingInt(RowAvailability::getRowId);
+
     @Autowired
     private Ignite ignite;
 
     @Autowired
-    private BookItProperties bookItProperties;
+    private GridCaches gridCaches;
 
-    private long holdExpiryTime;
+    @Autowired
+    private IdGenerator idGenerator;
 
-    /**
-     * Initialize TicketService
-     */
-    @PostConstruct
-    private void init() {
-        // convert into milliseconds
-        holdExpiryTime = bookItProperties.getVenue().getHoldExpiryTimeInMinutes() * 60000;
-    }
+    @Autowired
+    private TransactionExecutor transactionExecutor;
+
+    @Autowired
+    private ContentionProfiler contentionProfiler;
+
+    @Autowired
+    private ReservationIndex reservationIndex;
 
     /**
      * The number of seats in the venue that are neither held nor reserved
@@ -61,8 +75,8 @@ public class TicketServiceImpl implements TicketService {
             logger.debug("Finding number of available seats.");
         }
 
-        IgniteCache<Long, Event> eventCache = ignite.cache(CacheName.EVENTS.name());
-        final int numSeatsAvailable = eventCache.get(eventCache.iterator().next().getKey()).getNumSeatsAvailable();
+        IgniteCache<Long, Event> eventCache = gridCaches.get(CacheName.EVENTS);
+        final int numSeatsAvailable = eventCache.get(venueDefinition.getDefaultEvent().getId()).getNumSeatsAvailable();
 
         if(logger.isDebugEnabled()) {
             logger.debug("{} seats are available.", numSeatsAvailable);
@@ -72,22 +86,58 @@ public class TicketServiceImpl implements TicketService {
     }
 
     /**
-     * Find and hold the best available seats for a customer
+     * Report the time a request waited in the hold lane to the contention profiler, so it shows up in the trace of the
+     * hold's transaction
      *
-     * @param numSeats the number of seats to find and hold
-     * @param customerEmail unique identifier for the customer
+     * @param waitTimeInNanos - how long the request waited in the lane
+     */
+    @Override
+    protected void onLaneEntered(long waitTimeInNanos) {
+        contentionProfiler.laneEntered(waitTimeInNanos);
+    }
+
+    @Override
+    protected void onLaneExited() {
+        contentionProfiler.laneExited();
+    }
+
+    /**
+     * Find and hold the best available seats for a customer. Only one hold is placed at a time on this node, callers
+     * take their turn through the hold lane.
+     *
+     * @param numSeats - the number of seats to find and hold
+     * @param customerEmail - unique identifier for the customer
+     * @param customerClass - the class of the customer, which decides how long the seats are held
+     * @param requestKey - the key the hold is recorded under in the REQUESTS cache, or null
      * @return a SeatHold object identifying the specific seats and related information
      */
-    public synchronized SeatHold findAndHoldSeats(int numSeats, String customerEmail) {
+    @Override
+    protected SeatHold holdSeats(int numSeats, String customerEmail, CustomerClass customerClass, String requestKey) {
 
         if(logger.isDebugEnabled()) {
             logger.debug("Finding best {} seats for customer {}.", numSeats, customerEmail);
         }
 
-        try(Transaction tx = ignite.transactions().txStart(TransactionConcurrency.PESSIMISTIC, TransactionIsolation.REPEATABLE_READ)) {
+        // Taken once, outside the transaction, so an attempt that is retried does not use up another ID. An ID is
+        // left unused if no hold is placed.
+        int seatHoldId = idGenerator.nextSeatHoldId();
+
+        SeatHold seatHold = transactionExecutor.execute(TransactionExecutor.Operation.HOLD, tx -> {
+
+            IgniteCache<String, Object> requestCache = gridCaches.get(CacheName.REQUESTS);
 
-            IgniteCache<Long, Event> eventCache = ignite.cache(CacheName.EVENTS.name());
-            Event event = eventCache.get(eventCache.iterator().next().getKey());
+            // Check again in the transaction, in case the same request is being retried elsewhere in the cluster
+            if(requestKey != null) {
+                SeatHold hold = (SeatHold) requestCache.get(requestKey);
+                if(hold != null) {
+                    return hold;
+                }
+            }
+
+            EventDefinition eventDefinition = venueDefinition.getDefaultEvent();
+
+            IgniteCache<Long, Event> eventCache = gridCaches.get(CacheName.EVENTS);
+            Event event = eventCache.get(eventDefinition.getId());
 
             if(event != null && isSeatHoldRequestValid(event, numSeats, customerEmail)){
 
@@ -96,22 +146,36 @@ public class TicketServiceImpl implements TicketService {
                 }
 
                 // Find Best Seats
-                Map<Integer, List<Integer>> seatMap = new HashMap<>();
+                SeatAllocationStrategy strategy = getStrategy(eventDefinition);
+
+                // Search the rows on the nodes that own them, only a summary of each row with free seats comes back
+                AvailabilityBuffer buffer = AvailabilityBuffer.forThread();
+                List<RowAvailability> availability = findAvailableSeats(eventDefinition, numSeats, strategy, buffer);
 
                 // Attempt to assign seats contiguously
-                boolean seatsAssigned = assignSeatsContiguously(numSeats, seatMap);
+                boolean seatsAssigned = assignSeatsContiguously(numSeats, availability, buffer);
 
-                // If contiguous seats are not found, assign seats in a staggered fashion from front to rear
-                if(!seatsAssigned) {
+                // If contiguous seats are not found, assign seats in a staggered fashion in the order the strategy prefers
+                if(seatsAssigned) {
+                    contiguousHolds.increment();
+                } else {
                     if(logger.isDebugEnabled()) {
                         logger.debug("{} contiguous seats not found. Attempting staggered assignment",  numSeats);
                     }
-                    assignSeatsStaggered(numSeats, seatMap);
+                    // The rows had fewer free seats than the event counts, returning without committing frees the seats filled
+                    if(!assignSeatsStaggered(numSeats, availability, buffer)) {
+                        if(logger.isDebugEnabled()) {
+                            logger.debug("Unable to service request from customer {}. Only {} of {} seats could be held.", customerEmail, buffer.getNumSeatsChosen(), numSeats);
+                        }
+                        return null;
+                    }
+                    staggeredHolds.increment();
                 }
 
                 // Create a SeatHold object and add it to the cache
-                SeatHold hold = new SeatHold(seatMap, customerEmail, event.getId());
-                IgniteCache<Integer, SeatHold> holdCache = ignite.cache(CacheName.HOLDS.name());
+                SeatHold hold = new SeatHold(seatHoldId, buffer.toSeatMap(), customerEmail, event.getId(), customerClass,
+                        holdPolicy.getHoldExpiryTime(eventDefinition, customerClass));
+                IgniteCache<Integer, SeatHold> holdCache = gridCaches.get(CacheName.HOLDS);
                 holdCache.put(hold.getId(), hold);
 
                 if(logger.isDebugEnabled()) {
@@ -119,21 +183,32 @@ public class TicketServiceImpl implements TicketService {
                 }
 
                 // Update the event with the number of seats available after placing the hold
-                event.setNumSeatsAvailable(event.getNumSeatsAvailable() - numSeats);
-                eventCache.replace(event.getId(), event);
+                int numSeatsAvailable = eventCache.invoke(event.getId(), new AdjustSeatsAvailableProcessor(-buffer.getNumSeatsChosen()));
 
                 if(logger.isDebugEnabled()) {
-                    logger.debug("Number of available seats in Event {} updated.", event);
+                    logger.debug("Number of available seats in Event {} updated to {}.", event.getId(), numSeatsAvailable);
+                }
+
+                if(requestKey != null) {
+                    requestCache.put(requestKey, hold);
                 }
 
                 tx.commit();
 
+                auditJournal.recordHold(hold);
+
                 return hold;
             }
 
+            return null;
+        });
+
+        // A hold with another ID is the outcome of an earlier attempt at the request
+        if(seatHold != null && seatHold.getId() != seatHoldId) {
+            replayedHolds.increment();
         }
 
-        return null;
+        return seatHold;
     }
 
     /**
@@ -168,7 +243,7 @@ public class TicketServiceImpl implements TicketService {
         }
 
         // Check if there is an existing hold for the customer and the event - if yes, reject the request
-        IgniteCache<Integer, SeatHold> holdCache = ignite.cache(CacheName.HOLDS.name());
+        IgniteCache<Integer, SeatHold> holdCache = gridCaches.get(CacheName.HOLDS);
         List<Integer> holds = holdCache.query(
             new ScanQuery<Integer, SeatHold>(
                 (k, v) -> v.getCustomerEmail().equalsIgnoreCase(customerEmail) && v.getEventId().equals(event.getId())
@@ -184,17 +259,9 @@ public class TicketServiceImpl implements TicketService {
         }
 
         // Check if there is an existing reservation for the customer and the event - if yes, reject the request
-        IgniteCache<String, Reservation> reservationCache = ignite.cache(CacheName.RESERVATIONS.name());
-        List<String> reservations = reservationCache.query(
-            new ScanQuery<String, Reservation>(
-                (k, v) -> v.getCustomerEmail().equalsIgnoreCase(customerEmail) && v.getEventId().equals(event.getId())
-            ),
-            Cache.Entry::getKey
-        ).getAll();
-
-        if(reservations.size() > 0){
+        if(reservationIndex.hasReservation(customerEmail, event.getId())){
             if(logger.isDebugEnabled()){
-                logger.debug("Unable to service request from customer {}. A reservation already exists with ID {} for event {}.",customerEmail, reservations.get(0), event.getName());
+                logger.debug("Unable to service request from customer {}. A reservation already exists for event {}.", customerEmail, event.getName());
             }
             return false;
         }
@@ -203,323 +270,309 @@ public class TicketServiceImpl implements TicketService {
     }
 
     /**
-     * A helper method that attempts to assign seats contiguously if possible
+     * Search every row of the event with free seats on the node that owns it
      *
+     * @param eventDefinition - the event
      * @param numSeats - number of seats requested by the customer
-     * @param seatMap - the seat map for the assignment
-     * @return - a boolean indicating whether seat assignment was successful
+     * @param strategy - the strategy that chooses the seats
+     * @param buffer - the buffers of this thread, the summaries are unpacked into them
+     * @return - a summary of each row with free seats, in the order the strategy prefers, valid until the next search
+     *           on this thread
      */
-    private boolean assignSeatsContiguously(int numSeats, Map<Integer, List<Integer>> seatMap){
-
-        boolean seatsAssigned = false;
+    private List<RowAvailability> findAvailableSeats(EventDefinition eventDefinition, int numSeats, SeatAllocationStrategy strategy, AvailabilityBuffer buffer) {
 
-        IgniteCache<Integer, Row> rowCache= ignite.cache(CacheName.ROWS.name());
+        Collection<int[]> results = ignite.compute(gridCaches.dataNodes(CacheName.ROWS))
+                .broadcast(new FindAvailableSeatsJob(eventDefinition.getFirstRowId(), eventDefinition.getNumRows(), numSeats, strategy));
 
-        if(logger.isDebugEnabled()) {
-            logger.debug("Attempting to assign {} seats contiguously.", numSeats);
+        for(int[] result : results) {
+            buffer.unpack(result);
         }
 
-        Iterator<Cache.Entry<Integer, Row>> iterator = rowCache.iterator();
+        List<RowAvailability> availability = buffer.getAvailability();
+        measureFragmentation(availability);
 
-        while(iterator.hasNext() && !seatsAssigned) {
+        // Rows are created from front to rear
+        availability.sort(FRONT_TO_REAR);
+        strategy.orderRows(availability, numSeats);
 
-            int rowNum = iterator.next().getKey();
+        if(logger.isDebugEnabled()) {
+            logger.debug("Found {} rows with free seats.", availability.size());
+        }
 
-            // Get the row
-            Row row = rowCache.get(rowNum);
+        return availability;
+    }
 
-            // Check if the row contains any free seats
-            if(row.getFreeSeats() > 0){
+    /**
+     * A helper method that attempts to assign seats contiguously if possible
+     *
+     * @param numSeats - number of seats requested by the customer
+     * @param availability - a summary of each row with free seats, best first
+     * @param buffer - the buffers of this thread, the seats are chosen in them
+     * @return - a boolean indicating whether seat assignment was successful
+     */
+    private boolean assignSeatsContiguously(int numSeats, List<RowAvailability> availability, AvailabilityBuffer buffer){
 
-                // Fetch list of unoccupied seats
-                List<Seat> emptySeats = getEmptySeats(row);
+        IgniteCache<Integer, Row> rowCache= gridCaches.get(CacheName.ROWS);
 
-                // If "numSeats" contiguous seats are available in the row, return the index of the first seat in the contiguous list
-                int start = findSequenceStart(emptySeats, numSeats);
+        if(logger.isDebugEnabled()) {
+            logger.debug("Attempting to assign {} seats contiguously.", numSeats);
+        }
 
-                if(start >= 0) {
+        for(int index = 0; index < availability.size(); index++) {
 
-                    if(logger.isDebugEnabled()) {
-                        logger.debug("Row {} has {} contiguous seats.", rowNum, numSeats);
-                    }
+            RowAvailability candidate = availability.get(index);
+            int start = candidate.getSequenceStart();
 
-                    seatMap.put(row.getId(), new ArrayList<>());
+            if(start >= 0) {
 
-                    int seatId = start;
+                // Fill the seats in place, unless they were taken since the search
+                if(rowCache.invoke(candidate.getRowId(), new FillSeatsProcessor(start, numSeats))) {
 
-                    for(int i = 0; i < numSeats; i++) {
-                        fillSeat(emptySeats, seatId);
-                        seatMap.get(row.getId()).add(seatId);
-                        seatId++;
+                    if(logger.isDebugEnabled()) {
+                        logger.debug("Filled {} contiguous seats in Row {} starting at Seat {}.", numSeats, candidate.getRowId(), start);
                     }
 
-                    seatsAssigned = true;
+                    buffer.choose(candidate.getRowId(), start, numSeats);
 
-                    row.setFreeSeats(emptySeats.size() - numSeats);
-                    rowCache.put(row.getId(), row);
+                    return true;
                 }
             }
         }
 
-        return seatsAssigned;
+        return false;
     }
 
     /**
-     * A helper method that attempts to assign seats from front to back
+     * A helper method that attempts to assign seats row by row, best row first
      *
      * @param numSeats - number of seats requested by the customer
-     * @param seatMap - the seat map for the assignment
+     * @param availability - a summary of each row with free seats, best first
+     * @param buffer - the buffers of this thread, the seats are chosen in them
      * @return - a boolean indicating whether seat assignment was successful
      */
-    private boolean assignSeatsStaggered(int numSeats, Map<Integer, List<Integer>> seatMap) {
-
-        boolean seatsAssigned = false;
+    private boolean assignSeatsStaggered(int numSeats, List<RowAvailability> availability, AvailabilityBuffer buffer) {
 
-        IgniteCache<Integer, Row> rowCache= ignite.cache(CacheName.ROWS.name());
+        IgniteCache<Integer, Row> rowCache= gridCaches.get(CacheName.ROWS);
 
         if(logger.isDebugEnabled()) {
             logger.debug("Attempting to assign {} seats in staggered fashion.", numSeats);
         }
 
-        int assignedSeatCount = 0;
-        Iterator<Cache.Entry<Integer, Row>> iterator = rowCache.iterator();
-        while(iterator.hasNext() && !seatsAssigned) {
-
-            int rowNum = iterator.next().getKey();
-
-            // Get the row
-            Row row = rowCache.get(rowNum);
+        int remainingSeats = numSeats;
+        for(int index = 0; index < availability.size() && remainingSeats > 0; index++) {
 
-            // Check if the row contains any free seats
-            if(row.getFreeSeats() > 0) {
+            int rowId = availability.get(index).getRowId();
 
-                // Fetch list of unoccupied seats
-                List<Seat> emptySeats = getEmptySeats(row);
+            // Fill as many of the remaining seats as the row still has free, in place
+            int[] runs = rowCache.invoke(rowId, new FillFreeSeatsProcessor(remainingSeats));
 
-                seatMap.put(row.getId(), new ArrayList<>());
+            for(int run = 0; run < runs.length; run += 2) {
 
-                for(Seat seat : emptySeats){
-
-                    seat.setEmpty(false);
-                    row.setFreeSeats(row.getFreeSeats() - 1);
-                    rowCache.put(row.getId(), row);
-
-                    seatMap.get(row.getId()).add(seat.getId());
-
-                    assignedSeatCount++;
-                    if(assignedSeatCount == numSeats){
-                        seatsAssigned = true;
-                        if(logger.isDebugEnabled()) {
-                            logger.debug("Staggered assignment of {} seats successful.", numSeats);
-                        }
-                        break;
-                    }
+                if(logger.isDebugEnabled()) {
+                    logger.debug("Filled {} Seats starting at Seat {} in Row {}.", runs[run + 1], runs[run], rowId);
                 }
+
+                buffer.choose(rowId, runs[run], runs[run + 1]);
+                remainingSeats -= runs[run + 1];
             }
         }
 
-        return seatsAssigned;
-    }
+        if(remainingSeats == 0 && logger.isDebugEnabled()) {
+            logger.debug("Staggered assignment of {} seats successful.", numSeats);
+        }
 
-    /**
-     * Get the list of empty seats in a row
-     *
-     * @param row - the row for which the list of empty seats needs to be retrieved
-     * @return - the list of empty seats in the row
-     */
-    private List<Seat> getEmptySeats(Row row){
-        return row.getSeats().stream()
-                    .filter(Seat::getEmpty)
-                    .collect(Collectors.toList());
+        return remainingSeats == 0;
     }
 
     /**
-     * Helper method for filling a contiguous seat
+     * Reserve the seats of a hold, in a single transaction
      *
-     * @param seats - the list of empty seats in the row
-     * @param seatId - the ID of the seat that needs to be marked as occupied
+     * @param seatHoldId - the seat hold identifier
+     * @param customerEmail - the email address of the customer to which the seat hold is assigned
+     * @param requestKey - the key the reservation is recorded under in the REQUESTS cache, or null
+     * @return a reservation confirmation code, or null if the customer has no such hold
      */
-    private void fillSeat(List<Seat> seats, int seatId) {
+    @Override
+    protected String reserve(int seatHoldId, String customerEmail, String requestKey) {
 
-        if(logger.isDebugEnabled()) {
-            logger.debug("Filling Contiguous Seat: " + seatId);
-        }
+        // Chosen outside the transaction, so the outcome of an earlier attempt can be told apart once it returns
+        String newReservationId = UUID.randomUUID().toString();
 
-        seats.stream().filter(s -> s.getId() == seatId)
-            .findAny()
-            .ifPresent(s -> s.setEmpty(false));
-    }
+        String reservationId = transactionExecutor.execute(TransactionExecutor.Operation.RESERVE, tx -> {
 
-    /**
-     * If "numSeats" contiguous seats are available in the row, find the index of the first seat in the contiguous list
-     *
-     * @param emptySeats - the list of empty seats in the row
-     * @param sequenceLength - the number of contiguous seats requested
-     * @return - the index of the first seat in the contiguous list, if found, and -1 otherwise
-     */
-    private int findSequenceStart(List<Seat> emptySeats, int sequenceLength) {
+            IgniteCache<String, Object> requestCache = gridCaches.get(CacheName.REQUESTS);
+
+            // Check again in the transaction, in case the same request is being retried elsewhere in the cluster
+            if(requestKey != null) {
+                String replayedId = (String) requestCache.get(requestKey);
+                if(replayedId != null) {
+                    return replayedId;
+                }
+            }
+
+            IgniteCache<Integer, SeatHold> holdCache = gridCaches.get(CacheName.HOLDS);
+            IgniteCache<Integer, Row> rowCache = gridCaches.get(CacheName.ROWS);
+            IgniteCache<String, Reservation> reservationCache = gridCaches.get(CacheName.RESERVATIONS);
+
+            // Take the hold in a single lookup, the removal is undone unless the transaction commits
+            SeatHold hold = holdCache.getAndRemove(seatHoldId);
+
+            if(hold == null || !hold.getCustomerEmail().equalsIgnoreCase(customerEmail)) {
+                if(logger.isDebugEnabled()) {
+                    logger.debug("No hold with ID {} found for customer {}.", seatHoldId, customerEmail);
+                }
+                return null;
+            }
 
-        int[] seatsArray = emptySeats.stream()
-                .mapToInt(Seat::getId)
-                .toArray();
+            // Mark the held seats reserved in place
+            for(Map.Entry<Integer, List<Integer>> rowSeats : hold.getSeats().entrySet()) {
+                rowCache.invoke(rowSeats.getKey(), new ReserveSeatsProcessor(rowSeats.getValue()));
+            }
 
-        int start = seatsArray[0];
-        int count = 0;
+            Reservation reservation = new Reservation(hold.getSeats(), hold.getCustomerEmail(), hold.getEventId());
+            reservation.setId(newReservationId);
+            reservationCache.put(reservation.getId(), reservation);
+            reservationIndex.add(reservation);
 
-        for(int i = 1; i < seatsArray.length; i++) {
-            if(seatsArray[i] == seatsArray[i-1] + 1) {
-                count++;
-            } else {
-                start = seatsArray[i];
-                count = 0;
+            if(requestKey != null) {
+                requestCache.put(requestKey, reservation.getId());
             }
-            if(count == sequenceLength) {
-                return start;
+
+            tx.commit();
+
+            if(logger.isDebugEnabled()) {
+                logger.debug("Hold {} reserved as {}.", hold, reservation.getId());
             }
+
+            auditJournal.recordReserve(hold, reservation.getId());
+
+            return reservation.getId();
+        });
+
+        if(reservationId != null && !reservationId.equals(newReservationId)) {
+            replayedReservations.increment();
         }
 
-        return -1;
+        return reservationId;
     }
 
     /**
-     * Commit seats held for a specific customer
+     * Look up the outcome of an earlier attempt at a request, outside any transaction
      *
-     * @param seatHoldId the seat hold identifier
-     * @param customerEmail the email address of the customer to which the seat hold is assigned
-     * @return a reservation confirmation code
+     * @param requestKey - the key the outcome is recorded under
+     * @return the outcome, or null if no attempt has succeeded
      */
-    public String reserveSeats(int seatHoldId, String customerEmail) {
+    @Override
+    protected Object getRequestOutcome(String requestKey) {
 
-        if(logger.isDebugEnabled()) {
-            logger.debug("Attempting to reserve hold with ID {} for customer {}.", seatHoldId, customerEmail);
-        }
+        IgniteCache<String, Object> requestCache = gridCaches.get(CacheName.REQUESTS);
+        Object outcome = requestCache.get(requestKey);
 
-        try(Transaction tx = ignite.transactions().txStart(TransactionConcurrency.PESSIMISTIC, TransactionIsolation.REPEATABLE_READ)) {
+        if(outcome != null && logger.isDebugEnabled()) {
+            logger.debug("Replaying the outcome of request {}: {}.", requestKey, outcome);
+        }
 
-            IgniteCache<Integer, SeatHold> holdCache = ignite.cache(CacheName.HOLDS.name());
-            IgniteCache<String, Reservation> reservationCache = ignite.cache(CacheName.RESERVATIONS.name());
-            IgniteCache<Long, Event> eventCache = ignite.cache(CacheName.EVENTS.name());
+        return outcome;
+    }
 
-            Event event = eventCache.get(eventCache.iterator().next().getKey());
+    /**
+     * Sweep the holds that have expired by a given time. Every node only sweeps the hold partitions it is primary for,
+     * so the work is split across the cluster rather than repeated on every node.
+     *
+     * @param currentTime - the time, in milliseconds since the epoch
+     */
+    @Override
+    protected void expireHolds(long currentTime) {
 
-            SeatHold hold = holdCache.get(seatHoldId);
+        IgniteCache<Integer, SeatHold> holdCache = gridCaches.get(CacheName.HOLDS);
+        int[] partitions = gridCaches.affinity(CacheName.HOLDS).primaryPartitions(ignite.cluster().localNode());
 
-            if(hold == null){
+        for(int partition : partitions) {
 
-                if(logger.isDebugEnabled()) {
-                    logger.debug("No hold with ID {} found for customer {}. Checking with Email ID", seatHoldId, customerEmail);
-                }
+            List<SeatHold> holds;
 
-                List<Integer> holds = holdCache.query(
+            try {
+                holds = holdCache.query(
                         new ScanQuery<Integer, SeatHold>(
-                                (k, v) -> v.getCustomerEmail().equalsIgnoreCase(customerEmail) && v.getEventId().equals(event.getId())
-                        ),
-                        Cache.Entry::getKey
+                                (k, v) -> v.isExpired(currentTime)
+                        ).setPartition(partition).setLocal(true),
+                        Cache.Entry::getValue
                 ).getAll();
-
-                if(holds.size() > 0) {
-                    seatHoldId = holds.get(0);
-                    hold = holdCache.get(seatHoldId);
-
-                    if(logger.isDebugEnabled()) {
-                        logger.debug("Found hold {} for customer {}", hold, customerEmail);
-                    }
-
-                } else {
-                    logger.debug("No hold found for seatHoldId {} or customer Email {}", seatHoldId, customerEmail);
-                    return null;
-                }
-            }
-
-            if(holdCache.remove(seatHoldId)){
-
+            } catch(CacheException e) {
+                // The partition moved to another node since the sweep started, its new primary will sweep it
                 if(logger.isDebugEnabled()) {
-                    logger.debug("Hold {} successfully removed from cache. Adding to reservation cache.", hold);
+                    logger.debug("Skipping hold partition {}. {}", partition, e.getMessage());
                 }
-
-                Reservation reservation = new Reservation(hold.getSeats(), hold.getCustomerEmail(), event.getId());
-                reservationCache.put(reservation.getId(), reservation);
-
-                tx.commit();
-
-                return reservation.getId();
+                continue;
             }
 
-            return null;
+            if(!holds.isEmpty()) {
+                expireHolds(holds);
+            }
         }
     }
 
     /**
-     * A scheduled task that checks for and cleans up expired holds every minute
+     * Remove expired holds and free their seats, in a single transaction
+     *
+     * @param holds - the expired holds
      */
-    @Scheduled(fixedDelay = 60000)
-    private void expireHolds(){
+    private void expireHolds(List<SeatHold> holds){
 
-        if(logger.isDebugEnabled()) {
-            logger.debug("Checking for expired holds.");
-        }
+        transactionExecutor.execute(TransactionExecutor.Operation.EXPIRE, tx -> {
 
-        try(Transaction tx = ignite.transactions().txStart(TransactionConcurrency.PESSIMISTIC, TransactionIsolation.REPEATABLE_READ)) {
+            IgniteCache<Long, Event> eventCache = gridCaches.get(CacheName.EVENTS);
+            IgniteCache<Integer, Row> rowCache= gridCaches.get(CacheName.ROWS);
+            IgniteCache<Integer, SeatHold> holdCache = gridCaches.get(CacheName.HOLDS);
 
-            IgniteCache<Long, Event> eventCache = ignite.cache(CacheName.EVENTS.name());
-            if(eventCache.iterator().hasNext()) {
-                Event event = eventCache.get(eventCache.iterator().next().getKey());
-                IgniteCache<Integer, Row> rowCache= ignite.cache(CacheName.ROWS.name());
-                IgniteCache<Integer, SeatHold> holdCache = ignite.cache(CacheName.HOLDS.name());
+            Map<Long, Integer> freedSeatsByEvent = new HashMap<>();
+            List<SeatHold> expiredHolds = new ArrayList<>(holds.size());
 
-                Instant instant = Instant.now();
-                long currentTime = instant.toEpochMilli();
+            for(SeatHold seatHold : holds) {
 
-                List<SeatHold> holds = holdCache.query(
-                        new ScanQuery<Integer, SeatHold>(
-                                (k, v) -> (v.getHoldTime() + holdExpiryTime) <= currentTime
-                        ),
-                        Cache.Entry::getValue
-                ).getAll();
+                if(logger.isDebugEnabled()) {
+                    logger.debug("Found expired hold {}.", seatHold);
+                }
 
-                List<Map<Integer, List<Integer>>> seatMaps = new ArrayList<>();
+                // The hold may have been reserved since the sweep found it
+                if(!holdCache.remove(seatHold.getId())){
+                    continue;
+                }
 
-                holds.stream()
-                        .forEach(seatHold -> {
-                            if(logger.isDebugEnabled()) {
-                                logger.debug("Found expired hold {}.", seatHold);
-                            }
-                            if(holdCache.remove(seatHold.getId())){
-                                if(logger.isDebugEnabled()) {
-                                    logger.debug("Successfully removed expired hold {}.", seatHold);
-                                }
-                                seatMaps.add(seatHold.getSeats());
-                            }
-                        });
+                if(logger.isDebugEnabled()) {
+                    logger.debug("Successfully removed expired hold {}.", seatHold);
+                }
 
-                seatMaps.stream()
-                        .forEach(seatMap -> {
-                            for(Integer rowId : seatMap.keySet()){
+                int freedSeats = 0;
 
-                                Row row = rowCache.get(rowId);
-                                List<Integer> seatNumbers = seatMap.get(rowId);
+                for(Map.Entry<Integer, List<Integer>> rowSeats : seatHold.getSeats().entrySet()){
 
-                                row.getSeats().stream()
-                                        .filter(s -> seatNumbers.contains(s.getId()))
-                                        .forEach(s -> s.setEmpty(true));
+                    // Free the seats in place
+                    freedSeats += rowCache.invoke(rowSeats.getKey(), new FreeSeatsProcessor(rowSeats.getValue()));
 
-                                row.setFreeSeats(row.getFreeSeats() + seatNumbers.size());
-                                rowCache.replace(rowId, row);
+                    if(logger.isDebugEnabled()) {
+                        logger.debug("Successfully freed seats {} from row {}.", rowSeats.getValue(), rowSeats.getKey());
+                    }
+                }
 
-                                event.setNumSeatsAvailable(event.getNumSeatsAvailable() + seatNumbers.size());
+                freedSeatsByEvent.merge(seatHold.getEventId(), freedSeats, Integer::sum);
+                expiredHolds.add(seatHold);
+            }
 
-                                if(logger.isDebugEnabled()) {
-                                    logger.debug("Successfully freed seats {} from row {}.", seatNumbers, rowId);
-                                }
-                            }
-                        });
+            for(Map.Entry<Long, Integer> freedSeats : freedSeatsByEvent.entrySet()) {
+                if(freedSeats.getValue() > 0) {
+                    eventCache.invoke(freedSeats.getKey(), new AdjustSeatsAvailableProcessor(freedSeats.getValue()));
+                }
+            }
 
-                eventCache.replace(event.getId(), event);
+            tx.commit();
 
-                tx.commit();
+            for(SeatHold seatHold : expiredHolds) {
+                auditJournal.recordExpire(seatHold);
             }
 
-        }
+            return null;
+        });
     }
 
 }
@@ -0,0 +1,170 @@
+package com.mukundsankaran.bookit.service.impl;
+
+import com.mukundsankaran.bookit.config.BookItProperties;
+import com.mukundsankaran.bookit.config.ConditionalOnGridEngine;
+import com.mukundsankaran.bookit.service.ContentionProfiler;
+import com.mukundsankaran.bookit.service.TransactionExecutor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.transactions.Transaction;
+import org.apache.ignite.transactions.TransactionConcurrency;
+import org.apache.ignite.transactions.TransactionIsolation;
+import org.apache.ignite.transactions.TransactionOptimisticException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Created by mukund on 4/21/18.
+ *
+ * BookIt Transaction Executor Implementation
+ *
+ * Records, per operation, the number of transaction attempts, the number of optimistic conflicts and the number of
+ * times the retries ran out, as the "bookit.transactions.attempts", "bookit.transactions.conflicts" and
+ * "bookit.transactions.exhausted" meters. Each attempt is traced by the contention profiler.
+ */
+
+@Service
+@ConditionalOnGridEngine
+public class TransactionExecutorImpl implements TransactionExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionExecutorImpl.class);
+
+    @Autowired
+    private Ignite ignite;
+
+    @Autowired
+    private BookItProperties bookItProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ContentionProfiler contentionProfiler;
+
+    private final Map<Operation, Policy> policies = new EnumMap<>(Operation.class);
+
+    /**
+     * Initialize TransactionExecutor
+     */
+    @PostConstruct
+    private void init() {
+
+        BookItProperties.Transactions transactions = bookItProperties.getTransactions();
+
+        policies.put(Operation.HOLD, new Policy(Operation.HOLD, transactions.getHold()));
+        policies.put(Operation.RESERVE, new Policy(Operation.RESERVE, transactions.getReserve()));
+        policies.put(Operation.EXPIRE, new Policy(Operation.EXPIRE, transactions.getExpire()));
+
+        if(logger.isDebugEnabled()) {
+            for(Policy policy : policies.values()) {
+                logger.debug("Transaction policy for {}: {} {} with up to {} retries.", policy.operation, policy.concurrency, policy.isolation, policy.maxRetries);
+            }
+        }
+    }
+
+    /**
+     * Run work in a transaction
+     *
+     * @param operation the operation the work belongs to
+     * @param work the work
+     * @param <T> the type of the result of the work
+     * @return the result of the work
+     */
+    public <T> T execute(Operation operation, TransactionalWork<T> work) {
+
+        Policy policy = policies.get(operation);
+
+        for(int attempt = 0; ; attempt++) {
+
+            policy.attempts.increment();
+
+            try(Transaction tx = ignite.transactions().txStart(policy.concurrency, policy.isolation)) {
+
+                T result;
+                try {
+                    result = work.run(contentionProfiler.begin(operation, tx, attempt));
+                } catch(RuntimeException e) {
+                    contentionProfiler.end(e);
+                    throw e;
+                }
+
+                contentionProfiler.end(null);
+                return result;
+            } catch(RuntimeException e) {
+
+                if(!isOptimisticConflict(e)) {
+                    throw e;
+                }
+
+                policy.conflicts.increment();
+
+                if(attempt >= policy.maxRetries) {
+                    policy.exhausted.increment();
+                    if(logger.isDebugEnabled()) {
+                        logger.debug("{} transaction lost an optimistic conflict, no retries left.", operation);
+                    }
+                    throw e;
+                }
+
+                if(logger.isDebugEnabled()) {
+                    logger.debug("{} transaction lost an optimistic conflict, retrying ({} of {}).", operation, attempt + 1, policy.maxRetries);
+                }
+            }
+        }
+    }
+
+    /**
+     * Check if an exception was caused by an optimistic transaction failing to commit due to a conflict
+     */
+    private static boolean isOptimisticConflict(Throwable e) {
+
+        for(Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if(cause instanceof TransactionOptimisticException) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Transaction settings and meters of an operation
+     */
+    private class Policy {
+
+        private final Operation operation;
+
+        private final TransactionConcurrency concurrency;
+
+        private final TransactionIsolation isolation;
+
+        private final int maxRetries;
+
+        private final Counter attempts;
+
+        private final Counter conflicts;
+
+        private final Counter exhausted;
+
+        private Policy(Operation operation, BookItProperties.TransactionPolicy properties) {
+
+            this.operation = operation;
+            this.concurrency = TransactionConcurrency.valueOf(properties.getConcurrency().toUpperCase());
+            this.isolation = TransactionIsolation.valueOf(properties.getIsolation().toUpperCase());
+            this.maxRetries = properties.getMaxRetries();
+
+            String tag = operation.name().toLowerCase();
+            this.attempts = meterRegistry.counter("bookit.transactions.attempts", "operation", tag);
+            this.conflicts = meterRegistry.counter("bookit.transactions.conflicts", "operation", tag);
+            this.exhausted = meterRegistry.counter("bookit.transactions.exhausted", "operation", tag);
+        }
+    }
+
+}
@@ -1,33 +1,41 @@
 package com.mukundsankaran.bookit.startup;
 
-import com.mukundsankaran.bookit.config.BookItProperties;
-import com.mukundsankaran.bookit.model.CacheName;
-import com.mukundsankaran.bookit.model.Event;
-import com.mukundsankaran.bookit.model.Row;
-import com.mukundsankaran.bookit.model.SeatingPlan;
+import com.mukundsankaran.bookit.config.ConditionalOnGridEngine;
+import com.mukundsankaran.bookit.grid.GridCaches;
+import com.mukundsankaran.bookit.model.*;
 import org.apache.ignite.Ignite;
 import org.apache.ignite.IgniteCache;
-import org.apache.ignite.transactions.Transaction;
-import org.apache.ignite.transactions.TransactionConcurrency;
-import org.apache.ignite.transactions.TransactionIsolation;
+import org.apache.ignite.IgniteDataStreamer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
-import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.stereotype.Component;
 
-import java.util.Random;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Created by mukund on 4/12/18.
  *
  * BookIt Application Startup Runner
+ *
+ * Warms up the grid in the background, starting as soon as the Ignite node is up, so that it overlaps with the rest
+ * of startup and the web server coming up. Every cache is created in a single exchange, then the default event and
+ * its rows are loaded, so the first customers do not wait for them. Every other event is loaded when it is first used.
+ * Rows are created one at a time from the venue definition and streamed into the grid in batches, so loading a large
+ * venue neither holds every row in memory nor takes a cache operation per row.
+ *
+ * Requests that arrive before the warm-up is done are still served, creating caches and loading rows as they need
+ * them. The warm-up is reported by DataGridHealthIndicator, and the application is only reported as started once it
+ * is done.
  */
 
 @Component
-@EnableConfigurationProperties(BookItProperties.class)
+@ConditionalOnGridEngine
 public class ApplicationStartupRunner implements ApplicationRunner {
 
     private static final Logger logger = LoggerFactory.getLogger(ApplicationStartupRunner.class);
@@ -36,95 +44,112 @@ public class ApplicationStartupRunner implements ApplicationRunner {
     private Ignite ignite;
 
     @Autowired
-    private BookItProperties bookItProperties;
-
-    @Override
-    public void run(ApplicationArguments args) throws Exception {
+    private GridCaches gridCaches;
 
-        try(Transaction tx = ignite.transactions().txStart(TransactionConcurrency.PESSIMISTIC, TransactionIsolation.REPEATABLE_READ)) {
+    @Autowired
+    private VenueDefinition venueDefinition;
 
-            // Fetch configuration properties
-            final String eventName = bookItProperties.getVenue().getDefaultEventName();
-            final int numRows = bookItProperties.getVenue().getNumRows();
-            final int numSeats = bookItProperties.getVenue().getCapacity();
-            final String seatingPlan = bookItProperties.getVenue().getSeatingPlan();
+    private CompletableFuture<Long> warmUp;
 
-            // Create default event & add to cache
-            createEvent(eventName, numSeats);
+    /**
+     * Start warming up the grid
+     */
+    @PostConstruct
+    private void init() {
+        warmUp = CompletableFuture.supplyAsync(this::warmUp, runnable -> {
+            Thread thread = new Thread(runnable, "grid-warm-up");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
 
-            // Create rows based on configured seating plan & add to cache
-            createRows(numRows, numSeats, seatingPlan);
+    /**
+     * Wait for the warm-up to finish before the node is stopped
+     */
+    @PreDestroy
+    private void close() {
+        try {
+            warmUp.get();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch(ExecutionException e) {
+            // Already reported
+        }
+    }
 
-            if(logger.isDebugEnabled()){
-                logger.debug("Initial Data Loaded.");
-            }
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
 
-            tx.commit();
+        try {
+            long warmUpTime = warmUp.get();
+            logger.info("Grid warmed up in {} ms.", warmUpTime);
+        } catch(ExecutionException e) {
+            throw new IllegalStateException("Failed to warm up the grid", e.getCause());
         }
     }
 
     /**
-     * Create Event and add it to EVENTS cache
-     *
-     * @param eventName - name of the event
-     * @param numSeats - number of seats at the venue
+     * @return true once the grid has been warmed up
      */
-    private void createEvent(String eventName, int numSeats){
+    public boolean isWarmedUp() {
+        return warmUp.isDone() && !warmUp.isCompletedExceptionally();
+    }
 
-        Event event = new Event(eventName, numSeats);
-        IgniteCache<Long, Event> eventCache = ignite.cache(CacheName.EVENTS.name());
-        eventCache.put(event.getId(), event);
+    /**
+     * @return the reason the warm-up failed, or null if it has not failed
+     */
+    public Throwable getWarmUpFailure() {
 
-        if(logger.isDebugEnabled()){
-            logger.debug("Created Default Event: " + event);
+        if(!warmUp.isCompletedExceptionally()) {
+            return null;
         }
 
+        try {
+            warmUp.join();
+            return null;
+        } catch(RuntimeException e) {
+            return e.getCause() == null ? e : e.getCause();
+        }
     }
 
     /**
-     * Create Rows based on configured seating plan and add to ROWS cache
+     * Create the caches and load the default event and its rows
      *
-     * @param numRows - number of rows at the venue
-     * @param numSeats - number of seats at the venue
-     * @param seatingPlan - seating plan used at the venue
+     * @return the time the warm-up took, in milliseconds
      */
-    private void createRows(int numRows, int numSeats, String seatingPlan){
+    private long warmUp() {
 
-        int remainingRows = numRows;
-        int remainingSeats = numSeats;
-        int seatsInRow;
-        Random random = new Random();
+        long startTime = System.currentTimeMillis();
 
-        IgniteCache<Integer, Row> rowCache = ignite.cache(CacheName.ROWS.name());
+        gridCaches.createAll();
 
-        while(remainingRows > 0 && remainingSeats > 0){
-
-            if(seatingPlan.equalsIgnoreCase(SeatingPlan.EQUAL.name())){
-                // Try to allocate equal number of seats to rows
-                seatsInRow = remainingSeats / remainingRows;
-            } else {
-                // Try to allocate random number of seats to rows
-                seatsInRow = random.nextInt(remainingSeats);
-            }
+        if(logger.isDebugEnabled()){
+            logger.debug("Created caches {}.", ignite.cacheNames());
+        }
 
-            remainingRows--;
-            remainingSeats -= seatsInRow;
+        EventDefinition eventDefinition = venueDefinition.getDefaultEvent();
 
-            // Ensures no seat is left unassigned
-            if(remainingRows == 0 && remainingSeats > 0){
-                seatsInRow = remainingSeats;
-            }
+        // Load the default event & its rows through the read-through stores
+        IgniteCache<Long, Event> eventCache = gridCaches.get(CacheName.EVENTS);
+        Event event = eventCache.get(eventDefinition.getId());
 
-            // create row and add to cache
-            Row row = new Row(seatsInRow);
-            rowCache.put(row.getId(), row);
+        if(logger.isDebugEnabled()){
+            logger.debug("Loaded Default Event: {}", event);
+        }
 
-            if(logger.isDebugEnabled()){
-                logger.debug("Created Row: " + row);
+        // Rows already in the grid are left as they are, they may have seats held
+        try(IgniteDataStreamer<Integer, Row> rowStreamer = ignite.dataStreamer(CacheName.ROWS.name())) {
+            rowStreamer.allowOverwrite(false);
+            for(int rowId = eventDefinition.getFirstRowId(); rowId < eventDefinition.getFirstRowId() + eventDefinition.getNumRows(); rowId++) {
+                rowStreamer.addData(rowId, eventDefinition.createRow(rowId));
             }
+        }
 
+        if(logger.isDebugEnabled()){
+            logger.debug("Loaded {} Rows.", eventDefinition.getNumRows());
         }
 
+        return System.currentTimeMillis() - startTime;
     }
 
 }
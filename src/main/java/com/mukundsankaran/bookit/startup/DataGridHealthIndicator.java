@@ -0,0 +1,45 @@
+package com.mukundsankaran.bookit.startup;
+
+import com.mukundsankaran.bookit.config.ConditionalOnGridEngine;
+import com.mukundsankaran.bookit.grid.GridCaches;
+import com.mukundsankaran.bookit.model.CacheName;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * Reports the grid as out of service until it has been warmed up, so a load balancer holds traffic back from a node
+ * that is still starting. Shows which caches have been started so far.
+ */
+
+@Component
+@ConditionalOnGridEngine
+public class DataGridHealthIndicator extends AbstractHealthIndicator {
+
+    @Autowired
+    private ApplicationStartupRunner applicationStartupRunner;
+
+    @Autowired
+    private GridCaches gridCaches;
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+
+        Throwable failure = applicationStartupRunner.getWarmUpFailure();
+
+        if(failure != null) {
+            builder.down(failure);
+        } else if(applicationStartupRunner.isWarmedUp()) {
+            builder.up();
+        } else {
+            builder.outOfService();
+        }
+
+        for(CacheName cacheName : CacheName.values()) {
+            builder.withDetail(cacheName.name(), gridCaches.isStarted(cacheName) ? "started" : "not started");
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.mukundsankaran.bookit.store;
+
+import com.mukundsankaran.bookit.model.Event;
+import com.mukundsankaran.bookit.model.EventDefinition;
+import com.mukundsankaran.bookit.model.VenueDefinition;
+import org.apache.ignite.cache.store.CacheStoreAdapter;
+
+import javax.cache.Cache;
+import java.io.Serializable;
+
+/**
+ * Created by mukund on 4/23/18.
+ *
+ * Read-through cache store that loads events into the EVENTS cache from the venue definition
+ *
+ * An event is loaded with every seat available. Once seats are held the event only lives in the grid, so the store
+ * never writes anything back.
+ */
+public class EventCacheStore extends CacheStoreAdapter<Long, Event> implements Serializable {
+
+    private final VenueDefinition venueDefinition;
+
+    /**
+     * Constructs an EventCacheStore
+     *
+     * @param venueDefinition - the events defined for the venue
+     */
+    public EventCacheStore(VenueDefinition venueDefinition) {
+        this.venueDefinition = venueDefinition;
+    }
+
+    @Override
+    public Event load(Long key) {
+
+        EventDefinition eventDefinition = venueDefinition.getEvent(key);
+
+        if(eventDefinition == null) {
+            return null;
+        }
+
+        return new Event(key, eventDefinition.getName(), eventDefinition.getNumSeats());
+    }
+
+    @Override
+    public void write(Cache.Entry<? extends Long, ? extends Event> entry) {
+        // No op, the cache is not write-through
+    }
+
+    @Override
+    public void delete(Object key) {
+        // No op, the cache is not write-through
+    }
+}
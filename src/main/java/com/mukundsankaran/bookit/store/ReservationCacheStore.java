@@ -0,0 +1,362 @@
+package com.mukundsankaran.bookit.store;
+
+import com.mukundsankaran.bookit.model.Reservation;
+import org.apache.ignite.IgniteException;
+import org.apache.ignite.cache.store.CacheStoreAdapter;
+import org.apache.ignite.cache.store.CacheStoreSession;
+import org.apache.ignite.lifecycle.LifecycleAware;
+import org.apache.ignite.resources.CacheStoreSessionResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.cache.Cache;
+import javax.cache.integration.CacheLoaderException;
+import java.io.Serializable;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by mukund on 4/22/18.
+ *
+ * Cache store that persists the RESERVATIONS cache to a relational database over JDBC
+ *
+ * Ignite will not enlist a write-behind cache in a transaction together with caches that have no store, so the cache
+ * is configured write-through and the store does its own write-behind. Writes made by a transaction are buffered in
+ * its store session and queued once the transaction commits. A flusher thread writes queued reservations to the
+ * database in batches, either every flush interval or as soon as the queue reaches the flush size, so committing a
+ * reservation never waits on the database. Seat maps are stored in SeatsFormat.
+ */
+public class ReservationCacheStore extends CacheStoreAdapter<String, Reservation> implements LifecycleAware, Serializable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationCacheStore.class);
+
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS reservations (" +
+            "id VARCHAR(36) PRIMARY KEY, " +
+            "event_id BIGINT NOT NULL, " +
+            "customer_email VARCHAR(320) NOT NULL, " +
+            "seats VARCHAR(8000) NOT NULL)";
+
+    private static final String SELECT = "SELECT id, event_id, customer_email, seats FROM reservations WHERE id = ?";
+
+    private static final String INSERT = "INSERT INTO reservations (id, event_id, customer_email, seats) VALUES (?, ?, ?, ?)";
+
+    private static final String DELETE = "DELETE FROM reservations WHERE id = ?";
+
+    private static final String SESSION_WRITES = "bookit.reservations.pending";
+
+    /**
+     * Stores started on this node
+     */
+    private static final Set<ReservationCacheStore> STARTED = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    private final String jdbcUrl;
+
+    private final String username;
+
+    private final String password;
+
+    private final int batchSize;
+
+    private final long flushFrequencyInMillis;
+
+    private final int flushSize;
+
+    private final boolean coalescing;
+
+    @CacheStoreSessionResource
+    private transient CacheStoreSession session;
+
+    /**
+     * Reservations waiting to be written, a null value deletes the reservation. Keyed by reservation ID when
+     * coalescing, so only the latest write of a reservation is kept, otherwise by arrival order.
+     */
+    private transient Map<Object, Map.Entry<String, Reservation>> queue;
+
+    /**
+     * The latest write of each reservation that is not yet in the database, whether it is still queued or is being
+     * flushed. Loads are answered from here, so a reservation is never read back older than it was written.
+     */
+    private transient Map<String, Map.Entry<String, Reservation>> pending;
+
+    private transient long arrivals;
+
+    private transient ScheduledExecutorService flusher;
+
+    /**
+     * Held while writing to the database, so a flush returns only once an earlier one has finished
+     */
+    private transient Object flushLock;
+
+    /**
+     * Constructs a ReservationCacheStore
+     *
+     * @param jdbcUrl - JDBC URL of the database
+     * @param username - database user
+     * @param password - database password
+     * @param batchSize - maximum number of reservations written in one database transaction
+     * @param flushFrequencyInMillis - maximum time a reservation waits before it is written
+     * @param flushSize - number of queued reservations that triggers a write ahead of the flush frequency
+     * @param coalescing - whether successive writes of the same reservation are merged into one
+     */
+    public ReservationCacheStore(String jdbcUrl, String username, String password,
+                                 int batchSize, long flushFrequencyInMillis, int flushSize, boolean coalescing) {
+        this.jdbcUrl = jdbcUrl;
+        this.username = username;
+        this.password = password;
+        this.batchSize = batchSize;
+        this.flushFrequencyInMillis = flushFrequencyInMillis;
+        this.flushSize = flushSize;
+        this.coalescing = coalescing;
+    }
+
+    /**
+     * Create the reservations table and start flushing queued reservations
+     */
+    @Override
+    public void start() {
+
+        try(Connection connection = connect();
+            Statement statement = connection.createStatement()) {
+
+            statement.execute(CREATE_TABLE);
+
+        } catch(SQLException e) {
+            throw new IgniteException("Failed to create reservations table", e);
+        }
+
+        queue = new LinkedHashMap<>();
+        pending = new HashMap<>();
+        flushLock = new Object();
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reservation-store-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushFrequencyInMillis, flushFrequencyInMillis, TimeUnit.MILLISECONDS);
+
+        STARTED.add(this);
+    }
+
+    /**
+     * Write the remaining queued reservations and stop flushing
+     */
+    @Override
+    public void stop() {
+
+        STARTED.remove(this);
+
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(flushFrequencyInMillis, TimeUnit.MILLISECONDS);
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        flush();
+    }
+
+    /**
+     * Write every reservation queued by the stores on this node to the database, without waiting for the flush
+     * interval. Returns once the writes have been made, or have failed and been queued again.
+     */
+    public static void flushAll() {
+        for(ReservationCacheStore store : STARTED) {
+            store.flush();
+        }
+    }
+
+    @Override
+    public Reservation load(String key) {
+
+        // A pending reservation is newer than the database
+        synchronized(this) {
+            Map.Entry<String, Reservation> write = pending.get(key);
+            if(write != null) {
+                return write.getValue();
+            }
+        }
+
+        try(Connection connection = connect();
+            PreparedStatement select = connection.prepareStatement(SELECT)) {
+
+            select.setString(1, key);
+
+            try(ResultSet resultSet = select.executeQuery()) {
+
+                if(!resultSet.next()) {
+                    return null;
+                }
+
+                Reservation reservation = new Reservation();
+                reservation.setId(resultSet.getString(1));
+                reservation.setEventId(resultSet.getLong(2));
+                reservation.setCustomerEmail(resultSet.getString(3));
+                reservation.setSeats(SeatsFormat.decode(resultSet.getString(4)));
+
+                return reservation;
+            }
+        } catch(SQLException e) {
+            throw new CacheLoaderException("Failed to load reservation " + key, e);
+        }
+    }
+
+    @Override
+    public void write(Cache.Entry<? extends String, ? extends Reservation> entry) {
+        record(entry.getKey(), entry.getValue());
+    }
+
+    @Override
+    public void delete(Object key) {
+        record((String) key, null);
+    }
+
+    /**
+     * Queue the writes of a committed transaction, drop the writes of one that rolled back
+     */
+    @Override
+    public void sessionEnd(boolean commit) {
+
+        List<Map.Entry<String, Reservation>> writes = session.<String, List<Map.Entry<String, Reservation>>>properties().remove(SESSION_WRITES);
+
+        if(commit && writes != null) {
+            enqueue(writes);
+        }
+    }
+
+    /**
+     * Record a write, held back in the store session until its transaction ends
+     *
+     * @param key - the reservation ID
+     * @param reservation - the reservation, or null if it was removed
+     */
+    private void record(String key, Reservation reservation) {
+
+        Map.Entry<String, Reservation> write = new AbstractMap.SimpleImmutableEntry<>(key, reservation);
+
+        if(session == null || session.transaction() == null) {
+            enqueue(Collections.singletonList(write));
+            return;
+        }
+
+        session.<String, List<Map.Entry<String, Reservation>>>properties().computeIfAbsent(SESSION_WRITES, name -> new ArrayList<>()).add(write);
+    }
+
+    private void enqueue(List<Map.Entry<String, Reservation>> writes) {
+
+        boolean flushNow;
+
+        synchronized(this) {
+            for(Map.Entry<String, Reservation> write : writes) {
+                queue.remove(write.getKey());
+                queue.put(coalescing ? write.getKey() : arrivals++, write);
+                pending.put(write.getKey(), write);
+            }
+            flushNow = queue.size() >= flushSize;
+        }
+
+        if(flushNow) {
+            try {
+                flusher.execute(this::flush);
+            } catch(RejectedExecutionException e) {
+                // Stopping, the final flush picks these up
+            }
+        }
+    }
+
+    /**
+     * Write every queued reservation to the database in batches. A batch that fails is queued again, unless a newer
+     * write of the same reservation has been queued since. Writes stay pending until their batch has been written.
+     */
+    private void flush() {
+        synchronized(flushLock) {
+            flushQueue();
+        }
+    }
+
+    private void flushQueue() {
+
+        List<Map.Entry<String, Reservation>> writes;
+
+        synchronized(this) {
+            if(queue.isEmpty()) {
+                return;
+            }
+            writes = new ArrayList<>(queue.values());
+            queue.clear();
+        }
+
+        for(int from = 0; from < writes.size(); from += batchSize) {
+
+            List<Map.Entry<String, Reservation>> batch = writes.subList(from, Math.min(from + batchSize, writes.size()));
+
+            try {
+                writeBatch(batch);
+            } catch(SQLException e) {
+                logger.error("Failed to write {} reservations, retrying on the next flush.", writes.size() - from, e);
+                synchronized(this) {
+                    for(Map.Entry<String, Reservation> write : writes.subList(from, writes.size())) {
+                        if(pending.get(write.getKey()) == write) {
+                            queue.putIfAbsent(coalescing ? write.getKey() : arrivals++, write);
+                        }
+                    }
+                }
+                return;
+            }
+
+            synchronized(this) {
+                for(Map.Entry<String, Reservation> write : batch) {
+                    // A write queued since the flush began is still pending
+                    if(pending.get(write.getKey()) == write) {
+                        pending.remove(write.getKey());
+                    }
+                }
+            }
+        }
+
+        if(logger.isDebugEnabled()) {
+            logger.debug("Wrote {} reservations to the database.", writes.size());
+        }
+    }
+
+    /**
+     * Write a batch of reservations in a single database transaction. Existing rows are replaced, which keeps the
+     * statements portable across databases that lack an upsert.
+     */
+    private void writeBatch(List<Map.Entry<String, Reservation>> batch) throws SQLException {
+
+        try(Connection connection = connect();
+            PreparedStatement delete = connection.prepareStatement(DELETE);
+            PreparedStatement insert = connection.prepareStatement(INSERT)) {
+
+            connection.setAutoCommit(false);
+
+            for(Map.Entry<String, Reservation> write : batch) {
+
+                delete.setString(1, write.getKey());
+                delete.addBatch();
+
+                Reservation reservation = write.getValue();
+                if(reservation != null) {
+                    insert.setString(1, write.getKey());
+                    insert.setLong(2, reservation.getEventId());
+                    insert.setString(3, reservation.getCustomerEmail());
+                    insert.setString(4, SeatsFormat.encode(reservation.getSeats()));
+                    insert.addBatch();
+                }
+            }
+
+            delete.executeBatch();
+            insert.executeBatch();
+            connection.commit();
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(jdbcUrl, username, password);
+    }
+}
@@ -0,0 +1,53 @@
+package com.mukundsankaran.bookit.store;
+
+import com.mukundsankaran.bookit.model.EventDefinition;
+import com.mukundsankaran.bookit.model.Row;
+import com.mukundsankaran.bookit.model.VenueDefinition;
+import org.apache.ignite.cache.store.CacheStoreAdapter;
+
+import javax.cache.Cache;
+import java.io.Serializable;
+
+/**
+ * Created by mukund on 4/23/18.
+ *
+ * Read-through cache store that loads rows into the ROWS cache from the venue definition
+ *
+ * A row is loaded with every seat empty. Once seats are filled the row only lives in the grid, so the store never
+ * writes anything back.
+ */
+public class RowCacheStore extends CacheStoreAdapter<Integer, Row> implements Serializable {
+
+    private final VenueDefinition venueDefinition;
+
+    /**
+     * Constructs a RowCacheStore
+     *
+     * @param venueDefinition - the events defined for the venue
+     */
+    public RowCacheStore(VenueDefinition venueDefinition) {
+        this.venueDefinition = venueDefinition;
+    }
+
+    @Override
+    public Row load(Integer key) {
+
+        EventDefinition eventDefinition = venueDefinition.getEventOfRow(key);
+
+        if(eventDefinition == null) {
+            return null;
+        }
+
+        return eventDefinition.createRow(key);
+    }
+
+    @Override
+    public void write(Cache.Entry<? extends Integer, ? extends Row> entry) {
+        // No op, the cache is not write-through
+    }
+
+    @Override
+    public void delete(Object key) {
+        // No op, the cache is not write-through
+    }
+}
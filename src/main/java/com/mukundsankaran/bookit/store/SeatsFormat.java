@@ -0,0 +1,72 @@
+package com.mukundsankaran.bookit.store;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Created by mukund on 4/26/18.
+ *
+ * Text form of a seat map, as stored in the database and exported: "row:seat,seat;row:seat"
+ */
+public final class SeatsFormat {
+
+    private SeatsFormat() {
+        // No op
+    }
+
+    /**
+     * Encode a seat map
+     *
+     * @param seats - the seat map
+     * @return the encoded seat map
+     */
+    public static String encode(Map<Integer, List<Integer>> seats) {
+
+        StringBuilder encoded = new StringBuilder();
+
+        for(Map.Entry<Integer, List<Integer>> rowSeats : seats.entrySet()) {
+            if(encoded.length() > 0) {
+                encoded.append(';');
+            }
+            encoded.append(rowSeats.getKey()).append(':');
+            for(int i = 0; i < rowSeats.getValue().size(); i++) {
+                if(i > 0) {
+                    encoded.append(',');
+                }
+                encoded.append(rowSeats.getValue().get(i));
+            }
+        }
+
+        return encoded.toString();
+    }
+
+    /**
+     * Decode a seat map
+     *
+     * @param encoded - the encoded seat map
+     * @return the seat map
+     */
+    public static Map<Integer, List<Integer>> decode(String encoded) {
+
+        Map<Integer, List<Integer>> seats = new HashMap<>();
+
+        if(encoded.isEmpty()) {
+            return seats;
+        }
+
+        for(String rowSeats : encoded.split(";")) {
+            int separator = rowSeats.indexOf(':');
+            List<Integer> seatIds = new ArrayList<>();
+            if(separator < rowSeats.length() - 1) {
+                for(String seatId : rowSeats.substring(separator + 1).split(",")) {
+                    seatIds.add(Integer.valueOf(seatId));
+                }
+            }
+            seats.put(Integer.valueOf(rowSeats.substring(0, separator)), seatIds);
+        }
+
+        return seats;
+    }
+}
@@ -0,0 +1,58 @@
+package com.mukundsankaran.bookit.web;
+
+import com.mukundsankaran.bookit.config.BookItProperties;
+import com.mukundsankaran.bookit.config.ConditionalOnGridEngine;
+import com.mukundsankaran.bookit.service.ContentionProfiler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Created by mukund on 4/27/18.
+ *
+ * BookIt Contention Endpoint - the hot keys and slow transactions found by the contention profiler, at
+ * /actuator/contention
+ */
+
+@Component
+@ConditionalOnGridEngine
+@Endpoint(id = "contention")
+public class ContentionEndpoint {
+
+    @Autowired
+    private ContentionProfiler contentionProfiler;
+
+    @Autowired
+    private BookItProperties bookItProperties;
+
+    /**
+     * Report the keys that took the longest to lock and the most recent slow transactions
+     *
+     * @param limit number of hot keys to report, the configured number if not given
+     * @return whether profiling is enabled, the hot keys and the slow transactions
+     */
+    @ReadOperation
+    public Map<String, Object> contention(@Nullable Integer limit) {
+
+        Map<String, Object> contention = new LinkedHashMap<>();
+        contention.put("enabled", contentionProfiler.isEnabled());
+        contention.put("hotKeys", contentionProfiler.getHotKeys(limit == null ? bookItProperties.getProfiler().getHotKeys() : limit));
+        contention.put("slowTransactions", contentionProfiler.getSlowTransactions());
+
+        return contention;
+    }
+
+    /**
+     * Forget the hot keys and slow transactions recorded so far
+     */
+    @DeleteOperation
+    public void reset() {
+        contentionProfiler.reset();
+    }
+}
@@ -0,0 +1,146 @@
+package com.mukundsankaran.bookit.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mukundsankaran.bookit.config.BookItProperties;
+import com.mukundsankaran.bookit.config.ConditionalOnGridEngine;
+import com.mukundsankaran.bookit.model.Reservation;
+import com.mukundsankaran.bookit.model.ReservationPage;
+import com.mukundsankaran.bookit.service.ReservationExporter;
+import com.mukundsankaran.bookit.service.ReservationIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Created by mukund on 4/26/18.
+ *
+ * BookIt Reservation Endpoints
+ */
+
+@RestController
+@ConditionalOnGridEngine
+@RequestMapping("/reservations")
+public class ReservationController {
+
+    @Autowired
+    private ReservationExporter reservationExporter;
+
+    @Autowired
+    private ReservationIndex reservationIndex;
+
+    @Autowired
+    private BookItProperties bookItProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Find the reservations of a customer or for an event, a page at a time
+     *
+     * @param customer - the email address of the customer
+     * @param event - the event, if no customer is given
+     * @param cursor - the cursor returned with the previous page, or none for the first page
+     * @param limit - the maximum number of reservations on the page
+     * @return the page of reservations
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ReservationPage find(@RequestParam(required = false) String customer, @RequestParam(required = false) Long event,
+                                @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+
+        if((customer == null) == (event == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Either a customer or an event is required");
+        }
+
+        int pageSize = limit == null ? bookItProperties.getLookup().getPageSize() : limit;
+
+        try {
+            return customer != null
+                    ? reservationIndex.findByCustomer(customer, cursor, pageSize)
+                    : reservationIndex.findByEvent(event, cursor, pageSize);
+        } catch(IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Find the reservation of a seat, e.g. at check-in
+     *
+     * @param event - the event
+     * @param row - the row of the seat
+     * @param seat - the position of the seat in the row
+     * @return the reservation, or 404 Not Found if the seat is not reserved
+     */
+    @GetMapping(path = "/seat", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Reservation findBySeat(@RequestParam Long event, @RequestParam int row, @RequestParam int seat) {
+
+        Reservation reservation = reservationIndex.findBySeat(event, row, seat);
+
+        if(reservation == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Seat is not reserved");
+        }
+
+        return reservation;
+    }
+
+    /**
+     * Stream every reservation for an event as newline-delimited JSON, read from the index a page at a time
+     *
+     * @param eventId - the event
+     * @return the reservations, one JSON object per line
+     */
+    @GetMapping("/events/{eventId}")
+    public ResponseEntity<StreamingResponseBody> streamByEvent(@PathVariable Long eventId) {
+
+        StreamingResponseBody body = out -> {
+            try {
+                reservationIndex.forEachByEvent(eventId, reservation -> writeLine(reservation, out));
+            } catch(UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    /**
+     * Download every reservation as gzip-compressed CSV. The export is streamed to the client while partitions are
+     * being scanned.
+     *
+     * @return the reservations as a reservations.csv.gz attachment
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export() {
+
+        StreamingResponseBody body = out -> reservationExporter.export(out);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reservations.csv.gz\"")
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .body(body);
+    }
+
+    private void writeLine(Reservation reservation, OutputStream out) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(reservation));
+            out.write('\n');
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.mukundsankaran.bookit.web;
+
+import com.mukundsankaran.bookit.config.ConditionalOnGridEngine;
+import com.mukundsankaran.bookit.model.SeatMap;
+import com.mukundsankaran.bookit.service.SeatMapFeed;
+import com.mukundsankaran.bookit.service.SeatMapService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Created by mukund on 4/17/18.
+ *
+ * BookIt Seat Map Endpoints
+ */
+
+@RestController
+@ConditionalOnGridEngine
+@RequestMapping("/seatmap")
+public class SeatMapController {
+
+    @Autowired
+    private SeatMapFeed seatMapFeed;
+
+    @Autowired
+    private SeatMapService seatMapService;
+
+    /**
+     * Fetch a snapshot of the seat map. The ETag of the response is the seat map version.
+     *
+     * @param since - a version returned by an earlier snapshot, only rows changed since that version are returned
+     * @param request - the web request
+     * @return the seat map snapshot, or 304 Not Modified if the seat map has not changed since the ETag sent by the client
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<SeatMap> snapshot(@RequestParam(required = false) String since, WebRequest request) {
+
+        // Answer clients that are already up to date without building a snapshot
+        if(request.checkNotModified(seatMapService.getVersion())) {
+            return null;
+        }
+
+        SeatMap seatMap = seatMapService.getSeatMap(since);
+
+        return ResponseEntity.ok()
+                .eTag(seatMap.getVersion())
+                .body(seatMap);
+    }
+
+    /**
+     * Stream seat map changes as Server-Sent Events
+     *
+     * @return an emitter delivering seat map changes
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+
+        SseEmitter emitter = seatMapFeed.subscribe();
+
+        if(emitter == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many seat map subscribers");
+        }
+
+        return emitter;
+    }
+
+}
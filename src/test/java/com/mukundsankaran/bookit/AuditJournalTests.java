@@ -0,0 +1,100 @@
+package com.mukundsankaran.bookit;
+
+import com.mukundsankaran.bookit.journal.JournalReplay;
+import com.mukundsankaran.bookit.model.CacheName;
+import com.mukundsankaran.bookit.model.JournalRecord;
+import com.mukundsankaran.bookit.model.SeatHold;
+import com.mukundsankaran.bookit.model.SeatState;
+import com.mukundsankaran.bookit.service.AuditJournal;
+import com.mukundsankaran.bookit.service.TicketService;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(locations = "classpath:application-test.properties")
+public class AuditJournalTests {
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private AuditJournal auditJournal;
+
+    @Autowired
+    private Ignite ignite;
+
+    @Test
+    public void testAuditJournalReplay() throws IOException, InterruptedException {
+
+        SeatHold reservedHold = ticketService.findAndHoldSeats(2, "abc@gmail.com");
+        SeatHold expiredHold = ticketService.findAndHoldSeats(3, "xyz@gmail.com");
+        Assert.assertNotNull(ticketService.reserveSeats(reservedHold.getId(), "abc@gmail.com"));
+
+        IgniteCache<Integer, SeatHold> holdCache = ignite.cache(CacheName.HOLDS.name());
+        expiredHold.setHoldTime(0L);
+        holdCache.put(expiredHold.getId(), expiredHold);
+        ReflectionTestUtils.invokeMethod(ticketService, "expireHolds");
+
+        // Wait for the writer to append what has been queued
+        Assert.assertTrue(auditJournal.flush(5000));
+
+        Path journal = auditJournal.getFile();
+        List<JournalRecord> records = new ArrayList<>();
+        JournalReplay.replay(journal, records::add);
+
+        // Check if every state change was journaled in order
+        Assert.assertEquals(4, records.size());
+        Assert.assertEquals(JournalRecord.Type.HOLD, records.get(0).getType());
+        Assert.assertEquals(reservedHold.getSeats(), records.get(0).getSeats());
+        Assert.assertEquals(JournalRecord.Type.RESERVE, records.get(2).getType());
+        Assert.assertEquals(JournalRecord.Type.EXPIRE, records.get(3).getType());
+
+        // Check if replaying the journal rebuilds the state of the seats
+        Map<Integer, Map<Integer, SeatState>> seatStates = new HashMap<>();
+        JournalReplay.rebuildSeatState(journal, (rowId, seatId, state) -> seatStates.computeIfAbsent(rowId, id -> new HashMap<>()).put(seatId, state));
+        for(Map.Entry<Integer, List<Integer>> rowSeats : reservedHold.getSeats().entrySet()) {
+            for(int seatId : rowSeats.getValue()) {
+                Assert.assertEquals(SeatState.RESERVED, seatStates.get(rowSeats.getKey()).get(seatId));
+            }
+        }
+        for(Map.Entry<Integer, List<Integer>> rowSeats : expiredHold.getSeats().entrySet()) {
+            for(int seatId : rowSeats.getValue()) {
+                Assert.assertEquals(SeatState.FREE, seatStates.get(rowSeats.getKey()).get(seatId));
+            }
+        }
+    }
+
+    @Test
+    public void testFlushWaitsForQueuedRecords() throws IOException, InterruptedException {
+
+        // Nothing queued, nothing to wait for
+        Assert.assertTrue(auditJournal.flush(0));
+
+        SeatHold seatHold = ticketService.findAndHoldSeats(2, "abc@gmail.com");
+        Assert.assertTrue(auditJournal.flush(5000));
+
+        // Check if the hold is in the journal as soon as the flush returns
+        List<JournalRecord> records = new ArrayList<>();
+        JournalReplay.replay(auditJournal.getFile(), records::add);
+        Assert.assertEquals(1, records.size());
+        Assert.assertEquals(seatHold.getId().intValue(), records.get(0).getHoldId());
+    }
+}
@@ -0,0 +1,74 @@
+package com.mukundsankaran.bookit;
+
+import com.mukundsankaran.bookit.model.CacheName;
+import com.mukundsankaran.bookit.model.HotKey;
+import com.mukundsankaran.bookit.model.SeatHold;
+import com.mukundsankaran.bookit.model.TransactionTrace;
+import com.mukundsankaran.bookit.service.TicketService;
+import com.mukundsankaran.bookit.web.ContentionEndpoint;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(locations = "classpath:application-test.properties")
+public class ContentionProfilerTests {
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private ContentionEndpoint contentionEndpoint;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testContentionProfiler() {
+
+        SeatHold seatHold = ticketService.findAndHoldSeats(3, "abc@gmail.com");
+        ticketService.reserveSeats(seatHold.getId(), "abc@gmail.com");
+
+        Map<String, Object> contention = contentionEndpoint.contention(null);
+        Assert.assertEquals(true, contention.get("enabled"));
+
+        // Check if the event and the rows held show up as hot keys, but not the hold itself
+        List<String> hotKeys = ((List<HotKey>) contention.get("hotKeys")).stream().map(HotKey::getKey).collect(Collectors.toList());
+        Assert.assertTrue(hotKeys.contains(CacheName.EVENTS.name() + ":" + seatHold.getEventId()));
+        for(Integer rowId : seatHold.getSeats().keySet()) {
+            Assert.assertTrue(hotKeys.contains(CacheName.ROWS.name() + ":" + rowId));
+        }
+        Assert.assertFalse(hotKeys.contains(CacheName.HOLDS.name() + ":" + seatHold.getId()));
+
+        // Check if the hold is traced with the keys it locked and the caches it scanned
+        List<TransactionTrace> traces = (List<TransactionTrace>) contention.get("slowTransactions");
+        TransactionTrace holdTrace = traces.stream().filter(trace -> trace.getOperation().equals("HOLD")).findFirst().orElse(null);
+        Assert.assertNotNull(holdTrace);
+        Assert.assertEquals("committed", holdTrace.getOutcome());
+        Assert.assertEquals(0, holdTrace.getRetries());
+        Assert.assertTrue(holdTrace.getKeys().containsKey(CacheName.HOLDS.name() + ":" + seatHold.getId()));
+        Assert.assertTrue(holdTrace.getScans().containsKey(CacheName.HOLDS.name()));
+
+        // Existing reservations are looked up in the reservation index, not scanned
+        Assert.assertFalse(holdTrace.getScans().containsKey(CacheName.RESERVATIONS.name()));
+        Assert.assertTrue(holdTrace.getKeys().keySet().stream().anyMatch(key -> key.startsWith(CacheName.RESERVATION_INDEX.name() + ":")));
+
+        // Reservations are optimistic in the tests, so their keys are locked when they commit
+        TransactionTrace reserveTrace = traces.stream().filter(trace -> trace.getOperation().equals("RESERVE")).findFirst().orElse(null);
+        Assert.assertNotNull(reserveTrace);
+        Assert.assertEquals("committed", reserveTrace.getOutcome());
+        Assert.assertTrue(reserveTrace.getCommitInMicros() > 0);
+
+        contentionEndpoint.reset();
+        Assert.assertTrue(((List<?>) contentionEndpoint.contention(null).get("slowTransactions")).isEmpty());
+    }
+}
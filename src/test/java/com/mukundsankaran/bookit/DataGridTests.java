@@ -0,0 +1,49 @@
+package com.mukundsankaran.bookit;
+
+import com.mukundsankaran.bookit.grid.GridCaches;
+import com.mukundsankaran.bookit.model.CacheName;
+import com.mukundsankaran.bookit.startup.DataGridHealthIndicator;
+import org.apache.ignite.Ignite;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(locations = "classpath:application-test.properties")
+public class DataGridTests {
+
+    @Autowired
+    private Ignite ignite;
+
+    @Autowired
+    private GridCaches gridCaches;
+
+    @Autowired
+    private DataGridHealthIndicator dataGridHealthIndicator;
+
+    @Test
+    public void testDataGridWarmUp() {
+
+        // Check if the grid reports itself ready once the warm-up is done, with every cache started
+        Health health = dataGridHealthIndicator.health();
+        Assert.assertEquals(Status.UP, health.getStatus());
+        for(CacheName cacheName : CacheName.values()) {
+            Assert.assertEquals("started", health.getDetails().get(cacheName.name()));
+        }
+
+        // Check if a cache that is not started is created when it is first used
+        ignite.destroyCache(CacheName.RATE_LIMITS.name());
+        Assert.assertFalse(gridCaches.isStarted(CacheName.RATE_LIMITS));
+        Assert.assertNotNull(gridCaches.get(CacheName.RATE_LIMITS));
+        Assert.assertTrue(gridCaches.isStarted(CacheName.RATE_LIMITS));
+    }
+}
@@ -0,0 +1,108 @@
+package com.mukundsankaran.bookit;
+
+import com.mukundsankaran.bookit.config.BookItProperties;
+import com.mukundsankaran.bookit.journal.JournalFormat;
+import com.mukundsankaran.bookit.model.JournalRecord;
+import com.mukundsankaran.bookit.service.IdGenerator;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteAtomicSequence;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(locations = "classpath:application-test.properties")
+public class IdGeneratorTests {
+
+    private static final String SEAT_HOLD_SEQUENCE = "bookit.sequence.holds";
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Autowired
+    private BookItProperties bookItProperties;
+
+    @Autowired
+    private Ignite ignite;
+
+    private Path plantedJournal;
+
+    @After
+    public void removePlantedJournal() throws IOException {
+        if(plantedJournal != null) {
+            Files.deleteIfExists(plantedJournal);
+        }
+    }
+
+    @Test
+    public void testSequenceSeededFromJournal() throws IOException {
+
+        int holdId = idGenerator.nextSeatHoldId();
+        Assert.assertEquals(holdId + 1, idGenerator.nextSeatHoldId());
+
+        // A journal from before a cluster restart, with holds well past the current sequence
+        plantJournal(holdId + 1000000);
+        restartSequence();
+
+        // Check if the new sequence carries on after the journaled holds
+        Assert.assertEquals(holdId + 1000001, idGenerator.nextSeatHoldId());
+    }
+
+    @Test
+    public void testSequenceWraps() throws IOException {
+
+        // The sequence is only joined when the first ID is generated
+        Assert.assertNull(ignite.atomicSequence(SEAT_HOLD_SEQUENCE, 0, false));
+
+        plantJournal(Integer.MAX_VALUE - 1);
+        restartSequence();
+
+        // Check if hold IDs stay positive past Integer.MAX_VALUE
+        Assert.assertEquals(Integer.MAX_VALUE, idGenerator.nextSeatHoldId());
+        Assert.assertEquals(1, idGenerator.nextSeatHoldId());
+        Assert.assertEquals(2, idGenerator.nextSeatHoldId());
+    }
+
+    /**
+     * Write a journal holding a single hold to the journal directory
+     *
+     * @param holdId - the ID of the hold
+     */
+    private void plantJournal(int holdId) throws IOException {
+
+        JournalRecord record = new JournalRecord(JournalRecord.Type.EXPIRE, System.currentTimeMillis(), holdId, 1L);
+
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        try(DataOutputStream out = new DataOutputStream(encoded)) {
+            JournalFormat.write(record, new ByteArrayOutputStream(), out);
+        }
+
+        plantedJournal = Paths.get(bookItProperties.getJournal().getDirectory()).resolve("bookit-19700101000000000-planted.journal");
+        Files.write(plantedJournal, encoded.toByteArray());
+    }
+
+    /**
+     * Drop the hold sequence, as a full cluster restart does
+     */
+    private void restartSequence() {
+        IgniteAtomicSequence sequence = ignite.atomicSequence(SEAT_HOLD_SEQUENCE, 0, false);
+        if(sequence != null) {
+            sequence.close();
+        }
+    }
+}
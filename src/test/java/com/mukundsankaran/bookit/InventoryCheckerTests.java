@@ -0,0 +1,114 @@
+package com.mukundsankaran.bookit;
+
+import com.mukundsankaran.bookit.model.CacheName;
+import com.mukundsankaran.bookit.model.Event;
+import com.mukundsankaran.bookit.model.InventoryReport;
+import com.mukundsankaran.bookit.model.Row;
+import com.mukundsankaran.bookit.model.RowCheck;
+import com.mukundsankaran.bookit.model.SeatHold;
+import com.mukundsankaran.bookit.model.SeatState;
+import com.mukundsankaran.bookit.service.InventoryChecker;
+import com.mukundsankaran.bookit.service.TicketService;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.CachePeekMode;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(locations = "classpath:application-test.properties")
+public class InventoryCheckerTests {
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private Ignite ignite;
+
+    @Autowired
+    private InventoryChecker inventoryChecker;
+
+    @Test
+    public void testInventoryRepair() {
+
+        int numSeatsAvailable = ticketService.numSeatsAvailable();
+        SeatHold seatHold = ticketService.findAndHoldSeats(3, "abc@gmail.com");
+
+        Assert.assertTrue(inventoryChecker.check().isConsistent());
+
+        // Lose the hold without freeing its seats, and miscount the free seats of its row
+        IgniteCache<Integer, SeatHold> holdCache = ignite.cache(CacheName.HOLDS.name());
+        IgniteCache<Integer, Row> rowCache = ignite.cache(CacheName.ROWS.name());
+        holdCache.remove(seatHold.getId());
+        int rowId = seatHold.getSeats().keySet().iterator().next();
+        Row row = rowCache.get(rowId);
+        row.setFreeSeats(row.getFreeSeats() + 1);
+        rowCache.put(rowId, row);
+
+        // Drift is reported the first time it is found, and repaired the second time
+        InventoryReport report = inventoryChecker.check();
+        Assert.assertEquals(3, report.getDriftedSeats());
+        Assert.assertEquals(1, report.getDriftedRows());
+        Assert.assertEquals(1, report.getDriftedEvents());
+        Assert.assertEquals(0, report.getRepairedSeats());
+
+        report = inventoryChecker.check();
+        Assert.assertEquals(3, report.getRepairedSeats());
+        Assert.assertEquals(1, report.getRepairedEvents());
+
+        Assert.assertTrue(inventoryChecker.check().isConsistent());
+        Assert.assertEquals(numSeatsAvailable, ticketService.numSeatsAvailable());
+        for(int seatId : seatHold.getSeats().get(rowId)) {
+            Assert.assertEquals(SeatState.FREE, rowCache.get(rowId).getSeat(seatId).getState());
+        }
+    }
+
+    @Test
+    public void testInventoryCheckLeavesStoreAlone() {
+
+        SeatHold seatHold = ticketService.findAndHoldSeats(3, "abc@gmail.com");
+        int rowId = seatHold.getSeats().keySet().iterator().next();
+        long eventId = seatHold.getEventId();
+
+        // Drop a row from memory, as if it had expired
+        IgniteCache<Integer, Row> rowCache = ignite.cache(CacheName.ROWS.name());
+        rowCache.clear(rowId);
+
+        // The row is not loaded to check it, and the event is not compared with rows that were not checked
+        Assert.assertTrue(inventoryChecker.check().isConsistent());
+        Assert.assertNull(rowCache.localPeek(rowId, CachePeekMode.PRIMARY));
+
+        // Nor is an event that is not in memory
+        IgniteCache<Long, Event> eventCache = ignite.cache(CacheName.EVENTS.name());
+        eventCache.clear(eventId);
+        Assert.assertTrue(inventoryChecker.check().isConsistent());
+        Assert.assertNull(eventCache.localPeek(eventId, CachePeekMode.PRIMARY));
+    }
+
+    @Test
+    public void testInventoryRepairRechecksClaims() {
+
+        SeatHold seatHold = ticketService.findAndHoldSeats(3, "abc@gmail.com");
+        int rowId = seatHold.getSeats().keySet().iterator().next();
+        int seatId = seatHold.getSeats().get(rowId).get(0);
+
+        // A check that missed the hold, as if it was placed after the claims were found
+        RowCheck check = new RowCheck(rowId, ignite.<Integer, Row>cache(CacheName.ROWS.name()).get(rowId).getFreeSeats());
+        check.getDriftedSeats().put(seatId, SeatState.FREE);
+
+        // The hold is found again before the seat is repaired, so the seat stays held
+        Assert.assertEquals(Integer.valueOf(0), ReflectionTestUtils.invokeMethod(inventoryChecker, "repairRow", check));
+        Row row = ignite.<Integer, Row>cache(CacheName.ROWS.name()).get(rowId);
+        Assert.assertEquals(SeatState.HELD, row.getSeat(seatId).getState());
+        Assert.assertTrue(inventoryChecker.check().isConsistent());
+    }
+}
@@ -0,0 +1,114 @@
+package com.mukundsankaran.bookit;
+
+import com.mukundsankaran.bookit.config.BookItProperties;
+import com.mukundsankaran.bookit.model.HoldRequest;
+import com.mukundsankaran.bookit.model.Row;
+import com.mukundsankaran.bookit.model.SeatHold;
+import com.mukundsankaran.bookit.model.SeatState;
+import com.mukundsankaran.bookit.service.TicketService;
+import org.apache.ignite.Ignite;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(locations = "classpath:application-test.properties", properties = "bookit.engine=local")
+public class LocalTicketServiceTests {
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private BookItProperties bookItProperties;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Test
+    public void testNoDataGrid() {
+        Assert.assertTrue(applicationContext.getBeansOfType(Ignite.class).isEmpty());
+        Assert.assertEquals(bookItProperties.getVenue().getCapacity(), ticketService.numSeatsAvailable());
+    }
+
+    @Test
+    public void testHoldReserveAndExpire() {
+
+        int numSeatsAvailable = ticketService.numSeatsAvailable();
+
+        SeatHold reservedHold = ticketService.findAndHoldSeats(3, "abc@gmail.com");
+        SeatHold expiredHold = ticketService.findAndHoldSeats(2, "xyz@gmail.com");
+        Assert.assertEquals(numSeatsAvailable - 5, ticketService.numSeatsAvailable());
+
+        // A customer may only hold seats once
+        Assert.assertNull(ticketService.findAndHoldSeats(1, "abc@gmail.com"));
+
+        // Only the customer who made the hold can reserve it
+        Assert.assertNull(ticketService.reserveSeats(reservedHold.getId(), "xyz@gmail.com"));
+        Assert.assertNotNull(ticketService.reserveSeats(reservedHold.getId(), "abc@gmail.com"));
+
+        // Check if changing a returned hold does not change the hold the engine keeps
+        expiredHold.setHoldTime(0L);
+        expiredHold.getSeats().clear();
+        ReflectionTestUtils.invokeMethod(ticketService, "expireHolds");
+        Assert.assertEquals(numSeatsAvailable - 5, ticketService.numSeatsAvailable());
+
+        // Check if expiring holds once their time is up frees their seats, but not reserved seats
+        long afterExpiry = System.currentTimeMillis() + expiredHold.getExpiryTimeInMillis() + 1000;
+        ReflectionTestUtils.invokeMethod(ticketService, "expireHolds", afterExpiry);
+        Assert.assertEquals(numSeatsAvailable - 3, ticketService.numSeatsAvailable());
+        Assert.assertNull(ticketService.reserveSeats(expiredHold.getId(), "xyz@gmail.com"));
+    }
+
+    @Test
+    public void testIdempotentRequests() {
+
+        HoldRequest holdRequest = new HoldRequest(2, "abc@gmail.com");
+        holdRequest.setRequestId("hold-1");
+
+        SeatHold hold = ticketService.findAndHoldSeats(holdRequest);
+        Assert.assertEquals(hold.getId(), ticketService.findAndHoldSeats(holdRequest).getId());
+
+        String reservationId = ticketService.reserveSeats(hold.getId(), "abc@gmail.com", "reserve-1");
+        Assert.assertEquals(reservationId, ticketService.reserveSeats(hold.getId(), "abc@gmail.com", "reserve-1"));
+    }
+
+    @Test
+    public void testShortStaggeredHold() {
+
+        int numSeatsAvailable = ticketService.numSeatsAvailable();
+
+        // Take every seat but the first of the first two rows behind the engine's count of free seats
+        Map<?, ?> events = (Map<?, ?>) ReflectionTestUtils.getField(ticketService, "events");
+        Row[] rows = (Row[]) ReflectionTestUtils.getField(events.values().iterator().next(), "rows");
+        for(int index = 0; index < rows.length; index++) {
+            Row row = rows[index];
+            for(int seatId = index < 2 ? 1 : 0; seatId < row.getSeats().length; seatId++) {
+                row.getSeat(seatId).setState(SeatState.RESERVED);
+            }
+            row.setFreeSeats(index < 2 ? 1 : 0);
+        }
+
+        // Check if a hold that cannot be filled frees the seats it took, and nothing is held
+        Assert.assertNull(ticketService.findAndHoldSeats(3, "abc@gmail.com"));
+        Assert.assertEquals(numSeatsAvailable, ticketService.numSeatsAvailable());
+        Assert.assertEquals(SeatState.FREE, rows[0].getSeat(0).getState());
+        Assert.assertEquals(SeatState.FREE, rows[1].getSeat(0).getState());
+        Assert.assertEquals(1, rows[0].getFreeSeats());
+
+        SeatHold hold = ticketService.findAndHoldSeats(2, "abc@gmail.com");
+        Assert.assertNotNull(hold);
+        Assert.assertEquals(2, hold.getSeats().size());
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.mukundsankaran.bookit;
+
+import com.mukundsankaran.bookit.config.BookItProperties;
+import com.mukundsankaran.bookit.model.CacheName;
+import com.mukundsankaran.bookit.model.HoldRequest;
+import com.mukundsankaran.bookit.service.RateLimiter;
+import com.mukundsankaran.bookit.service.TicketService;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(locations = "classpath:application-test.properties")
+public class RateLimiterTests {
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private BookItProperties bookItProperties;
+
+    @Autowired
+    private Ignite ignite;
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Test
+    public void testRateLimiting() {
+
+        // A client may make a burst of attempts, whichever customers they are for
+        for(int customer = 0; customer < bookItProperties.getRateLimit().getBurst(); customer++) {
+            Assert.assertNotNull(ticketService.findAndHoldSeats(holdRequest("customer" + customer + "@gmail.com", "10.0.0.1")));
+        }
+        Assert.assertNull(ticketService.findAndHoldSeats(holdRequest("another@gmail.com", "10.0.0.1")));
+        Assert.assertNotNull(ticketService.findAndHoldSeats(holdRequest("another@gmail.com", "10.0.0.2")));
+
+        // Check if the attempts are counted across the cluster
+        ReflectionTestUtils.invokeMethod(rateLimiter, "sync");
+        IgniteCache<String, Long> counterCache = ignite.cache(CacheName.RATE_LIMITS.name());
+        long window = System.currentTimeMillis() / 60000;
+        Long attempts = counterCache.get("client:10.0.0.1@" + window);
+        if(attempts == null) {
+            // The minute turned over during the sync
+            attempts = counterCache.get("client:10.0.0.1@" + (window - 1));
+        }
+        Assert.assertEquals(Long.valueOf(bookItProperties.getRateLimit().getBurst()), attempts);
+    }
+
+    /**
+     * A request for one seat, made by a client
+     *
+     * @param customerEmail - the customer the seat is for
+     * @param clientId - the client making the request
+     * @return the request
+     */
+    private static HoldRequest holdRequest(String customerEmail, String clientId) {
+        HoldRequest request = new HoldRequest(1, customerEmail);
+        request.setClientId(clientId);
+        return request;
+    }
+}
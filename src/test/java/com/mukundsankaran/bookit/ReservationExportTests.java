@@ -0,0 +1,56 @@
+package com.mukundsankaran.bookit;
+
+import com.mukundsankaran.bookit.model.SeatHold;
+import com.mukundsankaran.bookit.service.ReservationExporter;
+import com.mukundsankaran.bookit.service.TicketService;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(locations = "classpath:application-test.properties")
+public class ReservationExportTests {
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private ReservationExporter reservationExporter;
+
+    @Test
+    public void testReservationExport() throws IOException {
+
+        SeatHold hold = ticketService.findAndHoldSeats(3, "abc@gmail.com");
+        String reservationId = ticketService.reserveSeats(hold.getId(), "abc@gmail.com");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long exported = reservationExporter.export(out);
+
+        List<String> lines;
+        try(BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())), StandardCharsets.UTF_8))) {
+            lines = reader.lines().collect(Collectors.toList());
+        }
+
+        // Check if the header and every reservation were exported
+        Assert.assertEquals("id,event_id,customer_email,seats", lines.get(0));
+        Assert.assertEquals(exported + 1, lines.size());
+        Assert.assertTrue(lines.stream().anyMatch(line -> line.startsWith(reservationId + ",") && line.contains("abc@gmail.com")));
+    }
+}
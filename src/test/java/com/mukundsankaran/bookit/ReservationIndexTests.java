@@ -0,0 +1,78 @@
+package com.mukundsankaran.bookit;
+
+import com.mukundsankaran.bookit.model.Reservation;
+import com.mukundsankaran.bookit.model.ReservationPage;
+import com.mukundsankaran.bookit.model.SeatHold;
+import com.mukundsankaran.bookit.service.ReservationIndex;
+import com.mukundsankaran.bookit.service.TicketService;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(locations = "classpath:application-test.properties")
+public class ReservationIndexTests {
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private ReservationIndex reservationIndex;
+
+    @Test
+    public void testReservationLookup() {
+
+        List<String> reservationIds = new ArrayList<>();
+        for(String customer : Arrays.asList("abc@gmail.com", "xyz@gmail.com", "pqr@gmail.com")) {
+            SeatHold seatHold = ticketService.findAndHoldSeats(2, customer);
+            reservationIds.add(ticketService.reserveSeats(seatHold.getId(), customer));
+        }
+
+        // Check if a customer's reservations are found, whatever the case of their email
+        ReservationPage page = reservationIndex.findByCustomer("ABC@gmail.com", null, 10);
+        Assert.assertEquals(1, page.getReservations().size());
+        Assert.assertEquals(reservationIds.get(0), page.getReservations().get(0).getId());
+        Assert.assertNull(page.getNext());
+        Assert.assertTrue(reservationIndex.findByCustomer("nobody@gmail.com", null, 10).getReservations().isEmpty());
+
+        // Check if paging through an event a reservation at a time finds every reservation once
+        Long eventId = page.getReservations().get(0).getEventId();
+        List<String> found = new ArrayList<>();
+        String cursor = null;
+        do {
+            page = reservationIndex.findByEvent(eventId, cursor, 1);
+            Assert.assertTrue(page.getReservations().size() <= 1);
+            page.getReservations().forEach(reservation -> found.add(reservation.getId()));
+            cursor = page.getNext();
+        } while(cursor != null);
+        Assert.assertEquals(reservationIds.size(), found.size());
+        Assert.assertTrue(found.containsAll(reservationIds));
+        Assert.assertEquals(reservationIds.size(), reservationIndex.forEachByEvent(eventId, reservation -> { }));
+
+        // Check if the reservation of a seat is found, and a customer with a reservation cannot hold seats again
+        Reservation reservation = reservationIndex.findByCustomer("xyz@gmail.com", null, 1).getReservations().get(0);
+        Map.Entry<Integer, List<Integer>> rowSeats = reservation.getSeats().entrySet().iterator().next();
+        Assert.assertEquals(reservation.getId(), reservationIndex.findBySeat(eventId, rowSeats.getKey(), rowSeats.getValue().get(0)).getId());
+        Assert.assertTrue(reservationIndex.hasReservation(reservation.getCustomerEmail(), eventId));
+        Assert.assertNull(ticketService.findAndHoldSeats(1, reservation.getCustomerEmail()));
+
+        try {
+            reservationIndex.findByEvent(eventId, "not a cursor", 1);
+            Assert.fail();
+        } catch(IllegalArgumentException e) {
+            // Expected
+        }
+    }
+}
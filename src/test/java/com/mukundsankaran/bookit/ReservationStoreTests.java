@@ -0,0 +1,118 @@
+package com.mukundsankaran.bookit;
+
+import com.mukundsankaran.bookit.config.BookItProperties;
+import com.mukundsankaran.bookit.model.CacheName;
+import com.mukundsankaran.bookit.model.Reservation;
+import com.mukundsankaran.bookit.model.SeatHold;
+import com.mukundsankaran.bookit.service.TicketService;
+import com.mukundsankaran.bookit.store.ReservationCacheStore;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(locations = "classpath:application-test.properties",
+        properties = "bookit.persistence.writeBehindFlushFrequencyInMillis=60000")
+public class ReservationStoreTests {
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private BookItProperties bookItProperties;
+
+    @Autowired
+    private Ignite ignite;
+
+    @Test
+    public void testReservationWriteBehind() throws SQLException {
+
+        SeatHold seatHold = ticketService.findAndHoldSeats(2, "abc@gmail.com");
+        Assert.assertNotNull(seatHold);
+
+        String reservationId = ticketService.reserveSeats(seatHold.getId(), "abc@gmail.com");
+        Assert.assertNotNull(reservationId);
+
+        // Write the queued reservations now rather than wait for the flush interval
+        ReservationCacheStore.flushAll();
+
+        // Check if the reservation reached the database with its seats
+        int rowId = seatHold.getSeats().keySet().iterator().next();
+        Assert.assertEquals(rowId + ":0,1", selectSeats(reservationId));
+    }
+
+    @Test
+    public void testReservationReadThrough() throws SQLException {
+
+        SeatHold seatHold = ticketService.findAndHoldSeats(2, "abc@gmail.com");
+        String reservationId = ticketService.reserveSeats(seatHold.getId(), "abc@gmail.com");
+        ReservationCacheStore.flushAll();
+
+        // Drop the reservation from memory, as if it had been evicted
+        IgniteCache<String, Reservation> reservationCache = ignite.cache(CacheName.RESERVATIONS.name());
+        reservationCache.clear(reservationId);
+
+        // Check if the reservation is loaded back from the database
+        Reservation reservation = reservationCache.get(reservationId);
+        Assert.assertNotNull(reservation);
+        Assert.assertEquals("abc@gmail.com", reservation.getCustomerEmail());
+        Assert.assertEquals(seatHold.getSeats(), reservation.getSeats());
+        Assert.assertNotNull(selectSeats(reservationId));
+    }
+
+    @Test
+    public void testReservationReadBeforeFlush() throws SQLException {
+
+        SeatHold seatHold = ticketService.findAndHoldSeats(2, "abc@gmail.com");
+        String reservationId = ticketService.reserveSeats(seatHold.getId(), "abc@gmail.com");
+
+        // Drop the reservation from memory while its write is still pending
+        IgniteCache<String, Reservation> reservationCache = ignite.cache(CacheName.RESERVATIONS.name());
+        reservationCache.clear(reservationId);
+
+        // Check if the reservation is loaded from the pending write rather than found missing in the database
+        Reservation reservation = reservationCache.get(reservationId);
+        Assert.assertNotNull(reservation);
+        Assert.assertEquals(seatHold.getSeats(), reservation.getSeats());
+
+        // Check if it is still read back once written
+        ReservationCacheStore.flushAll();
+        reservationCache.clear(reservationId);
+        Assert.assertNotNull(reservationCache.get(reservationId));
+        Assert.assertNotNull(selectSeats(reservationId));
+    }
+
+    /**
+     * Read the seats of a reservation straight from the database
+     *
+     * @param reservationId - the reservation ID
+     * @return the seats, in SeatsFormat, or null if the reservation is not in the database
+     */
+    private String selectSeats(String reservationId) throws SQLException {
+
+        try(Connection connection = DriverManager.getConnection(bookItProperties.getPersistence().getJdbcUrl());
+            PreparedStatement select = connection.prepareStatement("SELECT seats FROM reservations WHERE id = ?")) {
+
+            select.setString(1, reservationId);
+
+            try(ResultSet resultSet = select.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(1) : null;
+            }
+        }
+    }
+}
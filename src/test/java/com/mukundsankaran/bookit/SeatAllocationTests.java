@@ -0,0 +1,156 @@
+package com.mukundsankaran.bookit;
+
+import com.mukundsankaran.bookit.allocation.AllocationSimulator;
+import com.mukundsankaran.bookit.allocation.AvailabilityBuffer;
+import com.mukundsankaran.bookit.allocation.GapHistogram;
+import com.mukundsankaran.bookit.allocation.SeatAllocationStrategies;
+import com.mukundsankaran.bookit.allocation.SeatAllocationStrategy;
+import com.mukundsankaran.bookit.model.Row;
+import com.mukundsankaran.bookit.model.RowAvailability;
+import com.mukundsankaran.bookit.model.SeatAllocation;
+import com.mukundsankaran.bookit.model.SeatState;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class SeatAllocationTests {
+
+    /**
+     * Most bytes a search may allocate once its buffers have grown, enough for a strategy's comparator
+     */
+    private static final long MAX_BYTES_PER_SEARCH = 64;
+
+    @Test
+    public void testRowLayout(){
+
+        Row row = new Row(1, "SS|SSS..A");
+
+        // Check if aisles and gaps are not seats, and accessible seats are
+        Assert.assertEquals(6, row.getSeats().length);
+        Assert.assertEquals(6, row.getFreeSeats());
+        Assert.assertTrue(row.getSeat(5).isAccessible());
+
+        // Check if groups of seats are not placed across an aisle or a gap
+        Assert.assertEquals(2, row.findSequenceStart(3));
+        Assert.assertFalse(row.isSequenceEmpty(1, 2));
+        Assert.assertFalse(row.isSequenceEmpty(4, 2));
+        Assert.assertEquals(-1, row.findSequenceStart(4));
+    }
+
+    @Test
+    public void testSeatAllocationStrategies() {
+
+        // Runs of 4, 2 and 6 empty seats
+        Row row = new Row(1, "SSSS|SS|SSSSSS");
+        GapHistogram gaps = GapHistogram.of(row);
+
+        Assert.assertEquals(0, SeatAllocationStrategies.get(SeatAllocation.FRONT_FIRST).findSequenceStart(row, gaps, 2));
+        Assert.assertEquals(4, SeatAllocationStrategies.get(SeatAllocation.BEST_FIT).findSequenceStart(row, gaps, 2));
+        Assert.assertEquals(6, SeatAllocationStrategies.get(SeatAllocation.CENTER_OUT).findSequenceStart(row, gaps, 4));
+        Assert.assertEquals(-1, SeatAllocationStrategies.get(SeatAllocation.BEST_FIT).findSequenceStart(row, gaps, 7));
+        Assert.assertTrue(row.isSequenceEmpty(SeatAllocationStrategies.get(SeatAllocation.RANDOM_SPREAD).findSequenceStart(row, gaps, 3), 3));
+
+        // Best fit leaves the run of 6 with 3 seats rather than orphan a seat in the run of 4
+        Assert.assertEquals(6, SeatAllocationStrategies.get(SeatAllocation.BEST_FIT).findSequenceStart(row, gaps, 3));
+        Assert.assertEquals(0, gaps.getOrphanedSeats());
+        Assert.assertEquals(6, gaps.getLargestRun());
+
+        // Check if a histogram counting one row after another only counts the latest row
+        row.getSeat(5).setState(SeatState.HELD);
+        Assert.assertEquals(1, gaps.count(row).getOrphanedSeats());
+        Assert.assertEquals(0, gaps.count(new Row(2, "SS.SS")).getOrphanedSeats());
+        Assert.assertEquals(2, gaps.getRuns(2));
+        Assert.assertEquals(0, gaps.getRuns(6));
+
+        // Check if every strategy sells out a venue, mostly seating groups together
+        for(SeatAllocation seatAllocation : SeatAllocation.values()) {
+            AllocationSimulator.Result result = AllocationSimulator.simulate(SeatAllocationStrategies.get(seatAllocation), 20, 30, 7);
+            Assert.assertTrue(result.getGroups() > 0);
+            Assert.assertTrue(seatAllocation + ": " + result, result.getContiguousFitRate() > 0.5);
+        }
+    }
+
+    @Test
+    public void testSearchAllocations() {
+
+        Assume.assumeTrue("The JVM does not count allocations per thread", AllocationSimulator.allocatedBytes() > 0);
+
+        // Rows of 450 seats with every third seat held, so seat positions are well past the cached Integers
+        Row[] rows = new Row[20];
+        for(int index = 0; index < rows.length; index++) {
+            rows[index] = new Row(200 + index, 450);
+            for(int seatId = 0; seatId < 450; seatId += 3) {
+                rows[index].getSeat(seatId).setState(SeatState.HELD);
+            }
+            rows[index].setFreeSeats(300);
+        }
+
+        for(SeatAllocation seatAllocation : SeatAllocation.values()) {
+
+            SeatAllocationStrategy strategy = SeatAllocationStrategies.get(seatAllocation);
+            long searchBytes = 0;
+            long packedBytes = 0;
+
+            // The first searches grow the buffers, only later ones are measured
+            for(int search = 0; search < 2000; search++) {
+
+                // Summarize the rows as a node does for the grid search, only the packed array is allocated
+                long start = AllocationSimulator.allocatedBytes();
+                AvailabilityBuffer node = AvailabilityBuffer.forThread();
+                for(Row row : rows) {
+                    node.add(row, 4, strategy);
+                }
+                int[] packed = node.pack();
+                long packing = AllocationSimulator.allocatedBytes() - start;
+
+                // Unpack, order and choose seats as the ticket service does
+                start = AllocationSimulator.allocatedBytes();
+                AvailabilityBuffer buffer = AvailabilityBuffer.forThread();
+                buffer.unpack(packed);
+                List<RowAvailability> availability = buffer.getAvailability();
+                strategy.orderRows(availability, 4);
+                for(int seat = 0; seat < 4; seat++) {
+                    buffer.choose(availability.get(seat).getRowId(), 1 + 3 * seat, 1);
+                }
+                long choosing = AllocationSimulator.allocatedBytes() - start;
+
+                if(search >= 1000) {
+                    packedBytes += packing - 4L * packed.length;
+                    searchBytes += choosing;
+                }
+            }
+
+            Assert.assertTrue(seatAllocation + " packing allocated " + packedBytes / 1000 + " bytes besides the array", packedBytes / 1000 <= MAX_BYTES_PER_SEARCH);
+            Assert.assertTrue(seatAllocation + " choosing allocated " + searchBytes / 1000 + " bytes", searchBytes / 1000 <= MAX_BYTES_PER_SEARCH);
+
+            // Check if a whole simulated sale stays within the same bound
+            AllocationSimulator.Result result = AllocationSimulator.simulate(strategy, 20, 450, 7);
+            Assert.assertTrue(seatAllocation + ": " + result, result.getBytesPerAllocation() <= MAX_BYTES_PER_SEARCH);
+        }
+    }
+
+    @Test
+    public void testChosenSeats() {
+
+        AvailabilityBuffer buffer = AvailabilityBuffer.forThread();
+        buffer.choose(3, 200, 2);
+        buffer.choose(3, 202, 1);
+        buffer.choose(5, 7, 1);
+        buffer.choose(3, 300, 1);
+
+        // Consecutive seats of a row extend a range, and the seat map lists the rows in the order they were chosen
+        Map<Integer, List<Integer>> seatMap = buffer.toSeatMap();
+        Assert.assertEquals(5, buffer.getNumSeatsChosen());
+        Assert.assertEquals(Arrays.asList(3, 5), Arrays.asList(seatMap.keySet().toArray()));
+        Assert.assertEquals(Arrays.asList(200, 201, 202, 300), seatMap.get(3));
+        Assert.assertEquals(Arrays.asList(7), seatMap.get(5));
+
+        // A new search starts with nothing chosen
+        Assert.assertEquals(0, AvailabilityBuffer.forThread().getNumSeatsChosen());
+        Assert.assertTrue(AvailabilityBuffer.forThread().toSeatMap().isEmpty());
+    }
+}
@@ -0,0 +1,167 @@
+package com.mukundsankaran.bookit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mukundsankaran.bookit.model.CacheName;
+import com.mukundsankaran.bookit.model.Row;
+import com.mukundsankaran.bookit.model.SeatHold;
+import com.mukundsankaran.bookit.model.SeatMapDelta;
+import com.mukundsankaran.bookit.service.SeatMapFeed;
+import com.mukundsankaran.bookit.service.SeatMapService;
+import com.mukundsankaran.bookit.service.TicketService;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Pushes are driven by calling the feed's flush directly, on a single sender thread, so the test decides when each
+ * push happens and can wait for it to be written.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(locations = "classpath:application-test.properties",
+        properties = {"bookit.feed.senderThreads=1", "bookit.feed.flushIntervalInMillis=60000"})
+public class SeatMapFeedTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private SeatMapService seatMapService;
+
+    @Autowired
+    private SeatMapFeed seatMapFeed;
+
+    @Autowired
+    private Ignite ignite;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void testSnapshotThenChanges() throws Exception {
+
+        // Hold seats before anyone subscribes, and push the change to nobody
+        SeatHold earlierHold = ticketService.findAndHoldSeats(2, "abc@gmail.com");
+        applyRowUpdates(earlierHold);
+        push();
+
+        MockHttpServletResponse response = mockMvc.perform(get("/seatmap/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+
+        // Check if the first event is a snapshot of the seats already held
+        push();
+        List<String[]> events = parseEvents(response.getContentAsString());
+        Assert.assertEquals(1, events.size());
+        Assert.assertEquals("seats", events.get(0)[1]);
+        Assert.assertEquals(seatMapService.getVersion(), events.get(0)[0]);
+        assertHeld(earlierHold, events.get(0)[2]);
+
+        // Check if the next event only carries the seats held since
+        SeatHold laterHold = ticketService.findAndHoldSeats(2, "xyz@gmail.com");
+        applyRowUpdates(laterHold);
+        push();
+        events = parseEvents(response.getContentAsString());
+        Assert.assertEquals(2, events.size());
+        Assert.assertEquals(seatMapService.getVersion(), events.get(1)[0]);
+        assertHeld(laterHold, events.get(1)[2]);
+
+        // Nothing changed, nothing is pushed
+        push();
+        Assert.assertEquals(2, parseEvents(response.getContentAsString()).size());
+    }
+
+    /**
+     * Hand the rows of a hold to the seat map, as its continuous query does when they change
+     *
+     * @param seatHold - the hold
+     */
+    private void applyRowUpdates(SeatHold seatHold) {
+        IgniteCache<Integer, Row> rowCache = ignite.cache(CacheName.ROWS.name());
+        for(Integer rowId : seatHold.getSeats().keySet()) {
+            ReflectionTestUtils.invokeMethod(seatMapService, "onRowUpdated", rowCache.get(rowId));
+        }
+    }
+
+    /**
+     * Run the scheduled push and wait for the sender thread to write it
+     */
+    private void push() throws Exception {
+        ReflectionTestUtils.invokeMethod(seatMapFeed, "flush");
+        ExecutorService senderPool = (ExecutorService) ReflectionTestUtils.getField(seatMapFeed, "senderPool");
+        senderPool.submit(() -> { }).get(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Check if a pushed event holds exactly the seats of a hold
+     *
+     * @param seatHold - the hold
+     * @param data - the data of the event
+     */
+    private void assertHeld(SeatHold seatHold, String data) throws Exception {
+
+        List<SeatMapDelta> deltas = Arrays.asList(objectMapper.readValue(data, SeatMapDelta[].class));
+        Assert.assertEquals(seatHold.getSeats().size(), deltas.size());
+
+        for(SeatMapDelta delta : deltas) {
+            Assert.assertEquals(seatHold.getSeats().get(delta.getRowId()), delta.getHeld());
+            Assert.assertTrue(delta.getFree().isEmpty());
+            Assert.assertTrue(delta.getReserved().isEmpty());
+        }
+    }
+
+    /**
+     * Split a Server-Sent Events stream into its events
+     *
+     * @param stream - the stream
+     * @return the ID, name and data of each event
+     */
+    private static List<String[]> parseEvents(String stream) {
+
+        List<String[]> events = new ArrayList<>();
+
+        for(String block : stream.split("\n\n")) {
+            if(block.trim().isEmpty()) {
+                continue;
+            }
+            String[] event = new String[3];
+            for(String line : block.split("\n")) {
+                if(line.startsWith("id:")) {
+                    event[0] = line.substring(3);
+                } else if(line.startsWith("event:")) {
+                    event[1] = line.substring(6);
+                } else if(line.startsWith("data:")) {
+                    event[2] = line.substring(5);
+                }
+            }
+            events.add(event);
+        }
+
+        return events;
+    }
+}
@@ -0,0 +1,81 @@
+package com.mukundsankaran.bookit;
+
+import com.mukundsankaran.bookit.config.BookItProperties;
+import com.mukundsankaran.bookit.model.CacheName;
+import com.mukundsankaran.bookit.model.Row;
+import com.mukundsankaran.bookit.model.SeatHold;
+import com.mukundsankaran.bookit.model.SeatMap;
+import com.mukundsankaran.bookit.model.SeatMapRow;
+import com.mukundsankaran.bookit.service.SeatMapService;
+import com.mukundsankaran.bookit.service.TicketService;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(locations = "classpath:application-test.properties")
+public class SeatMapTests {
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private SeatMapService seatMapService;
+
+    @Autowired
+    private BookItProperties bookItProperties;
+
+    @Autowired
+    private Ignite ignite;
+
+    @Test
+    public void testSeatMapSnapshot() {
+
+        SeatMap initialSeatMap = seatMapService.getSeatMap(null);
+
+        // Check if the initial snapshot contains every row
+        Assert.assertTrue(initialSeatMap.isComplete());
+        Assert.assertEquals(bookItProperties.getVenue().getNumRows(), initialSeatMap.getRows().size());
+
+        SeatHold seatHold = ticketService.findAndHoldSeats(2, "abc@gmail.com");
+        Assert.assertNotNull(seatHold);
+        int rowId = seatHold.getSeats().keySet().iterator().next();
+        applyRowUpdate(rowId);
+
+        // Check if only the row containing the held seats changed, and both its seats are held
+        SeatMap seatMap = seatMapService.getSeatMap(initialSeatMap.getVersion());
+        Assert.assertFalse(seatMap.isComplete());
+        Assert.assertEquals(1, seatMap.getRows().size());
+        SeatMapRow row = seatMap.getRows().get(0);
+        Assert.assertEquals(Integer.valueOf(rowId), row.getRowId());
+        Assert.assertEquals(0b0101, row.getSeats()[0]);
+
+        // Check if an update already applied does not change the seat map again
+        applyRowUpdate(rowId);
+        Assert.assertTrue(seatMapService.getSeatMap(seatMap.getVersion()).getRows().isEmpty());
+
+        // Check if a version issued elsewhere gets a complete snapshot
+        Assert.assertTrue(seatMapService.getSeatMap("unknown-1").isComplete());
+    }
+
+    /**
+     * Hand the current state of a row to the seat map, as its continuous query does when the row changes. Updates
+     * the query delivers later find nothing left to change.
+     *
+     * @param rowId - the row
+     */
+    private void applyRowUpdate(int rowId) {
+        IgniteCache<Integer, Row> rowCache = ignite.cache(CacheName.ROWS.name());
+        ReflectionTestUtils.invokeMethod(seatMapService, "onRowUpdated", rowCache.get(rowId));
+    }
+}
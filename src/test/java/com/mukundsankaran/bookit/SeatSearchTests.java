@@ -0,0 +1,175 @@
+package com.mukundsankaran.bookit;
+
+import com.mukundsankaran.bookit.allocation.AvailabilityBuffer;
+import com.mukundsankaran.bookit.allocation.SeatAllocationStrategies;
+import com.mukundsankaran.bookit.grid.FillFreeSeatsProcessor;
+import com.mukundsankaran.bookit.grid.FillSeatsProcessor;
+import com.mukundsankaran.bookit.grid.FindAvailableSeatsJob;
+import com.mukundsankaran.bookit.grid.GridCaches;
+import com.mukundsankaran.bookit.model.CacheName;
+import com.mukundsankaran.bookit.model.EventDefinition;
+import com.mukundsankaran.bookit.model.Row;
+import com.mukundsankaran.bookit.model.RowAvailability;
+import com.mukundsankaran.bookit.model.SeatAllocation;
+import com.mukundsankaran.bookit.model.SeatState;
+import com.mukundsankaran.bookit.model.VenueDefinition;
+import com.mukundsankaran.bookit.service.TicketService;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.CachePeekMode;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(locations = "classpath:application-test.properties")
+public class SeatSearchTests {
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private VenueDefinition venueDefinition;
+
+    @Autowired
+    private GridCaches gridCaches;
+
+    @Autowired
+    private Ignite ignite;
+
+    @Test
+    public void testShortHoldRolledBack() {
+
+        EventDefinition event = venueDefinition.getDefaultEvent();
+        IgniteCache<Integer, Row> rowCache = gridCaches.get(CacheName.ROWS);
+        int numSeatsAvailable = ticketService.numSeatsAvailable();
+
+        // Fill every row but the first behind the event's back, so the event counts seats the rows no longer have
+        for(int rowId = event.getFirstRowId() + 1; rowId < event.getFirstRowId() + event.getNumRows(); rowId++) {
+            Assert.assertTrue(rowCache.invoke(rowId, new FillSeatsProcessor(0, event.getSeatsInRow(rowId))));
+        }
+
+        int seatsInFirstRow = event.getSeatsInRow(event.getFirstRowId());
+        Assert.assertNull(ticketService.findAndHoldSeats(seatsInFirstRow + 1, "abc@gmail.com"));
+
+        // The seats filled before running out are freed again, and the event is left as it was
+        Assert.assertEquals(seatsInFirstRow, rowCache.get(event.getFirstRowId()).getFreeSeats());
+        Assert.assertEquals(numSeatsAvailable, ticketService.numSeatsAvailable());
+
+        // A hold the rows can seat is placed
+        Assert.assertNotNull(ticketService.findAndHoldSeats(seatsInFirstRow, "abc@gmail.com"));
+        Assert.assertEquals(numSeatsAvailable - seatsInFirstRow, ticketService.numSeatsAvailable());
+    }
+
+    @Test
+    public void testFindAvailableSeatsJob() {
+
+        EventDefinition event = venueDefinition.getDefaultEvent();
+        IgniteCache<Integer, Row> rowCache = gridCaches.get(CacheName.ROWS);
+
+        int fullRowId = event.getFirstRowId();
+        int aisleRowId = event.getFirstRowId() + 1;
+        int unloadedRowId = event.getFirstRowId() + 2;
+
+        Assert.assertTrue(rowCache.invoke(fullRowId, new FillSeatsProcessor(0, event.getSeatsInRow(fullRowId))));
+        rowCache.put(aisleRowId, new Row(aisleRowId, "SS|SS"));
+
+        // A row dropped from memory is loaded again by the search
+        rowCache.get(unloadedRowId);
+        rowCache.clear(unloadedRowId);
+        Assert.assertNull(rowCache.localPeek(unloadedRowId, CachePeekMode.PRIMARY));
+
+        Map<Integer, RowAvailability> availability = findAvailableSeats(event, 3);
+
+        // Full rows are left out of the search
+        Assert.assertFalse(availability.containsKey(fullRowId));
+        Assert.assertEquals(event.getNumRows() - 1, availability.size());
+
+        // A group never sits across an aisle
+        RowAvailability aisleRow = availability.get(aisleRowId);
+        Assert.assertEquals(4, aisleRow.getFreeSeats());
+        Assert.assertEquals(-1, aisleRow.getSequenceStart());
+        Assert.assertEquals(2, aisleRow.getLargestRun());
+
+        RowAvailability unloadedRow = availability.get(unloadedRowId);
+        Assert.assertEquals(event.getSeatsInRow(unloadedRowId), unloadedRow.getFreeSeats());
+        Assert.assertNotNull(rowCache.localPeek(unloadedRowId, CachePeekMode.PRIMARY));
+
+        // A group that fits one side of the aisle sits there, the summaries of the previous search are reused
+        Assert.assertEquals(0, findAvailableSeats(event, 2).get(aisleRowId).getSequenceStart());
+    }
+
+    @Test
+    public void testFillSeatsProcessor() {
+
+        int rowId = venueDefinition.getDefaultEvent().getFirstRowId();
+        IgniteCache<Integer, Row> rowCache = gridCaches.get(CacheName.ROWS);
+        rowCache.put(rowId, new Row(rowId, "SS|SS"));
+
+        // Seats either side of an aisle are not a sequence
+        Assert.assertFalse(rowCache.invoke(rowId, new FillSeatsProcessor(1, 2)));
+        Assert.assertEquals(4, rowCache.get(rowId).getFreeSeats());
+
+        Assert.assertTrue(rowCache.invoke(rowId, new FillSeatsProcessor(2, 2)));
+        Row row = rowCache.get(rowId);
+        Assert.assertEquals(2, row.getFreeSeats());
+        Assert.assertEquals(SeatState.HELD, row.getSeat(2).getState());
+        Assert.assertEquals(SeatState.HELD, row.getSeat(3).getState());
+
+        // Seats taken since the search are not filled again
+        Assert.assertFalse(rowCache.invoke(rowId, new FillSeatsProcessor(1, 2)));
+        Assert.assertEquals(2, rowCache.get(rowId).getFreeSeats());
+    }
+
+    @Test
+    public void testFillFreeSeatsProcessor() {
+
+        int rowId = venueDefinition.getDefaultEvent().getFirstRowId();
+        IgniteCache<Integer, Row> rowCache = gridCaches.get(CacheName.ROWS);
+        rowCache.put(rowId, new Row(rowId, "SS|SS"));
+        Assert.assertTrue(rowCache.invoke(rowId, new FillSeatsProcessor(1, 1)));
+
+        // Fill part of a request, in seat order, as far as the row has free seats. Seats come back as runs of a first
+        // seat and a number of seats.
+        Assert.assertArrayEquals(new int[] {0, 1, 2, 1}, rowCache.invoke(rowId, new FillFreeSeatsProcessor(2)));
+        Assert.assertArrayEquals(new int[] {3, 1}, rowCache.invoke(rowId, new FillFreeSeatsProcessor(5)));
+        Assert.assertEquals(0, rowCache.get(rowId).getFreeSeats());
+
+        // A full row fills nothing
+        Assert.assertEquals(0, rowCache.invoke(rowId, new FillFreeSeatsProcessor(1)).length);
+
+        // Consecutive seats come back as a single run
+        rowCache.put(rowId, new Row(rowId, "SS|SS"));
+        Assert.assertArrayEquals(new int[] {0, 3}, rowCache.invoke(rowId, new FillFreeSeatsProcessor(3)));
+    }
+
+    /**
+     * Search every node for the rows of an event with free seats, as the ticket service does. The summaries are only
+     * valid until the next search.
+     */
+    private Map<Integer, RowAvailability> findAvailableSeats(EventDefinition event, int numSeats) {
+
+        AvailabilityBuffer buffer = AvailabilityBuffer.forThread();
+        for(int[] result : ignite.compute(gridCaches.dataNodes(CacheName.ROWS)).broadcast(new FindAvailableSeatsJob(
+                event.getFirstRowId(), event.getNumRows(), numSeats, SeatAllocationStrategies.get(SeatAllocation.FRONT_FIRST)))) {
+            buffer.unpack(result);
+        }
+
+        Map<Integer, RowAvailability> availability = new HashMap<>();
+        for(RowAvailability row : buffer.getAvailability()) {
+            availability.put(row.getRowId(), row);
+        }
+
+        return availability;
+    }
+}
@@ -1,8 +1,16 @@
 package com.mukundsankaran.bookit;
 
 import com.mukundsankaran.bookit.config.BookItProperties;
+import com.mukundsankaran.bookit.grid.FreeSeatsProcessor;
+import com.mukundsankaran.bookit.model.CacheName;
+import com.mukundsankaran.bookit.model.CustomerClass;
+import com.mukundsankaran.bookit.model.HoldRequest;
+import com.mukundsankaran.bookit.model.Row;
 import com.mukundsankaran.bookit.model.SeatHold;
+import com.mukundsankaran.bookit.model.SeatState;
 import com.mukundsankaran.bookit.service.TicketService;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -11,6 +19,12 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest
@@ -24,6 +38,9 @@ public class TicketserviceApplicationTests {
     @Autowired
     private BookItProperties bookItProperties;
 
+    @Autowired
+    private Ignite ignite;
+
 	@Test
 	public void contextLoads() {
 
@@ -95,4 +112,131 @@ public class TicketserviceApplicationTests {
         Assert.assertNull(reservationIdDuplicate);
     }
 
+    @Test
+    public void testContiguousSeatPositions(){
+
+        String customerEmail = "abc@gmail.com";
+
+        SeatHold seatHold = ticketService.findAndHoldSeats(2, customerEmail);
+
+        // Check if the returned SeatHold is not null
+        Assert.assertNotNull(seatHold);
+
+        // Check if both seats were assigned next to each other within a single row
+        Assert.assertEquals(1, seatHold.getSeats().size());
+        List<Integer> seats = seatHold.getSeats().values().iterator().next();
+        Assert.assertEquals(Arrays.asList(0, 1), seats);
+    }
+
+    @Test
+    public void testRowsLoadedOnDemand(){
+
+        // Drop the rows from memory, as if they had been evicted
+        IgniteCache<Integer, Row> rowCache = ignite.cache(CacheName.ROWS.name());
+        rowCache.clear();
+        Assert.assertEquals(0, rowCache.size());
+
+        SeatHold seatHold = ticketService.findAndHoldSeats(2, "abc@gmail.com");
+
+        // Check if the rows were loaded again to serve the hold
+        Assert.assertNotNull(seatHold);
+        Assert.assertEquals(bookItProperties.getVenue().getNumRows(), rowCache.size());
+    }
+
+    @Test
+    public void testExpireHolds(){
+
+        int numSeatsBeforeHold = ticketService.numSeatsAvailable();
+
+        SeatHold seatHold = ticketService.findAndHoldSeats(4, "abc@gmail.com");
+        Assert.assertNotNull(seatHold);
+        Assert.assertEquals(numSeatsBeforeHold - 4, ticketService.numSeatsAvailable());
+
+        // Back-date the hold so that it has expired, and run the expiry sweep
+        IgniteCache<Integer, SeatHold> holdCache = ignite.cache(CacheName.HOLDS.name());
+        seatHold.setHoldTime(0L);
+        holdCache.put(seatHold.getId(), seatHold);
+        ReflectionTestUtils.invokeMethod(ticketService, "expireHolds");
+
+        // Check if the hold was removed and its seats were returned
+        Assert.assertFalse(holdCache.containsKey(seatHold.getId()));
+        Assert.assertEquals(numSeatsBeforeHold, ticketService.numSeatsAvailable());
+
+        // Check if the seats can be held again
+        Assert.assertNotNull(ticketService.findAndHoldSeats(4, "abc@gmail.com"));
+    }
+
+    @Test
+    public void testIdempotentRequests() {
+
+        int numSeatsAvailable = ticketService.numSeatsAvailable();
+
+        HoldRequest holdRequest = new HoldRequest(2, "abc@gmail.com");
+        holdRequest.setRequestId("hold-1");
+
+        // Check if a retried hold returns the original hold without holding more seats
+        SeatHold hold = ticketService.findAndHoldSeats(holdRequest);
+        SeatHold retriedHold = ticketService.findAndHoldSeats(holdRequest);
+        Assert.assertNotNull(hold);
+        Assert.assertEquals(hold.getId(), retriedHold.getId());
+        Assert.assertEquals(numSeatsAvailable - 2, ticketService.numSeatsAvailable());
+
+        // Check if a retried reservation returns the original confirmation code
+        String reservationId = ticketService.reserveSeats(hold.getId(), "abc@gmail.com", "reserve-1");
+        Assert.assertNotNull(reservationId);
+        Assert.assertEquals(reservationId, ticketService.reserveSeats(hold.getId(), "abc@gmail.com", "reserve-1"));
+
+        // A new request is not a retry
+        Assert.assertNull(ticketService.reserveSeats(hold.getId(), "abc@gmail.com", "reserve-2"));
+    }
+
+    @Test
+    public void testReservedSeatState() {
+
+        SeatHold seatHold = ticketService.findAndHoldSeats(3, "abc@gmail.com");
+
+        // Only the customer who made the hold can reserve it
+        Assert.assertNull(ticketService.reserveSeats(seatHold.getId(), "xyz@gmail.com"));
+        Assert.assertNotNull(ticketService.reserveSeats(seatHold.getId(), "abc@gmail.com"));
+
+        // Check if the held seats were turned into reserved seats, which are never freed
+        IgniteCache<Integer, Row> rowCache = ignite.cache(CacheName.ROWS.name());
+        for(Map.Entry<Integer, List<Integer>> rowSeats : seatHold.getSeats().entrySet()) {
+            Row row = rowCache.get(rowSeats.getKey());
+            for(int seatId : rowSeats.getValue()) {
+                Assert.assertEquals(SeatState.RESERVED, row.getSeat(seatId).getState());
+            }
+            Assert.assertEquals(Integer.valueOf(0), rowCache.invoke(rowSeats.getKey(), new FreeSeatsProcessor(rowSeats.getValue())));
+        }
+    }
+
+    @Test
+    public void testHoldExpiryByCustomerClass() {
+
+        HoldRequest vipRequest = new HoldRequest(2, "vip@gmail.com");
+        vipRequest.setCustomerClass(CustomerClass.VIP);
+
+        SeatHold generalHold = ticketService.findAndHoldSeats(new HoldRequest(2, "abc@gmail.com"));
+        SeatHold vipHold = ticketService.findAndHoldSeats(vipRequest);
+
+        // Check if each hold lasts as long as its customer class allows
+        Assert.assertEquals(CustomerClass.GENERAL, generalHold.getCustomerClass());
+        Assert.assertEquals(Long.valueOf(TimeUnit.MINUTES.toMillis(1)), generalHold.getExpiryTimeInMillis());
+        Assert.assertEquals(CustomerClass.VIP, vipHold.getCustomerClass());
+        Assert.assertEquals(Long.valueOf(TimeUnit.MINUTES.toMillis(10)), vipHold.getExpiryTimeInMillis());
+
+        // Five minutes on, only the general hold has expired
+        IgniteCache<Integer, SeatHold> holdCache = ignite.cache(CacheName.HOLDS.name());
+        long fiveMinutesAgo = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(5);
+        generalHold.setHoldTime(fiveMinutesAgo);
+        vipHold.setHoldTime(fiveMinutesAgo);
+        holdCache.put(generalHold.getId(), generalHold);
+        holdCache.put(vipHold.getId(), vipHold);
+
+        ReflectionTestUtils.invokeMethod(ticketService, "expireHolds");
+
+        Assert.assertFalse(holdCache.containsKey(generalHold.getId()));
+        Assert.assertTrue(holdCache.containsKey(vipHold.getId()));
+    }
+
 }
@@ -0,0 +1,121 @@
+package com.mukundsankaran.bookit;
+
+import com.mukundsankaran.bookit.config.BookItProperties;
+import com.mukundsankaran.bookit.grid.AdjustSeatsAvailableProcessor;
+import com.mukundsankaran.bookit.grid.GridCaches;
+import com.mukundsankaran.bookit.model.CacheName;
+import com.mukundsankaran.bookit.model.Event;
+import com.mukundsankaran.bookit.model.VenueDefinition;
+import com.mukundsankaran.bookit.service.TransactionExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.transactions.TransactionOptimisticException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(locations = "classpath:application-test.properties")
+public class TransactionExecutorTests {
+
+    @Autowired
+    private TransactionExecutor transactionExecutor;
+
+    @Autowired
+    private BookItProperties bookItProperties;
+
+    @Autowired
+    private VenueDefinition venueDefinition;
+
+    @Autowired
+    private GridCaches gridCaches;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void testRetryOnConflict() {
+
+        // Reservations run in optimistic serializable transactions in the tests
+        Assert.assertEquals("optimistic", bookItProperties.getTransactions().getReserve().getConcurrency());
+
+        double attempts = count("bookit.transactions.attempts");
+        double conflicts = count("bookit.transactions.conflicts");
+        double exhausted = count("bookit.transactions.exhausted");
+
+        // Only the first attempt has its event changed underneath it
+        AtomicInteger runs = new AtomicInteger();
+        String result = transactionExecutor.execute(TransactionExecutor.Operation.RESERVE, tx -> {
+            updateEvent(runs.incrementAndGet() == 1);
+            tx.commit();
+            return "committed";
+        });
+
+        Assert.assertEquals("committed", result);
+        Assert.assertEquals(2, runs.get());
+        Assert.assertEquals(attempts + 2, count("bookit.transactions.attempts"), 0);
+        Assert.assertEquals(conflicts + 1, count("bookit.transactions.conflicts"), 0);
+        Assert.assertEquals(exhausted, count("bookit.transactions.exhausted"), 0);
+    }
+
+    @Test
+    public void testRetriesExhausted() {
+
+        int maxRetries = bookItProperties.getTransactions().getReserve().getMaxRetries();
+
+        double attempts = count("bookit.transactions.attempts");
+        double conflicts = count("bookit.transactions.conflicts");
+        double exhausted = count("bookit.transactions.exhausted");
+
+        // Every attempt has its event changed underneath it
+        AtomicInteger runs = new AtomicInteger();
+        try {
+            transactionExecutor.execute(TransactionExecutor.Operation.RESERVE, tx -> {
+                runs.incrementAndGet();
+                updateEvent(true);
+                tx.commit();
+                return null;
+            });
+            Assert.fail("The transaction should have run out of retries");
+        } catch(TransactionOptimisticException e) {
+            // Expected
+        }
+
+        Assert.assertEquals(maxRetries + 1, runs.get());
+        Assert.assertEquals(attempts + maxRetries + 1, count("bookit.transactions.attempts"), 0);
+        Assert.assertEquals(conflicts + maxRetries + 1, count("bookit.transactions.conflicts"), 0);
+        Assert.assertEquals(exhausted + 1, count("bookit.transactions.exhausted"), 0);
+    }
+
+    /**
+     * Read and write the default event in the current transaction
+     *
+     * @param conflict - whether another transaction changes the event in between, so the current one cannot commit
+     */
+    private void updateEvent(boolean conflict) {
+
+        IgniteCache<Long, Event> eventCache = gridCaches.get(CacheName.EVENTS);
+        Long eventId = venueDefinition.getDefaultEvent().getId();
+        Event event = eventCache.get(eventId);
+
+        if(conflict) {
+            CompletableFuture.runAsync(() -> eventCache.invoke(eventId, new AdjustSeatsAvailableProcessor(0))).join();
+        }
+
+        eventCache.put(eventId, event);
+    }
+
+    private double count(String name) {
+        return meterRegistry.counter(name, "operation", "reserve").count();
+    }
+}
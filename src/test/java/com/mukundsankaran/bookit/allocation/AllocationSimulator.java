@@ -0,0 +1,301 @@
+package com.mukundsankaran.bookit.allocation;
+
+import com.mukundsankaran.bookit.model.Row;
+import com.mukundsankaran.bookit.model.RowAvailability;
+import com.mukundsankaran.bookit.model.SeatAllocation;
+import com.mukundsankaran.bookit.model.SeatState;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Created by mukund on 4/26/18.
+ *
+ * Simulates a sale against rows in memory, to compare how well each strategy keeps groups together and how long it
+ * takes to choose seats and how much memory choosing them allocates. Groups of random size hold seats until the venue
+ * is full, and some holds expire along the way, which is what fragments rows. Every strategy sees the same groups in
+ * the same order.
+ *
+ * Run from the command line, after "mvn test-compile", with the number of rows, seats per row and the random seed:
+ *
+ * java -cp target/classes:target/test-classes com.mukundsankaran.bookit.allocation.AllocationSimulator 50 40 42
+ */
+public final class AllocationSimulator {
+
+    /**
+     * Largest group in the simulation
+     */
+    private static final int MAX_GROUP_SIZE = 8;
+
+    /**
+     * Chance that a hold expires before the next group arrives
+     */
+    private static final double EXPIRY_RATE = 0.2;
+
+    /**
+     * Share of the sale, counted from the end, in which late groups are measured
+     */
+    private static final double LATE_SALE = 0.25;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private AllocationSimulator() {
+        // No op
+    }
+
+    /**
+     * Simulate a sale with a strategy
+     *
+     * @param strategy - the strategy that chooses the seats
+     * @param numRows - number of rows in the venue
+     * @param seatsInRow - number of seats in each row
+     * @param seed - seed of the random groups and expiries
+     * @return the outcome of the sale
+     */
+    public static Result simulate(SeatAllocationStrategy strategy, int numRows, int seatsInRow, long seed) {
+
+        Random random = new Random(seed);
+        Row[] rows = new Row[numRows];
+        for(int rowId = 0; rowId < numRows; rowId++) {
+            rows[rowId] = new Row(rowId, seatsInRow);
+        }
+
+        int capacity = numRows * seatsInRow;
+        int freeSeats = capacity;
+        List<int[]> holds = new ArrayList<>();
+        Result result = new Result();
+
+        while(freeSeats > 0) {
+
+            // Release a random hold
+            if(!holds.isEmpty() && random.nextDouble() < EXPIRY_RATE) {
+                int[] released = holds.remove(random.nextInt(holds.size()));
+                for(int seat = 0; seat < released.length; seat += 2) {
+                    Row row = rows[released[seat]];
+                    row.getSeat(released[seat + 1]).setState(SeatState.FREE);
+                    row.setFreeSeats(row.getFreeSeats() + 1);
+                    freeSeats++;
+                }
+            }
+
+            int numSeats = Math.min(1 + random.nextInt(MAX_GROUP_SIZE), freeSeats);
+            boolean late = freeSeats <= capacity * LATE_SALE;
+
+            // Measure how broken up the venue is as the late sale starts
+            if(late && result.lateGroups == 0) {
+                measureFragmentation(rows, result);
+            }
+
+            int[] hold = new int[2 * numSeats];
+
+            long startBytes = allocatedBytes();
+            long startTime = System.nanoTime();
+            allocate(strategy, rows, numSeats, hold);
+            result.allocationTimeInNanos += System.nanoTime() - startTime;
+            result.allocatedBytes += allocatedBytes() - startBytes;
+
+            holds.add(hold);
+            freeSeats -= numSeats;
+
+            boolean contiguous = isContiguous(hold);
+            result.groups++;
+            result.contiguousGroups += contiguous ? 1 : 0;
+            if(late) {
+                result.lateGroups++;
+                result.lateContiguousGroups += contiguous ? 1 : 0;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Choose seats for a group the way the ticket service does, contiguously if possible and row by row otherwise
+     *
+     * @param hold - filled with the row and position of each seat held, one pair after another
+     */
+    private static void allocate(SeatAllocationStrategy strategy, Row[] rows, int numSeats, int[] hold) {
+
+        AvailabilityBuffer buffer = AvailabilityBuffer.forThread();
+        for(Row row : rows) {
+            if(row.getFreeSeats() > 0) {
+                buffer.add(row, numSeats, strategy);
+            }
+        }
+
+        List<RowAvailability> availability = buffer.getAvailability();
+        strategy.orderRows(availability, numSeats);
+
+        for(RowAvailability candidate : availability) {
+            if(candidate.getSequenceStart() >= 0) {
+                Row row = rows[candidate.getRowId()];
+                for(int seat = 0; seat < numSeats; seat++) {
+                    row.getSeat(candidate.getSequenceStart() + seat).setState(SeatState.HELD);
+                    hold[2 * seat] = candidate.getRowId();
+                    hold[2 * seat + 1] = candidate.getSequenceStart() + seat;
+                }
+                row.setFreeSeats(row.getFreeSeats() - numSeats);
+                return;
+            }
+        }
+
+        int seat = 0;
+        for(RowAvailability candidate : availability) {
+            Row row = rows[candidate.getRowId()];
+            for(int seatId = row.nextEmptySeat(0); seatId >= 0 && seat < numSeats; seatId = row.nextEmptySeat(seatId + 1)) {
+                row.getSeat(seatId).setState(SeatState.HELD);
+                row.setFreeSeats(row.getFreeSeats() - 1);
+                hold[2 * seat] = candidate.getRowId();
+                hold[2 * seat + 1] = seatId;
+                seat++;
+            }
+            if(seat == numSeats) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Read the allocation counter of the current thread. Only HotSpot based JVMs count allocations per thread.
+     *
+     * @return the bytes allocated by this thread so far, or 0 if the JVM does not count them
+     */
+    public static long allocatedBytes() {
+
+        if(THREADS instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+            if(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+
+        return 0;
+    }
+
+    private static void measureFragmentation(Row[] rows, Result result) {
+
+        int emptySeats = 0;
+        int largestRuns = 0;
+        GapHistogram gaps = new GapHistogram();
+
+        for(Row row : rows) {
+            gaps.count(row);
+            emptySeats += gaps.getEmptySeats();
+            largestRuns += gaps.getLargestRun();
+            result.lateOrphanedSeats += gaps.getOrphanedSeats();
+        }
+
+        result.lateFragmentation = Fragmentation.of(largestRuns, emptySeats);
+    }
+
+    private static boolean isContiguous(int[] hold) {
+
+        for(int seat = 1; seat < hold.length / 2; seat++) {
+            if(hold[2 * seat] != hold[0] || hold[2 * seat + 1] != hold[1] + seat) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public static void main(String[] args) {
+
+        if(args.length != 3) {
+            System.err.println("Usage: AllocationSimulator <rows> <seats per row> <seed>");
+            System.exit(1);
+        }
+
+        int numRows = Integer.parseInt(args[0]);
+        int seatsInRow = Integer.parseInt(args[1]);
+        long seed = Long.parseLong(args[2]);
+
+        for(SeatAllocation seatAllocation : SeatAllocation.values()) {
+            SeatAllocationStrategy strategy = SeatAllocationStrategies.get(seatAllocation);
+
+            // Warm up before measuring
+            for(int run = 0; run < 5; run++) {
+                simulate(strategy, numRows, seatsInRow, seed + run + 1);
+            }
+
+            System.out.println(seatAllocation + ": " + simulate(strategy, numRows, seatsInRow, seed));
+        }
+    }
+
+    /**
+     * The outcome of a simulated sale
+     */
+    public static final class Result {
+
+        private int groups;
+
+        private int contiguousGroups;
+
+        private int lateGroups;
+
+        private int lateContiguousGroups;
+
+        private long allocationTimeInNanos;
+
+        private long allocatedBytes;
+
+        private double lateFragmentation;
+
+        private int lateOrphanedSeats;
+
+        public int getGroups() {
+            return groups;
+        }
+
+        /**
+         * @return the share of groups seated together in one row
+         */
+        public double getContiguousFitRate() {
+            return groups == 0 ? 1 : (double) contiguousGroups / groups;
+        }
+
+        /**
+         * @return the share of groups seated together in one row, in the last quarter of the sale
+         */
+        public double getLateContiguousFitRate() {
+            return lateGroups == 0 ? 1 : (double) lateContiguousGroups / lateGroups;
+        }
+
+        /**
+         * @return the fragmentation of the venue as the last quarter of the sale starts, see Fragmentation
+         */
+        public double getLateFragmentation() {
+            return lateFragmentation;
+        }
+
+        /**
+         * @return the number of orphaned seats as the last quarter of the sale starts
+         */
+        public int getLateOrphanedSeats() {
+            return lateOrphanedSeats;
+        }
+
+        /**
+         * @return the mean time taken to choose seats for a group
+         */
+        public long getNanosPerAllocation() {
+            return groups == 0 ? 0 : allocationTimeInNanos / groups;
+        }
+
+        /**
+         * @return the mean memory allocated choosing seats for a group, 0 if the JVM does not count it
+         */
+        public long getBytesPerAllocation() {
+            return groups == 0 ? 0 : allocatedBytes / groups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("groups=%d, contiguousFitRate=%.3f, lateContiguousFitRate=%.3f, lateFragmentation=%.3f, lateOrphanedSeats=%d, nanosPerAllocation=%d, bytesPerAllocation=%d",
+                    groups, getContiguousFitRate(), getLateContiguousFitRate(), lateFragmentation, lateOrphanedSeats, getNanosPerAllocation(), getBytesPerAllocation());
+        }
+    }
+}
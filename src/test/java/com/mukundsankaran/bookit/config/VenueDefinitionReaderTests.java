@@ -0,0 +1,93 @@
+package com.mukundsankaran.bookit.config;
+
+import com.mukundsankaran.bookit.model.EventDefinition;
+import com.mukundsankaran.bookit.model.Row;
+import com.mukundsankaran.bookit.model.SeatAllocation;
+import com.mukundsankaran.bookit.model.VenueDefinition;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class VenueDefinitionReaderTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testReadJson() throws IOException {
+
+        // Rows before the id and name, and fields the reader does not know, nested or not
+        VenueDefinition venue = VenueDefinitionReader.read(write("venue.json", "{\"venue\": {\"name\": \"hall\"}, \"events\": [" +
+                "{\"rows\": [\"SS|SS\", 3], \"notes\": {\"rows\": [1, 2]}, \"id\": 1, \"name\": \"sample\", \"seatAllocation\": \"best_fit\"}," +
+                "{\"id\": 2, \"name\": \"matinee\", \"holdExpiryTimeInMinutes\": 5, \"tags\": [\"a\", [\"b\"]], \"rows\": [4]}]}"));
+
+        Assert.assertEquals(2, venue.getEvents().size());
+
+        EventDefinition event = venue.getEvent(1);
+        Assert.assertEquals("sample", event.getName());
+        Assert.assertEquals(SeatAllocation.BEST_FIT, event.getSeatAllocation());
+        Assert.assertNull(event.getHoldExpiryTimeInMinutes());
+        Assert.assertEquals(2, event.getNumRows());
+        Assert.assertEquals(4, event.getSeatsInRow(1));
+        Assert.assertEquals(3, event.getSeatsInRow(2));
+        Assert.assertEquals(-1, event.createRow(1).findSequenceStart(3));
+
+        // Rows are numbered on from the rows of the events before
+        EventDefinition matinee = venue.getEvent(2);
+        Assert.assertEquals(3, matinee.getFirstRowId());
+        Assert.assertEquals(Integer.valueOf(5), matinee.getHoldExpiryTimeInMinutes());
+        Assert.assertEquals(4, matinee.getSeatsInRow(3));
+    }
+
+    @Test
+    public void testReadCsv() throws IOException {
+
+        VenueDefinition venue = VenueDefinitionReader.read(write("venue.csv",
+                "# The main hall\nevent,1,sample\nallocation,center_out\nrow,AA..SS\nrow,2\nevent,2,matinee\nrow,SSS\n"));
+
+        EventDefinition event = venue.getEvent(1);
+        Assert.assertEquals(SeatAllocation.CENTER_OUT, event.getSeatAllocation());
+        Assert.assertEquals(2, event.getNumRows());
+
+        // Accessible seats are seats like any other, marked as accessible
+        Row row = event.createRow(1);
+        Assert.assertEquals(4, row.getFreeSeats());
+        Assert.assertTrue(row.getSeat(0).isAccessible());
+        Assert.assertFalse(row.getSeat(2).isAccessible());
+
+        Assert.assertEquals(3, venue.getEvent(2).getFirstRowId());
+    }
+
+    @Test
+    public void testInvalidEvents() throws IOException {
+
+        assertInvalid("missing-id.json", "{\"events\": [{\"name\": \"sample\", \"rows\": [2]}]}", "needs an id and a name");
+        assertInvalid("no-rows.json", "{\"events\": [{\"id\": 1, \"name\": \"sample\", \"rows\": []}]}", "needs at least one row");
+        assertInvalid("object-row.json", "{\"events\": [{\"id\": 1, \"name\": \"sample\", \"rows\": [{\"seats\": 2}]}]}", "A row needs to be");
+        assertInvalid("bad-layout.csv", "event,1,sample\nrow,SSX\n", "bad-layout.csv:2");
+    }
+
+    private void assertInvalid(String fileName, String content, String message) throws IOException {
+
+        File file = write(fileName, content);
+
+        try {
+            VenueDefinitionReader.read(file);
+            Assert.fail(fileName + " should not have been read");
+        } catch(IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains(message));
+        }
+    }
+
+    private File write(String fileName, String content) throws IOException {
+        File file = folder.newFile(fileName);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}